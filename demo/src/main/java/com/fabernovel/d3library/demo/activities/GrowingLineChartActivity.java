@@ -16,9 +16,9 @@
 
 package com.fabernovel.d3library.demo.activities;
 
-import android.animation.ValueAnimator;
 import android.app.Activity;
 import android.os.Bundle;
+import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
@@ -28,9 +28,10 @@ import com.fabernovel.d3library.axes.AxisOrientation;
 import com.fabernovel.d3library.axes.D3Axis;
 import com.fabernovel.d3library.axes.D3FloatFunction;
 import com.fabernovel.d3library.axes.HorizontalAlignment;
+import com.fabernovel.d3library.line.D3DataStream;
 import com.fabernovel.d3library.line.D3Line;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
-import com.fabernovel.d3library.scale.D3Converter;
+import com.fabernovel.d3library.scale.D3DoubleConverter;
 import com.fabernovel.d3library.scale.D3LabelFunction;
 
 import org.joda.time.DateTime;
@@ -43,9 +44,31 @@ public class GrowingLineChartActivity extends Activity {
     private static final int FRUIT_NUMBER = 3;
     private static final int DEFAULT_DATA_NUMBER = 150;
     private static final int ANIMATION_TIME = 2500;
+    private static final long SAMPLE_DELAY = ANIMATION_TIME / DEFAULT_DATA_NUMBER;
 
     @BindView(R.id.d3view) D3View view;
 
+    @NonNull private final Handler handler = new Handler();
+    @NonNull private final D3DataStream<Sales> sales = new D3DataStream<>(DEFAULT_DATA_NUMBER);
+    @NonNull private final DateTime firstDay = new DateTime();
+    private int appendedSales;
+
+    /* Appends a day of sales at each sample, so only the new point is projected. */
+    @NonNull private final Runnable appendSales = new Runnable() {
+        @Override public void run() {
+            appendedSales++;
+            sales.append(new Sales(
+                firstDay.plusDays(appendedSales),
+                (int) (Math.random() * MAXIMUM_SALES),
+                (int) (Math.random() * MAXIMUM_SALES),
+                (int) (Math.random() * MAXIMUM_SALES)
+            ));
+            if (appendedSales < DEFAULT_DATA_NUMBER) {
+                handler.postDelayed(this, SAMPLE_DELAY);
+            }
+        }
+    };
+
     @Override protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.demo_activity);
@@ -58,8 +81,7 @@ public class GrowingLineChartActivity extends Activity {
         final D3Axis<DateTime> timeAxis =
             new D3Axis<DateTime>(AxisOrientation.BOTTOM)
                 .domain(new DateTime[]{
-                    new DateTime().plusDays(DEFAULT_DATA_NUMBER / 3),
-                    new DateTime().plusDays(DEFAULT_DATA_NUMBER * 2 / 3)
+                    firstDay.plusDays(1), firstDay.plusDays(DEFAULT_DATA_NUMBER)
                 })
                 .converter(getDateTimeConverter())
                 .labelFunction(new D3LabelFunction<DateTime>() {
@@ -71,9 +93,9 @@ public class GrowingLineChartActivity extends Activity {
                 })
                 .legendHorizontalAlignment(HorizontalAlignment.CENTER);
 
-        Sales[] sales = buildSales(DEFAULT_DATA_NUMBER);
         D3Line<Sales> line =
-            new D3Line<Sales>(sales)
+            new D3Line<Sales>()
+                .data(sales)
                 .x(new D3FloatDataMapperFunction<Sales>() {
                     @Override public float compute(Sales object, int position, Sales[] data) {
                         return timeAxis.scale().value(object.date);
@@ -84,9 +106,7 @@ public class GrowingLineChartActivity extends Activity {
                         Sales object, int position, Sales[] data
                     ) {
                         return salesAxis.scale().value(
-                            (int) object.strawberries.getAnimatedValue()
-                                + (int) object.apples.getAnimatedValue()
-                                + (int) object.bananas.getAnimatedValue()
+                            object.strawberries + object.apples + object.bananas
                         );
                     }
                 })
@@ -112,15 +132,19 @@ public class GrowingLineChartActivity extends Activity {
                         }
                     }
                 )
-                .lazyRecomputing(false);
+                .scales(timeAxis.scale(), salesAxis.scale());
         line.paint().setColor(0xFF0066CC);
         view.add(line);
         view.add(salesAxis);
         view.add(timeAxis);
     }
 
-    @NonNull private D3Converter<DateTime> getDateTimeConverter() {
-        return new D3Converter<DateTime>() {
+    @NonNull private D3DoubleConverter<DateTime> getDateTimeConverter() {
+        return new D3DoubleConverter<DateTime>() {
+            @Override public double convertDouble(DateTime toConvert) {
+                return toConvert.getMillis();
+            }
+
             @Override public float convert(DateTime toConvert) {
                 return toConvert.getMillis();
             }
@@ -131,49 +155,33 @@ public class GrowingLineChartActivity extends Activity {
         };
     }
 
-    @NonNull private Sales[] buildSales(int size) {
-        Sales[] result = new Sales[size];
-        for (int i = 0; i < size; i++) {
-            result[i] = new Sales(
-                new DateTime().plusDays(i + 1),
-                (int) (Math.random() * MAXIMUM_SALES),
-                (int) (Math.random() * MAXIMUM_SALES),
-                (int) (Math.random() * MAXIMUM_SALES)
-            );
-        }
-        return result;
-    }
-
     static class Sales {
         @NonNull final DateTime date;
-        final ValueAnimator apples;
-        final ValueAnimator bananas;
-        final ValueAnimator strawberries;
+        final int apples;
+        final int bananas;
+        final int strawberries;
 
         private Sales(
             @NonNull DateTime date, int soldApples, int soldBananas, int soldStrawberries
         ) {
             this.date = date;
-            apples = setupAnimator(soldApples);
-            bananas = setupAnimator(soldBananas);
-            strawberries = setupAnimator(soldStrawberries);
-        }
-
-        private static ValueAnimator setupAnimator(int apples) {
-            ValueAnimator result = ValueAnimator.ofInt(0, apples);
-            result.setDuration(ANIMATION_TIME);
-            result.start();
-            return result;
+            apples = soldApples;
+            bananas = soldBananas;
+            strawberries = soldStrawberries;
         }
     }
 
     @Override protected void onResume() {
         super.onResume();
         view.onResume();
+        if (appendedSales < DEFAULT_DATA_NUMBER) {
+            handler.post(appendSales);
+        }
     }
 
     @Override protected void onPause() {
         super.onPause();
+        handler.removeCallbacks(appendSales);
         view.onPause();
     }
 }
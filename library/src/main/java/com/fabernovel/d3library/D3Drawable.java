@@ -23,11 +23,13 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.action.PinchType;
 import com.fabernovel.d3library.action.ScrollDirection;
 import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.threading.TaskGraph;
 
 import java.util.List;
 
@@ -49,8 +51,20 @@ public abstract class D3Drawable {
     protected boolean lazyRecomputing = true;
     private int calculationNeeded = MAX_REDRAW_NEEDED;
 
+    /**
+     * Graph of the computations launched before drawing. Child classes add their nodes to it and
+     * execute it in {@link #prepareParameters()}.
+     */
+    @NonNull protected final TaskGraph taskGraph = new TaskGraph();
+    protected boolean renderStale;
+    private volatile boolean parallelMappers;
+    private long drawnGeneration;
+
     @Nullable protected List<D3Drawable> children;
 
+    @Nullable private D3View view;
+    @NonNull private final DrawableLayer layer = new DrawableLayer(this);
+
     @NonNull protected Paint paint;
 
     @Nullable private OnClickAction onClickAction = new OnClickAction() {
@@ -85,6 +99,8 @@ public abstract class D3Drawable {
         }
     };
 
+    @Nullable private OnGestureAction onGestureAction;
+
     /**
      * This method must be called in the constructor of each D3Drawable in order to setup
      * the Paint
@@ -132,6 +148,20 @@ public abstract class D3Drawable {
     protected void onDimensionsChange(float width, float height) {
     }
 
+    /**
+     * Sets the view displaying the Drawable, which is notified when an update is needed.
+     */
+    final void attach(@Nullable D3View view) {
+        this.view = view;
+    }
+
+    /**
+     * Returns the layer in which the view caches the drawing of the Drawable.
+     */
+    @NonNull final DrawableLayer layer() {
+        return layer;
+    }
+
     /**
      * Returns the height available for the Drawable. It is correctly set just before the
      * drawing.
@@ -198,6 +228,43 @@ public abstract class D3Drawable {
         }
     }
 
+    /**
+     * Sets the action to execute once per frame with the scroll and the pinch which occurred
+     * since the previous frame. When set, it replaces the scroll and pinch actions.
+     */
+    public D3Drawable onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        this.onGestureAction = onGestureAction;
+        return this;
+    }
+
+    final void onGesture(@NonNull D3Gesture gesture) {
+        if (onGestureAction != null) {
+            onGestureAction.onGesture(gesture);
+            return;
+        }
+        if (gesture.isScroll()) {
+            onScroll(
+                gesture.scrollDirection(), gesture.scrollX(), gesture.scrollY(),
+                gesture.scrollDx(), gesture.scrollDy()
+            );
+        }
+        if (gesture.isPinch()) {
+            onPinch(
+                gesture.pinchType(), gesture.pinchStaticX(), gesture.pinchStaticY(),
+                gesture.pinchMobileX(), gesture.pinchMobileY(), gesture.pinchDx(),
+                gesture.pinchDy()
+            );
+        }
+    }
+
+    /**
+     * Returns the datum drawn nearest to the given coordinates, within the radius, or null if
+     * there is none. Drawables which do not support picking always return null.
+     */
+    @Nullable public D3Pick pick(float x, float y, float radius) {
+        return null;
+    }
+
     /**
      * This inner method must not be called.
      */
@@ -239,7 +306,16 @@ public abstract class D3Drawable {
         return this;
     }
 
+    final void drawOn(@NonNull Canvas canvas) {
+        preDraw(canvas);
+        draw(canvas);
+        postDraw(canvas);
+    }
+
     final void preDraw(@NonNull Canvas canvas) {
+        if (renderStale) {
+            drawnGeneration = taskGraph.swapBuffers();
+        }
         if (leftLimit != null) {
             canvasState = canvas.save();
             canvas.clipRect(
@@ -287,15 +363,86 @@ public abstract class D3Drawable {
         return this;
     }
 
+    /**
+     * If renderStale is true, the Drawable draws the last computed data without waiting for the
+     * computation in progress, and swaps to the new data when it is ready. If it is false, each
+     * drawing waits for the data to be recomputed.
+     * Setting this property to true avoids stalling the drawing on slow computations, at the
+     * cost of displaying data late by a few frames and of keeping more buffers in memory.
+     * The property is set to false by default.
+     */
+    public D3Drawable renderStale(boolean renderStale) {
+        this.renderStale = renderStale;
+        taskGraph.setBuffered(renderStale);
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns true if the Drawable draws the last computed data rather than waiting for the
+     * computation in progress. See {@link #renderStale(boolean)} for more information.
+     */
+    public boolean renderStale() {
+        return renderStale;
+    }
+
+    /**
+     * If parallelMappers is true, the data mappers and the interpolator of the Drawable are
+     * called on several threads at once when there are many data, so they must be thread-safe.
+     * If it is false, each of them is called on one thread at a time.
+     * The property is set to false by default.
+     */
+    public D3Drawable parallelMappers(boolean parallelMappers) {
+        this.parallelMappers = parallelMappers;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns true if the data mappers and the interpolator of the Drawable can be called on
+     * several threads at once. See {@link #parallelMappers(boolean)} for more information.
+     */
+    public boolean parallelMappers() {
+        return parallelMappers;
+    }
+
+    /**
+     * Returns the generation of the computation drawn by the last frame. It is incremented each
+     * time all the data of the Drawable have been recomputed, and only tracked when the Drawable
+     * renders stale data.
+     */
+    public final long drawnGeneration() {
+        return drawnGeneration;
+    }
+
     /**
      * Notify the Drawable that he must recompute its data. It is useful only when the Drawable
      * has lazy recomputing enable. See {@link #lazyRecomputing(boolean)} for more information.
      */
     public final void updateNeeded() {
+        onUpdateNeeded();
+        requestCalculation();
+    }
+
+    /**
+     * Called by {@link #updateNeeded()} and {@link #updateNeeded(int)} before the computation is
+     * requested. Drawables keeping intermediate results between computations can drop them here.
+     */
+    protected void onUpdateNeeded() {
+    }
+
+    /**
+     * Requests a computation like {@link #updateNeeded()}, without calling
+     * {@link #onUpdateNeeded()}.
+     */
+    protected final void requestCalculation() {
         synchronized (key) {
             calculationNeeded = lazyRecomputing ?
                 Math.min(calculationNeeded + 2, MAX_REDRAW_NEEDED) : 2;
         }
+        if (view != null) {
+            view.requestRender();
+        }
 
         if (children == null) {
             return;
@@ -306,10 +453,14 @@ public abstract class D3Drawable {
     }
 
     public final void updateNeeded(int updatesNeeded) {
+        onUpdateNeeded();
         synchronized (key) {
             calculationNeeded = lazyRecomputing ?
                 Math.min(calculationNeeded + updatesNeeded, MAX_REDRAW_NEEDED) : 1;
         }
+        if (view != null) {
+            view.requestRender();
+        }
 
         if (children == null) {
             return;
@@ -319,6 +470,25 @@ public abstract class D3Drawable {
         }
     }
 
+    /**
+     * Returns true if the last drawing of the Drawable is outdated, either because its data must
+     * be recomputed or because newer stale data are ready to be displayed.
+     */
+    final boolean redrawNeeded() {
+        if (calculationNeeded() > 0 || renderStale && taskGraph.swapPending()) {
+            return true;
+        }
+        if (children == null) {
+            return false;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i).redrawNeeded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected final int calculationNeeded() {
         synchronized (key) {
             return calculationNeeded;
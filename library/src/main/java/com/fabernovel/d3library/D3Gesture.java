@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.action.PinchType;
+import com.fabernovel.d3library.action.ScrollDirection;
+
+/**
+ * Summary of the touch movements which occurred between two frames: at most one scroll and one
+ * pinch, each one being the sum of all the movements coalesced into it, including the
+ * historical samples of the MotionEvents.
+ * A gesture is reused by the D3View, so it is only valid during the call of the action it is
+ * given to.
+ */
+public final class D3Gesture {
+    static final int SIZE = 13;
+
+    private static final ScrollDirection[] DIRECTIONS = ScrollDirection.values();
+    private static final PinchType[] PINCH_TYPES = PinchType.values();
+
+    private int samplesNumber;
+
+    private boolean scroll;
+    @Nullable private ScrollDirection scrollDirection;
+    private float scrollX;
+    private float scrollY;
+    private float scrollDx;
+    private float scrollDy;
+
+    private boolean pinch;
+    @Nullable private PinchType pinchType;
+    private float pinchStaticX;
+    private float pinchStaticY;
+    private float pinchMobileX;
+    private float pinchMobileY;
+    private float pinchDx;
+    private float pinchDy;
+
+    D3Gesture() {
+    }
+
+    void clear() {
+        samplesNumber = 0;
+        scroll = false;
+        scrollDirection = null;
+        pinch = false;
+        pinchType = null;
+    }
+
+    void addSamples(int samplesNumber) {
+        this.samplesNumber += samplesNumber;
+    }
+
+    void scroll(float coordinateX, float coordinateY, float dX, float dY) {
+        scroll = true;
+        if (Math.abs(dX) > Math.abs(dY)) {
+            scrollDirection = dX > 0F ? ScrollDirection.RIGHT : ScrollDirection.LEFT;
+        } else {
+            scrollDirection = dY > 0F ? ScrollDirection.BOTTOM : ScrollDirection.TOP;
+        }
+        scrollX = coordinateX;
+        scrollY = coordinateY;
+        scrollDx = dX;
+        scrollDy = dY;
+    }
+
+    void pinch(
+        @NonNull PinchType pinchType, float coordinateStaticX, float coordinateStaticY,
+        float coordinateMobileX, float coordinateMobileY, float dX, float dY
+    ) {
+        pinch = true;
+        this.pinchType = pinchType;
+        pinchStaticX = coordinateStaticX;
+        pinchStaticY = coordinateStaticY;
+        pinchMobileX = coordinateMobileX;
+        pinchMobileY = coordinateMobileY;
+        pinchDx = dX;
+        pinchDy = dY;
+    }
+
+    /**
+     * Writes the gesture in the array, on {@link #SIZE} floats from the offset.
+     */
+    void write(@NonNull float[] array, int offset) {
+        array[offset] = samplesNumber;
+        array[offset + 1] = scroll ? scrollDirection.ordinal() : -1F;
+        array[offset + 2] = scrollX;
+        array[offset + 3] = scrollY;
+        array[offset + 4] = scrollDx;
+        array[offset + 5] = scrollDy;
+        array[offset + 6] = pinch ? pinchType.ordinal() : -1F;
+        array[offset + 7] = pinchStaticX;
+        array[offset + 8] = pinchStaticY;
+        array[offset + 9] = pinchMobileX;
+        array[offset + 10] = pinchMobileY;
+        array[offset + 11] = pinchDx;
+        array[offset + 12] = pinchDy;
+    }
+
+    /**
+     * Reads a gesture written by {@link #write(float[], int)}.
+     */
+    void read(@NonNull float[] array, int offset) {
+        samplesNumber = (int) array[offset];
+        scroll = array[offset + 1] >= 0F;
+        scrollDirection = scroll ? DIRECTIONS[(int) array[offset + 1]] : null;
+        scrollX = array[offset + 2];
+        scrollY = array[offset + 3];
+        scrollDx = array[offset + 4];
+        scrollDy = array[offset + 5];
+        pinch = array[offset + 6] >= 0F;
+        pinchType = pinch ? PINCH_TYPES[(int) array[offset + 6]] : null;
+        pinchStaticX = array[offset + 7];
+        pinchStaticY = array[offset + 8];
+        pinchMobileX = array[offset + 9];
+        pinchMobileY = array[offset + 10];
+        pinchDx = array[offset + 11];
+        pinchDy = array[offset + 12];
+    }
+
+    boolean isEmpty() {
+        return !scroll && !pinch;
+    }
+
+    /**
+     * Returns the number of touch samples coalesced into the gesture.
+     */
+    public int samplesNumber() {
+        return samplesNumber;
+    }
+
+    /**
+     * Returns true if the gesture contains a scroll.
+     */
+    public boolean isScroll() {
+        return scroll;
+    }
+
+    /**
+     * Returns the main direction of the scroll, or null if there is no scroll.
+     */
+    @Nullable public ScrollDirection scrollDirection() {
+        return scrollDirection;
+    }
+
+    /**
+     * Returns the horizontal coordinate the scroll starts from.
+     */
+    public float scrollX() {
+        return scrollX;
+    }
+
+    /**
+     * Returns the vertical coordinate the scroll starts from.
+     */
+    public float scrollY() {
+        return scrollY;
+    }
+
+    /**
+     * Returns the horizontal difference of the scroll.
+     */
+    public float scrollDx() {
+        return scrollDx;
+    }
+
+    /**
+     * Returns the vertical difference of the scroll.
+     */
+    public float scrollDy() {
+        return scrollDy;
+    }
+
+    /**
+     * Returns true if the gesture contains a pinch.
+     */
+    public boolean isPinch() {
+        return pinch;
+    }
+
+    /**
+     * Returns the type of the pinch, or null if there is no pinch.
+     */
+    @Nullable public PinchType pinchType() {
+        return pinchType;
+    }
+
+    /**
+     * Returns the horizontal coordinate of the static finger of the pinch.
+     */
+    public float pinchStaticX() {
+        return pinchStaticX;
+    }
+
+    /**
+     * Returns the vertical coordinate of the static finger of the pinch.
+     */
+    public float pinchStaticY() {
+        return pinchStaticY;
+    }
+
+    /**
+     * Returns the horizontal coordinate the mobile finger of the pinch starts from.
+     */
+    public float pinchMobileX() {
+        return pinchMobileX;
+    }
+
+    /**
+     * Returns the vertical coordinate the mobile finger of the pinch starts from.
+     */
+    public float pinchMobileY() {
+        return pinchMobileY;
+    }
+
+    /**
+     * Returns the horizontal difference of the mobile finger of the pinch.
+     */
+    public float pinchDx() {
+        return pinchDx;
+    }
+
+    /**
+     * Returns the vertical difference of the mobile finger of the pinch.
+     */
+    public float pinchDy() {
+        return pinchDy;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Result of a pick: the Drawable found at a position, the index of its datum drawn there and
+ * the distance from the position to the drawing of the datum.
+ */
+public final class D3Pick {
+    @NonNull private final D3Drawable drawable;
+    private final int index;
+    private final float distance;
+
+    public D3Pick(@NonNull D3Drawable drawable, int index, float distance) {
+        this.drawable = drawable;
+        this.index = index;
+        this.distance = distance;
+    }
+
+    /**
+     * Returns the Drawable picked.
+     */
+    @NonNull public D3Drawable drawable() {
+        return drawable;
+    }
+
+    /**
+     * Returns the index of the datum picked in the data of the Drawable.
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Returns the distance from the position to the drawing of the datum, zero if the drawing
+     * contains the position.
+     */
+    public float distance() {
+        return distance;
+    }
+}
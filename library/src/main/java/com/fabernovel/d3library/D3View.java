@@ -27,9 +27,11 @@ import android.view.MotionEvent;
 import android.view.Surface;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
+import android.view.ViewConfiguration;
+import android.view.WindowManager;
 
-import com.fabernovel.d3library.action.PinchType;
-import com.fabernovel.d3library.action.ScrollDirection;
+import com.fabernovel.d3library.threading.ChoreographerFrameClock;
+import com.fabernovel.d3library.threading.FrameClock;
 import com.fabernovel.d3library.threading.ThreadPool;
 
 import java.util.ArrayList;
@@ -42,33 +44,61 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
      */
     private static final int DEFAULT_CLICK_ACTIONS_NUMBER = 3;
     private static final int MINIMUM_TIME_PER_FRAME = 33;
+    private static final int IDLE_WAITING_TIME = 1000;
+    private static final String MAX_STRETCH_ERROR = "Maximum stretch should be at least 1";
 
     private int minimumTimePerFrame = MINIMUM_TIME_PER_FRAME;
-    private boolean mustRun = true;
+    private volatile boolean mustRun = true;
     private boolean initialized;
     private boolean isSurfaceCreated;
     private final Object surfaceKey = new Object();
 
     private final Object key = new Object();
 
-    private boolean needRedraw = true;
+    private volatile boolean needRedraw = true;
     private long lastDraw = System.currentTimeMillis();
 
-    private float[] maxDifferenceAbsolute = new float[2];
-    private float[] differenceX = new float[2];
-    private float[] differenceY = new float[2];
+    private volatile boolean layersEnabled;
+    private volatile boolean layersValid;
+    private volatile int lastRecordedLayers;
+
+    @NonNull private final ViewportTransform viewport = new ViewportTransform();
+    private volatile boolean viewportTransformEnabled;
+
+    /* Those variables are used to dispatch the gestures once per frame */
+    @NonNull private final ScrollTracker scrollTracker;
+    @NonNull private final D3Gesture gesture = new D3Gesture();
+    private volatile boolean flingEnabled;
+
+    private volatile float pickRadius;
+
+    /* Those variables are used to schedule the drawing on a FrameClock */
+    @Nullable private volatile FrameClock frameClock;
+    private boolean frameRequested;
+    private boolean frameReceived;
+    private boolean continuousRendering;
+    private long lastFrameTimeNanos;
+    private long droppedFrames;
+
+    @NonNull private final FrameClock.FrameListener frameListener =
+        new FrameClock.FrameListener() {
+            @Override public void onFrame(long frameTimeNanos) {
+                synchronized (key) {
+                    countDroppedFrames(frameTimeNanos);
+                    frameRequested = false;
+                    frameReceived = true;
+                    key.notifyAll();
+                }
+            }
+        };
 
     /* Those variables are used to track the scroll */
     float scrollCurrentX;
     float scrollCurrentY;
     boolean isScrollInitialized;
 
-    /* Those variables are used to track the scroll */
-    float[] pinchPreviousX = new float[2];
-    float[] pinchCurrentX = new float[2];
-    float[] pinchPreviousY = new float[2];
-    float[] pinchCurrentY = new float[2];
-    boolean isPinchInitialized;
+    /* Those variables are used to track the pinch */
+    @NonNull private final PinchTracker pinchTracker = new PinchTracker();
 
     /**
      * Allows to make post-run actions be executed by the main thread, so post-run actions
@@ -87,6 +117,12 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
         drawables = new ArrayList<>();
         afterDrawActions = new ArrayList<>();
         handler = new Handler(Looper.getMainLooper());
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        scrollTracker = new ScrollTracker(
+            configuration.getScaledMinimumFlingVelocity(),
+            configuration.getScaledMaximumFlingVelocity()
+        );
+        pickRadius = configuration.getScaledTouchSlop();
         initialized = false;
         getHolder().addCallback(this);
     }
@@ -100,6 +136,8 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
      */
     public void add(@NonNull D3Drawable drawable) {
         drawables.add(drawable);
+        drawable.attach(this);
+        requestRender();
     }
 
     /**
@@ -107,13 +145,42 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
      */
     public void remove(@NonNull D3Drawable drawable) {
         drawables.remove(drawable);
+        drawable.attach(null);
+        layersValid = false;
+        requestRender();
     }
 
     /**
      * Clears the list of displayed Drawables.
      */
     public void clearDrawables() {
+        for (D3Drawable drawable : drawables) {
+            drawable.attach(null);
+        }
         drawables.clear();
+        layersValid = false;
+        requestRender();
+    }
+
+    /**
+     * Returns the datum drawn nearest to the given coordinates of the view, within the pick
+     * radius, among all the Drawables supporting picking. When several data are at the same
+     * distance, the one of the Drawable drawn last is returned. Returns null if there is none.
+     * Drawables which index their data, such as pickable Lines and BarCharts, only test the
+     * data drawn around the coordinates and do not wait for a computation, while the others may
+     * wait for the coordinates of their drawing.
+     */
+    @Nullable public D3Pick pick(float x, float y) {
+        float[] point = new float[]{x, y};
+        viewport.invert(point);
+        D3Pick result = null;
+        for (int i = drawables.size() - 1; i >= 0; i--) {
+            D3Pick pick = drawables.get(i).pick(point[0], point[1], pickRadius);
+            if (pick != null && (result == null || pick.distance() < result.distance())) {
+                result = pick;
+            }
+        }
+        return result;
     }
 
     /**
@@ -131,6 +198,19 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
      */
     public void onPause() {
         mustRun = false;
+        synchronized (key) {
+            key.notifyAll();
+        }
+    }
+
+    /**
+     * Notifies the view that it must be redrawn. Drawables call it when an update is needed.
+     */
+    public void requestRender() {
+        needRedraw = true;
+        synchronized (key) {
+            key.notifyAll();
+        }
     }
 
     /**
@@ -138,10 +218,15 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
      */
     @Override public void run() {
         while (mustRun) {
-            if (!needRedraw) {
+            FrameClock clock = frameClock;
+            if (clock != null) {
+                if (!waitForFrame(clock)) {
+                    continue;
+                }
+            } else if (!needRedraw) {
                 try {
                     synchronized (key) {
-                        key.wait(1000);
+                        key.wait(IDLE_WAITING_TIME);
                     }
                 } catch (InterruptedException e) {
                     e.printStackTrace();
@@ -149,16 +234,98 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
                 }
             }
 
+            dispatchGesture();
+            viewport.prepareFrame(drawables, getWidth(), getHeight(), scrollTracker.isFlinging());
             for (D3Drawable drawable : drawables) {
                 drawable.prepareParameters();
             }
-            sleepIfNeeded();
+            if (clock == null) {
+                sleepIfNeeded();
+            }
             synchronized (surfaceKey) {
                 drawOnCorrectCanvas();
             }
         }
     }
 
+    /**
+     * Waits for the next tick of the clock. Returns false if nothing had to be redrawn, in which
+     * case no tick is requested so an idle view does not wake up at each frame.
+     */
+    private boolean waitForFrame(@NonNull FrameClock clock) {
+        try {
+            synchronized (key) {
+                if (!isRedrawNeeded()) {
+                    continuousRendering = false;
+                    key.wait(IDLE_WAITING_TIME);
+                    if (!isRedrawNeeded()) {
+                        return false;
+                    }
+                }
+                if (!frameRequested) {
+                    frameRequested = true;
+                    clock.postFrame(frameListener);
+                }
+                while (mustRun && !frameReceived) {
+                    key.wait();
+                }
+                frameReceived = false;
+                return mustRun;
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            mustRun = false;
+            return false;
+        }
+    }
+
+    private boolean isRedrawNeeded() {
+        if (needRedraw) {
+            return true;
+        }
+        for (D3Drawable drawable : drawables) {
+            if (drawable.redrawNeeded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Frames are only counted as dropped while the view is continuously redrawn: a gap after an
+     * idle period is expected.
+     */
+    private void countDroppedFrames(long frameTimeNanos) {
+        FrameClock clock = frameClock;
+        if (continuousRendering && clock != null && lastFrameTimeNanos != 0L) {
+            long interval = clock.frameIntervalNanos();
+            long elapsedFrames = (frameTimeNanos - lastFrameTimeNanos + interval / 2) / interval;
+            droppedFrames += Math.max(elapsedFrames - 1, 0);
+        }
+        continuousRendering = true;
+        lastFrameTimeNanos = frameTimeNanos;
+    }
+
+    /**
+     * Dispatches the scroll and the pinch accumulated since the previous frame, including the
+     * step of the fling in progress, as a single gesture.
+     */
+    private void dispatchGesture() {
+        gesture.clear();
+        scrollTracker.step(gesture);
+        pinchTracker.step(gesture);
+        if (gesture.isEmpty()) {
+            return;
+        }
+        if (viewportTransformEnabled) {
+            viewport.record(gesture);
+            return;
+        }
+        for (D3Drawable drawable : drawables) {
+            drawable.onGesture(gesture);
+        }
+    }
+
     private void drawOnCorrectCanvas() {
         if (android.os.Build.VERSION.SDK_INT < android.os.Build.VERSION_CODES.M) {
             if (!isSurfaceCreated) {
@@ -204,12 +371,30 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
         super.draw(canvas);
         needRedraw = false;
         canvas.drawRGB(255, 255, 255);
+        boolean useLayers = layersEnabled;
+        boolean invalidateLayers = !layersValid;
+        layersValid = true;
+        int recordedLayers = 0;
+        canvas.save();
+        viewport.concat(canvas);
         for (D3Drawable drawable : drawables) {
-            drawable.preDraw(canvas);
-            drawable.draw(canvas);
-            drawable.postDraw(canvas);
+            if (useLayers) {
+                if (invalidateLayers) {
+                    drawable.layer().invalidate();
+                }
+                if (drawable.layer().draw(canvas)) {
+                    recordedLayers++;
+                }
+            } else {
+                drawable.layer().release();
+                drawable.drawOn(canvas);
+                recordedLayers++;
+            }
             needRedraw = needRedraw || drawable.calculationNeeded() > 0;
         }
+        canvas.restore();
+        needRedraw = needRedraw || scrollTracker.isFlinging();
+        lastRecordedLayers = recordedLayers;
         for (Runnable action : afterDrawActions) {
             handler.post(action);
         }
@@ -219,13 +404,11 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
      * This inner method should not be called
      */
     @Override public boolean onTouchEvent(MotionEvent event) {
-        needRedraw = true;
-        synchronized (key) {
-            key.notifyAll();
-        }
+        boolean handled = true;
         switch (event.getAction() & MotionEvent.ACTION_MASK) {
             case MotionEvent.ACTION_MOVE:
-                return handleMoveAction(event);
+                handled = handleMoveAction(event);
+                break;
             case MotionEvent.ACTION_UP:
                 handleUpAction(event);
                 break;
@@ -235,10 +418,17 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
             case MotionEvent.ACTION_POINTER_DOWN:
                 handlePointerDownAction();
                 break;
+            case MotionEvent.ACTION_CANCEL:
+                scrollTracker.cancel();
+                viewport.end();
+                break;
             default:
                 /* Nothing to do */
         }
-        return true;
+        /* The render is requested after the event is recorded, so the recorded movement cannot
+         * be missed by a frame in progress. */
+        requestRender();
+        return handled;
     }
 
     private boolean handleMoveAction(MotionEvent event) {
@@ -263,99 +453,20 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
             isScrollInitialized = true;
             return;
         }
-
-        ScrollDirection direction;
-        float diffX = scrollCurrentX - previousX;
-        float diffY = scrollCurrentY - previousY;
-        if (Math.abs(diffX) > Math.abs(diffY)) {
-            direction = diffX > 0F ? ScrollDirection.RIGHT : ScrollDirection.LEFT;
-        } else {
-            direction = diffY > 0F ? ScrollDirection.BOTTOM : ScrollDirection.TOP;
-        }
-        for (D3Drawable drawable : drawables) {
-            drawable.onScroll(direction, previousX, previousY, diffX, diffY);
-        }
+        scrollTracker.move(
+            event, previousX, previousY, scrollCurrentX - previousX, scrollCurrentY - previousY
+        );
     }
 
     private void handlePinchMovement(@NonNull MotionEvent event) {
-        int histLength = event.getHistorySize();
-        if (histLength == 0) {
-            return;
-        }
-        pinchPreviousX[0] = pinchCurrentX[0];
-        pinchPreviousX[1] = pinchCurrentX[1];
-        pinchPreviousY[0] = pinchCurrentY[0];
-        pinchPreviousY[1] = pinchCurrentY[1];
-
-        pinchCurrentX[0] = event.getX(0);
-        pinchCurrentX[1] = event.getX(1);
-        pinchCurrentY[0] = event.getY(0);
-        pinchCurrentY[1] = event.getY(1);
-
-        if (!isPinchInitialized) {
-            isPinchInitialized = true;
-            return;
-        }
-
-        updateDifferences();
-        int indexMovement = findFingerMovedIndex();
-        PinchType pinchType = computePinchType(indexMovement);
-        for (D3Drawable drawable : drawables) {
-            drawable.onPinch(
-                pinchType,
-                pinchPreviousX[1 - indexMovement],
-                pinchPreviousY[1 - indexMovement],
-                pinchPreviousX[indexMovement],
-                pinchPreviousY[indexMovement],
-                differenceX[indexMovement],
-                differenceY[indexMovement]
-            );
-        }
-    }
-
-    private void updateDifferences() {
-        for (int i = 0; i < 2; i++) {
-            differenceX[i] = pinchCurrentX[i] - pinchPreviousX[i];
-            differenceY[i] = pinchCurrentY[i] - pinchPreviousY[i];
-            maxDifferenceAbsolute[i] = Math.max(Math.abs(differenceX[i]), Math.abs(differenceY[i]));
-        }
-    }
-
-    private int findFingerMovedIndex() {
-        int result = 0;
-        float diffMovementAbsolute = maxDifferenceAbsolute[0];
-        for (int i = 1; i < maxDifferenceAbsolute.length; i++) {
-            if (diffMovementAbsolute < maxDifferenceAbsolute[i]) {
-                result = i;
-                diffMovementAbsolute = maxDifferenceAbsolute[i];
-            }
-        }
-        return result;
-    }
-
-    private PinchType computePinchType(int indexMovement) {
-        float x = differenceX[indexMovement];
-        float y = differenceY[indexMovement];
-        if (Math.abs(x) > Math.abs(y)) {
-            if (pinchCurrentX[indexMovement] > pinchCurrentX[1 - indexMovement]) {
-                return x > 0 ?
-                    PinchType.HORIZONTAL_INCREASE : PinchType.HORIZONTAL_DECREASE;
-            } else {
-                return x > 0 ?
-                    PinchType.HORIZONTAL_DECREASE : PinchType.HORIZONTAL_INCREASE;
-            }
-        } else {
-            if (pinchCurrentY[indexMovement] > pinchCurrentY[1 - indexMovement]) {
-                return y > 0 ?
-                    PinchType.VERTICAL_INCREASE : PinchType.VERTICAL_DECREASE;
-            } else {
-                return y > 0 ?
-                    PinchType.VERTICAL_DECREASE : PinchType.VERTICAL_INCREASE;
-            }
-        }
+        pinchTracker.move(event);
     }
 
     private void handleUpAction(MotionEvent event) {
+        if (!flingEnabled || clickTracker > 0 || !scrollTracker.fling(event)) {
+            scrollTracker.cancel();
+        }
+        viewport.end();
         if (clickTracker > 0) {
             for (D3Drawable drawable : drawables) {
                 drawable.onClick(event.getX(), event.getY());
@@ -364,14 +475,17 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
     }
 
     private void handleDownAction(MotionEvent event) {
+        scrollTracker.down(event);
+        viewport.begin();
         isScrollInitialized = false;
-        isPinchInitialized = false;
+        pinchTracker.reset();
         clickTracker = event.getPointerCount() == 1 ? DEFAULT_CLICK_ACTIONS_NUMBER : 0;
     }
 
     private void handlePointerDownAction() {
+        scrollTracker.cancel();
         isScrollInitialized = false;
-        isPinchInitialized = false;
+        pinchTracker.reset();
         clickTracker = 0;
     }
 
@@ -387,6 +501,7 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
         for (D3Drawable drawable : drawables) {
             drawable.setDimensions(getHeight(), getWidth());
         }
+        layersValid = false;
     }
 
     @Override public void surfaceDestroyed(SurfaceHolder holder) {
@@ -399,4 +514,113 @@ public class D3View extends SurfaceView implements Runnable, SurfaceHolder.Callb
     public void setMinimumTimePerFrame(int minimumTimePerFrame) {
         this.minimumTimePerFrame = minimumTimePerFrame;
     }
+
+    /**
+     * Sets the clock on which frames are scheduled. A frame is then drawn at a tick of the clock,
+     * and only when a Drawable needs to be recomputed or when a touch event occurred.
+     * If null, the view is redrawn in a loop limited by the minimum time per frame.
+     */
+    public void setFrameClock(@Nullable FrameClock frameClock) {
+        synchronized (key) {
+            this.frameClock = frameClock;
+            frameRequested = false;
+            continuousRendering = false;
+            key.notifyAll();
+        }
+    }
+
+    /**
+     * Aligns the drawing on the display vsync, see {@link #setFrameClock(FrameClock)}.
+     * This method must be called from the main thread.
+     */
+    public void setVsyncEnabled(boolean vsyncEnabled) {
+        setFrameClock(vsyncEnabled ? new ChoreographerFrameClock(displayRefreshRate()) : null);
+    }
+
+    private float displayRefreshRate() {
+        WindowManager windowManager =
+            (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        return windowManager == null ? 0F : windowManager.getDefaultDisplay().getRefreshRate();
+    }
+
+    /**
+     * Enables the caching of each Drawable in its own layer. A layer is recorded again only when
+     * its Drawable needs to be redrawn, so a frame only redraws the Drawables which changed and
+     * composes the others from their cached layers.
+     * Once enabled, a Drawable must call {@link D3Drawable#updateNeeded()} whenever its
+     * appearance changes, for instance when its paint is modified. Only hardware canvases, used
+     * since Android M, are cached: on software canvases the Drawables are drawn at each frame.
+     * The property is set to false by default.
+     */
+    public void setLayersEnabled(boolean layersEnabled) {
+        this.layersEnabled = layersEnabled;
+        layersValid = false;
+        requestRender();
+    }
+
+    /**
+     * Enables the transformation of the last drawn geometry during gestures. While a finger is
+     * down, scroll and pinch events are not dispatched to the Drawables: their last drawing is
+     * translated and scaled through a Matrix instead, so the coordinates are not computed again
+     * at each event. The events are dispatched at once, and the Drawables computed again, when
+     * the gesture ends or when the drawing is stretched beyond the maximum stretch.
+     * The property is set to false by default.
+     */
+    public void setViewportTransformEnabled(boolean viewportTransformEnabled) {
+        this.viewportTransformEnabled = viewportTransformEnabled;
+        if (!viewportTransformEnabled) {
+            viewport.end();
+        }
+        requestRender();
+    }
+
+    /**
+     * Enables the continuation of a scroll by a fling when the finger is lifted. The fling
+     * decelerates exponentially and is advanced once per frame, each step being dispatched to
+     * the scroll actions of the Drawables. Touching the view stops the fling.
+     * The property is set to false by default.
+     */
+    public void setFlingEnabled(boolean flingEnabled) {
+        this.flingEnabled = flingEnabled;
+        if (!flingEnabled) {
+            scrollTracker.cancel();
+        }
+    }
+
+    /**
+     * Sets the maximum scale factor, or inverse scale factor, applied to the last drawn geometry
+     * during a gesture before the Drawables are computed again. The default value is 2.
+     */
+    public void setViewportMaxStretch(float maxStretch) {
+        if (maxStretch < 1F) {
+            throw new IllegalStateException(MAX_STRETCH_ERROR);
+        }
+        viewport.maxStretch(maxStretch);
+    }
+
+    /**
+     * Sets the maximum distance, in pixels, between the coordinates given to
+     * {@link #pick(float, float)} and the picked datum. By default, it is the touch slop.
+     */
+    public void setPickRadius(float pickRadius) {
+        this.pickRadius = pickRadius;
+    }
+
+    /**
+     * Returns the number of Drawables drawn again, rather than composed from their cached layer,
+     * during the last frame.
+     */
+    public int getLastRecordedLayers() {
+        return lastRecordedLayers;
+    }
+
+    /**
+     * Returns the number of frames dropped while the view was continuously redrawn on its
+     * FrameClock.
+     */
+    public long getDroppedFrames() {
+        synchronized (key) {
+            return droppedFrames;
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Cache of the last drawing of a D3Drawable. The drawing is recorded again only when the
+ * Drawable needs to be redrawn, otherwise the recorded layer is replayed.
+ * Hardware canvases, used by the D3View since Android M, record into a Picture. Software
+ * canvases are not cached: a bitmap of the size of the view per Drawable would cost more
+ * memory than drawing the Drawable again, so the Drawable is drawn at each frame.
+ */
+final class DrawableLayer {
+    @NonNull private final D3Drawable drawable;
+
+    private int width;
+    private int height;
+    private boolean valid;
+
+    @Nullable private Picture picture;
+
+    DrawableLayer(@NonNull D3Drawable drawable) {
+        this.drawable = drawable;
+    }
+
+    /**
+     * Draws the layer on the canvas, after recording the Drawable again if needed. Returns true
+     * if the Drawable was recorded, or drawn directly on a software canvas.
+     */
+    boolean draw(@NonNull Canvas canvas) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M || !canvas.isHardwareAccelerated()) {
+            release();
+            drawable.drawOn(canvas);
+            return true;
+        }
+        boolean record = !valid || drawable.redrawNeeded() || picture == null
+            || width != canvas.getWidth() || height != canvas.getHeight();
+        if (record) {
+            width = canvas.getWidth();
+            height = canvas.getHeight();
+            record();
+            valid = true;
+        }
+        canvas.drawPicture(picture);
+        return record;
+    }
+
+    /**
+     * Forces the next drawing of the layer to record the Drawable again.
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Frees the memory used by the layer.
+     */
+    void release() {
+        picture = null;
+        valid = false;
+    }
+
+    private void record() {
+        if (picture == null) {
+            picture = new Picture();
+        }
+        Canvas canvas = picture.beginRecording(width, height);
+        try {
+            drawable.drawOn(canvas);
+        } finally {
+            picture.endRecording();
+        }
+    }
+}
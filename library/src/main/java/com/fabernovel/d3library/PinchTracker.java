@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library;
+
+import android.support.annotation.NonNull;
+import android.view.MotionEvent;
+
+import com.fabernovel.d3library.action.PinchType;
+
+/**
+ * Accumulates the movements of the two fingers of a pinch between two frames, including the
+ * historical samples of the MotionEvents. The finger which moved the most during the frame is
+ * the mobile finger of the pinch, the other one being static.
+ * Movements are given by the main thread, while {@link #step(D3Gesture)} is called by the
+ * rendering thread once per frame.
+ */
+final class PinchTracker {
+    private final float[] startX = new float[2];
+    private final float[] startY = new float[2];
+    private final float[] currentX = new float[2];
+    private final float[] currentY = new float[2];
+    private final float[] movements = new float[2];
+    private boolean initialized;
+    private boolean pending;
+    private int samplesNumber;
+
+    /**
+     * Forgets the positions of the fingers, for instance when a finger is added.
+     */
+    synchronized void reset() {
+        initialized = false;
+        pending = false;
+        samplesNumber = 0;
+    }
+
+    synchronized void move(@NonNull MotionEvent event) {
+        int historySize = event.getHistorySize();
+        for (int h = 0; h < historySize; h++) {
+            add(
+                event.getHistoricalX(0, h), event.getHistoricalY(0, h),
+                event.getHistoricalX(1, h), event.getHistoricalY(1, h)
+            );
+        }
+        add(event.getX(0), event.getY(0), event.getX(1), event.getY(1));
+    }
+
+    private void add(float x0, float y0, float x1, float y1) {
+        if (!initialized) {
+            initialized = true;
+            startX[0] = x0;
+            startY[0] = y0;
+            startX[1] = x1;
+            startY[1] = y1;
+            movements[0] = 0F;
+            movements[1] = 0F;
+        } else {
+            movements[0] += Math.max(Math.abs(x0 - currentX[0]), Math.abs(y0 - currentY[0]));
+            movements[1] += Math.max(Math.abs(x1 - currentX[1]), Math.abs(y1 - currentY[1]));
+            pending = true;
+            samplesNumber++;
+        }
+        currentX[0] = x0;
+        currentY[0] = y0;
+        currentX[1] = x1;
+        currentY[1] = y1;
+    }
+
+    /**
+     * Adds the pinch accumulated since the previous frame to the gesture.
+     */
+    synchronized void step(@NonNull D3Gesture gesture) {
+        if (!pending) {
+            return;
+        }
+        int mobile = movements[1] > movements[0] ? 1 : 0;
+        float dX = currentX[mobile] - startX[mobile];
+        float dY = currentY[mobile] - startY[mobile];
+        gesture.pinch(
+            pinchType(mobile, dX, dY),
+            startX[1 - mobile],
+            startY[1 - mobile],
+            startX[mobile],
+            startY[mobile],
+            dX,
+            dY
+        );
+        gesture.addSamples(samplesNumber);
+        for (int i = 0; i < 2; i++) {
+            startX[i] = currentX[i];
+            startY[i] = currentY[i];
+            movements[i] = 0F;
+        }
+        pending = false;
+        samplesNumber = 0;
+    }
+
+    @NonNull private PinchType pinchType(int mobile, float dX, float dY) {
+        if (Math.abs(dX) > Math.abs(dY)) {
+            if (currentX[mobile] > currentX[1 - mobile]) {
+                return dX > 0 ?
+                    PinchType.HORIZONTAL_INCREASE : PinchType.HORIZONTAL_DECREASE;
+            } else {
+                return dX > 0 ?
+                    PinchType.HORIZONTAL_DECREASE : PinchType.HORIZONTAL_INCREASE;
+            }
+        } else {
+            if (currentY[mobile] > currentY[1 - mobile]) {
+                return dY > 0 ?
+                    PinchType.VERTICAL_INCREASE : PinchType.VERTICAL_DECREASE;
+            } else {
+                return dY > 0 ?
+                    PinchType.VERTICAL_DECREASE : PinchType.VERTICAL_INCREASE;
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+
+/**
+ * Accumulates the scroll movements of the finger between two frames, and continues the scroll
+ * with a decelerating fling once the finger is lifted.
+ * Movements are given by the main thread, while {@link #step(D3Gesture)} is called by the
+ * rendering thread once per frame to get the scroll of the frame.
+ */
+final class ScrollTracker {
+    /* Time constant of the exponential deceleration of a fling, in seconds. */
+    private static final float DECELERATION_TIME = 0.325F;
+    private static final float NANOS_PER_SECOND = 1000000000F;
+    private static final int VELOCITY_UNITS = 1000;
+
+    private final float minimumVelocity;
+    private final float maximumVelocity;
+
+    /* Only used by the main thread. */
+    @Nullable private VelocityTracker velocityTracker;
+
+    private boolean pending;
+    private float coordinateX;
+    private float coordinateY;
+    private float dX;
+    private float dY;
+    private int samplesNumber;
+
+    private boolean flinging;
+    private float flingX;
+    private float flingY;
+    private float velocityX;
+    private float velocityY;
+    private long lastStepNanos;
+
+    ScrollTracker(float minimumVelocity, float maximumVelocity) {
+        this.minimumVelocity = minimumVelocity;
+        this.maximumVelocity = maximumVelocity;
+    }
+
+    /**
+     * Starts tracking a new gesture, which stops the fling in progress.
+     */
+    void down(@NonNull MotionEvent event) {
+        if (velocityTracker == null) {
+            velocityTracker = VelocityTracker.obtain();
+        } else {
+            velocityTracker.clear();
+        }
+        velocityTracker.addMovement(event);
+        synchronized (this) {
+            flinging = false;
+        }
+    }
+
+    /**
+     * Adds the movement of the finger from the previous coordinates.
+     */
+    void move(
+        @NonNull MotionEvent event, float previousX, float previousY, float diffX, float diffY
+    ) {
+        if (velocityTracker != null) {
+            velocityTracker.addMovement(event);
+        }
+        synchronized (this) {
+            add(previousX, previousY, diffX, diffY);
+            samplesNumber += event.getHistorySize() + 1;
+        }
+    }
+
+    /**
+     * Stops tracking the velocity of the gesture, so it cannot be continued by a fling.
+     */
+    void cancel() {
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+        synchronized (this) {
+            flinging = false;
+        }
+    }
+
+    /**
+     * Ends the gesture and starts a fling if the finger moved fast enough. Returns true if a
+     * fling started.
+     */
+    boolean fling(@NonNull MotionEvent event) {
+        if (velocityTracker == null) {
+            return false;
+        }
+        velocityTracker.addMovement(event);
+        velocityTracker.computeCurrentVelocity(VELOCITY_UNITS, maximumVelocity);
+        float newVelocityX = velocityTracker.getXVelocity();
+        float newVelocityY = velocityTracker.getYVelocity();
+        velocityTracker.recycle();
+        velocityTracker = null;
+        if (Math.hypot(newVelocityX, newVelocityY) < minimumVelocity) {
+            return false;
+        }
+        synchronized (this) {
+            flinging = true;
+            flingX = event.getX();
+            flingY = event.getY();
+            velocityX = newVelocityX;
+            velocityY = newVelocityY;
+            lastStepNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    synchronized boolean isFlinging() {
+        return flinging;
+    }
+
+    /**
+     * Advances the fling to the current time and adds the scroll accumulated since the previous
+     * frame to the gesture.
+     */
+    synchronized void step(@NonNull D3Gesture gesture) {
+        if (flinging) {
+            long now = System.nanoTime();
+            float elapsedTime = (now - lastStepNanos) / NANOS_PER_SECOND;
+            lastStepNanos = now;
+            float decay = (float) Math.exp(-elapsedTime / DECELERATION_TIME);
+            float distanceX = velocityX * DECELERATION_TIME * (1F - decay);
+            float distanceY = velocityY * DECELERATION_TIME * (1F - decay);
+            add(flingX, flingY, distanceX, distanceY);
+            flingX += distanceX;
+            flingY += distanceY;
+            velocityX *= decay;
+            velocityY *= decay;
+            flinging = Math.hypot(velocityX, velocityY) >= minimumVelocity;
+        }
+        if (!pending) {
+            return;
+        }
+        gesture.scroll(coordinateX, coordinateY, dX, dY);
+        gesture.addSamples(samplesNumber);
+        pending = false;
+        samplesNumber = 0;
+    }
+
+    private void add(float previousX, float previousY, float diffX, float diffY) {
+        if (!pending) {
+            pending = true;
+            coordinateX = previousX;
+            coordinateY = previousY;
+            dX = 0F;
+            dY = 0F;
+        }
+        dX += diffX;
+        dY += diffY;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.support.annotation.NonNull;
+
+import com.fabernovel.d3library.action.PinchType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pan and zoom of the last drawn geometry of a D3View during a gesture.
+ * Gestures are recorded instead of being dispatched to the Drawables, and the Drawables are
+ * drawn through a Matrix which follows the fingers. The recorded gestures are
+ * dispatched at once when the gesture ends or when the Matrix stretches the geometry too much,
+ * so the Drawables only compute their coordinates again at that time.
+ */
+final class ViewportTransform {
+    private static final float DEFAULT_MAX_STRETCH = 2F;
+    /* Translations beyond this ratio of the view dimensions show too much empty space. */
+    private static final float MAX_TRANSLATION_RATIO = 0.5F;
+    /* Same spacing as the axes, under which a pinch does not resize them. */
+    private static final float PINCH_MIN_SPACING = 100F;
+
+    private static final int INITIAL_EVENTS_NUMBER = 32;
+
+    private float maxStretch = DEFAULT_MAX_STRETCH;
+
+    /* Those variables are written by the main thread and read by the rendering thread. */
+    private boolean gestureActive;
+    private float scaleX = 1F;
+    private float scaleY = 1F;
+    private float translateX;
+    private float translateY;
+    @NonNull private float[] events = new float[INITIAL_EVENTS_NUMBER * D3Gesture.SIZE];
+    private int eventsNumber;
+
+    /* Those variables describe the transformation of the last prepared frame. */
+    @NonNull private final Matrix frameMatrix = new Matrix();
+    private boolean frameTransformed;
+    private float frameScaleX = 1F;
+    private float frameScaleY = 1F;
+    private float frameTranslateX;
+    private float frameTranslateY;
+
+    /* Those variables are only used by the rendering thread. */
+    @NonNull private float[] dispatchedEvents = new float[0];
+    @NonNull private final D3Gesture dispatchedGesture = new D3Gesture();
+
+    synchronized void maxStretch(float maxStretch) {
+        this.maxStretch = maxStretch;
+    }
+
+    /**
+     * Starts a gesture: events are recorded until {@link #end()} is called.
+     */
+    synchronized void begin() {
+        gestureActive = true;
+    }
+
+    /**
+     * Ends the gesture: the recorded events are dispatched at the next frame.
+     */
+    synchronized void end() {
+        gestureActive = false;
+    }
+
+    /**
+     * Records the gesture and moves the transformation accordingly.
+     */
+    synchronized void record(@NonNull D3Gesture gesture) {
+        int offset = eventsNumber * D3Gesture.SIZE;
+        if (offset + D3Gesture.SIZE > events.length) {
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+        gesture.write(events, offset);
+        eventsNumber++;
+        if (gesture.isScroll()) {
+            translateX += gesture.scrollDx();
+            translateY += gesture.scrollDy();
+        }
+        if (!gesture.isPinch()) {
+            return;
+        }
+        PinchType pinchType = gesture.pinchType();
+        if (pinchType == PinchType.HORIZONTAL_INCREASE
+            || pinchType == PinchType.HORIZONTAL_DECREASE) {
+            float spacing = gesture.pinchMobileX() - gesture.pinchStaticX();
+            float dX = gesture.pinchDx();
+            if (Math.abs(spacing) >= PINCH_MIN_SPACING && (spacing + dX) / spacing > 0F) {
+                float factor = (spacing + dX) / spacing;
+                scaleX *= factor;
+                translateX = factor * (translateX - gesture.pinchStaticX())
+                    + gesture.pinchStaticX();
+            }
+        } else {
+            float spacing = gesture.pinchMobileY() - gesture.pinchStaticY();
+            float dY = gesture.pinchDy();
+            if (Math.abs(spacing) >= PINCH_MIN_SPACING && (spacing + dY) / spacing > 0F) {
+                float factor = (spacing + dY) / spacing;
+                scaleY *= factor;
+                translateY = factor * (translateY - gesture.pinchStaticY())
+                    + gesture.pinchStaticY();
+            }
+        }
+    }
+
+    /**
+     * Prepares the transformation of the next frame. The recorded events are dispatched to the
+     * Drawables if the gesture ended and the view is not animated anymore, or if the geometry is
+     * stretched beyond the thresholds.
+     * This method must be called by the rendering thread before the Drawables prepare their
+     * parameters.
+     */
+    void prepareFrame(
+        @NonNull List<D3Drawable> drawables, int width, int height, boolean animated
+    ) {
+        int dispatchedNumber = 0;
+        synchronized (this) {
+            boolean settled = !gestureActive && !animated;
+            if (eventsNumber > 0 && (settled || exceedsThresholds(width, height))) {
+                dispatchedNumber = eventsNumber;
+                if (dispatchedEvents.length < eventsNumber * D3Gesture.SIZE) {
+                    dispatchedEvents = new float[events.length];
+                }
+                System.arraycopy(events, 0, dispatchedEvents, 0, eventsNumber * D3Gesture.SIZE);
+                eventsNumber = 0;
+                scaleX = 1F;
+                scaleY = 1F;
+                translateX = 0F;
+                translateY = 0F;
+            }
+            frameTransformed = eventsNumber > 0;
+            frameScaleX = scaleX;
+            frameScaleY = scaleY;
+            frameTranslateX = translateX;
+            frameTranslateY = translateY;
+            frameMatrix.setScale(scaleX, scaleY);
+            frameMatrix.postTranslate(translateX, translateY);
+        }
+        for (int i = 0; i < dispatchedNumber; i++) {
+            dispatchedGesture.read(dispatchedEvents, i * D3Gesture.SIZE);
+            for (int j = 0; j < drawables.size(); j++) {
+                drawables.get(j).onGesture(dispatchedGesture);
+            }
+        }
+    }
+
+    private boolean exceedsThresholds(int width, int height) {
+        float stretch = Math.max(
+            Math.max(scaleX, 1F / scaleX),
+            Math.max(scaleY, 1F / scaleY)
+        );
+        return stretch > maxStretch
+            || Math.abs(translateX) > width * MAX_TRANSLATION_RATIO
+            || Math.abs(translateY) > height * MAX_TRANSLATION_RATIO;
+    }
+
+    /**
+     * Maps the coordinates of a point of the view, as [x, y], to the coordinates of the
+     * untransformed drawing of the last prepared frame.
+     */
+    synchronized void invert(@NonNull float[] point) {
+        point[0] = (point[0] - frameTranslateX) / frameScaleX;
+        point[1] = (point[1] - frameTranslateY) / frameScaleY;
+    }
+
+    /**
+     * Applies the transformation of the frame to the canvas. Returns false if the frame is not
+     * transformed, in which case the canvas is left unchanged.
+     */
+    boolean concat(@NonNull Canvas canvas) {
+        if (!frameTransformed) {
+            return false;
+        }
+        canvas.concat(frameMatrix);
+        return true;
+    }
+}
@@ -22,6 +22,8 @@ import com.fabernovel.d3library.threading.BitmapValueRunnable;
 
 
 class AngleBitmapValueRunnable<T> extends BitmapValueRunnable {
+    private static final float BOUNDS_MARGIN = 1F;
+
     @NonNull private final D3Arc<T> arc;
 
     AngleBitmapValueRunnable(@NonNull D3Arc<T> arc) {
@@ -29,9 +31,18 @@ class AngleBitmapValueRunnable<T> extends BitmapValueRunnable {
     }
 
     @Override protected void computeValue() {
-        value.eraseColor(0);
+        if (arc.optimize) {
+            return;
+        }
+        float outerRadius = arc.outerRadius();
+        float offsetX = arc.offsetX();
+        float offsetY = arc.offsetY();
+        prepareBitmap(
+            offsetX - BOUNDS_MARGIN, offsetY - BOUNDS_MARGIN,
+            offsetX + 2F * outerRadius + BOUNDS_MARGIN, offsetY + 2F * outerRadius + BOUNDS_MARGIN
+        );
         D3ArcDrawer.drawArcs(
-            canvas, arc.innerRadius(), arc.outerRadius(), arc.offsetX(), arc.offsetY(),
+            canvas, arc.innerRadius(), outerRadius, offsetX, offsetY,
             arc.preComputedAngles.getValue(), arc.paint(), arc.colors()
         );
     }
@@ -17,6 +17,7 @@
 package com.fabernovel.d3library.arc;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.threading.ThreadPool;
 import com.fabernovel.d3library.threading.ValueRunnable;
@@ -51,6 +52,11 @@ public class AnglesValueRunnable<T> extends ValueRunnable<Angles> {
         value = computeStartAngle();
     }
 
+    @Override protected void recycle(@Nullable Angles spare) {
+        int length = value.drawAngles.length;
+        value = spare != null && spare.drawAngles.length == length ? spare : new Angles(length);
+    }
+
     private Angles computeStartAngle() {
         if (arc.data == null) {
             throw new IllegalStateException(DATA_ERROR);
@@ -16,8 +16,11 @@
 
 package com.fabernovel.d3library.arc;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.mappers.D3IntDataMapperFunction;
+import com.fabernovel.d3library.threading.ParallelFor;
 import com.fabernovel.d3library.threading.ValueRunnable;
 
 class ColorsRunnable<T> extends ValueRunnable<int[]> {
@@ -25,6 +28,18 @@ class ColorsRunnable<T> extends ValueRunnable<int[]> {
 
     private D3IntDataMapperFunction<T> mapper;
     private boolean areSetLabels;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            T[] data = arc.data;
+            for (int i = from; i < to; i++) {
+                value[i] = mapper.compute(data[i], i, data);
+            }
+        }
+    };
 
     ColorsRunnable(D3Arc<T> arc) {
         this.arc = arc;
@@ -51,13 +66,19 @@ class ColorsRunnable<T> extends ValueRunnable<int[]> {
         setDataLength(arc.data == null ? 0 : arc.data.length);
     }
 
-    @Override protected void computeValue() {
+    @Override protected void recycle(@Nullable int[] spare) {
+        /* Colors given by the user are never written, so they can be shared. */
         if (areSetLabels) {
             return;
         }
+        value = spare != null && spare.length == value.length ? spare : new int[value.length];
+    }
 
-        for (int i = 0; i < value.length; i++) {
-            value[i] = mapper.compute(arc.data[i], i, arc.data);
+    @Override protected void computeValue() {
+        if (areSetLabels) {
+            return;
         }
+
+        parallelFor.run(value.length, ParallelFor.grain(arc.parallelMappers()), computeBody);
     }
 }
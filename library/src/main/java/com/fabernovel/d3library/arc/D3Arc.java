@@ -23,7 +23,9 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.D3Drawable;
+import com.fabernovel.d3library.D3Pick;
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.axes.D3FloatFunction;
@@ -31,7 +33,8 @@ import com.fabernovel.d3library.helper.ColorHelper;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
 import com.fabernovel.d3library.mappers.D3IntDataMapperFunction;
 import com.fabernovel.d3library.mappers.D3StringDataMapperFunction;
-import com.fabernovel.d3library.threading.ValueStorage;
+import com.fabernovel.d3library.threading.BoundedBitmap;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
 
 
 @SuppressWarnings({"unused", "WeakerAccess"})
@@ -44,37 +47,37 @@ public class D3Arc<T> extends D3Drawable {
     private static final String OUTER_RADIUS_ERROR = "OuterRadius should not be null.";
     private static final String DATA_ERROR = "Data should not be null.";
 
-    @NonNull private final ValueStorage<int[]> colors;
+    @NonNull private final BufferedValueStorage<int[]> colors;
     @NonNull private final ColorsRunnable<T> colorsRunnable;
 
     @Nullable D3FloatFunction outerRadius;
     @Nullable D3FloatFunction innerRadius;
 
-    @NonNull final ValueStorage<Float> computedInnerRadius;
-    @NonNull final ValueStorage<Float> computedOuterRadius;
-    @NonNull final ValueStorage<Float> computedOffsetX;
-    @NonNull final ValueStorage<Float> computedOffsetY;
+    @NonNull final BufferedValueStorage<Float> computedInnerRadius;
+    @NonNull final BufferedValueStorage<Float> computedOuterRadius;
+    @NonNull final BufferedValueStorage<Float> computedOffsetX;
+    @NonNull final BufferedValueStorage<Float> computedOffsetY;
     @NonNull private final OuterRadiusValueRunnable outerRadiusValueRunnable;
     @NonNull private final InnerRadiusValueRunnable innerRadiusValueRunnable;
     @NonNull private final OffsetXValueRunnable offsetXValueRunnable;
     @NonNull private final OffsetYValueRunnable offsetYValueRunnable;
 
-    private boolean optimize = false;
+    boolean optimize = false;
     float padAngle;
 
     @NonNull D3FloatFunction offsetX;
     @NonNull D3FloatFunction offsetY;
     @NonNull D3FloatFunction startAngle;
-    @NonNull final ValueStorage<Angles> preComputedAngles;
-    @NonNull private final ValueStorage<Bitmap> preComputedArc;
-    @NonNull private final ValueStorage<LabelsCoordinates> preComputedLabels;
+    @NonNull final BufferedValueStorage<Angles> preComputedAngles;
+    @NonNull private final BufferedValueStorage<BoundedBitmap> preComputedArc;
+    @NonNull private final BufferedValueStorage<LabelsCoordinates> preComputedLabels;
 
     @Nullable T[] data;
     @Nullable private D3FloatDataMapperFunction<T> weights;
     private float[] weightArray;
 
     @NonNull private final LabelsRunnable<T> labelsRunnable;
-    @NonNull private final ValueStorage<String[]> labels;
+    @NonNull private final BufferedValueStorage<String[]> labels;
 
     @NonNull private Paint textPaint;
 
@@ -89,15 +92,15 @@ public class D3Arc<T> extends D3Drawable {
     public D3Arc(@Nullable T[] data) {
         setupPaint();
         setupActions();
-        preComputedAngles = new ValueStorage<>();
-        preComputedArc = new ValueStorage<>();
-        preComputedLabels = new ValueStorage<>();
-        computedInnerRadius = new ValueStorage<>();
-        computedOuterRadius = new ValueStorage<>();
-        computedOffsetX = new ValueStorage<>();
-        computedOffsetY = new ValueStorage<>();
-        labels = new ValueStorage<>();
-        colors = new ValueStorage<>();
+        preComputedAngles = new BufferedValueStorage<>();
+        preComputedArc = new BufferedValueStorage<>();
+        preComputedLabels = new BufferedValueStorage<>();
+        computedInnerRadius = new BufferedValueStorage<>();
+        computedOuterRadius = new BufferedValueStorage<>();
+        computedOffsetX = new BufferedValueStorage<>();
+        computedOffsetY = new BufferedValueStorage<>();
+        labels = new BufferedValueStorage<>();
+        colors = new BufferedValueStorage<>();
 
         bitmapValueRunnable = new AngleBitmapValueRunnable<>(this);
         labelsCoordinatesRunnable = new LabelsValueRunnable<>(this, textPaint);
@@ -108,6 +111,7 @@ public class D3Arc<T> extends D3Drawable {
         offsetYValueRunnable = new OffsetYValueRunnable(this);
         labelsRunnable = new LabelsRunnable<>(this);
         colorsRunnable = new ColorsRunnable<>(this);
+        setupTaskGraph();
 
         data(data);
         weights(new D3FloatDataMapperFunction<T>() {
@@ -133,6 +137,26 @@ public class D3Arc<T> extends D3Drawable {
         padAngle(DEFAULT_PAD_ANGLE);
     }
 
+    private void setupTaskGraph() {
+        taskGraph
+            .add(computedOffsetX, offsetXValueRunnable)
+            .add(computedOffsetY, offsetYValueRunnable)
+            .add(computedInnerRadius, innerRadiusValueRunnable)
+            .add(computedOuterRadius, outerRadiusValueRunnable)
+            .add(preComputedAngles, anglesValueRunnable)
+            .add(labels, labelsRunnable)
+            .add(colors, colorsRunnable)
+            .add(
+                preComputedLabels, labelsCoordinatesRunnable,
+                labels, preComputedAngles, computedInnerRadius, computedOuterRadius
+            )
+            .add(
+                preComputedArc, bitmapValueRunnable,
+                computedInnerRadius, computedOuterRadius, computedOffsetX, computedOffsetY,
+                preComputedAngles, colors
+            );
+    }
+
     @Override protected void setupPaint() {
         super.setupPaint();
         textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -391,6 +415,25 @@ public class D3Arc<T> extends D3Drawable {
         if (data == null) {
             throw new IllegalStateException(DATA_ERROR);
         }
+        int index = indexFromPosition(data, x, y);
+        return index < 0 ? null : data[index];
+    }
+
+    /**
+     * Returns the part drawn at the given coordinates, or null if there is none. Only the parts
+     * containing the coordinates are picked, at a null distance. It waits for the offsets and
+     * the angles to be computed.
+     */
+    @Nullable @Override public D3Pick pick(float x, float y, float radius) {
+        T[] currentData = data;
+        if (currentData == null) {
+            return null;
+        }
+        int index = indexFromPosition(currentData, x, y);
+        return index < 0 ? null : new D3Pick(this, index, 0F);
+    }
+
+    private int indexFromPosition(@NonNull T[] data, float x, float y) {
         float xCenter = offsetX() + outerRadius();
         float yCenter = offsetY() + outerRadius();
 
@@ -399,7 +442,7 @@ public class D3Arc<T> extends D3Drawable {
 
         float radius = (float) Math.hypot(diffX, diffY);
         if (radius < innerRadius() || radius > outerRadius()) {
-            return null;
+            return -1;
         }
 
         float angle = (float) Math.atan(diffY / diffX);
@@ -411,10 +454,10 @@ public class D3Arc<T> extends D3Drawable {
 
         for (int i = 0; i < data.length; i++) {
             if (inAngles(angle, computedAngles.startAngles[i], computedAngles.drawAngles[i])) {
-                return data[i];
+                return i;
             }
         }
-        return null;
+        return -1;
     }
 
     private boolean inAngles(float angle, float startAngle, float drawAngle) {
@@ -467,14 +510,21 @@ public class D3Arc<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3Arc<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public void draw(@NonNull Canvas canvas) {
         if (optimize) {
             D3ArcDrawer.drawArcs(
-                canvas, innerRadius(), outerRadius(), offsetX(), offsetY(),
-                preComputedAngles.getValue(), paint, colors()
+                canvas, computedInnerRadius.getLatestValue(),
+                computedOuterRadius.getLatestValue(), computedOffsetX.getLatestValue(),
+                computedOffsetY.getLatestValue(), preComputedAngles.getLatestValue(), paint,
+                colors.getLatestValue()
             );
         } else {
-            canvas.drawBitmap(preComputedArc.getValue(), 0F, 0F, null);
+            preComputedArc.getLatestValue().draw(canvas, paint);
         }
         drawLabels(canvas);
     }
@@ -484,20 +534,33 @@ public class D3Arc<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3Arc<T> renderStale(boolean renderStale) {
+        super.renderStale(renderStale);
+        return this;
+    }
+
+    @Override public D3Arc<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
+    }
+
     private void drawLabels(@NonNull Canvas canvas) {
         if (labels == null) {
             return;
         }
 
-        float offsetX = offsetX();
-        float offsetY = offsetY();
-        float[] coordinatesX = labelsCoordinatesRunnable.getValue().coordinatesX;
-        float[] coordinatesY = labelsCoordinatesRunnable.getValue().coordinatesY;
+        float offsetX = computedOffsetX.getLatestValue();
+        float offsetY = computedOffsetY.getLatestValue();
+        LabelsCoordinates coordinates = preComputedLabels.getLatestValue();
+        float[] coordinatesX = coordinates.coordinatesX;
+        float[] coordinatesY = coordinates.coordinatesY;
 
-        String[] computedLabels = this.labels.getValue();
-        int[] computedColors = colors();
+        String[] computedLabels = this.labels.getLatestValue();
+        int[] computedColors = colors.getLatestValue();
+        /* Stale labels can have been computed for a previous data length. */
+        int labelsNumber = Math.min(computedLabels.length, coordinatesX.length);
 
-        for (int i = 0; i < data.length; i++) {
+        for (int i = 0; i < labelsNumber; i++) {
             textPaint.setColor(ColorHelper.colorDependingOnBackground(
                 computedColors[i % computedColors.length])
             );
@@ -511,17 +574,7 @@ public class D3Arc<T> extends D3Drawable {
         if (lazyRecomputing && calculationNeeded() == 0) {
             return;
         }
-        computedOffsetX.setValue(offsetXValueRunnable);
-        computedOffsetY.setValue(offsetYValueRunnable);
-        computedInnerRadius.setValue(innerRadiusValueRunnable);
-        computedOuterRadius.setValue(outerRadiusValueRunnable);
-        preComputedAngles.setValue(anglesValueRunnable);
-        labels.setValue(labelsRunnable);
-        preComputedLabels.setValue(labelsCoordinatesRunnable);
-        colors.setValue(colorsRunnable);
-        if (!optimize) {
-            preComputedArc.setValue(bitmapValueRunnable);
-        }
+        taskGraph.execute();
     }
 
     @Override public D3Arc<T> setClipRect(
@@ -543,6 +596,16 @@ public class D3Arc<T> extends D3Drawable {
         bitmapValueRunnable.resizeBitmap(width, height);
     }
 
+    /**
+     * Sets the configuration of the bitmap in which the arcs are drawn, see
+     * {@link com.fabernovel.d3library.threading.BitmapValueRunnable#bitmapConfig(Bitmap.Config)}.
+     */
+    public D3Arc<T> bitmapConfig(@NonNull Bitmap.Config config) {
+        bitmapValueRunnable.bitmapConfig(config);
+        updateNeeded();
+        return this;
+    }
+
     public D3Arc<T> optimize(boolean optimize) {
         this.optimize = optimize;
         updateNeeded(2);
@@ -16,6 +16,8 @@
 
 package com.fabernovel.d3library.arc;
 
+import android.support.annotation.Nullable;
+
 import com.fabernovel.d3library.mappers.D3StringDataMapperFunction;
 import com.fabernovel.d3library.threading.ValueRunnable;
 
@@ -50,6 +52,14 @@ class LabelsRunnable<T> extends ValueRunnable<String[]> {
         setDataLength(arc.data == null ? 0 : arc.data.length);
     }
 
+    @Override protected void recycle(@Nullable String[] spare) {
+        /* Labels given by the user are never written, so they can be shared. */
+        if (areSetLabels) {
+            return;
+        }
+        value = spare != null && spare.length == value.length ? spare : new String[value.length];
+    }
+
     @Override protected void computeValue() {
         if (areSetLabels) {
             return;
@@ -18,6 +18,7 @@ package com.fabernovel.d3library.arc;
 
 import android.graphics.Paint;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.helper.TextHelper;
 import com.fabernovel.d3library.threading.ValueRunnable;
@@ -37,6 +38,12 @@ class LabelsValueRunnable<T> extends ValueRunnable<LabelsCoordinates> {
         value = new LabelsCoordinates(length);
     }
 
+    @Override protected void recycle(@Nullable LabelsCoordinates spare) {
+        int length = value.coordinatesX.length;
+        value = spare != null && spare.coordinatesX.length == length ?
+            spare : new LabelsCoordinates(length);
+    }
+
     protected void computeValue() {
         if (arc.data == null) {
             throw new IllegalStateException(DATA_ERROR);
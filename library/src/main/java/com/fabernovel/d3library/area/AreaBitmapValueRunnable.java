@@ -35,30 +35,32 @@ class AreaBitmapValueRunnable<T> extends BitmapValueRunnable {
     }
 
     @Override protected void computeValue() {
-        T[] data = area.data();
-        if (data == null) {
+        if (!area.hasData()) {
             throw new IllegalStateException(DATA_ERROR);
         }
-        if (data.length < 2) {
+        float[] x = area.x();
+        float[] y = area.y();
+        int length = Math.min(x.length, y.length);
+        if (length < 2) {
+            prepareBitmap(0F, 0F, 0F, 0F);
             return;
         }
         if (area.ground == null) {
             throw new IllegalStateException(GROUND_ERROR);
         }
 
-        value.eraseColor(0);
         float computedGrounded = area.ground.getFloat();
-        float[] x = area.x();
-        float[] y = area.y();
 
         path.rewind();
         path.moveTo(x[0], y[0]);
-        for (int i = 1; i < Math.min(x.length, y.length); i++) {
+        for (int i = 1; i < length; i++) {
             path.lineTo(x[i], y[i]);
         }
-        path.lineTo(x[x.length - 1], computedGrounded);
+        path.lineTo(x[length - 1], computedGrounded);
         path.lineTo(x[0], computedGrounded);
 
+        prepareBitmap(path, area.paint());
+
         canvas.drawPath(path, area.paint());
     }
 }
@@ -23,30 +23,42 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.data.D3Column;
+import com.fabernovel.d3library.line.D3DataStream;
 import com.fabernovel.d3library.line.D3Line;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
+import com.fabernovel.d3library.scale.D3Scale;
 import com.fabernovel.d3library.scale.Interpolator;
-import com.fabernovel.d3library.threading.ValueStorage;
+import com.fabernovel.d3library.threading.BoundedBitmap;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
 
 public class D3Area<T> extends D3Line<T> {
     private static final String GROUND_ERROR = "Ground should not be null";
     private static final String DATA_ERROR = "Data should not be null";
     @Nullable D3FloatFunction ground;
 
-    private final ValueStorage<Bitmap> bitmapValueStorage = new ValueStorage<>();
+    private final BufferedValueStorage<BoundedBitmap> bitmapValueStorage =
+        new BufferedValueStorage<>();
     private final AreaBitmapValueRunnable<T> bitmapValueRunnable =
         new AreaBitmapValueRunnable<>(this);
 
     public D3Area() {
         super();
+        setupTaskGraph();
     }
 
     public D3Area(@Nullable T[] data) {
         super(data);
         setupPaint();
+        setupTaskGraph();
+    }
+
+    private void setupTaskGraph() {
+        taskGraph.add(bitmapValueStorage, bitmapValueRunnable, storeX, storeY);
     }
 
     @Override public D3Area<T> onClickAction(@Nullable OnClickAction onClickAction) {
@@ -64,6 +76,11 @@ public class D3Area<T> extends D3Line<T> {
         return this;
     }
 
+    @Override public D3Area<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public D3Area<T> setClipRect(
         @NonNull D3FloatFunction leftLimit,
         @NonNull D3FloatFunction topLimit,
@@ -89,16 +106,41 @@ public class D3Area<T> extends D3Line<T> {
         return this;
     }
 
+    @Override public D3Area<T> x(@NonNull D3Column x, @Nullable D3Scale<?> scale) {
+        super.x(x, scale);
+        return this;
+    }
+
+    @Override public D3Area<T> y(@NonNull D3Column y, @Nullable D3Scale<?> scale) {
+        super.y(y, scale);
+        return this;
+    }
+
     @Override public D3Area<T> data(@NonNull T[] data) {
         super.data(data);
         return this;
     }
 
+    @Override public D3Area<T> data(@NonNull D3DataStream<T> stream) {
+        super.data(stream);
+        return this;
+    }
+
+    @Override public D3Area<T> scales(@NonNull D3Scale<?>... scales) {
+        super.scales(scales);
+        return this;
+    }
+
     @Override public D3Area<T> interpolator(@NonNull Interpolator interpolator) {
         super.interpolator(interpolator);
         return this;
     }
 
+    @Override public D3Area<T> pickable(boolean pickable) {
+        super.pickable(pickable);
+        return this;
+    }
+
     @Override public D3Area<T> paint(@NonNull Paint paint) {
         super.paint(paint);
         paint.setStyle(Paint.Style.FILL);
@@ -128,20 +170,32 @@ public class D3Area<T> extends D3Line<T> {
         bitmapValueRunnable.resizeBitmap(width, height);
     }
 
-    @Override public void prepareParameters() {
-        super.prepareParameters();
-        if (lazyRecomputing && calculationNeeded() == 0) {
-            return;
-        }
-        bitmapValueStorage.setValue(bitmapValueRunnable);
+    /**
+     * Sets the configuration of the bitmap in which the area is drawn, see
+     * {@link com.fabernovel.d3library.threading.BitmapValueRunnable#bitmapConfig(Bitmap.Config)}.
+     */
+    public D3Area<T> bitmapConfig(@NonNull Bitmap.Config config) {
+        bitmapValueRunnable.bitmapConfig(config);
+        updateNeeded();
+        return this;
     }
 
     @Override public void draw(@NonNull Canvas canvas) {
-        canvas.drawBitmap(bitmapValueStorage.getValue(), 0F, 0F, null);
+        bitmapValueStorage.getLatestValue().draw(canvas, paint);
     }
 
     @Override public D3Area<T> lazyRecomputing(boolean lazyRecomputing) {
         super.lazyRecomputing(lazyRecomputing);
         return this;
     }
+
+    @Override public D3Area<T> renderStale(boolean renderStale) {
+        super.renderStale(renderStale);
+        return this;
+    }
+
+    @Override public D3Area<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
+    }
 }
@@ -16,19 +16,22 @@
 
 package com.fabernovel.d3library.axes;
 
+import android.graphics.RectF;
 import android.support.annotation.NonNull;
 
 import com.fabernovel.d3library.threading.BitmapValueRunnable;
 
 class AxisBitmapValueRunnable<T> extends BitmapValueRunnable {
     @NonNull private final D3AxisDrawer<T> drawer;
+    @NonNull private final RectF bounds = new RectF();
 
     AxisBitmapValueRunnable(@NonNull D3AxisDrawer<T> drawer) {
         this.drawer = drawer;
     }
 
     @Override protected void computeValue() {
-        value.eraseColor(0);
+        drawer.computeBounds(bounds);
+        prepareBitmap(bounds);
         drawer.draw(canvas);
     }
 }
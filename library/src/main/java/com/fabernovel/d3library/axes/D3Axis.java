@@ -25,12 +25,14 @@ import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.D3Drawable;
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.scale.D3Converter;
 import com.fabernovel.d3library.scale.D3LabelFunction;
 import com.fabernovel.d3library.scale.D3Scale;
-import com.fabernovel.d3library.threading.ValueStorage;
+import com.fabernovel.d3library.threading.BoundedBitmap;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class D3Axis<T> extends D3Drawable {
@@ -47,10 +49,11 @@ public class D3Axis<T> extends D3Drawable {
     @NonNull private final D3AxisDrawer<T> drawer = new D3AxisDrawer<>(this);
     @NonNull private final AxisBitmapValueRunnable<T> bitmapValueRunnable =
         new AxisBitmapValueRunnable<>(drawer);
-    @NonNull private final ValueStorage<Bitmap> bitmapValueStorage = new ValueStorage<>();
+    @NonNull private final BufferedValueStorage<BoundedBitmap> bitmapValueStorage =
+        new BufferedValueStorage<>();
 
     @NonNull final TicksValueRunnable<T> ticksValueRunnable = new TicksValueRunnable<>(this);
-    @NonNull final ValueStorage<String[]> ticksLegend = new ValueStorage<>();
+    @NonNull final BufferedValueStorage<String[]> ticksLegend = new BufferedValueStorage<>();
 
     @NonNull D3FloatFunction offsetX;
     @NonNull D3FloatFunction offsetY;
@@ -113,6 +116,9 @@ public class D3Axis<T> extends D3Drawable {
     }
 
     private void setupProperties() {
+        taskGraph
+            .add(ticksLegend, ticksValueRunnable)
+            .add(bitmapValueStorage, bitmapValueRunnable, ticksLegend);
         translate(DEFAULT_OFFSET, DEFAULT_OFFSET);
         ticks(DEFAULT_TICK_NUMBER);
         this.legendProperties = new LegendProperties();
@@ -543,6 +549,11 @@ public class D3Axis<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3Axis<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public D3Axis<T> setClipRect(
         @NonNull D3FloatFunction leftLimit, @NonNull D3FloatFunction topLimit,
         @NonNull D3FloatFunction rightLimit, @NonNull D3FloatFunction bottomLimit
@@ -561,21 +572,35 @@ public class D3Axis<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3Axis<T> renderStale(boolean renderStale) {
+        super.renderStale(renderStale);
+        return this;
+    }
+
     @Override public void prepareParameters() {
         if (lazyRecomputing && calculationNeeded() == 0) {
             return;
         }
-        ticksLegend.setValue(ticksValueRunnable);
-        bitmapValueStorage.setValue(bitmapValueRunnable);
+        taskGraph.execute();
     }
 
     @Override protected void onDimensionsChange(float width, float height) {
         bitmapValueRunnable.resizeBitmap(width, height);
     }
 
+    /**
+     * Sets the configuration of the bitmap in which the axis is drawn, see
+     * {@link com.fabernovel.d3library.threading.BitmapValueRunnable#bitmapConfig(Bitmap.Config)}.
+     */
+    public D3Axis<T> bitmapConfig(@NonNull Bitmap.Config config) {
+        bitmapValueRunnable.bitmapConfig(config);
+        updateNeeded();
+        return this;
+    }
+
     @Override public void draw(@NonNull Canvas canvas) {
-        if (lazyRecomputing && calculationNeeded() == 0) {
-            canvas.drawBitmap(bitmapValueStorage.getValue(), 0F, 0F, null);
+        if (renderStale || (lazyRecomputing && calculationNeeded() == 0)) {
+            bitmapValueStorage.getLatestValue().draw(canvas, paint);
         } else {
             drawer.draw(canvas);
         }
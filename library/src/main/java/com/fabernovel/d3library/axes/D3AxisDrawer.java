@@ -19,14 +19,22 @@ package com.fabernovel.d3library.axes;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.RectF;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.helper.TextHelper;
 
 final class D3AxisDrawer<T> {
+    /**
+     * Margin added around the bounds of the drawing, for antialiasing.
+     */
+    private static final float BOUNDS_MARGIN = 1F;
+
     @NonNull private final Path path;
     private final D3Axis<T> axis;
     private Paint paint;
+    @Nullable private RectF legendBounds;
 
     D3AxisDrawer(D3Axis<T> axis) {
         this.axis = axis;
@@ -46,6 +54,21 @@ final class D3AxisDrawer<T> {
         drawTicksLegend(canvas);
     }
 
+    /**
+     * Computes the bounding box of what {@link #draw(Canvas)} draws.
+     */
+    void computeBounds(@NonNull RectF bounds) {
+        initPath();
+        computeLine();
+        drawTicks();
+        path.computeBounds(bounds, true);
+        float margin = paint.getStrokeWidth() / 2F + BOUNDS_MARGIN;
+        bounds.inset(-margin, -margin);
+        legendBounds = bounds;
+        drawTicksLegend(null);
+        legendBounds = null;
+    }
+
     private void initPath() {
         path.rewind();
     }
@@ -116,7 +139,10 @@ final class D3AxisDrawer<T> {
         canvas.drawPath(path, paint);
     }
 
-    private void drawTicksLegend(@NonNull Canvas canvas) {
+    /**
+     * Draws the legends on the canvas or, if it is null, adds their bounds to the legend bounds.
+     */
+    private void drawTicksLegend(@Nullable Canvas canvas) {
         if (axis.orientation == AxisOrientation.TOP || axis.orientation == AxisOrientation.BOTTOM) {
             drawHorizontalLegend(canvas);
         } else {
@@ -124,7 +150,7 @@ final class D3AxisDrawer<T> {
         }
     }
 
-    private void drawVerticalLegend(@NonNull Canvas canvas) {
+    private void drawVerticalLegend(@Nullable Canvas canvas) {
         float computedOffsetX = axis.offsetX.getFloat();
         String[] usableTicks = axis.ticksLegend.getValue();
         float coordinateX = axis.orientation == AxisOrientation.LEFT ?
@@ -137,7 +163,7 @@ final class D3AxisDrawer<T> {
     }
 
     private void drawSingleVerticalLegend(
-        @NonNull Canvas canvas, @NonNull String tick, float coordinateX, int i
+        @Nullable Canvas canvas, @NonNull String tick, float coordinateX, int i
     ) {
         float computedOffsetY = axis.offsetY.getFloat();
         int ticksNumber = axis.ticks();
@@ -147,7 +173,7 @@ final class D3AxisDrawer<T> {
         coordinateY += alignmentVerticalOffset(tick);
         float realCoordinateX = coordinateX - (axis.orientation == AxisOrientation.LEFT ?
             axis.textPaint.measureText("" + tick) : 0);
-        canvas.drawText(tick, realCoordinateX, coordinateY, axis.textPaint);
+        drawText(canvas, tick, realCoordinateX, coordinateY);
     }
 
     private float alignmentVerticalOffset(@NonNull String legend) {
@@ -162,7 +188,7 @@ final class D3AxisDrawer<T> {
         }
     }
 
-    private void drawHorizontalLegend(@NonNull Canvas canvas) {
+    private void drawHorizontalLegend(@Nullable Canvas canvas) {
         float computedOffsetY = axis.offsetY.getFloat();
         String[] usableTicks = axis.ticksLegend.getValue();
         float coordinateY = axis.orientation == AxisOrientation.TOP ?
@@ -175,7 +201,7 @@ final class D3AxisDrawer<T> {
     }
 
     private void drawSingleHorizontalLegend(
-        @NonNull Canvas canvas,
+        @Nullable Canvas canvas,
         @NonNull String[] ticks,
         float coordinateY,
         int i
@@ -189,7 +215,20 @@ final class D3AxisDrawer<T> {
         float realCoordinateY = coordinateY + (axis.orientation == AxisOrientation.TOP ? 0 :
             TextHelper.getTextHeight(ticks[i], axis.textPaint));
 
-        canvas.drawText(ticks[i], coordinateX, realCoordinateY, axis.textPaint);
+        drawText(canvas, ticks[i], coordinateX, realCoordinateY);
+    }
+
+    private void drawText(@Nullable Canvas canvas, @NonNull String text, float x, float y) {
+        if (canvas != null) {
+            canvas.drawText(text, x, y, axis.textPaint);
+        } else if (legendBounds != null) {
+            legendBounds.union(
+                x - BOUNDS_MARGIN,
+                y + axis.textPaint.ascent() - BOUNDS_MARGIN,
+                x + axis.textPaint.measureText(text) + BOUNDS_MARGIN,
+                y + axis.textPaint.descent() + BOUNDS_MARGIN
+            );
+        }
     }
 
     private float alignmentHorizontalOffset(@NonNull String legend) {
@@ -16,6 +16,8 @@
 
 package com.fabernovel.d3library.axes;
 
+import android.support.annotation.Nullable;
+
 import com.fabernovel.d3library.threading.ValueRunnable;
 
 class TicksValueRunnable<T> extends ValueRunnable<String[]> {
@@ -41,6 +43,14 @@ class TicksValueRunnable<T> extends ValueRunnable<String[]> {
         return value.length;
     }
 
+    @Override protected void recycle(@Nullable String[] spare) {
+        /* Legends given by the user are never written, so they can be shared. */
+        if (areCustomLegends) {
+            return;
+        }
+        value = spare != null && spare.length == value.length ? spare : new String[value.length];
+    }
+
     @Override protected void computeValue() {
         if (areCustomLegends) {
             return;
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+public enum Aggregation {
+    /***
+     * All the bars are drawn (Default value).
+     */
+    NONE,
+    /***
+     * For each pixel column, only the bar with the lowest height is drawn.
+     */
+    MIN,
+    /***
+     * For each pixel column, a single rectangle covering all the bars is drawn, with the color
+     * of the highest one.
+     */
+    MAX,
+    /***
+     * For each pixel column, the heights of the bars are summed and drawn from the bottom of
+     * the last bar, with its color.
+     */
+    SUM,
+    /***
+     * For each pixel column, only the last bar is drawn.
+     */
+    LAST
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Bins the bars by pixel column of their middle, and adds one rectangle per column to the Path
+ * of its color.
+ */
+class AggregationRunnable<T> extends ValueRunnable<BarBatch> {
+    private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+    @NonNull private final D3BarChart<T> barChart;
+    @NonNull private int[] counts = new int[0];
+    @NonNull private int[] bars = new int[0];
+    @NonNull private float[] lefts = new float[0];
+    @NonNull private float[] rights = new float[0];
+    @NonNull private float[] tops = new float[0];
+    @NonNull private float[] bottoms = new float[0];
+    @NonNull private float[] heights = new float[0];
+
+    AggregationRunnable(@NonNull D3BarChart<T> barChart) {
+        this.barChart = barChart;
+        value = new BarBatch();
+    }
+
+    @Override protected void computeValue() {
+        Aggregation aggregation = barChart.aggregation;
+        int[] colors = barChart.colors();
+        value.clear(colors.length);
+        float viewWidth = barChart.width();
+        int columnsNumber = (int) Math.ceil(viewWidth);
+        if (aggregation == Aggregation.NONE || columnsNumber <= 0) {
+            return;
+        }
+        float[] x = barChart.x();
+        float[] y = barChart.y();
+        float[] height = barChart.dataHeight();
+        float halfWidth = barChart.dataWidth() / 2F;
+        int barsNumber = Math.min(Math.min(height.length, x.length), y.length);
+        clearColumns(columnsNumber);
+
+        for (int i = 0; i < barsNumber; i++) {
+            if (i % CANCELLATION_CHECK_INTERVAL == 0 && isCancelled()) {
+                return;
+            }
+            float left = x[i] - halfWidth;
+            float right = x[i] + halfWidth;
+            if (right < 0F || left > viewWidth) {
+                continue;
+            }
+            int column = Math.min(Math.max((int) x[i], 0), columnsNumber - 1);
+            if (counts[column] == 0) {
+                setBar(column, i, left, right, y[i], height[i]);
+            } else {
+                aggregate(aggregation, column, i, left, right, y[i], height[i]);
+            }
+            counts[column]++;
+        }
+
+        for (int column = 0; column < columnsNumber; column++) {
+            if (counts[column] == 0) {
+                continue;
+            }
+            value.paths[bars[column] % colors.length].addRect(
+                lefts[column],
+                Math.min(tops[column], bottoms[column]),
+                rights[column],
+                Math.max(tops[column], bottoms[column]),
+                Path.Direction.CW
+            );
+        }
+    }
+
+    private void aggregate(
+        @NonNull Aggregation aggregation, int column, int bar, float left, float right,
+        float bottom, float height
+    ) {
+        float previousLeft = lefts[column];
+        float previousRight = rights[column];
+        switch (aggregation) {
+            case MIN:
+                if (Math.abs(height) < Math.abs(heights[column])) {
+                    setBar(column, bar, left, right, bottom, height);
+                }
+                break;
+            case MAX:
+                float top = bottom - height;
+                float low = Math.min(tops[column], bottoms[column]);
+                float high = Math.max(tops[column], bottoms[column]);
+                if (Math.abs(height) > Math.abs(heights[column])) {
+                    bars[column] = bar;
+                    heights[column] = height;
+                }
+                tops[column] = Math.min(low, Math.min(top, bottom));
+                bottoms[column] = Math.max(high, Math.max(top, bottom));
+                break;
+            case SUM:
+                setBar(column, bar, left, right, bottom, heights[column] + height);
+                break;
+            default:
+                setBar(column, bar, left, right, bottom, height);
+                break;
+        }
+        lefts[column] = Math.min(previousLeft, left);
+        rights[column] = Math.max(previousRight, right);
+    }
+
+    private void setBar(int column, int bar, float left, float right, float bottom, float height) {
+        bars[column] = bar;
+        lefts[column] = left;
+        rights[column] = right;
+        bottoms[column] = bottom;
+        tops[column] = bottom - height;
+        heights[column] = height;
+    }
+
+    private void clearColumns(int columnsNumber) {
+        if (counts.length < columnsNumber) {
+            counts = new int[columnsNumber];
+            bars = new int[columnsNumber];
+            lefts = new float[columnsNumber];
+            rights = new float[columnsNumber];
+            tops = new float[columnsNumber];
+            bottoms = new float[columnsNumber];
+            heights = new float[columnsNumber];
+            return;
+        }
+        for (int i = 0; i < columnsNumber; i++) {
+            counts[i] = 0;
+        }
+    }
+
+    @Override protected void recycle(@Nullable BarBatch spare) {
+        value = spare == null ? new BarBatch() : spare;
+    }
+}
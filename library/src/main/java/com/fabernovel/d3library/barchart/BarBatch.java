@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Rectangles of bars ready to be drawn in a few calls: either as triangles with a color per
+ * vertex, drawn with a single call, or gathered in a Path per color.
+ */
+class BarBatch {
+    static final int VERTICES_PER_BAR = 6;
+
+    @NonNull Path[] paths = new Path[0];
+    int colorsNumber;
+    @NonNull float[] vertices = new float[0];
+    @NonNull int[] vertexColors = new int[0];
+    int verticesNumber;
+
+    void clear(int colorsNumber) {
+        if (paths.length < colorsNumber) {
+            int previousLength = paths.length;
+            paths = Arrays.copyOf(paths, colorsNumber);
+            for (int i = previousLength; i < colorsNumber; i++) {
+                paths[i] = new Path();
+            }
+        }
+        for (int i = 0; i < colorsNumber; i++) {
+            paths[i].rewind();
+        }
+        this.colorsNumber = colorsNumber;
+        verticesNumber = 0;
+    }
+
+    void reserveVertices(int verticesNumber) {
+        if (vertexColors.length < verticesNumber) {
+            vertices = new float[2 * verticesNumber];
+            vertexColors = new int[verticesNumber];
+        }
+    }
+
+    /**
+     * Writes the two triangles of the rectangle at the given bar index.
+     */
+    void setBar(int bar, float left, float top, float right, float bottom, int color) {
+        int vertex = bar * VERTICES_PER_BAR;
+        int offset = 2 * vertex;
+        vertices[offset] = left;
+        vertices[offset + 1] = top;
+        vertices[offset + 2] = right;
+        vertices[offset + 3] = top;
+        vertices[offset + 4] = right;
+        vertices[offset + 5] = bottom;
+        vertices[offset + 6] = left;
+        vertices[offset + 7] = top;
+        vertices[offset + 8] = right;
+        vertices[offset + 9] = bottom;
+        vertices[offset + 10] = left;
+        vertices[offset + 11] = bottom;
+        Arrays.fill(vertexColors, vertex, vertex + VERTICES_PER_BAR, color);
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull int[] colors, @NonNull Paint paint) {
+        if (verticesNumber > 0) {
+            canvas.drawVertices(
+                Canvas.VertexMode.TRIANGLES, 2 * verticesNumber, vertices, 0, null, 0,
+                vertexColors, 0, null, 0, 0, paint
+            );
+        }
+        for (int i = 0; i < colorsNumber; i++) {
+            if (paths[i].isEmpty()) {
+                continue;
+            }
+            paint.setColor(colors[i % colors.length]);
+            canvas.drawPath(paths[i], paint);
+        }
+    }
+}
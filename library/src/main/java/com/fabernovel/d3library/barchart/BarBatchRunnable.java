@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.helper.CanvasHelper;
+import com.fabernovel.d3library.threading.ParallelFor;
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Packs the rectangles of all the bars into a {@link BarBatch}. Hardware canvases only draw
+ * vertices since Android Q, so the rectangles are gathered in a Path per color before.
+ */
+class BarBatchRunnable<T> extends ValueRunnable<BarBatch> {
+    private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+    @NonNull private final D3BarChart<T> barChart;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                float top = y[i] - height[i];
+                value.setBar(
+                    i, x[i] - halfWidth, Math.min(top, y[i]), x[i] + halfWidth,
+                    Math.max(top, y[i]), colors[i % colors.length]
+                );
+            }
+        }
+    };
+    private float[] x;
+    private float[] y;
+    private float[] height;
+    private int[] colors;
+    private float halfWidth;
+
+    BarBatchRunnable(@NonNull D3BarChart<T> barChart) {
+        this.barChart = barChart;
+        value = new BarBatch();
+    }
+
+    @Override protected void computeValue() {
+        colors = barChart.colors();
+        value.clear(colors.length);
+        if (barChart.aggregation != Aggregation.NONE) {
+            return;
+        }
+        x = barChart.x();
+        y = barChart.y();
+        height = barChart.dataHeight();
+        halfWidth = barChart.dataWidth() / 2F;
+        int barsNumber = Math.min(Math.min(height.length, x.length), y.length);
+
+        if (CanvasHelper.drawsVertices()) {
+            value.reserveVertices(barsNumber * BarBatch.VERTICES_PER_BAR);
+            parallelFor.run(barsNumber, computeBody);
+            value.verticesNumber = barsNumber * BarBatch.VERTICES_PER_BAR;
+            return;
+        }
+        for (int i = 0; i < barsNumber; i++) {
+            if (i % CANCELLATION_CHECK_INTERVAL == 0 && isCancelled()) {
+                return;
+            }
+            float top = y[i] - height[i];
+            value.paths[i % colors.length].addRect(
+                x[i] - halfWidth, Math.min(top, y[i]), x[i] + halfWidth, Math.max(top, y[i]),
+                Path.Direction.CW
+            );
+        }
+    }
+
+    @Override protected void recycle(@Nullable BarBatch spare) {
+        value = spare == null ? new BarBatch() : spare;
+    }
+}
@@ -21,12 +21,18 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.D3Drawable;
+import com.fabernovel.d3library.D3Pick;
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.data.D3Column;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
-import com.fabernovel.d3library.threading.ValueStorage;
+import com.fabernovel.d3library.pick.BoxIndex;
+import com.fabernovel.d3library.scale.D3Scale;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
+import com.fabernovel.d3library.threading.CommittedValueStorage;
 
 public class D3BarChart<T> extends D3Drawable {
     private static final String DATA_ERROR = "Data should not be null";
@@ -39,23 +45,52 @@ public class D3BarChart<T> extends D3Drawable {
 
     @Nullable private D3FloatFunction dataWidth;
 
-    @NonNull private final ValueStorage<float[]> heightValueStorage = new ValueStorage<>();
+    @NonNull Aggregation aggregation = Aggregation.NONE;
+
+    @NonNull private final BufferedValueStorage<float[]> heightValueStorage
+        = new BufferedValueStorage<>();
     @NonNull private final FloatsValueRunnable<T> heightValueRunnable
         = new FloatsValueRunnable<>(this);
 
-    @NonNull private final ValueStorage<float[]> xValueStorage = new ValueStorage<>();
+    @NonNull private final BufferedValueStorage<float[]> xValueStorage
+        = new BufferedValueStorage<>();
     @NonNull private final FloatsValueRunnable<T> xValueRunnable
         = new FloatsValueRunnable<>(this);
-    @NonNull private final ValueStorage<float[]> yValueStorage = new ValueStorage<>();
+    @NonNull private final BufferedValueStorage<float[]> yValueStorage
+        = new BufferedValueStorage<>();
     @NonNull private final FloatsValueRunnable<T> yValueRunnable
         = new FloatsValueRunnable<>(this);
 
+    @NonNull private final BufferedValueStorage<BarBatch> aggregatedBars
+        = new BufferedValueStorage<>();
+    @NonNull private final BufferedValueStorage<BarBatch> barBatch
+        = new BufferedValueStorage<>();
+    @NonNull private final CommittedValueStorage<BoxIndex> pickIndex
+        = new CommittedValueStorage<>();
+    volatile boolean pickable;
+
 
     public D3BarChart() {
         this(null);
     }
 
     public D3BarChart(@Nullable T[] data) {
+        taskGraph
+            .add(xValueStorage, xValueRunnable)
+            .add(yValueStorage, yValueRunnable)
+            .add(heightValueStorage, heightValueRunnable)
+            .add(
+                aggregatedBars, new AggregationRunnable<>(this),
+                xValueStorage, yValueStorage, heightValueStorage
+            )
+            .add(
+                barBatch, new BarBatchRunnable<>(this),
+                xValueStorage, yValueStorage, heightValueStorage
+            )
+            .add(
+                pickIndex, new PickIndexRunnable<>(this),
+                xValueStorage, yValueStorage, heightValueStorage
+            );
         data(data);
         setupPaint();
         dataWidth(DEFAULT_DATA_WIDTH);
@@ -95,6 +130,17 @@ public class D3BarChart<T> extends D3Drawable {
         return this;
     }
 
+    /**
+     * Sets the heights of the BarChart's data representation from a column of values. The
+     * height of a value is the distance between the projections of 0 and of the value with the
+     * scale. If the scale is null, the values of the column are used as heights.
+     */
+    public D3BarChart<T> dataHeight(@NonNull D3Column dataHeight, @Nullable D3Scale<?> scale) {
+        heightValueRunnable.setColumn(dataHeight, scale, true);
+        updateNeeded();
+        return this;
+    }
+
     /**
      * Returns the width of the BarChart's data representation.
      */
@@ -118,10 +164,12 @@ public class D3BarChart<T> extends D3Drawable {
     }
 
     /**
-     * Sets the width of the BarChart's data representation.
+     * Sets the width of the BarChart's data representation. The width is read when the bars
+     * are computed.
      */
     public D3BarChart<T> dataWidth(@NonNull D3FloatFunction dataWidth) {
         this.dataWidth = dataWidth;
+        updateNeeded();
         return this;
     }
 
@@ -142,6 +190,17 @@ public class D3BarChart<T> extends D3Drawable {
         return this;
     }
 
+    /**
+     * Sets horizontal coordinates of the middle of the bar for each of the BarChart's data
+     * representation, projected from the column with the scale. If the scale is null, the
+     * values of the column are used as coordinates.
+     */
+    public D3BarChart<T> x(@NonNull D3Column x, @Nullable D3Scale<?> scale) {
+        xValueRunnable.setColumn(x, scale, false);
+        updateNeeded();
+        return this;
+    }
+
     /**
      * Sets horizontal coordinates of the middle of the bar for each
      * of the BarChart's data representation.
@@ -185,6 +244,17 @@ public class D3BarChart<T> extends D3Drawable {
         return this;
     }
 
+    /**
+     * Sets vertical coordinates of the bottom of the bar for each of the BarChart's data
+     * representation, projected from the column with the scale. If the scale is null, the
+     * values of the column are used as coordinates.
+     */
+    public D3BarChart<T> y(@NonNull D3Column y, @Nullable D3Scale<?> scale) {
+        yValueRunnable.setColumn(y, scale, false);
+        updateNeeded();
+        return this;
+    }
+
     /**
      * Returns an array with the list of colors used for the data representation. If there are
      * more data to represent than colors, colors are used circularly.
@@ -199,6 +269,81 @@ public class D3BarChart<T> extends D3Drawable {
      */
     public D3BarChart<T> colors(@NonNull int[] colors) {
         this.colors = colors;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the aggregation applied to the bars before drawing them.
+     */
+    @NonNull public Aggregation aggregation() {
+        return aggregation;
+    }
+
+    /**
+     * Sets the aggregation applied to the bars before drawing them. With a lot of bars thinner
+     * than a pixel, drawing a single rectangle per pixel column reduces the drawing time. See
+     * {@link Aggregation} for more information. The coordinates of all the bars remain
+     * available for hit testing, see {@link #barIndex(float, float)}.
+     * The aggregation is computed with the coordinates, and is set to NONE by default.
+     */
+    public D3BarChart<T> aggregation(@NonNull Aggregation aggregation) {
+        this.aggregation = aggregation;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the index of the bar drawn at the given coordinates, -1 if there is none. All the
+     * bars are indexed, even when they are aggregated, and the last one is returned when bars
+     * overlap. Returns -1 if the BarChart is not pickable: see {@link #pickable(boolean)}.
+     */
+    public int barIndex(float x, float y) {
+        BoxIndex index = committedIndex();
+        return index == null ? BoxIndex.NO_BOX : index.nearest(x, y, 0F);
+    }
+
+    /**
+     * Returns the bar nearest to the given coordinates within the radius, or null if there is
+     * none. The distance to a bar containing the coordinates is zero. As for
+     * {@link #barIndex(float, float)}, null is returned if the BarChart is not pickable.
+     */
+    @Nullable @Override public D3Pick pick(float x, float y, float radius) {
+        BoxIndex index = committedIndex();
+        if (index == null) {
+            return null;
+        }
+        int bar = index.nearest(x, y, radius);
+        if (bar == BoxIndex.NO_BOX) {
+            return null;
+        }
+        return new D3Pick(this, bar, index.distance(bar, x, y));
+    }
+
+    /**
+     * Returns the last index of the bars computed, without waiting, or null if the BarChart is
+     * not pickable.
+     */
+    @Nullable private BoxIndex committedIndex() {
+        BoxIndex index = pickIndex.getCommittedValue();
+        return pickable ? index : null;
+    }
+
+    /**
+     * Returns true if the bars are indexed for picking.
+     */
+    public boolean pickable() {
+        return pickable;
+    }
+
+    /**
+     * Sets whether the bars are indexed for picking, with their coordinates, so that
+     * {@link #barIndex(float, float)} and {@link #pick(float, float, float)} do not test all of
+     * them. The BarChart is not pickable by default.
+     */
+    public D3BarChart<T> pickable(boolean pickable) {
+        this.pickable = pickable;
+        updateNeeded();
         return this;
     }
 
@@ -217,6 +362,11 @@ public class D3BarChart<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3BarChart<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public D3BarChart<T> setClipRect(
         @NonNull D3FloatFunction leftLimit,
         @NonNull D3FloatFunction topLimit,
@@ -232,33 +382,36 @@ public class D3BarChart<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3BarChart<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
+    }
+
     @Override public void prepareParameters() {
         if (lazyRecomputing && calculationNeeded() == 0) {
             return;
         }
-        xValueStorage.setValue(xValueRunnable);
-        yValueStorage.setValue(yValueRunnable);
-        heightValueStorage.setValue(heightValueRunnable);
+        taskGraph.execute();
+    }
+
+    @Override protected void onDimensionsChange(float width, float height) {
+        super.onDimensionsChange(width, height);
+        if (aggregation != Aggregation.NONE) {
+            updateNeeded();
+        }
+    }
+
+    private boolean hasColumns() {
+        return xValueRunnable.hasColumn() && yValueRunnable.hasColumn()
+            && heightValueRunnable.hasColumn();
     }
 
     @Override public void draw(@NonNull Canvas canvas) {
-        if (data == null) {
+        if (data == null && !hasColumns()) {
             throw new IllegalStateException(DATA_ERROR);
         }
-        float width = dataWidth();
-        float[] height = dataHeight();
-        float[] computedX = x();
-        float[] computedY = y();
-
-        for (int i = 0; i < data.length; i++) {
-            paint.setColor(colors[i % colors.length]);
-            canvas.drawRect(
-                computedX[i] - width / 2F,
-                computedY[i] - height[i],
-                computedX[i] + width / 2F,
-                computedY[i],
-                paint
-            );
-        }
+        BarBatch bars = aggregation != Aggregation.NONE ?
+            aggregatedBars.getLatestValue() : barBatch.getLatestValue();
+        bars.draw(canvas, colors, paint);
     }
 }
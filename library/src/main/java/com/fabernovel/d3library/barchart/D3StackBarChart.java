@@ -22,30 +22,57 @@ import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.D3Drawable;
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.axes.D3FloatFunction;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @SuppressWarnings({"unused", "unchecked"})
 public class D3StackBarChart<T> extends D3Drawable {
     private static final String DATA_WIDTH_ERROR = "DataWidth should not be null";
+    private static final float DEFAULT_DATA_WIDTH = 30F;
 
     @Nullable private D3FloatFunction dataWidth;
+    @NonNull int[][] colors = new int[][]{new int[]{0xFF0000FF}};
+    @NonNull int[] flatColors = new int[]{0xFF0000FF};
+
+    @Nullable T[][] data;
+    @Nullable D3FloatDataMapperFunction<T> x;
+    @Nullable D3FloatDataMapperFunction<T> y;
+    @Nullable float[][] heightValues;
+    @Nullable D3FloatDataMapperFunction<T>[] heightMappers;
+
+    @NonNull final StackLayout layout = new StackLayout();
+    @NonNull final BufferedValueStorage<StackedBars> stackedBars = new BufferedValueStorage<>();
+    @NonNull private final BufferedValueStorage<BarBatch> stackBatch
+        = new BufferedValueStorage<>();
 
     public D3StackBarChart() {
         this(null);
     }
 
     public D3StackBarChart(@Nullable T[] data, int stackNumber) {
+        setupTaskGraph();
         data(data, stackNumber);
+        setupPaint();
+        dataWidth(DEFAULT_DATA_WIDTH);
     }
 
     public D3StackBarChart(@Nullable T[][] data) {
+        setupTaskGraph();
         data(data);
+        setupPaint();
+        dataWidth(DEFAULT_DATA_WIDTH);
+    }
+
+    private void setupTaskGraph() {
+        taskGraph
+            .add(stackedBars, new StackLayoutRunnable<>(this))
+            .add(stackBatch, new StackBatchRunnable<>(this), stackedBars);
     }
 
     /**
@@ -53,11 +80,16 @@ public class D3StackBarChart<T> extends D3Drawable {
      *
      * @param stackNumber Defines the number of stack for the StackBarChart
      */
-    public D3StackBarChart<T> data(@NonNull T[] data, int stackNumber) {
-        children = new ArrayList<>(stackNumber);
+    public D3StackBarChart<T> data(@Nullable T[] data, int stackNumber) {
+        if (data == null) {
+            return data((T[][]) null);
+        }
+        T[][] layersData = (T[][]) new Object[stackNumber][];
         for (int i = 0; i < stackNumber; i++) {
-            children.add(new D3BarChart<>(data));
+            layersData[i] = data;
         }
+        this.data = layersData;
+        updateNeeded();
         return this;
     }
 
@@ -65,14 +97,8 @@ public class D3StackBarChart<T> extends D3Drawable {
      * Sets the data for the different StackBar.
      */
     public D3StackBarChart<T> data(@Nullable T[][] data) {
-        if (data == null) {
-            children = new ArrayList<>(0);
-            return this;
-        }
-        children = new ArrayList<>();
-        for (T[] tab : data) {
-            children.add(new D3BarChart<>(tab));
-        }
+        this.data = data;
+        updateNeeded();
         return this;
     }
 
@@ -98,13 +124,11 @@ public class D3StackBarChart<T> extends D3Drawable {
     }
 
     /**
-     * Sets the width of the bars.
+     * Sets the width of the bars. The width is read when the bars are computed.
      */
     public D3StackBarChart<T> dataWidth(@NonNull D3FloatFunction dataWidth) {
         this.dataWidth = dataWidth;
-        for (D3Drawable barChart : children) {
-            ((D3BarChart<T>) barChart).dataWidth(dataWidth);
-        }
+        updateNeeded();
         return this;
     }
 
@@ -112,16 +136,16 @@ public class D3StackBarChart<T> extends D3Drawable {
      * Returns the horizontal coordinates of the middle of the bars.
      */
     public float[] x() {
-        return  ((D3BarChart<T>) children.get(0)).x();
+        return stackedBars.getValue().x;
     }
 
     /**
-     * Sets horizontal coordinates of the middle of the bars.
+     * Sets horizontal coordinates of the middle of the bars. They are computed with the data
+     * of the first stack.
      */
     public D3StackBarChart<T> x(@NonNull D3FloatDataMapperFunction<T> x) {
-        for (D3Drawable barChart : children) {
-            ((D3BarChart<T>) barChart).x(x);
-        }
+        this.x = x;
+        updateNeeded();
         return this;
     }
 
@@ -129,7 +153,7 @@ public class D3StackBarChart<T> extends D3Drawable {
      * Returns the vertical coordinates of the bottom of the bars.
      */
     @NonNull public float[] y() {
-        return ((D3BarChart<T>) children.get(0)).y();
+        return stackedBars.getValue().base;
     }
 
     /**
@@ -144,36 +168,23 @@ public class D3StackBarChart<T> extends D3Drawable {
     }
 
     /**
-     * Sets the vertical coordinates of the bottom of the bars.
+     * Sets the vertical coordinates of the bottom of the bars. They are computed with the data
+     * of the first stack.
      */
     public D3StackBarChart<T> y(@NonNull D3FloatDataMapperFunction<T> y) {
-        ((D3BarChart<T>) children.get(0)).y(y);
-        for (int i = 1; i < children.size(); i++) {
-            final int finalI = i;
-            ((D3BarChart<T>) children.get(i)).y(new D3FloatDataMapperFunction<T>() {
-                @Override public float compute(T object, int position, T[] data) {
-                    return ((D3BarChart<T>) children.get(finalI - 1)).y()[position]
-                        - ((D3BarChart<T>) children.get(finalI - 1)).dataHeight()[position];
-                }
-            });
-        }
+        this.y = y;
+        updateNeeded();
         return this;
     }
 
     /**
-     * Sets the different heights for the stacks of BarChart.
+     * Sets the different heights for the stacks of BarChart, as dataHeight[stack][position].
+     * The arrays are read directly, without data mapper.
      */
     public D3StackBarChart<T> dataHeight(@NonNull final float[][] dataHeight) {
-        for (int i = 0; i < dataHeight.length; i++) {
-            final int finalI = i;
-            ((D3BarChart<T>) children.get(i)).dataHeight(new D3FloatDataMapperFunction<T>() {
-                private float[] heights = dataHeight[finalI];
-
-                @Override public float compute(T object, int position, T[] data) {
-                    return heights[position];
-                }
-            });
-        }
+        heightValues = dataHeight;
+        heightMappers = null;
+        updateNeeded();
         return this;
     }
 
@@ -181,9 +192,42 @@ public class D3StackBarChart<T> extends D3Drawable {
      * Sets the different heights for the stacks of BarChart.
      */
     public D3StackBarChart<T> dataHeight(@NonNull List<D3FloatDataMapperFunction<T>> dataHeight) {
-        for (int i = 0; i < dataHeight.size(); i++) {
-            ((D3BarChart<T>) children.get(i)).dataHeight(dataHeight.get(i));
-        }
+        heightMappers = dataHeight.toArray(new D3FloatDataMapperFunction[dataHeight.size()]);
+        heightValues = null;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the offset applied to the stacks.
+     */
+    @NonNull public StackOffset offset() {
+        return layout.offset();
+    }
+
+    /**
+     * Sets the offset applied to the stacks. See {@link StackOffset} for more information.
+     */
+    public D3StackBarChart<T> offset(@NonNull StackOffset offset) {
+        layout.offset(offset);
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the order of the stacks, from the bottom to the top.
+     */
+    @NonNull public StackOrder order() {
+        return layout.order();
+    }
+
+    /**
+     * Sets the order of the stacks, from the bottom to the top. See {@link StackOrder} for more
+     * information.
+     */
+    public D3StackBarChart<T> order(@NonNull StackOrder order) {
+        layout.order(order);
+        updateNeeded();
         return this;
     }
 
@@ -192,9 +236,10 @@ public class D3StackBarChart<T> extends D3Drawable {
      * stack if there are more data than colors, the colors are used circularly.
      */
     @NonNull public int[][] colors() {
-        int[][] result = new int[children.size()][];
+        T[][] layersData = data;
+        int[][] result = new int[layersData == null ? 0 : layersData.length][];
         for (int i = 0; i < result.length; i++) {
-            result[i] =  ((D3BarChart<T>) children.get(i)).colors();
+            result[i] = colors[i % colors.length];
         }
         return result;
     }
@@ -204,9 +249,19 @@ public class D3StackBarChart<T> extends D3Drawable {
      * stack if there are more data than colors, the colors are used circularly.
      */
     public D3StackBarChart<T> colors(@NonNull int[][] colors) {
-        for (int i = 0; i < children.size(); i++) {
-            ((D3BarChart<T>) children.get(i)).colors(colors[i % colors.length]);
+        int colorsNumber = 0;
+        for (int[] stackColors : colors) {
+            colorsNumber += stackColors.length;
+        }
+        int[] newFlatColors = new int[colorsNumber];
+        int offset = 0;
+        for (int[] stackColors : colors) {
+            System.arraycopy(stackColors, 0, newFlatColors, offset, stackColors.length);
+            offset += stackColors.length;
         }
+        this.colors = colors;
+        flatColors = newFlatColors;
+        updateNeeded();
         return this;
     }
 
@@ -225,6 +280,11 @@ public class D3StackBarChart<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3StackBarChart<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public D3StackBarChart<T> setClipRect(
         @NonNull D3FloatFunction leftLimit,
         @NonNull D3FloatFunction topLimit,
@@ -240,15 +300,19 @@ public class D3StackBarChart<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3StackBarChart<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
+    }
+
     @Override public void draw(@NonNull Canvas canvas) {
-        for (D3Drawable barChart : children) {
-            barChart.draw(canvas);
-        }
+        stackBatch.getLatestValue().draw(canvas, flatColors, paint);
     }
 
     @Override public void prepareParameters() {
-        for (int i = 0; i < children.size(); i++) {
-            children.get(i).prepareParameters();
+        if (lazyRecomputing && calculationNeeded() == 0) {
+            return;
         }
+        taskGraph.execute();
     }
 }
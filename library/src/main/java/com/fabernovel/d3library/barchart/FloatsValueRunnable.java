@@ -17,8 +17,12 @@
 package com.fabernovel.d3library.barchart;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.fabernovel.d3library.data.D3Column;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
+import com.fabernovel.d3library.scale.D3Scale;
+import com.fabernovel.d3library.threading.ParallelFor;
 import com.fabernovel.d3library.threading.ValueRunnable;
 
 class FloatsValueRunnable<T> extends ValueRunnable<float[]> {
@@ -26,6 +30,21 @@ class FloatsValueRunnable<T> extends ValueRunnable<float[]> {
 
     @NonNull private final D3BarChart<T> barChart;
     @NonNull private D3FloatDataMapperFunction<T> mapper;
+    @Nullable private D3Column column;
+    @Nullable private D3Scale<?> columnScale;
+    private boolean columnHeights;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            T[] data = barChart.data;
+            for (int i = from; i < to; i++) {
+                value[i] = mapper.compute(data[i], i, data);
+            }
+        }
+    };
 
     FloatsValueRunnable(@NonNull D3BarChart<T> barChart) {
         this.barChart = barChart;
@@ -37,14 +56,54 @@ class FloatsValueRunnable<T> extends ValueRunnable<float[]> {
 
     void setDataMapper(@NonNull D3FloatDataMapperFunction<T> mapper) {
         this.mapper = mapper;
+        column = null;
+    }
+
+    /**
+     * Projects the column with the scale. If heights is true, the distances between the
+     * projections of 0 and of the values are computed instead.
+     */
+    void setColumn(@NonNull D3Column column, @Nullable D3Scale<?> scale, boolean heights) {
+        this.column = column;
+        columnScale = scale;
+        columnHeights = heights;
+    }
+
+    boolean hasColumn() {
+        return column != null;
+    }
+
+    @Override protected void recycle(@Nullable float[] spare) {
+        value = spare != null && spare.length == value.length ? spare : new float[value.length];
     }
 
     @Override protected void computeValue() {
+        if (column != null) {
+            computeColumn(column, columnScale);
+            return;
+        }
         if (barChart.data == null) {
             throw new IllegalStateException(DATA_ERROR);
         }
-        for (int i = 0; i < value.length; i++) {
-            value[i] = mapper.compute(barChart.data[i], i, barChart.data);
+        parallelFor.run(
+            value.length, ParallelFor.grain(barChart.parallelMappers()), computeBody
+        );
+    }
+
+    private void computeColumn(@NonNull D3Column column, @Nullable D3Scale<?> scale) {
+        if (value.length != column.length()) {
+            value = new float[column.length()];
+        }
+        if (scale == null) {
+            column.copyTo(value);
+            return;
+        }
+        scale.values(column, value);
+        if (columnHeights) {
+            float zero = scale.convertedValue(0D);
+            for (int i = 0; i < value.length; i++) {
+                value[i] = zero - value[i];
+            }
         }
     }
 }
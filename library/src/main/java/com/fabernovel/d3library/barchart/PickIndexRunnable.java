@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.pick.BoxIndex;
+import com.fabernovel.d3library.threading.ParallelFor;
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Indexes the rectangles of all the bars, even when they are aggregated for the drawing. The
+ * index stays empty while the BarChart is not pickable.
+ */
+class PickIndexRunnable<T> extends ValueRunnable<BoxIndex> {
+    @NonNull private final D3BarChart<T> barChart;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                float top = y[i] - height[i];
+                if (Float.isNaN(x[i]) || Float.isNaN(top)) {
+                    value.setBox(i, Float.NaN, 0F, 0F, 0F);
+                } else {
+                    value.setBox(
+                        i, x[i] - halfWidth, Math.min(top, y[i]), x[i] + halfWidth,
+                        Math.max(top, y[i])
+                    );
+                }
+            }
+        }
+    };
+    private float[] x;
+    private float[] y;
+    private float[] height;
+    private float halfWidth;
+
+    PickIndexRunnable(@NonNull D3BarChart<T> barChart) {
+        this.barChart = barChart;
+        value = new BoxIndex();
+    }
+
+    @Override protected void computeValue() {
+        if (!barChart.pickable) {
+            value.reset(0);
+            return;
+        }
+        x = barChart.x();
+        y = barChart.y();
+        height = barChart.dataHeight();
+        halfWidth = barChart.dataWidth() / 2F;
+        int barsNumber = Math.min(Math.min(height.length, x.length), y.length);
+        value.reset(barsNumber);
+        parallelFor.run(barsNumber, computeBody);
+        if (isCancelled()) {
+            return;
+        }
+        value.build();
+    }
+
+    @Override protected void recycle(@Nullable BoxIndex spare) {
+        value = spare == null ? new BoxIndex() : spare;
+    }
+}
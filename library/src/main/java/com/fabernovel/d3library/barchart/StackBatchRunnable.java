@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.helper.CanvasHelper;
+import com.fabernovel.d3library.threading.ParallelFor;
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Packs the bars of every layer of a {@link D3StackBarChart} into a single {@link BarBatch}.
+ */
+class StackBatchRunnable<T> extends ValueRunnable<BarBatch> {
+    @NonNull private final D3StackBarChart<T> stackBarChart;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            for (int layer = 0; layer < bars.lower.length; layer++) {
+                int[] layerColors = colors[layer % colors.length];
+                int bar = layer * bars.columns;
+                for (int i = from; i < to; i++) {
+                    float bottom = bars.base[i] - bars.lower[layer][i];
+                    float top = bars.base[i] - bars.upper[layer][i];
+                    value.setBar(
+                        bar + i, bars.x[i] - halfWidth, Math.min(top, bottom),
+                        bars.x[i] + halfWidth, Math.max(top, bottom),
+                        layerColors[i % layerColors.length]
+                    );
+                }
+            }
+        }
+    };
+    private StackedBars bars;
+    private int[][] colors;
+    @NonNull private int[] colorOffsets = new int[0];
+    private float halfWidth;
+
+    StackBatchRunnable(@NonNull D3StackBarChart<T> stackBarChart) {
+        this.stackBarChart = stackBarChart;
+        value = new BarBatch();
+    }
+
+    @Override protected void computeValue() {
+        bars = stackBarChart.stackedBars.getValue();
+        colors = stackBarChart.colors;
+        if (colorOffsets.length != colors.length) {
+            colorOffsets = new int[colors.length];
+        }
+        int colorsNumber = 0;
+        for (int i = 0; i < colors.length; i++) {
+            colorOffsets[i] = colorsNumber;
+            colorsNumber += colors[i].length;
+        }
+        value.clear(colorsNumber);
+        halfWidth = stackBarChart.dataWidth() / 2F;
+        int barsNumber = bars.lower.length * bars.columns;
+
+        if (CanvasHelper.drawsVertices()) {
+            value.reserveVertices(barsNumber * BarBatch.VERTICES_PER_BAR);
+            parallelFor.run(bars.columns, computeBody);
+            value.verticesNumber = barsNumber * BarBatch.VERTICES_PER_BAR;
+            return;
+        }
+        for (int layer = 0; layer < bars.lower.length; layer++) {
+            if (isCancelled()) {
+                return;
+            }
+            int[] layerColors = colors[layer % colors.length];
+            int colorOffset = colorOffsets[layer % colors.length];
+            for (int i = 0; i < bars.columns; i++) {
+                float bottom = bars.base[i] - bars.lower[layer][i];
+                float top = bars.base[i] - bars.upper[layer][i];
+                value.paths[colorOffset + i % layerColors.length].addRect(
+                    bars.x[i] - halfWidth, Math.min(top, bottom), bars.x[i] + halfWidth,
+                    Math.max(top, bottom), Path.Direction.CW
+                );
+            }
+        }
+    }
+
+    @Override protected void recycle(@Nullable BarBatch spare) {
+        value = spare == null ? new BarBatch() : spare;
+    }
+}
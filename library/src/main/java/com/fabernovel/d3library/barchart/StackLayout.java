@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import android.support.annotation.NonNull;
+
+import com.fabernovel.d3library.threading.ParallelFor;
+
+/**
+ * Computes the positions of the layers of stacked bars, like d3.stack. From the heights of each
+ * layer for each column, it computes the lower and upper bounds of each bar, relative to the
+ * baseline of its column. All the columns are stacked in one parallel pass.
+ * <p>
+ * An instance only computes one layout at a time, and allocates nothing once its buffers fit.
+ */
+public final class StackLayout {
+    @NonNull private StackOffset offset = StackOffset.ZERO;
+    @NonNull private StackOrder order = StackOrder.NONE;
+
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body stackBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            for (int i = from; i < to; i++) {
+                stackColumn(i);
+            }
+        }
+    };
+    @NonNull private final ParallelFor.Body expandBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            for (int i = from; i < to; i++) {
+                float factor = totals[i] == 0F ? 0F : maxTotal / Math.abs(totals[i]);
+                for (int layer = 0; layer < heights.length; layer++) {
+                    lower[layer][i] *= factor;
+                    upper[layer][i] *= factor;
+                }
+            }
+        }
+    };
+    @NonNull private int[] layersOrder = new int[0];
+    @NonNull private float[] sums = new float[0];
+    @NonNull private float[] totals = new float[0];
+    private float maxTotal;
+    private float[][] heights;
+    private float[][] lower;
+    private float[][] upper;
+
+    /**
+     * Returns the offset applied to the stacks.
+     */
+    @NonNull public StackOffset offset() {
+        return offset;
+    }
+
+    /**
+     * Sets the offset applied to the stacks. See {@link StackOffset} for more information.
+     */
+    public StackLayout offset(@NonNull StackOffset offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Returns the order of the layers in the stacks.
+     */
+    @NonNull public StackOrder order() {
+        return order;
+    }
+
+    /**
+     * Sets the order of the layers in the stacks. See {@link StackOrder} for more information.
+     */
+    public StackLayout order(@NonNull StackOrder order) {
+        this.order = order;
+        return this;
+    }
+
+    /**
+     * Writes into lower and upper the bounds of the bar of each layer for the first columns
+     * of the heights, given as heights[layer][column].
+     */
+    public void compute(
+        @NonNull float[][] heights, int columns, @NonNull float[][] lower,
+        @NonNull float[][] upper
+    ) {
+        this.heights = heights;
+        this.lower = lower;
+        this.upper = upper;
+        if (totals.length < columns) {
+            totals = new float[columns];
+        }
+        computeOrder(heights, columns);
+        parallelFor.run(columns, stackBody);
+        if (offset == StackOffset.EXPAND) {
+            maxTotal = 0F;
+            for (int i = 0; i < columns; i++) {
+                maxTotal = Math.max(maxTotal, Math.abs(totals[i]));
+            }
+            parallelFor.run(columns, expandBody);
+        }
+        this.heights = null;
+        this.lower = null;
+        this.upper = null;
+    }
+
+    private void computeOrder(@NonNull float[][] heights, int columns) {
+        int layers = heights.length;
+        if (layersOrder.length != layers) {
+            layersOrder = new int[layers];
+            sums = new float[layers];
+        }
+        for (int layer = 0; layer < layers; layer++) {
+            layersOrder[layer] = order == StackOrder.REVERSE ? layers - 1 - layer : layer;
+        }
+        if (order != StackOrder.ASCENDING && order != StackOrder.DESCENDING) {
+            return;
+        }
+        float sign = order == StackOrder.ASCENDING ? 1F : -1F;
+        for (int layer = 0; layer < layers; layer++) {
+            float sum = 0F;
+            for (int i = 0; i < columns; i++) {
+                sum += heights[layer][i];
+            }
+            sums[layer] = sign * sum;
+        }
+        /* There are few layers, an insertion sort keeps equal layers in their order. */
+        for (int i = 1; i < layers; i++) {
+            int layer = layersOrder[i];
+            int j = i - 1;
+            while (j >= 0 && sums[layersOrder[j]] > sums[layer]) {
+                layersOrder[j + 1] = layersOrder[j];
+                j--;
+            }
+            layersOrder[j + 1] = layer;
+        }
+    }
+
+    private void stackColumn(int column) {
+        if (offset == StackOffset.DIVERGING) {
+            float positive = 0F;
+            float negative = 0F;
+            for (int layer : layersOrder) {
+                float height = heights[layer][column];
+                if (height >= 0F) {
+                    lower[layer][column] = positive;
+                    positive += height;
+                    upper[layer][column] = positive;
+                } else {
+                    lower[layer][column] = negative;
+                    negative += height;
+                    upper[layer][column] = negative;
+                }
+            }
+            totals[column] = positive - negative;
+            return;
+        }
+        float total = 0F;
+        for (int layer : layersOrder) {
+            total += heights[layer][column];
+        }
+        float bound = offset == StackOffset.SILHOUETTE ? -total / 2F : 0F;
+        for (int layer : layersOrder) {
+            lower[layer][column] = bound;
+            bound += heights[layer][column];
+            upper[layer][column] = bound;
+        }
+        totals[column] = total;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
+import com.fabernovel.d3library.threading.ParallelFor;
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+class StackLayoutRunnable<T> extends ValueRunnable<StackedBars> {
+    private static final String DATA_ERROR = "Data should not be null";
+    private static final String X_ERROR = "X should not be null";
+    private static final String Y_ERROR = "Y should not be null";
+    private static final String HEIGHTS_ERROR = "DataHeight should be given for each layer";
+
+    @NonNull private final D3StackBarChart<T> stackBarChart;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                value.x[i] = x.compute(data[0][i], i, data[0]);
+                value.base[i] = y.compute(data[0][i], i, data[0]);
+            }
+            for (int layer = 0; layer < data.length; layer++) {
+                float[] layerHeights = value.heights[layer];
+                if (heightValues != null) {
+                    System.arraycopy(heightValues[layer], from, layerHeights, from, to - from);
+                    continue;
+                }
+                T[] layerData = data[layer];
+                D3FloatDataMapperFunction<T> mapper = heightMappers[layer];
+                for (int i = from; i < to; i++) {
+                    layerHeights[i] = mapper.compute(layerData[i], i, layerData);
+                }
+            }
+        }
+    };
+    private T[][] data;
+    private D3FloatDataMapperFunction<T> x;
+    private D3FloatDataMapperFunction<T> y;
+    @Nullable private float[][] heightValues;
+    @Nullable private D3FloatDataMapperFunction<T>[] heightMappers;
+
+    StackLayoutRunnable(@NonNull D3StackBarChart<T> stackBarChart) {
+        this.stackBarChart = stackBarChart;
+        value = new StackedBars();
+    }
+
+    @Override protected void computeValue() {
+        data = stackBarChart.data;
+        x = stackBarChart.x;
+        y = stackBarChart.y;
+        heightValues = stackBarChart.heightValues;
+        heightMappers = stackBarChart.heightMappers;
+        if (data == null) {
+            throw new IllegalStateException(DATA_ERROR);
+        }
+        if (x == null) {
+            throw new IllegalStateException(X_ERROR);
+        }
+        if (y == null) {
+            throw new IllegalStateException(Y_ERROR);
+        }
+        int layers = data.length;
+        int columns = layers == 0 ? 0 : Integer.MAX_VALUE;
+        for (T[] layerData : data) {
+            columns = Math.min(columns, layerData.length);
+        }
+        if (heightValues != null) {
+            if (heightValues.length < layers) {
+                throw new IllegalStateException(HEIGHTS_ERROR);
+            }
+            for (int layer = 0; layer < layers; layer++) {
+                columns = Math.min(columns, heightValues[layer].length);
+            }
+        } else if (heightMappers == null || heightMappers.length < layers) {
+            throw new IllegalStateException(HEIGHTS_ERROR);
+        }
+
+        value.setSize(layers, columns);
+        parallelFor.run(columns, ParallelFor.grain(stackBarChart.parallelMappers()), computeBody);
+        if (isCancelled()) {
+            return;
+        }
+        stackBarChart.layout.compute(value.heights, columns, value.lower, value.upper);
+    }
+
+    @Override protected void recycle(@Nullable StackedBars spare) {
+        value = spare == null ? new StackedBars() : spare;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+public enum StackOffset {
+    /***
+     * Each stack starts at its baseline (Default value).
+     */
+    ZERO,
+    /***
+     * Each stack is stretched to the height of the highest one, so that the layers show
+     * proportions. The heights should not be negative.
+     */
+    EXPAND,
+    /***
+     * Positive heights are stacked above the baseline and negative ones below it.
+     */
+    DIVERGING,
+    /***
+     * Each stack is centered on its baseline, as in a streamgraph.
+     */
+    SILHOUETTE
+}
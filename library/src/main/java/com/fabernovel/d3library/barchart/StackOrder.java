@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+public enum StackOrder {
+    /***
+     * The first layer is at the bottom of the stacks (Default value).
+     */
+    NONE,
+    /***
+     * The last layer is at the bottom of the stacks.
+     */
+    REVERSE,
+    /***
+     * The layer with the lowest sum of heights is at the bottom of the stacks.
+     */
+    ASCENDING,
+    /***
+     * The layer with the highest sum of heights is at the bottom of the stacks.
+     */
+    DESCENDING
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+/**
+ * Coordinates of stacked bars: for each column, the horizontal coordinate of the middle of the
+ * bars and the vertical coordinate of the baseline, and for each layer, the heights given and
+ * the bounds computed by the {@link StackLayout}.
+ */
+class StackedBars {
+    float[] x = new float[0];
+    float[] base = new float[0];
+    float[][] heights = new float[0][];
+    float[][] lower = new float[0][];
+    float[][] upper = new float[0][];
+    int columns;
+
+    void setSize(int layers, int columns) {
+        if (x.length != columns) {
+            x = new float[columns];
+            base = new float[columns];
+        }
+        if (heights.length != layers || this.columns != columns) {
+            heights = new float[layers][columns];
+            lower = new float[layers][columns];
+            upper = new float[layers][columns];
+        }
+        this.columns = columns;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.support.annotation.NonNull;
+
+/**
+ * Statistics and geometry of all the boxes of a {@link D3GroupedBoxPlot}, drawn with one call for
+ * the lines and one call for the outliers.
+ */
+class BoxGroups {
+    static final int FLOATS_PER_BOX = 4 * 9;
+
+    int groupsNumber;
+    @NonNull Statistics[] statistics = new Statistics[0];
+    @NonNull float[] lowerWhiskers = new float[0];
+    @NonNull float[] upperWhiskers = new float[0];
+    @NonNull int[] samplesNumbers = new int[0];
+    @NonNull int[] outliersNumbers = new int[0];
+    @NonNull float[] lines = new float[0];
+    int linesLength;
+    @NonNull float[] outliers = new float[0];
+    int outliersLength;
+
+    void setGroupsNumber(int groupsNumber) {
+        if (statistics.length < groupsNumber) {
+            Statistics[] newStatistics = new Statistics[groupsNumber];
+            System.arraycopy(statistics, 0, newStatistics, 0, statistics.length);
+            for (int i = statistics.length; i < groupsNumber; i++) {
+                newStatistics[i] = new Statistics();
+            }
+            statistics = newStatistics;
+            lowerWhiskers = new float[groupsNumber];
+            upperWhiskers = new float[groupsNumber];
+            samplesNumbers = new int[groupsNumber];
+            outliersNumbers = new int[groupsNumber];
+            lines = new float[groupsNumber * FLOATS_PER_BOX];
+        }
+        this.groupsNumber = groupsNumber;
+        for (int i = 0; i < groupsNumber; i++) {
+            samplesNumbers[i] = 0;
+            outliersNumbers[i] = 0;
+        }
+        linesLength = 0;
+        outliersLength = 0;
+    }
+
+    void reserveOutliers(int outliersNumber) {
+        if (outliers.length < 2 * outliersNumber) {
+            outliers = new float[2 * outliersNumber];
+        }
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull Paint paint, @NonNull Paint outlierPaint) {
+        if (linesLength > 0) {
+            canvas.drawLines(lines, 0, linesLength, paint);
+        }
+        if (outliersLength > 0) {
+            canvas.drawPoints(outliers, 0, outliersLength, outlierPaint);
+        }
+    }
+}
@@ -23,13 +23,17 @@ import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.D3Drawable;
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.data.D3Column;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
 import com.fabernovel.d3library.scale.D3Scale;
 import com.fabernovel.d3library.threading.ValueStorage;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class D3BoxPlot<T> extends D3Drawable {
     private static final String OFFSET_X_ERROR = "OffsetX should not be null";
@@ -49,6 +53,14 @@ public class D3BoxPlot<T> extends D3Drawable {
         = new StatisticsComputer<>(this);
 
     @Nullable T[] data;
+    @Nullable D3Column column;
+    volatile boolean streaming;
+    /* Set when the samples have to be mapped again from the data, at each update except add() */
+    @NonNull final AtomicBoolean dataChanged = new AtomicBoolean(true);
+    /* Set when the added samples are dropped, as the data, its mapper or the mode changed */
+    @NonNull final AtomicBoolean samplesReset = new AtomicBoolean(true);
+    /* The samples added since the last computation, guarded by itself */
+    @NonNull final SampleBuffer addedSamples = new SampleBuffer();
 
     public D3BoxPlot() {
         setupDefaultValues();
@@ -78,7 +90,75 @@ public class D3BoxPlot<T> extends D3Drawable {
      */
     public D3BoxPlot<T> data(@Nullable T[] data) {
         this.data = data;
-        statisticsComputer.setDataLength(data == null ? 0 : data.length);
+        column = null;
+        resetSamples();
+        return this;
+    }
+
+    /**
+     * Sets the data for the BoxPlot from a column of values, which is used without data mapper.
+     * Compute and update statistics.
+     */
+    public D3BoxPlot<T> data(@NonNull D3Column column) {
+        this.column = column;
+        data = null;
+        resetSamples();
+        return this;
+    }
+
+    private void resetSamples() {
+        synchronized (addedSamples) {
+            addedSamples.clear();
+        }
+        samplesReset.set(true);
+        updateNeeded();
+    }
+
+    /**
+     * Adds a sample to the data of the BoxPlot. Only the added samples are processed at the next
+     * computation. They are kept until the data, its mapper or the mode change, and added again
+     * when another update maps the data again.
+     */
+    public D3BoxPlot<T> add(float sample) {
+        synchronized (addedSamples) {
+            addedSamples.add(sample);
+        }
+        requestCalculation();
+        return this;
+    }
+
+    /**
+     * Adds samples to the data of the BoxPlot. Only the added samples are processed at the next
+     * computation. They are kept until the data, its mapper or the mode change, and added again
+     * when another update maps the data again.
+     */
+    public D3BoxPlot<T> add(@NonNull float[] samples) {
+        synchronized (addedSamples) {
+            addedSamples.add(samples, 0, samples.length);
+        }
+        requestCalculation();
+        return this;
+    }
+
+    /**
+     * Returns true if the statistics are estimated from a stream of samples.
+     */
+    public boolean streaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets whether the statistics are estimated from a stream of samples. The quartiles and the
+     * median are then approximated with the P-Square algorithm, in constant memory and in a time
+     * proportional to the number of added samples, which suits data only growing with
+     * {@link #add(float[])}. Else they are computed exactly in a time proportional to the number
+     * of samples. In streaming mode the data is only mapped when it is set, so data modified in
+     * place is not taken into account. Changing the mode maps the data again and drops the added
+     * samples.
+     */
+    public D3BoxPlot<T> streaming(boolean streaming) {
+        this.streaming = streaming;
+        resetSamples();
         return this;
     }
 
@@ -93,7 +173,7 @@ public class D3BoxPlot<T> extends D3Drawable {
      * Returns the maximum that had been either computed or given.
      */
     public float max() {
-        return statistics.getValue().min;
+        return statistics.getValue().max;
     }
 
     /**
@@ -207,8 +287,14 @@ public class D3BoxPlot<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3BoxPlot<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     public D3BoxPlot<T> dataMapper(@NonNull D3FloatDataMapperFunction<T> dataMapper) {
         this.dataMapper = dataMapper;
+        resetSamples();
         return this;
     }
 
@@ -227,10 +313,26 @@ public class D3BoxPlot<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3BoxPlot<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
+    }
+
+    /**
+     * The data or the column may have been modified in place, so the samples are mapped again,
+     * except in streaming mode.
+     */
+    @Override protected void onUpdateNeeded() {
+        dataChanged.set(true);
+    }
+
     @Override public void prepareParameters() {
         if (lazyRecomputing && calculationNeeded() == 0) {
             return;
         }
+        if (!lazyRecomputing) {
+            dataChanged.set(true);
+        }
         statistics.setValue(statisticsComputer);
     }
 
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.D3Drawable;
+import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
+import com.fabernovel.d3library.action.OnPinchAction;
+import com.fabernovel.d3library.action.OnScrollAction;
+import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
+import com.fabernovel.d3library.mappers.D3IntDataMapperFunction;
+import com.fabernovel.d3library.scale.D3BandScale;
+import com.fabernovel.d3library.scale.D3Scale;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
+
+/**
+ * Draws one box per group of data, the groups being laid out along a band scale. The statistics
+ * of all the groups are computed together, and all the boxes are drawn with a single call.
+ * The whiskers extend to the farthest samples within 1.5 interquartile ranges from the box, the
+ * other samples being drawn as outliers.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class D3GroupedBoxPlot<T> extends D3Drawable {
+    private static final String DATA_MAPPER_ERROR = "DataMapper should not be null";
+    private static final String GROUP_MAPPER_ERROR = "GroupMapper should not be null";
+    private static final String SCALE_ERROR = "Scale should not be null";
+    private static final String BAND_SCALE_ERROR = "BandScale should not be null";
+    private static final float DEFAULT_OUTLIER_SIZE = 10F;
+
+    @Nullable T[] data;
+    @Nullable D3FloatDataMapperFunction<T> dataMapper;
+    @Nullable D3IntDataMapperFunction<T> groupMapper;
+    @Nullable private D3Scale<Float> scale;
+    @Nullable private D3BandScale bandScale;
+    @NonNull private Paint outlierPaint;
+
+    @NonNull private final BufferedValueStorage<BoxGroups> groups = new BufferedValueStorage<>();
+
+    public D3GroupedBoxPlot() {
+        this(null);
+    }
+
+    public D3GroupedBoxPlot(@Nullable T[] data) {
+        taskGraph.add(groups, new GroupedStatisticsRunnable<>(this));
+        this.data = data;
+        setupPaint();
+        setupOutlierPaint();
+        scale(new D3Scale<>(new Float[]{0F, 1F}));
+    }
+
+    private void setupOutlierPaint() {
+        Paint newPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        newPaint.setColor(Color.rgb(0, 0, 0));
+        newPaint.setStrokeWidth(DEFAULT_OUTLIER_SIZE);
+        newPaint.setStrokeCap(Paint.Cap.ROUND);
+        outlierPaint = newPaint;
+    }
+
+    /**
+     * Returns the data of the BoxPlot.
+     */
+    @Nullable public T[] data() {
+        return data;
+    }
+
+    /**
+     * Sets the data of the BoxPlot.
+     */
+    public D3GroupedBoxPlot<T> data(@Nullable T[] data) {
+        this.data = data;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Sets the function mapping each datum to the float value summarized by the boxes.
+     */
+    public D3GroupedBoxPlot<T> dataMapper(@NonNull D3FloatDataMapperFunction<T> dataMapper) {
+        this.dataMapper = dataMapper;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Sets the function mapping each datum to the index of its group, which is also the index
+     * of its band in the band scale. Data mapped outside of the bands is ignored.
+     */
+    public D3GroupedBoxPlot<T> groupMapper(@NonNull D3IntDataMapperFunction<T> groupMapper) {
+        this.groupMapper = groupMapper;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the Scale used to place the values.
+     */
+    @Nullable public D3Scale<Float> scale() {
+        return scale;
+    }
+
+    /**
+     * Sets the Scale used to place the values.
+     */
+    public D3GroupedBoxPlot<T> scale(@NonNull D3Scale<Float> scale) {
+        this.scale = scale;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the band scale laying out the groups.
+     */
+    @NonNull public D3BandScale bandScale() {
+        if (bandScale == null) {
+            throw new IllegalStateException(BAND_SCALE_ERROR);
+        }
+        return bandScale;
+    }
+
+    /**
+     * Sets the band scale laying out the groups: its number of bands is the number of groups
+     * and each box is as wide as a band.
+     */
+    public D3GroupedBoxPlot<T> bandScale(@NonNull D3BandScale bandScale) {
+        this.bandScale = bandScale;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the paint used for drawing the outliers.
+     */
+    @NonNull public Paint outlierPaint() {
+        return outlierPaint;
+    }
+
+    /**
+     * Sets the paint used for drawing the outliers, which are points as large as its stroke
+     * width.
+     */
+    public D3GroupedBoxPlot<T> outlierPaint(@NonNull Paint outlierPaint) {
+        this.outlierPaint = outlierPaint;
+        return this;
+    }
+
+    /**
+     * Returns the number of samples of the group.
+     */
+    public int samplesNumber(int group) {
+        return groups.getValue().samplesNumbers[group];
+    }
+
+    /**
+     * Returns the minimum of the group, or NaN if the group is empty.
+     */
+    public float min(int group) {
+        BoxGroups computed = groups.getValue();
+        return computed.samplesNumbers[group] == 0 ? Float.NaN : computed.statistics[group].min;
+    }
+
+    /**
+     * Returns the maximum of the group, or NaN if the group is empty.
+     */
+    public float max(int group) {
+        BoxGroups computed = groups.getValue();
+        return computed.samplesNumbers[group] == 0 ? Float.NaN : computed.statistics[group].max;
+    }
+
+    /**
+     * Returns the median of the group, or NaN if the group is empty.
+     */
+    public float median(int group) {
+        BoxGroups computed = groups.getValue();
+        return computed.samplesNumbers[group] == 0 ?
+            Float.NaN : computed.statistics[group].median;
+    }
+
+    /**
+     * Returns the lower quartile of the group, or NaN if the group is empty.
+     */
+    public float lowerQuartile(int group) {
+        BoxGroups computed = groups.getValue();
+        return computed.samplesNumbers[group] == 0 ?
+            Float.NaN : computed.statistics[group].lowerQuartile;
+    }
+
+    /**
+     * Returns the upper quartile of the group, or NaN if the group is empty.
+     */
+    public float upperQuartile(int group) {
+        BoxGroups computed = groups.getValue();
+        return computed.samplesNumbers[group] == 0 ?
+            Float.NaN : computed.statistics[group].upperQuartile;
+    }
+
+    /**
+     * Returns the end of the lower whisker of the group, or NaN if the group is empty.
+     */
+    public float lowerWhisker(int group) {
+        BoxGroups computed = groups.getValue();
+        return computed.samplesNumbers[group] == 0 ? Float.NaN : computed.lowerWhiskers[group];
+    }
+
+    /**
+     * Returns the end of the upper whisker of the group, or NaN if the group is empty.
+     */
+    public float upperWhisker(int group) {
+        BoxGroups computed = groups.getValue();
+        return computed.samplesNumbers[group] == 0 ? Float.NaN : computed.upperWhiskers[group];
+    }
+
+    /**
+     * Returns the number of outliers of the group.
+     */
+    public int outliersNumber(int group) {
+        return groups.getValue().outliersNumbers[group];
+    }
+
+    @Override public D3GroupedBoxPlot<T> onClickAction(@Nullable OnClickAction onClickAction) {
+        super.onClickAction(onClickAction);
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> onScrollAction(@Nullable OnScrollAction onScrollAction) {
+        super.onScrollAction(onScrollAction);
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> onPinchAction(@Nullable OnPinchAction onPinchAction) {
+        super.onPinchAction(onPinchAction);
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> onGestureAction(
+        @Nullable OnGestureAction onGestureAction
+    ) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> setClipRect(
+        @NonNull D3FloatFunction leftLimit,
+        @NonNull D3FloatFunction topLimit,
+        @NonNull D3FloatFunction rightLimit,
+        @NonNull D3FloatFunction bottomLimit
+    ) {
+        super.setClipRect(leftLimit, topLimit, rightLimit, bottomLimit);
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> deleteClipRect() {
+        super.deleteClipRect();
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> paint(@NonNull Paint paint) {
+        super.paint(paint);
+        paint.setStyle(Paint.Style.STROKE);
+        return this;
+    }
+
+    @Override public D3GroupedBoxPlot<T> lazyRecomputing(boolean lazyRecomputing) {
+        super.lazyRecomputing(lazyRecomputing);
+        return this;
+    }
+
+    @Override public void prepareParameters() {
+        if (lazyRecomputing && calculationNeeded() == 0) {
+            return;
+        }
+        if (dataMapper == null) {
+            throw new IllegalStateException(DATA_MAPPER_ERROR);
+        }
+        if (groupMapper == null) {
+            throw new IllegalStateException(GROUP_MAPPER_ERROR);
+        }
+        if (scale == null) {
+            throw new IllegalStateException(SCALE_ERROR);
+        }
+        if (bandScale == null) {
+            throw new IllegalStateException(BAND_SCALE_ERROR);
+        }
+        taskGraph.execute();
+    }
+
+    @Override protected void onDimensionsChange(float width, float height) {
+        super.onDimensionsChange(width, height);
+        updateNeeded();
+    }
+
+    @Override public void draw(@NonNull Canvas canvas) {
+        groups.getLatestValue().draw(canvas, paint, outlierPaint);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.scale.D3BandScale;
+import com.fabernovel.d3library.scale.D3Scale;
+import com.fabernovel.d3library.threading.ParallelFor;
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Computes the statistics of all the groups of a {@link D3GroupedBoxPlot}: the samples are
+ * mapped, gathered by group with a counting sort, then each group is summarized independently of
+ * the others, in parallel. The summaries are projected through the scale in a last serial pass,
+ * so that the scale functions are only called in parallel if the mappers may be.
+ */
+class GroupedStatisticsRunnable<T> extends ValueRunnable<BoxGroups> {
+    private static final float WHISKER_FACTOR = 1.5F;
+    /* Minimum, maximum, median, quartiles and whiskers of each group */
+    private static final int LEVELS_PER_BOX = 7;
+
+    @NonNull private final D3GroupedBoxPlot<T> boxPlot;
+    @NonNull private float[] samples = new float[0];
+    @NonNull private int[] keys = new int[0];
+    @NonNull private float[] groupedSamples = new float[0];
+    @NonNull private int[] offsets = new int[1];
+    @NonNull private int[] cursors = new int[0];
+    @NonNull private float[] levels = new float[0];
+    @Nullable private float[] bandStarts;
+    private float bandwidth;
+    private D3Scale<Float> scale;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body mapBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            T[] data = boxPlot.data;
+            for (int i = from; i < to; i++) {
+                samples[i] = boxPlot.dataMapper.compute(data[i], i, data);
+                keys[i] = boxPlot.groupMapper.compute(data[i], i, data);
+            }
+        }
+    };
+    @NonNull private final ParallelFor.Body groupBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (isCancelled()) {
+                    return;
+                }
+                computeGroup(i);
+            }
+        }
+    };
+
+    GroupedStatisticsRunnable(@NonNull D3GroupedBoxPlot<T> boxPlot) {
+        this.boxPlot = boxPlot;
+        value = new BoxGroups();
+    }
+
+    @Override protected void computeValue() {
+        D3BandScale bandScale = boxPlot.bandScale();
+        int groupsNumber = bandScale.bandsNumber();
+        value.setGroupsNumber(groupsNumber);
+        T[] data = boxPlot.data;
+        if (data == null) {
+            return;
+        }
+        scale = boxPlot.scale();
+        bandStarts = bandScale.values(bandStarts);
+        bandwidth = bandScale.bandwidth();
+
+        if (samples.length < data.length) {
+            samples = new float[data.length];
+            keys = new int[data.length];
+            groupedSamples = new float[data.length];
+        }
+        parallelFor.run(data.length, ParallelFor.grain(boxPlot.parallelMappers()), mapBody);
+        if (isCancelled()) {
+            return;
+        }
+        groupSamples(data.length, groupsNumber);
+        if (levels.length < LEVELS_PER_BOX * groupsNumber) {
+            levels = new float[LEVELS_PER_BOX * groupsNumber];
+        }
+        parallelFor.run(groupsNumber, 1, groupBody);
+        if (isCancelled()) {
+            return;
+        }
+        scale.value(levels, levels, 0, LEVELS_PER_BOX * groupsNumber);
+        putLines();
+        gatherOutliers();
+    }
+
+    /**
+     * Sorts the samples by group in linear time. Samples whose group is not a band of the band
+     * scale are ignored.
+     */
+    private void groupSamples(int samplesNumber, int groupsNumber) {
+        if (offsets.length < groupsNumber + 1) {
+            offsets = new int[groupsNumber + 1];
+            cursors = new int[groupsNumber];
+        }
+        for (int i = 0; i <= groupsNumber; i++) {
+            offsets[i] = 0;
+        }
+        for (int i = 0; i < samplesNumber; i++) {
+            int key = keys[i];
+            if (key >= 0 && key < groupsNumber) {
+                offsets[key + 1]++;
+            }
+        }
+        for (int i = 0; i < groupsNumber; i++) {
+            offsets[i + 1] += offsets[i];
+            cursors[i] = offsets[i];
+        }
+        for (int i = 0; i < samplesNumber; i++) {
+            int key = keys[i];
+            if (key >= 0 && key < groupsNumber) {
+                groupedSamples[cursors[key]++] = samples[i];
+            }
+        }
+    }
+
+    private void computeGroup(int group) {
+        int from = offsets[group];
+        int to = offsets[group + 1];
+        value.samplesNumbers[group] = to - from;
+        if (from == to) {
+            return;
+        }
+        Statistics statistics = value.statistics[group];
+        Quantiles.compute(groupedSamples, from, to, statistics);
+
+        float fence = WHISKER_FACTOR * (statistics.upperQuartile - statistics.lowerQuartile);
+        float lowerFence = statistics.lowerQuartile - fence;
+        float upperFence = statistics.upperQuartile + fence;
+        float lowerWhisker = statistics.lowerQuartile;
+        float upperWhisker = statistics.upperQuartile;
+        /* The outliers are moved to the start of the group. */
+        int outliersEnd = from;
+        for (int i = from; i < to; i++) {
+            float sample = groupedSamples[i];
+            if (sample < lowerFence || sample > upperFence) {
+                groupedSamples[i] = groupedSamples[outliersEnd];
+                groupedSamples[outliersEnd++] = sample;
+            } else {
+                lowerWhisker = Math.min(lowerWhisker, sample);
+                upperWhisker = Math.max(upperWhisker, sample);
+            }
+        }
+        value.outliersNumbers[group] = outliersEnd - from;
+        value.lowerWhiskers[group] = lowerWhisker;
+        value.upperWhiskers[group] = upperWhisker;
+
+        int i = group * LEVELS_PER_BOX;
+        levels[i] = statistics.min;
+        levels[i + 1] = statistics.max;
+        levels[i + 2] = statistics.median;
+        levels[i + 3] = statistics.lowerQuartile;
+        levels[i + 4] = statistics.upperQuartile;
+        levels[i + 5] = lowerWhisker;
+        levels[i + 6] = upperWhisker;
+    }
+
+    /**
+     * Writes the lines of the non empty groups at the start of the lines, from their projected
+     * levels.
+     */
+    private void putLines() {
+        float[] lines = value.lines;
+        int i = 0;
+        for (int group = 0; group < value.groupsNumber; group++) {
+            if (value.samplesNumbers[group] == 0) {
+                continue;
+            }
+            Statistics statistics = value.statistics[group];
+            int level = group * LEVELS_PER_BOX;
+            statistics.minCoordinate = levels[level];
+            statistics.maxCoordinate = levels[level + 1];
+            statistics.medianCoordinate = levels[level + 2];
+            statistics.lowerQuartileCoordinate = levels[level + 3];
+            statistics.upperQuartileCoordinate = levels[level + 4];
+            float lowerWhiskerCoordinate = levels[level + 5];
+            float upperWhiskerCoordinate = levels[level + 6];
+
+            float left = bandStarts[group];
+            float right = left + bandwidth;
+            float center = left + bandwidth / 2F;
+            i = putLine(lines, i, left, upperWhiskerCoordinate, right, upperWhiskerCoordinate);
+            i = putLine(lines, i, left, lowerWhiskerCoordinate, right, lowerWhiskerCoordinate);
+            i = putLine(
+                lines, i, left, statistics.medianCoordinate, right, statistics.medianCoordinate
+            );
+            i = putLine(
+                lines, i, left, statistics.upperQuartileCoordinate,
+                right, statistics.upperQuartileCoordinate
+            );
+            i = putLine(
+                lines, i, left, statistics.lowerQuartileCoordinate,
+                right, statistics.lowerQuartileCoordinate
+            );
+            i = putLine(
+                lines, i, left, statistics.upperQuartileCoordinate,
+                left, statistics.lowerQuartileCoordinate
+            );
+            i = putLine(
+                lines, i, right, statistics.upperQuartileCoordinate,
+                right, statistics.lowerQuartileCoordinate
+            );
+            i = putLine(
+                lines, i, center, upperWhiskerCoordinate,
+                center, statistics.upperQuartileCoordinate
+            );
+            i = putLine(
+                lines, i, center, statistics.lowerQuartileCoordinate,
+                center, lowerWhiskerCoordinate
+            );
+        }
+        value.linesLength = i;
+    }
+
+    private static int putLine(
+        @NonNull float[] lines, int index, float startX, float startY, float stopX, float stopY
+    ) {
+        lines[index] = startX;
+        lines[index + 1] = startY;
+        lines[index + 2] = stopX;
+        lines[index + 3] = stopY;
+        return index + 4;
+    }
+
+    /**
+     * Projects the outliers of all the groups at once. The samples are already grouped, so
+     * their array holds the outliers while they are projected.
+     */
+    private void gatherOutliers() {
+        int outliersNumber = 0;
+        for (int i = 0; i < value.groupsNumber; i++) {
+            int from = offsets[i];
+            int to = from + value.outliersNumbers[i];
+            System.arraycopy(groupedSamples, from, samples, outliersNumber, to - from);
+            outliersNumber += to - from;
+        }
+        scale.value(samples, samples, 0, outliersNumber);
+        value.reserveOutliers(outliersNumber);
+        float[] outliers = value.outliers;
+        int index = 0;
+        for (int i = 0; i < value.groupsNumber; i++) {
+            float center = bandStarts[i] + bandwidth / 2F;
+            for (int j = 0; j < value.outliersNumbers[i]; j++) {
+                outliers[2 * index] = center;
+                outliers[2 * index + 1] = samples[index];
+                index++;
+            }
+        }
+        value.outliersLength = 2 * index;
+    }
+
+    @Override protected void recycle(@Nullable BoxGroups spare) {
+        value = spare == null ? new BoxGroups() : spare;
+    }
+}
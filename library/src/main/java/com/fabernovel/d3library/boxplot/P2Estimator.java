@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimation of a quantile with the P-Square algorithm (Jain and Chlamtac): five
+ * markers are adjusted at each sample, so the estimation takes constant time and memory
+ * whatever the number of samples.
+ */
+class P2Estimator {
+    private static final int MARKERS_NUMBER = 5;
+
+    private final float quantile;
+    @NonNull private final double[] heights = new double[MARKERS_NUMBER];
+    @NonNull private final int[] positions = new int[MARKERS_NUMBER];
+    @NonNull private final double[] desiredPositions = new double[MARKERS_NUMBER];
+    @NonNull private final double[] increments;
+    @NonNull private final double[] firstSamples = new double[MARKERS_NUMBER];
+    private int count;
+
+    P2Estimator(float quantile) {
+        this.quantile = quantile;
+        increments = new double[]{0D, quantile / 2D, quantile, (1D + quantile) / 2D, 1D};
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    void add(float sample) {
+        if (count < MARKERS_NUMBER) {
+            heights[count++] = sample;
+            if (count == MARKERS_NUMBER) {
+                Arrays.sort(heights);
+                for (int i = 0; i < MARKERS_NUMBER; i++) {
+                    positions[i] = i + 1;
+                    desiredPositions[i] = 1D + 4D * increments[i];
+                }
+            }
+            return;
+        }
+
+        int cell;
+        if (sample < heights[0]) {
+            heights[0] = sample;
+            cell = 0;
+        } else if (sample >= heights[MARKERS_NUMBER - 1]) {
+            heights[MARKERS_NUMBER - 1] = sample;
+            cell = MARKERS_NUMBER - 2;
+        } else {
+            cell = 0;
+            while (sample >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for (int i = cell + 1; i < MARKERS_NUMBER; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < MARKERS_NUMBER; i++) {
+            desiredPositions[i] += increments[i];
+        }
+        count++;
+
+        for (int i = 1; i < MARKERS_NUMBER - 1; i++) {
+            double delta = desiredPositions[i] - positions[i];
+            if (delta >= 1D && positions[i + 1] - positions[i] > 1
+                || delta <= -1D && positions[i - 1] - positions[i] < -1) {
+                int direction = delta > 0D ? 1 : -1;
+                double height = parabolic(i, direction);
+                if (height <= heights[i - 1] || height >= heights[i + 1]) {
+                    height = heights[i] + direction * (heights[i + direction] - heights[i])
+                        / (positions[i + direction] - positions[i]);
+                }
+                heights[i] = height;
+                positions[i] += direction;
+            }
+        }
+    }
+
+    private double parabolic(int i, int direction) {
+        double lowerGap = positions[i] - positions[i - 1];
+        double upperGap = positions[i + 1] - positions[i];
+        return heights[i] + direction / (lowerGap + upperGap) * (
+            (lowerGap + direction) * (heights[i + 1] - heights[i]) / upperGap
+                + (upperGap - direction) * (heights[i] - heights[i - 1]) / lowerGap
+        );
+    }
+
+    /**
+     * Returns the estimated quantile, which is exact until five samples are added.
+     */
+    float value() {
+        if (count >= MARKERS_NUMBER) {
+            return (float) heights[2];
+        }
+        if (count == 0) {
+            return Float.NaN;
+        }
+        System.arraycopy(heights, 0, firstSamples, 0, count);
+        Arrays.sort(firstSamples, 0, count);
+        return (float) firstSamples[Math.round((count - 1) * quantile)];
+    }
+}
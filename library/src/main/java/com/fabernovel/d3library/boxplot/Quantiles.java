@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Exact quantiles computed by selection in linear time rather than by sorting the values.
+ */
+final class Quantiles {
+    private Quantiles() {
+    }
+
+    /**
+     * Writes the minimum, the maximum, the median and the quartiles of the values from from
+     * (inclusive) to to (exclusive) into the statistics. Those values are reordered.
+     */
+    static void compute(@NonNull float[] values, int from, int to, @NonNull Statistics result) {
+        float min = values[from];
+        float max = values[from];
+        for (int i = from + 1; i < to; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        result.min = min;
+        result.max = max;
+
+        int length = to - from;
+        int middle = from + length / 2;
+        float upperMedian = select(values, from, to, middle);
+        /* The values before the middle are now lower than the upper median. */
+        if (length % 2 == 0) {
+            float lowerMedian = values[from];
+            for (int i = from + 1; i < middle; i++) {
+                lowerMedian = Math.max(lowerMedian, values[i]);
+            }
+            result.median = (lowerMedian + upperMedian) / 2F;
+        } else {
+            result.median = upperMedian;
+        }
+
+        result.lowerQuartile = orderStatistic(
+            values, from, to, middle, upperMedian, from + Math.round((float) (length - 1) / 4F)
+        );
+        result.upperQuartile = orderStatistic(
+            values, from, to, middle, upperMedian,
+            from + Math.round((float) (length - 1) * 3F / 4F)
+        );
+    }
+
+    private static float orderStatistic(
+        @NonNull float[] values, int from, int to, int middle, float upperMedian, int index
+    ) {
+        if (index < middle) {
+            return select(values, from, middle, index);
+        }
+        if (index > middle) {
+            return select(values, middle + 1, to, index);
+        }
+        return upperMedian;
+    }
+
+    /**
+     * Returns the value which would be at the index if the values from from (inclusive) to to
+     * (exclusive) were sorted, and partitions them around it. This is an introselect: a
+     * quickselect with a median of three pivot, which sorts the remaining range if too many
+     * partitions were unbalanced, so that it never runs in quadratic time.
+     */
+    static float select(@NonNull float[] values, int from, int to, int index) {
+        int remainingPartitions = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (to - from > 1) {
+            if (remainingPartitions-- == 0) {
+                Arrays.sort(values, from, to);
+                return values[index];
+            }
+            float pivot = medianOfThree(values[from], values[(from + to) >>> 1], values[to - 1]);
+            /* Three-way partition, so that repeated values end the selection early. */
+            int lower = from;
+            int upper = to - 1;
+            int i = from;
+            while (i <= upper) {
+                float value = values[i];
+                if (value < pivot) {
+                    values[i++] = values[lower];
+                    values[lower++] = value;
+                } else if (value > pivot) {
+                    values[i] = values[upper];
+                    values[upper--] = value;
+                } else {
+                    i++;
+                }
+            }
+            if (index < lower) {
+                to = lower;
+            } else if (index > upper) {
+                from = upper + 1;
+            } else {
+                return pivot;
+            }
+        }
+        return values[index];
+    }
+
+    private static float medianOfThree(float a, float b, float c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+class SampleBuffer {
+    @NonNull float[] values = new float[0];
+    int size;
+
+    void reserve(int capacity) {
+        if (values.length < capacity) {
+            values = Arrays.copyOf(values, Math.max(capacity, 2 * values.length));
+        }
+    }
+
+    void add(float sample) {
+        reserve(size + 1);
+        values[size++] = sample;
+    }
+
+    void add(@NonNull float[] samples, int from, int to) {
+        reserve(size + to - from);
+        System.arraycopy(samples, from, values, size, to - from);
+        size += to - from;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
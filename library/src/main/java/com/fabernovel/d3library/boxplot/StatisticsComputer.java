@@ -18,63 +18,152 @@ package com.fabernovel.d3library.boxplot;
 
 import android.support.annotation.NonNull;
 
+import com.fabernovel.d3library.data.D3Column;
+import com.fabernovel.d3library.threading.ParallelFor;
 import com.fabernovel.d3library.threading.ValueRunnable;
 
 class StatisticsComputer<T> extends ValueRunnable<Statistics> {
     private static final String DATA_ERROR = "Data should not be null";
 
     @NonNull private final D3BoxPlot<T> boxPlot;
-    private float[] floatData;
+    /* The samples, which are only kept in the exact mode */
+    @NonNull private final SampleBuffer samples = new SampleBuffer();
+    /* The samples added to the data in the exact mode, added again each time it is mapped */
+    @NonNull private final SampleBuffer appendedSamples = new SampleBuffer();
+    @NonNull private float[] selection = new float[0];
+    @NonNull private final P2Estimator lowerQuartileEstimator = new P2Estimator(0.25F);
+    @NonNull private final P2Estimator medianEstimator = new P2Estimator(0.5F);
+    @NonNull private final P2Estimator upperQuartileEstimator = new P2Estimator(0.75F);
+    private int estimatedSamplesNumber;
+    private float estimatedMin;
+    private float estimatedMax;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            T[] data = boxPlot.data;
+            float[] floatData = samples.values;
+            for (int i = from; i < to; i++) {
+                floatData[i] = boxPlot.dataMapper.compute(data[i], i, data);
+            }
+        }
+    };
 
     StatisticsComputer(@NonNull D3BoxPlot<T> boxPlot) {
         this.boxPlot = boxPlot;
         value = new Statistics();
     }
 
-    void setDataLength(int length) {
-        floatData = new float[length];
-    }
-
     @Override protected void computeValue() {
-        if (boxPlot.data == null) {
+        boolean streaming = boxPlot.streaming;
+        boolean reset = boxPlot.samplesReset.getAndSet(false);
+        boolean changed = boxPlot.dataChanged.getAndSet(false);
+        /* The estimators cannot forget the samples of the data, so in streaming mode the data is
+         * only mapped again when it is set. */
+        if (reset || changed && !streaming) {
+            computeFloatData();
+            if (isCancelled()) {
+                if (reset) {
+                    boxPlot.samplesReset.set(true);
+                }
+                boxPlot.dataChanged.set(true);
+                return;
+            }
+            if (reset) {
+                appendedSamples.clear();
+            }
+            if (streaming) {
+                estimatedSamplesNumber = 0;
+                lowerQuartileEstimator.reset();
+                medianEstimator.reset();
+                upperQuartileEstimator.reset();
+                estimate(samples.values, samples.size);
+                samples.clear();
+            } else {
+                samples.add(appendedSamples.values, 0, appendedSamples.size);
+            }
+        }
+        SampleBuffer addedSamples = boxPlot.addedSamples;
+        synchronized (addedSamples) {
+            if (streaming) {
+                estimate(addedSamples.values, addedSamples.size);
+            } else {
+                samples.add(addedSamples.values, 0, addedSamples.size);
+                appendedSamples.add(addedSamples.values, 0, addedSamples.size);
+            }
+            addedSamples.clear();
+        }
+        if (isCancelled()) {
+            return;
+        }
+        int samplesNumber = streaming ? estimatedSamplesNumber : samples.size;
+        if (samplesNumber == 0 && boxPlot.data == null && boxPlot.column == null) {
             throw new IllegalStateException(DATA_ERROR);
         }
-        computeFloatData();
-        computeStatistics();
+        if (streaming) {
+            estimateStatistics();
+        } else {
+            computeStatistics();
+        }
         computeCoordinates();
     }
 
     private void computeFloatData() {
-        for (int i = 0; i < floatData.length; i++) {
-            floatData[i] = boxPlot.dataMapper.compute(boxPlot.data[i], i, boxPlot.data);
+        samples.clear();
+        D3Column column = boxPlot.column;
+        if (column != null) {
+            samples.reserve(column.length());
+            column.copyTo(samples.values);
+            samples.size = column.length();
+        } else if (boxPlot.data != null) {
+            samples.reserve(boxPlot.data.length);
+            samples.size = boxPlot.data.length;
+            parallelFor.run(
+                samples.size, ParallelFor.grain(boxPlot.parallelMappers()), computeBody
+            );
         }
     }
 
     private void computeStatistics() {
-        if (boxPlot.data.length == 0) {
+        if (samples.size == 0) {
             return;
         }
-        int i = 0;
-        float swap;
-        while (i < boxPlot.data.length - 1) {
-            if (floatData[i] > floatData[i + 1]) {
-                swap = floatData[i];
-                floatData[i] = floatData[i + 1];
-                floatData[i + 1] = swap;
-                i = Math.max(i - 1, 0);
+        /* The selection reorders the values, so the samples are kept in a separate array. */
+        if (selection.length < samples.size) {
+            selection = new float[samples.values.length];
+        }
+        System.arraycopy(samples.values, 0, selection, 0, samples.size);
+        Quantiles.compute(selection, 0, samples.size, value);
+    }
+
+    private void estimate(@NonNull float[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            float sample = values[i];
+            if (estimatedSamplesNumber == 0) {
+                estimatedMin = sample;
+                estimatedMax = sample;
             } else {
-                i++;
+                estimatedMin = Math.min(estimatedMin, sample);
+                estimatedMax = Math.max(estimatedMax, sample);
             }
+            estimatedSamplesNumber++;
+            lowerQuartileEstimator.add(sample);
+            medianEstimator.add(sample);
+            upperQuartileEstimator.add(sample);
         }
+    }
 
-        value.min = floatData[0];
-        value.max = floatData[floatData.length - 1];
-        value.median = floatData.length % 2 == 0 ?
-            (floatData[floatData.length / 2 - 1] + floatData[floatData.length / 2]) / 2F :
-            floatData[floatData.length / 2];
-
-        value.lowerQuartile = floatData[Math.round((float) (floatData.length - 1)/ 4F)];
-        value.upperQuartile = floatData[Math.round((float) (floatData.length - 1) * 3F / 4F)];
+    private void estimateStatistics() {
+        if (estimatedSamplesNumber == 0) {
+            return;
+        }
+        value.min = estimatedMin;
+        value.max = estimatedMax;
+        value.median = medianEstimator.value();
+        value.lowerQuartile = lowerQuartileEstimator.value();
+        value.upperQuartile = upperQuartileEstimator.value();
     }
 
     private void computeCoordinates() {
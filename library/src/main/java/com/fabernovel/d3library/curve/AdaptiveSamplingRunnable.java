@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.curve;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.scale.Interpolator;
+import com.fabernovel.d3library.scale.Spline;
+import com.fabernovel.d3library.scale.SplineInterpolator;
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Samples the curve between each pair of data points, subdividing a segment until the chord is
+ * closer to the curve than the sampling tolerance.
+ */
+class AdaptiveSamplingRunnable<T> extends ValueRunnable<CurveSamples> {
+    private static final int MAX_DEPTH = 10;
+
+    @NonNull private final D3Curve<T> curve;
+    @Nullable private Spline spline;
+    @Nullable private Interpolator interpolator;
+    private float[] xData;
+    private float[] yData;
+    private float tolerance;
+
+    AdaptiveSamplingRunnable(@NonNull D3Curve<T> curve) {
+        this.curve = curve;
+        value = new CurveSamples();
+    }
+
+    @Override protected void computeValue() {
+        value.size = 0;
+        tolerance = curve.samplingTolerance();
+        if (tolerance <= 0F) {
+            return;
+        }
+        xData = curve.x();
+        yData = curve.y();
+        int length = Math.min(xData.length, yData.length);
+        if (length < 2) {
+            return;
+        }
+        interpolator = curve.interpolator();
+        if (interpolator instanceof SplineInterpolator) {
+            spline = ((SplineInterpolator) interpolator).fit(xData, yData, spline);
+        }
+
+        /* The data points bound the first segments, unless there are more of them than the
+         * number of points of the uniform sampling. */
+        int segmentsNumber = Math.min(length, curve.pointsNumber()) - 1;
+        boolean uniform = segmentsNumber < length - 1;
+        float start = xData[0];
+        float end = xData[length - 1];
+        float x0 = start;
+        float y0 = evaluate(x0);
+        value.add(x0, y0);
+        for (int i = 1; i <= segmentsNumber; i++) {
+            if (isCancelled()) {
+                return;
+            }
+            float x1 = uniform ?
+                ((segmentsNumber - i) * start + i * end) / segmentsNumber : xData[i];
+            if (x1 <= x0) {
+                continue;
+            }
+            float y1 = evaluate(x1);
+            float middleX = (x0 + x1) / 2F;
+            subdivide(x0, y0, middleX, evaluate(middleX), x1, y1, 0);
+            x0 = x1;
+            y0 = y1;
+        }
+    }
+
+    /**
+     * Adds the points sampled between (x0, y0) (excluded) and (x1, y1) (included), the middle
+     * point being already evaluated.
+     */
+    private void subdivide(
+        float x0, float y0, float middleX, float middleY, float x1, float y1, int depth
+    ) {
+        float firstQuarterX = (x0 + middleX) / 2F;
+        float firstQuarterY = evaluate(firstQuarterX);
+        float lastQuarterX = (middleX + x1) / 2F;
+        float lastQuarterY = evaluate(lastQuarterX);
+        if (depth == MAX_DEPTH || x1 - x0 <= tolerance
+            || isClose(x0, y0, x1, y1, firstQuarterX, firstQuarterY)
+            && isClose(x0, y0, x1, y1, middleX, middleY)
+            && isClose(x0, y0, x1, y1, lastQuarterX, lastQuarterY)) {
+            value.add(x1, y1);
+            return;
+        }
+        subdivide(x0, y0, firstQuarterX, firstQuarterY, middleX, middleY, depth + 1);
+        subdivide(middleX, middleY, lastQuarterX, lastQuarterY, x1, y1, depth + 1);
+    }
+
+    /**
+     * Returns true if the point is closer to the chord than the tolerance.
+     */
+    private boolean isClose(float x0, float y0, float x1, float y1, float pointX, float pointY) {
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        float cross = dx * (pointY - y0) - dy * (pointX - x0);
+        return cross * cross <= tolerance * tolerance * (dx * dx + dy * dy);
+    }
+
+    private float evaluate(float measuredX) {
+        if (spline != null && interpolator instanceof SplineInterpolator) {
+            return spline.value(measuredX);
+        }
+        return interpolator.interpolate(measuredX, xData, yData);
+    }
+
+    @Override protected void recycle(@Nullable CurveSamples spare) {
+        value = spare == null ? new CurveSamples() : spare;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.curve;
+
+import java.util.Arrays;
+
+class CurveSamples {
+    float[] x = new float[0];
+    float[] y = new float[0];
+    int size;
+
+    void add(float pointX, float pointY) {
+        if (size == x.length) {
+            x = Arrays.copyOf(x, Math.max(2 * size, 16));
+            y = Arrays.copyOf(y, x.length);
+        }
+        x[size] = pointX;
+        y[size] = pointY;
+        size++;
+    }
+}
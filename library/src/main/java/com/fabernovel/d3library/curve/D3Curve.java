@@ -22,91 +22,61 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.data.D3Column;
+import com.fabernovel.d3library.line.D3DataStream;
 import com.fabernovel.d3library.line.D3Line;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
+import com.fabernovel.d3library.scale.D3Scale;
 import com.fabernovel.d3library.scale.Interpolator;
-import com.fabernovel.d3library.threading.ValueStorage;
+import com.fabernovel.d3library.scale.NaturalSplineInterpolator;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
 
 public class D3Curve<T> extends D3Line<T> {
     private static final String DATA_ERROR = "Data should not be null";
     private static final String TICKS_ERROR =
         "PrepareParameters should have be called to setup ticksX and ticksY";
     private static final String TICKS_X_ERROR = "TicksX should not be null";
+    private static final String STREAM_ERROR = "Streams are not supported by curves";
     private static final int DEFAULT_POINT_NUMBER = 100;
-    private static final int DEFAULT_INDEX_SIZE = 5;
 
-    @NonNull final ValueStorage<float[]> ticksX = new ValueStorage<>();
+    @NonNull final BufferedValueStorage<float[]> ticksX = new BufferedValueStorage<>();
     @NonNull private final GetTicksXRunnable<T> ticksXRunnable = new GetTicksXRunnable<>(this);
-    @NonNull final ValueStorage<float[]> ticksY = new ValueStorage<>();
+    @NonNull final BufferedValueStorage<float[]> ticksY = new BufferedValueStorage<>();
     @NonNull private final GetTicksYRunnable<T> ticksYRunnable = new GetTicksYRunnable<>(this);
-
+    @NonNull final BufferedValueStorage<CurveSamples> samples = new BufferedValueStorage<>();
+    @NonNull private final AdaptiveSamplingRunnable<T> samplingRunnable
+        = new AdaptiveSamplingRunnable<>(this);
 
     private int pointsNumber;
+    private float samplingTolerance;
 
     public D3Curve() {
         super();
+        setupTaskGraph();
         initInterpolator();
         pointsNumber(DEFAULT_POINT_NUMBER);
     }
 
     public D3Curve(T[] data) {
         super(data);
+        setupTaskGraph();
         initInterpolator();
         pointsNumber(DEFAULT_POINT_NUMBER);
     }
 
-    private void initInterpolator() {
-        interpolator = new Interpolator() {
-            private int[] indexToUse;
-
-            @Override
-            public float interpolate(
-                float x,
-                float[] xData,
-                float[] yData
-            ) {
-                if (indexToUse == null) {
-                    initIndex(yData.length);
-                }
-                return computeLagrangePolynomialInterpolation(x, xData, yData);
-            }
-
-            private float computeLagrangePolynomialInterpolation(
-                float x,
-                float[] xData,
-                float[] yData
-            ) {
-                float result = 0F;
-                for (int i = 0; i < indexToUse.length; i++) {
-                    float intermediary = 1F;
-                    for (int j = 0; j < indexToUse.length; j++) {
-                        if (i != j) {
-                            intermediary *= (x - xData[indexToUse[j]]) /
-                                (xData[indexToUse[i]] - xData[indexToUse[j]]);
-                        }
-                    }
-                    result += yData[indexToUse[i]] * intermediary;
-                }
-                return result;
-            }
+    private void setupTaskGraph() {
+        taskGraph
+            .add(ticksX, ticksXRunnable, storeX)
+            .add(ticksY, ticksYRunnable, storeX, storeY, ticksX)
+            .add(samples, samplingRunnable, storeX, storeY);
+    }
 
-            private void initIndex(int indexSize) {
-                if (indexSize <= DEFAULT_INDEX_SIZE) {
-                    indexToUse = new int[indexSize];
-                    for (int i = 0; i < indexToUse.length; i++) {
-                        indexToUse[i] = i;
-                    }
-                } else {
-                    indexToUse = new int[DEFAULT_INDEX_SIZE];
-                    for (int i = 0; i < DEFAULT_INDEX_SIZE; i++) {
-                        indexToUse[i] = (indexSize - 1) * i / (DEFAULT_INDEX_SIZE - 1);
-                    }
-                }
-            }
-        };
+    private void initInterpolator() {
+        interpolator = new NaturalSplineInterpolator();
     }
 
     @Override public float interpolateValue(float measuredX) {
@@ -131,6 +101,26 @@ public class D3Curve<T> extends D3Line<T> {
         return this;
     }
 
+    /**
+     * Returns the maximum distance in pixels between the curve and the segments drawn, 0 if
+     * the curve is sampled uniformly.
+     */
+    public float samplingTolerance() {
+        return samplingTolerance;
+    }
+
+    /**
+     * Sets the maximum distance in pixels between the curve and the segments drawn. The
+     * segments between the data points are subdivided until they are close enough to the
+     * curve, so that flat parts are drawn with few points and sharp bends with many. If 0, the
+     * curve is sampled with pointsNumber uniformly spaced points.
+     */
+    public D3Curve<T> samplingTolerance(float samplingTolerance) {
+        this.samplingTolerance = samplingTolerance;
+        updateNeeded();
+        return this;
+    }
+
     @Override public D3Curve<T> paint(@NonNull Paint paint) {
         super.paint(paint);
         return this;
@@ -146,6 +136,16 @@ public class D3Curve<T> extends D3Line<T> {
         return this;
     }
 
+    @Override public D3Curve<T> x(@NonNull D3Column x, @Nullable D3Scale<?> scale) {
+        super.x(x, scale);
+        return this;
+    }
+
+    @Override public D3Curve<T> y(@NonNull D3Column y, @Nullable D3Scale<?> scale) {
+        super.y(y, scale);
+        return this;
+    }
+
     @Override public D3Curve<T> data(@Nullable T[] data) {
         this.data = data;
         if (data == null) {
@@ -156,8 +156,26 @@ public class D3Curve<T> extends D3Line<T> {
         return this;
     }
 
+    /**
+     * Streams are not supported by curves.
+     */
+    @Override public D3Curve<T> data(@NonNull D3DataStream<T> stream) {
+        throw new IllegalStateException(STREAM_ERROR);
+    }
+
+    /**
+     * Sets the interpolator used to compute the points of the curve. With a
+     * {@link com.fabernovel.d3library.scale.SplineInterpolator}, the coefficients are computed
+     * once per data set. The default one is a {@link NaturalSplineInterpolator}.
+     */
     @Override public D3Curve<T> interpolator(@NonNull Interpolator interpolator) {
         super.interpolator(interpolator);
+        updateNeeded();
+        return this;
+    }
+
+    @Override public D3Curve<T> pickable(boolean pickable) {
+        super.pickable(pickable);
         return this;
     }
 
@@ -176,34 +194,42 @@ public class D3Curve<T> extends D3Line<T> {
         return this;
     }
 
+    @Override public D3Curve<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public void draw(@NonNull Canvas canvas) {
-        if (data == null) {
+        if (!hasData()) {
             throw new IllegalStateException(DATA_ERROR);
         }
 
-        if (data.length < 2) {
+        if (data != null && data.length < 2) {
             return;
         }
 
-        float[] xDraw = ticksX.getValue();
-        float[] yDraw = ticksY.getValue();
-
-        for (int i = 0; i < pointsNumber - 1; i++) {
-            lines[4 * i] = xDraw[i];
-            lines[4 * i + 1] = yDraw[i];
-            lines[4 * i + 2] = xDraw[i + 1];
-            lines[4 * i + 3] = yDraw[i + 1];
+        if (samplingTolerance > 0F) {
+            CurveSamples points = samples.getLatestValue();
+            if (lines.length < 4 * (points.size - 1)) {
+                lines = new float[4 * (points.size - 1)];
+            }
+            drawPoints(canvas, points.x, points.y, points.size);
+            return;
         }
-        canvas.drawLines(lines, paint);
+        float[] xDraw = ticksX.getLatestValue();
+        float[] yDraw = ticksY.getLatestValue();
+        /* Stale ticks can have been computed for a previous number of points. */
+        drawPoints(canvas, xDraw, yDraw, Math.min(xDraw.length, yDraw.length));
     }
 
-    @Override public void prepareParameters() {
-        if (lazyRecomputing && calculationNeeded() == 0) {
-            return;
-        }
-        super.prepareParameters();
-        ticksX.setValue(ticksXRunnable);
-        ticksY.setValue(ticksYRunnable);
+    @Override public D3Curve<T> renderStale(boolean renderStale) {
+        super.renderStale(renderStale);
+        return this;
+    }
+
+    @Override public D3Curve<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
     }
 
     @Override public D3Curve<T> setClipRect(
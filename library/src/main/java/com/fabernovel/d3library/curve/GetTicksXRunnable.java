@@ -16,6 +16,8 @@
 
 package com.fabernovel.d3library.curve;
 
+import android.support.annotation.Nullable;
+
 import com.fabernovel.d3library.threading.ValueRunnable;
 
 class GetTicksXRunnable<T> extends ValueRunnable<float[]> {
@@ -29,13 +31,20 @@ class GetTicksXRunnable<T> extends ValueRunnable<float[]> {
         value = new float[pointsNumber];
     }
 
+    @Override protected void recycle(@Nullable float[] spare) {
+        value = spare != null && spare.length == value.length ? spare : new float[value.length];
+    }
+
     @Override protected void computeValue() {
+        if (curve.samplingTolerance() > 0F) {
+            return;
+        }
         float[] xData = curve.x();
         value[0] = xData[0];
         for (int i = 1; i < value.length - 1; i++) {
             value[i] = ((value.length - 1 - i) * xData[0] + i * xData[xData
                 .length - 1]) /
-                value.length;
+                (value.length - 1);
         }
         value[value.length - 1] = xData[xData.length - 1];
     }
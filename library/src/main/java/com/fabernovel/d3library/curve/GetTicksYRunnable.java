@@ -16,10 +16,38 @@
 
 package com.fabernovel.d3library.curve;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.scale.Interpolator;
+import com.fabernovel.d3library.scale.Spline;
+import com.fabernovel.d3library.scale.SplineInterpolator;
+import com.fabernovel.d3library.threading.ParallelFor;
 import com.fabernovel.d3library.threading.ValueRunnable;
 
 class GetTicksYRunnable<T> extends ValueRunnable<float[]> {
     private final D3Curve<T> curve;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            if (fitted) {
+                spline.values(xDraw, value, from, to);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                value[i] = interpolator.interpolate(xDraw[i], xData, yData);
+            }
+        }
+    };
+    @Nullable private Spline spline;
+    private boolean fitted;
+    private Interpolator interpolator;
+    private float[] xData;
+    private float[] yData;
+    private float[] xDraw;
 
     GetTicksYRunnable(D3Curve<T> curve) {
         this.curve = curve;
@@ -29,19 +57,22 @@ class GetTicksYRunnable<T> extends ValueRunnable<float[]> {
         value = new float[pointsNumber];
     }
 
-    @Override protected void computeValue() {
-        float[] xData = curve.x();
-        float[] yData = curve.y();
-        float[] xDraw = curve.ticksX.getValue();
-
-        value[0] = curve.interpolator().interpolate(xDraw[0], xData, yData);
+    @Override protected void recycle(@Nullable float[] spare) {
+        value = spare != null && spare.length == value.length ? spare : new float[value.length];
+    }
 
-        for (int i = 1; i < value.length - 1; i++) {
-            value[i] = curve.interpolator().interpolate(xDraw[i], xData, yData);
+    @Override protected void computeValue() {
+        if (curve.samplingTolerance() > 0F) {
+            return;
         }
-
-        value[value.length - 1] = curve.interpolator().interpolate(
-            xDraw[value.length - 1], xData, yData
-        );
+        xData = curve.x();
+        yData = curve.y();
+        xDraw = curve.ticksX.getValue();
+        interpolator = curve.interpolator();
+        fitted = interpolator instanceof SplineInterpolator;
+        if (fitted) {
+            spline = ((SplineInterpolator) interpolator).fit(xData, yData, spline);
+        }
+        parallelFor.run(value.length, ParallelFor.grain(curve.parallelMappers()), computeBody);
     }
 }
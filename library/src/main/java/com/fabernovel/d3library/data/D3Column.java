@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Series of primitive values, given to Drawables instead of an array of objects and mappers.
+ * Projecting a column runs a tight loop over the primitive array, without boxing nor call of a
+ * mapper for each value. Long and double values are projected in double precision, so that
+ * timestamps keep their precision when the domain of the Scale is converted with a
+ * {@link com.fabernovel.d3library.scale.D3DoubleConverter}.
+ * The array is not copied: call updateNeeded on the Drawables when its values change.
+ */
+@SuppressWarnings("unused")
+public final class D3Column {
+    @Nullable private final float[] floats;
+    @Nullable private final double[] doubles;
+    @Nullable private final long[] longs;
+    private final int length;
+
+    private D3Column(
+        @Nullable float[] floats, @Nullable double[] doubles, @Nullable long[] longs, int length
+    ) {
+        this.floats = floats;
+        this.doubles = doubles;
+        this.longs = longs;
+        this.length = length;
+    }
+
+    /**
+     * Returns a column of float values.
+     */
+    @NonNull public static D3Column of(@NonNull float[] values) {
+        return new D3Column(values, null, null, values.length);
+    }
+
+    /**
+     * Returns a column of double values.
+     */
+    @NonNull public static D3Column of(@NonNull double[] values) {
+        return new D3Column(null, values, null, values.length);
+    }
+
+    /**
+     * Returns a column of long values, such as timestamps.
+     */
+    @NonNull public static D3Column of(@NonNull long[] values) {
+        return new D3Column(null, null, values, values.length);
+    }
+
+    /**
+     * Returns the number of values of the column.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the value at the given position.
+     */
+    public double doubleValue(int position) {
+        if (floats != null) {
+            return floats[position];
+        }
+        if (doubles != null) {
+            return doubles[position];
+        }
+        return longs[position];
+    }
+
+    /**
+     * Writes the values of the column into the result, as floats.
+     */
+    public void copyTo(@NonNull float[] result) {
+        if (floats != null) {
+            System.arraycopy(floats, 0, result, 0, length);
+        } else {
+            project(0D, 1D, 0D, result);
+        }
+    }
+
+    /**
+     * Writes into the result the affine projection of each value:
+     * result[i] = (value[i] - origin) * factor + offset.
+     */
+    public void project(double origin, double factor, double offset, @NonNull float[] result) {
+        if (floats != null) {
+            projectFloats(floats, origin, factor, offset, result);
+        } else if (doubles != null) {
+            projectDoubles(doubles, origin, factor, offset, result);
+        } else if (longs != null) {
+            projectLongs(longs, origin, factor, offset, result);
+        }
+    }
+
+    private static void projectFloats(
+        @NonNull float[] values, double origin, double factor, double offset,
+        @NonNull float[] result
+    ) {
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) ((values[i] - origin) * factor + offset);
+        }
+    }
+
+    private static void projectDoubles(
+        @NonNull double[] values, double origin, double factor, double offset,
+        @NonNull float[] result
+    ) {
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) ((values[i] - origin) * factor + offset);
+        }
+    }
+
+    private static void projectLongs(
+        @NonNull long[] values, double origin, double factor, double offset,
+        @NonNull float[] result
+    ) {
+        /* The origin is subtracted before the conversion to keep the precision of timestamps. */
+        long longOrigin = (long) origin;
+        double remainder = origin - longOrigin;
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) (((values[i] - longOrigin) - remainder) * factor + offset);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.helper;
+
+import android.os.Build;
+
+public final class CanvasHelper {
+    /* Android Q, whose constant is not available with the compile SDK of the library. */
+    private static final int HARDWARE_VERTICES_VERSION = 29;
+
+    private CanvasHelper() {}
+
+    /**
+     * Returns true if all the canvases of the device draw vertices: hardware canvases only draw
+     * them since Android Q.
+     */
+    public static boolean drawsVertices() {
+        return Build.VERSION.SDK_INT >= HARDWARE_VERTICES_VERSION;
+    }
+}
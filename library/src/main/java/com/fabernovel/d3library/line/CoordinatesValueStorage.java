@@ -19,31 +19,42 @@ package com.fabernovel.d3library.line;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.fabernovel.d3library.data.D3Column;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
-import com.fabernovel.d3library.threading.ThreadPool;
+import com.fabernovel.d3library.scale.D3Scale;
+import com.fabernovel.d3library.threading.ParallelFor;
 import com.fabernovel.d3library.threading.ValueRunnable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Executors;
-
 public class CoordinatesValueStorage<T> extends ValueRunnable<float[]> {
     private static final String DATA_ERROR = "Data should not be null";
 
     @NonNull private final D3Line<T> line;
-    @NonNull private final List<Callable<Object>> tasks;
-    @NonNull private final List<ComputeValueRunnable> runnables;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            T[] data = line.data;
+            for (int i = from; i < to; i++) {
+                value[i] = mapper.compute(data[i], i, data);
+            }
+        }
+    };
 
     @Nullable private D3FloatDataMapperFunction<T> mapper;
+    @Nullable private D3Column column;
+    @Nullable private D3Scale<?> columnScale;
+
+    /* Projections of the points of the stream, stored at the same slots as the points. */
+    @NonNull private final ScalesSnapshot scalesSnapshot = new ScalesSnapshot();
+    @NonNull private float[] projections = new float[0];
+    @Nullable private D3DataStream<T> projectedStream;
+    @Nullable private D3FloatDataMapperFunction<T> projectedMapper;
+    private long projectedEnd;
 
     CoordinatesValueStorage(@NonNull D3Line<T> line) {
         this.line = line;
-        tasks = new ArrayList<>();
-        runnables = new ArrayList<>();
-        for (int i = 0; i < ThreadPool.CORES_NUMBER; i++) {
-            runnables.add(new ComputeValueRunnable(i));
-        }
     }
 
     void setDataLength(int length) {
@@ -52,38 +63,96 @@ public class CoordinatesValueStorage<T> extends ValueRunnable<float[]> {
 
     void setMapper(@NonNull D3FloatDataMapperFunction<T> mapper) {
         this.mapper = mapper;
+        column = null;
+        columnScale = null;
+    }
+
+    void setColumn(@NonNull D3Column column, @Nullable D3Scale<?> scale) {
+        this.column = column;
+        columnScale = scale;
+        mapper = null;
+    }
+
+    boolean hasColumn() {
+        return column != null;
     }
 
     @Override protected void computeValue() {
+        if (column != null) {
+            computeColumn(column, columnScale);
+            return;
+        }
+        D3DataStream<T> stream = line.stream;
+        if (stream != null) {
+            computeStream(stream, line.streamWindow.getValue());
+            return;
+        }
         value = compute(mapper);
     }
 
-    float[] compute(@NonNull D3FloatDataMapperFunction<T> mapper) {
-        if (line.data == null) {
-            throw new IllegalStateException(DATA_ERROR);
+    private void computeColumn(@NonNull D3Column column, @Nullable D3Scale<?> scale) {
+        if (value.length != column.length()) {
+            value = new float[column.length()];
         }
-        tasks.clear();
-        for (int k = 0; k < ThreadPool.CORES_NUMBER; k++) {
-            tasks.add(Executors.callable(runnables.get(k)));
+        if (scale == null) {
+            column.copyTo(value);
+        } else {
+            scale.values(column, value);
         }
-        ThreadPool.executeOnSecondaryPool(tasks);
-        return value;
     }
 
-    private class ComputeValueRunnable implements Runnable {
-        int k;
-
-        public ComputeValueRunnable(int offset) {
-            k = offset;
+    /**
+     * Only projects the points appended since the last computation, unless the mapper, the
+     * stream or the scales of the line changed. Without scales, all the points are projected.
+     */
+    private void computeStream(@NonNull D3DataStream<T> stream, @NonNull StreamWindow window) {
+        D3Scale<?>[] scales = line.scales;
+        boolean scalesChanged = scalesSnapshot.update(scales) || scales.length == 0;
+        boolean incremental =
+            !scalesChanged && stream == projectedStream && mapper == projectedMapper;
+        long from = incremental ? Math.max(projectedEnd, window.start) : window.start;
+        if (projections.length != window.points.length) {
+            projections = new float[window.points.length];
         }
+        projectedStream = stream;
+        projectedMapper = mapper;
+        projectedEnd = from;
 
-        @Override public void run() {
-            if (line.data == null) {
-                throw new IllegalStateException(DATA_ERROR);
-            }
-            for (int i = k; i < value.length; i += ThreadPool.CORES_NUMBER) {
-                value[i] = mapper.compute(line.data[i], i, line.data);
+        for (long i = from; i < window.end; i++) {
+            if (isCancelled()) {
+                if (!incremental) {
+                    projectedMapper = null;
+                }
+                return;
             }
+            int slot = window.slot(i);
+            @SuppressWarnings("unchecked") T point = (T) window.points[slot];
+            projections[slot] = mapper.compute(point, (int) i, null);
+            projectedEnd = i + 1;
+        }
+
+        int size = window.size();
+        if (value.length != size) {
+            value = new float[size];
+        }
+        if (size == 0) {
+            return;
         }
+        int startSlot = window.slot(window.start);
+        int firstPart = Math.min(size, projections.length - startSlot);
+        System.arraycopy(projections, startSlot, value, 0, firstPart);
+        System.arraycopy(projections, 0, value, firstPart, size - firstPart);
+    }
+
+    @Override protected void recycle(@Nullable float[] spare) {
+        value = spare != null && spare.length == value.length ? spare : new float[value.length];
+    }
+
+    float[] compute(@NonNull D3FloatDataMapperFunction<T> mapper) {
+        if (line.data == null) {
+            throw new IllegalStateException(DATA_ERROR);
+        }
+        parallelFor.run(value.length, ParallelFor.grain(line.parallelMappers()), computeBody);
+        return value;
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+import android.support.annotation.NonNull;
+
+import com.fabernovel.d3library.D3Drawable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only data source for live data. It keeps at most capacity points: appending a point to
+ * a full stream evicts the oldest one. Drawables using the stream are notified at each append.
+ * Points can be appended from any thread.
+ */
+@SuppressWarnings("unused")
+public class D3DataStream<T> {
+    private static final String CAPACITY_ERROR = "Capacity should be positive";
+
+    @NonNull private final Object key = new Object();
+    @NonNull private final Object[] points;
+    @NonNull private final List<D3Drawable> drawables = new ArrayList<>();
+
+    /* Positions of the oldest point and after the newest point, since the creation. */
+    private long start;
+    private long end;
+
+    public D3DataStream(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalStateException(CAPACITY_ERROR);
+        }
+        points = new Object[capacity];
+    }
+
+    /**
+     * Returns the maximum number of points kept by the stream.
+     */
+    public int capacity() {
+        return points.length;
+    }
+
+    /**
+     * Returns the number of points currently kept by the stream.
+     */
+    public int size() {
+        synchronized (key) {
+            return (int) (end - start);
+        }
+    }
+
+    /**
+     * Appends a point, evicting the oldest one if the stream is full.
+     */
+    public D3DataStream<T> append(@NonNull T point) {
+        synchronized (key) {
+            points[slot(end)] = point;
+            end++;
+            start = Math.max(start, end - points.length);
+        }
+        notifyDrawables();
+        return this;
+    }
+
+    /**
+     * Appends points, evicting the oldest ones if the stream is full.
+     */
+    public D3DataStream<T> append(@NonNull T[] newPoints) {
+        synchronized (key) {
+            for (T point : newPoints) {
+                points[slot(end)] = point;
+                end++;
+            }
+            start = Math.max(start, end - points.length);
+        }
+        notifyDrawables();
+        return this;
+    }
+
+    /**
+     * Removes all the points.
+     */
+    public D3DataStream<T> clear() {
+        synchronized (key) {
+            for (int i = 0; i < points.length; i++) {
+                points[i] = null;
+            }
+            start = end;
+        }
+        notifyDrawables();
+        return this;
+    }
+
+    final void attach(@NonNull D3Drawable drawable) {
+        synchronized (key) {
+            drawables.add(drawable);
+        }
+    }
+
+    final void detach(@NonNull D3Drawable drawable) {
+        synchronized (key) {
+            drawables.remove(drawable);
+        }
+    }
+
+    /**
+     * Copies into the window the points appended since its last update. The points of the
+     * window share the slots of the stream.
+     */
+    final void update(@NonNull StreamWindow window) {
+        synchronized (key) {
+            if (window.stream != this) {
+                if (window.points.length != points.length) {
+                    window.points = new Object[points.length];
+                }
+                window.stream = this;
+                window.end = start;
+            }
+            for (long i = Math.max(window.end, start); i < end; i++) {
+                window.points[slot(i)] = points[slot(i)];
+            }
+            window.start = start;
+            window.end = end;
+        }
+    }
+
+    private int slot(long position) {
+        return (int) (position % points.length);
+    }
+
+    private void notifyDrawables() {
+        synchronized (key) {
+            for (int i = 0; i < drawables.size(); i++) {
+                drawables.get(i).updateNeeded();
+            }
+        }
+    }
+}
@@ -22,15 +22,22 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.D3Drawable;
+import com.fabernovel.d3library.D3Pick;
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.action.PinchType;
 import com.fabernovel.d3library.action.ScrollDirection;
 import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.data.D3Column;
 import com.fabernovel.d3library.mappers.D3FloatDataMapperFunction;
+import com.fabernovel.d3library.pick.BoxIndex;
 import com.fabernovel.d3library.scale.Interpolator;
+import com.fabernovel.d3library.scale.D3Scale;
 import com.fabernovel.d3library.scale.LinearInterpolator;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
+import com.fabernovel.d3library.threading.CommittedValueStorage;
 import com.fabernovel.d3library.threading.ValueStorage;
 
 @SuppressWarnings("unused")
@@ -41,27 +48,43 @@ public class D3Line<T> extends D3Drawable {
     private static final String STORE_ERROR =
         "PrepareParameters should have be called to setup storeX and storeY";
 
-    @NonNull protected final ValueStorage<float[]> storeX;
+    @NonNull protected final BufferedValueStorage<float[]> storeX;
     @NonNull private final CoordinatesValueStorage<T> xValueStorage;
-    @NonNull protected final ValueStorage<float[]> storeY;
+    @NonNull protected final BufferedValueStorage<float[]> storeY;
     @NonNull private final CoordinatesValueStorage<T> yValueStorage;
+    @NonNull private final BufferedValueStorage<DecimatedPoints> decimatedPoints;
+    @NonNull private final CommittedValueStorage<BoxIndex> pickIndex;
+    @NonNull final ValueStorage<StreamWindow> streamWindow;
     @NonNull protected float[] lines;
 
     @Nullable protected T[] data;
+    @Nullable protected D3DataStream<T> stream;
+    @NonNull D3Scale<?>[] scales = new D3Scale<?>[0];
     @Nullable private D3FloatDataMapperFunction<T> x;
     @Nullable private D3FloatDataMapperFunction<T> y;
 
     @NonNull protected Interpolator interpolator;
+    @NonNull Decimation decimation = Decimation.NONE;
+    volatile boolean pickable;
 
     public D3Line() {
         this(null);
     }
 
     public D3Line(@Nullable T[] data) {
-        storeX = new ValueStorage<>();
-        storeY = new ValueStorage<>();
+        storeX = new BufferedValueStorage<>();
+        storeY = new BufferedValueStorage<>();
         xValueStorage = new CoordinatesValueStorage<>(this);
         yValueStorage = new CoordinatesValueStorage<>(this);
+        decimatedPoints = new BufferedValueStorage<>();
+        pickIndex = new CommittedValueStorage<>();
+        streamWindow = new ValueStorage<>();
+        taskGraph
+            .add(streamWindow, new StreamWindowRunnable<>(this))
+            .add(storeX, xValueStorage, streamWindow)
+            .add(storeY, yValueStorage, streamWindow)
+            .add(decimatedPoints, new DecimationRunnable<>(this), storeX, storeY)
+            .add(pickIndex, new PickIndexRunnable<>(this), storeX, storeY);
 
         data(data);
         interpolator = new LinearInterpolator();
@@ -92,7 +115,7 @@ public class D3Line<T> extends D3Drawable {
      * Returns an array with the horizontal coordinates of the points of the Line.
      */
     @NonNull public float[] x() {
-        if (x == null) {
+        if (x == null && !xValueStorage.hasColumn()) {
             throw new IllegalStateException(X_ERROR);
         }
         return storeX.getValue();
@@ -107,11 +130,24 @@ public class D3Line<T> extends D3Drawable {
         return this;
     }
 
+    /**
+     * Sets the horizontal coordinates of the points of the Line, projected from the column with
+     * the scale, see {@link D3Scale#values(D3Column, float[])}. If the scale is null, the values
+     * of the column are used as coordinates.
+     */
+    public D3Line<T> x(@NonNull D3Column x, @Nullable D3Scale<?> scale) {
+        this.x = null;
+        xValueStorage.setColumn(x, scale);
+        adaptLinesLength(x.length());
+        updateNeeded();
+        return this;
+    }
+
     /**
      * Returns an array with the vertical coordinates of the points of the Line.
      */
     @NonNull public float[] y() {
-        if (y == null) {
+        if (y == null && !yValueStorage.hasColumn()) {
             throw new IllegalStateException(Y_ERROR);
         }
         return storeY.getValue();
@@ -126,6 +162,34 @@ public class D3Line<T> extends D3Drawable {
         return this;
     }
 
+    /**
+     * Sets the vertical coordinates of the points of the Line, projected from the column with
+     * the scale, see {@link D3Scale#values(D3Column, float[])}. If the scale is null, the values
+     * of the column are used as coordinates.
+     */
+    public D3Line<T> y(@NonNull D3Column y, @Nullable D3Scale<?> scale) {
+        this.y = null;
+        yValueStorage.setColumn(y, scale);
+        adaptLinesLength(y.length());
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns true if the points of the Line are given, either by an array of data, by a stream
+     * or by columns.
+     */
+    public boolean hasData() {
+        return data != null || stream != null
+            || xValueStorage.hasColumn() && yValueStorage.hasColumn();
+    }
+
+    private void adaptLinesLength(int pointsNumber) {
+        if (lines.length < 4 * (pointsNumber - 1)) {
+            lines = new float[4 * (pointsNumber - 1)];
+        }
+    }
+
     /**
      * Returns the data used by the Line.
      */
@@ -142,6 +206,7 @@ public class D3Line<T> extends D3Drawable {
      * Sets the data used by the Line.
      */
     public D3Line<T> data(@Nullable T[] data) {
+        detachStream();
         this.data = data;
         if (data == null) {
             setDataStorageDataLength(0);
@@ -153,6 +218,48 @@ public class D3Line<T> extends D3Drawable {
         return this;
     }
 
+    /**
+     * Returns the stream used by the Line, null if it uses an array of data.
+     */
+    @Nullable public D3DataStream<T> stream() {
+        return stream;
+    }
+
+    /**
+     * Sets a stream as the data of the Line, which is then redrawn each time points are
+     * appended. The mappers receive the position of each point since the creation of the
+     * stream, and a null array of data.
+     * See {@link #scales(D3Scale[])} to only project the appended points.
+     */
+    public D3Line<T> data(@NonNull D3DataStream<T> stream) {
+        detachStream();
+        data = null;
+        this.stream = stream;
+        stream.attach(this);
+        lines = new float[4 * (stream.capacity() - 1)];
+        updateNeeded();
+        return this;
+    }
+
+    private void detachStream() {
+        if (stream != null) {
+            stream.detach(this);
+            stream = null;
+        }
+    }
+
+    /**
+     * Sets the scales on which the x and y mappers depend. When the data is a stream, the
+     * points already projected are then only projected again if the domain or the range of
+     * one of these scales changed. Without scales, all the points are projected at each
+     * computation.
+     */
+    public D3Line<T> scales(@NonNull D3Scale<?>... scales) {
+        this.scales = scales;
+        updateNeeded();
+        return this;
+    }
+
     /**
      * Returns the interpolator used to interpolate values from data.
      */
@@ -168,6 +275,43 @@ public class D3Line<T> extends D3Drawable {
         return this;
     }
 
+    /**
+     * Returns the decimation applied to the points before drawing them.
+     */
+    @NonNull public Decimation decimation() {
+        return decimation;
+    }
+
+    /**
+     * Sets the decimation applied to the points before drawing them. With a lot of points,
+     * decimating them to the width of the view reduces the drawing time while keeping the
+     * shape of the line. See {@link Decimation} for more information.
+     * The decimation is computed with the coordinates, and is set to NONE by default.
+     */
+    public D3Line<T> decimation(@NonNull Decimation decimation) {
+        this.decimation = decimation;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns true if the points are indexed for picking.
+     */
+    public boolean pickable() {
+        return pickable;
+    }
+
+    /**
+     * Sets whether the points are indexed for picking, with their coordinates, so that
+     * {@link #pick(float, float, float)} does not test all of them. The Line is not pickable by
+     * default.
+     */
+    public D3Line<T> pickable(boolean pickable) {
+        this.pickable = pickable;
+        updateNeeded();
+        return this;
+    }
+
     /**
      * Returns the float value, interpolated from the horizontal coordinate given.
      */
@@ -185,6 +329,23 @@ public class D3Line<T> extends D3Drawable {
         );
     }
 
+    /**
+     * Returns the point nearest to the given coordinates within the radius, or null if there is
+     * none or if the Line is not pickable. It never waits for a computation: the last index
+     * computed is queried, see {@link #pickable(boolean)}.
+     */
+    @Nullable @Override public D3Pick pick(float x, float y, float radius) {
+        BoxIndex index = pickIndex.getCommittedValue();
+        if (!pickable || index == null) {
+            return null;
+        }
+        int point = index.nearest(x, y, radius);
+        if (point == BoxIndex.NO_BOX) {
+            return null;
+        }
+        return new D3Pick(this, point, index.distance(point, x, y));
+    }
+
     @Override public D3Line<T> paint(@NonNull Paint paint) {
         super.paint(paint);
         paint.setStyle(Paint.Style.STROKE);
@@ -192,29 +353,54 @@ public class D3Line<T> extends D3Drawable {
     }
 
     @Override public void draw(@NonNull Canvas canvas) {
-        if (data == null) {
+        if (!hasData()) {
             throw new IllegalStateException(DATA_ERROR);
         }
-        if (data.length < 2) {
+        if (data != null && data.length < 2) {
             return;
         }
-        float[] computedX = storeX.getValue();
-        float[] computedY = storeY.getValue();
-        for (int i = 0; i < data.length - 1; i++) {
+        if (decimation != Decimation.NONE) {
+            DecimatedPoints points = decimatedPoints.getLatestValue();
+            if (points.decimated) {
+                drawPoints(canvas, points.x, points.y, points.size);
+                return;
+            }
+        }
+        float[] computedX = storeX.getLatestValue();
+        float[] computedY = storeY.getLatestValue();
+        /* Stale coordinates can have been computed for a previous data length. */
+        drawPoints(canvas, computedX, computedY, Math.min(computedX.length, computedY.length));
+    }
+
+    /**
+     * Draws the segments joining the first pointsNumber points, as many as the lines array holds.
+     */
+    protected final void drawPoints(
+        @NonNull Canvas canvas, @NonNull float[] computedX, @NonNull float[] computedY,
+        int pointsNumber
+    ) {
+        int segmentsNumber = Math.min(pointsNumber - 1, lines.length / 4);
+        for (int i = 0; i < segmentsNumber; i++) {
             lines[i * 4] = computedX[i];
             lines[i * 4 + 1] = computedY[i];
             lines[i * 4 + 2] = computedX[i + 1];
             lines[i * 4 + 3] = computedY[i + 1];
         }
-        canvas.drawLines(lines, paint);
+        canvas.drawLines(lines, 0, 4 * Math.max(segmentsNumber, 0), paint);
+    }
+
+    @Override protected void onDimensionsChange(float width, float height) {
+        super.onDimensionsChange(width, height);
+        if (decimation != Decimation.NONE) {
+            updateNeeded();
+        }
     }
 
     @Override public void prepareParameters() {
         if (lazyRecomputing && calculationNeeded() == 0) {
             return;
         }
-        storeX.setValue(xValueStorage);
-        storeY.setValue(yValueStorage);
+        taskGraph.execute();
     }
 
     @Override public D3Line<T> setClipRect(
@@ -247,8 +433,23 @@ public class D3Line<T> extends D3Drawable {
         return this;
     }
 
+    @Override public D3Line<T> onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public D3Line<T> lazyRecomputing(boolean lazyRecomputing) {
         super.lazyRecomputing(lazyRecomputing);
         return this;
     }
+
+    @Override public D3Line<T> renderStale(boolean renderStale) {
+        super.renderStale(renderStale);
+        return this;
+    }
+
+    @Override public D3Line<T> parallelMappers(boolean parallelMappers) {
+        super.parallelMappers(parallelMappers);
+        return this;
+    }
 }
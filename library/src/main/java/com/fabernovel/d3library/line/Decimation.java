@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+public enum Decimation {
+    /***
+     * All the points are drawn (Default value).
+     */
+    NONE,
+    /***
+     * For each pixel column, only the first, lowest, highest and last points are drawn. The
+     * drawing is identical to the one of all the points, as long as the horizontal coordinates
+     * are sorted.
+     */
+    MIN_MAX,
+    /***
+     * The visible points are reduced to two points per pixel of width with the
+     * Largest-Triangle-Three-Buckets algorithm, which keeps the points shaping the line.
+     */
+    LTTB
+}
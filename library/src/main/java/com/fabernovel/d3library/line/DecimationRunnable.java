@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+class DecimationRunnable<T> extends ValueRunnable<DecimatedPoints> {
+    private static final int LTTB_POINTS_PER_PIXEL = 2;
+
+    @NonNull private final D3Line<T> line;
+
+    DecimationRunnable(@NonNull D3Line<T> line) {
+        this.line = line;
+        value = new DecimatedPoints();
+    }
+
+    @Override protected void computeValue() {
+        Decimation decimation = line.decimation;
+        float width = line.width();
+        float[] x = line.storeX.getValue();
+        float[] y = line.storeY.getValue();
+        int length = Math.min(x.length, y.length);
+        value.decimated = decimation != Decimation.NONE && width > 0F;
+        if (!value.decimated) {
+            value.size = 0;
+            return;
+        }
+        if (decimation == Decimation.MIN_MAX) {
+            Decimator.minMax(x, y, length, width, value);
+            return;
+        }
+
+        /* Only the visible points are reduced when the horizontal coordinates are sorted, plus
+         * one point on each side to draw the segments entering the view. */
+        int from = 0;
+        int to = length;
+        boolean sorted = true;
+        for (int i = 1; i < length && sorted; i++) {
+            sorted = x[i] >= x[i - 1];
+        }
+        if (sorted) {
+            while (from < length - 1 && x[from + 1] < 0F) {
+                from++;
+            }
+            while (to > from + 1 && x[to - 2] > width) {
+                to--;
+            }
+        }
+        if (isCancelled()) {
+            return;
+        }
+        Decimator.lttb(x, y, from, to, LTTB_POINTS_PER_PIXEL * (int) width, value);
+    }
+
+    @Override protected void recycle(@Nullable DecimatedPoints spare) {
+        value = spare == null ? new DecimatedPoints() : spare;
+    }
+}
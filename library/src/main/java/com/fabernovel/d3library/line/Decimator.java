@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Algorithms reducing the number of points of a line before drawing it. The coordinates given
+ * are the screen coordinates of the points.
+ */
+final class Decimator {
+    private Decimator() {}
+
+    /**
+     * Keeps, for each pixel column, the first, lowest, highest and last points, in their
+     * original order. The points out of the view are gathered in one column on each side.
+     */
+    static void minMax(
+        @NonNull float[] x, @NonNull float[] y, int length, float width,
+        @NonNull DecimatedPoints out
+    ) {
+        /* Sorted coordinates give at most 4 points for each column, plus the two outer ones. */
+        out.clear(Math.min(length, 4 * ((int) width + 3)));
+        if (length == 0) {
+            return;
+        }
+        int columnStart = 0;
+        int column = column(x[0], width);
+        for (int i = 1; i < length; i++) {
+            int newColumn = column(x[i], width);
+            if (newColumn != column) {
+                addColumn(x, y, columnStart, i, out);
+                columnStart = i;
+                column = newColumn;
+            }
+        }
+        addColumn(x, y, columnStart, length, out);
+    }
+
+    private static int column(float x, float width) {
+        if (x < 0F) {
+            return -1;
+        }
+        return x >= width ? (int) width : (int) x;
+    }
+
+    private static void addColumn(
+        @NonNull float[] x, @NonNull float[] y, int from, int to, @NonNull DecimatedPoints out
+    ) {
+        int minIndex = from;
+        int maxIndex = from;
+        for (int i = from + 1; i < to; i++) {
+            if (y[i] < y[minIndex]) {
+                minIndex = i;
+            } else if (y[i] > y[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+        int firstExtremum = Math.min(minIndex, maxIndex);
+        int secondExtremum = Math.max(minIndex, maxIndex);
+        out.add(x[from], y[from]);
+        if (firstExtremum != from) {
+            out.add(x[firstExtremum], y[firstExtremum]);
+        }
+        if (secondExtremum != firstExtremum && secondExtremum != to - 1) {
+            out.add(x[secondExtremum], y[secondExtremum]);
+        }
+        if (to - 1 != from && to - 1 != firstExtremum) {
+            out.add(x[to - 1], y[to - 1]);
+        }
+    }
+
+    /**
+     * Reduces the points between from (inclusive) and to (exclusive) to threshold points with
+     * the Largest-Triangle-Three-Buckets algorithm. The first and last points are always kept.
+     */
+    static void lttb(
+        @NonNull float[] x, @NonNull float[] y, int from, int to, int threshold,
+        @NonNull DecimatedPoints out
+    ) {
+        int length = to - from;
+        out.clear(Math.min(length, Math.max(threshold, 2)));
+        if (threshold >= length || threshold < 3) {
+            for (int i = from; i < to; i++) {
+                out.add(x[i], y[i]);
+            }
+            return;
+        }
+
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int selected = from;
+        out.add(x[selected], y[selected]);
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            /* Average of the next bucket, used as the third point of the triangles. */
+            int averageStart = from + (int) ((bucket + 1) * bucketSize) + 1;
+            int averageEnd = Math.min(from + (int) ((bucket + 2) * bucketSize) + 1, to);
+            double averageX = 0D;
+            double averageY = 0D;
+            for (int i = averageStart; i < averageEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int averageLength = Math.max(averageEnd - averageStart, 1);
+            averageX /= averageLength;
+            averageY /= averageLength;
+
+            int rangeStart = from + (int) (bucket * bucketSize) + 1;
+            int rangeEnd = from + (int) ((bucket + 1) * bucketSize) + 1;
+            double selectedX = x[selected];
+            double selectedY = y[selected];
+            double maxArea = -1D;
+            int next = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs(
+                    (selectedX - averageX) * (y[i] - selectedY)
+                        - (selectedX - x[i]) * (averageY - selectedY)
+                );
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = i;
+                }
+            }
+            selected = next;
+            out.add(x[selected], y[selected]);
+        }
+        out.add(x[to - 1], y[to - 1]);
+    }
+}
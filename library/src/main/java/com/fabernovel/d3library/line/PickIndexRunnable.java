@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.pick.BoxIndex;
+import com.fabernovel.d3library.threading.ParallelFor;
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Indexes the points of a Line, so the point nearest to a position is found without testing
+ * all of them. The index stays empty while the Line is not pickable.
+ */
+class PickIndexRunnable<T> extends ValueRunnable<BoxIndex> {
+    @NonNull private final D3Line<T> line;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body computeBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            if (isCancelled()) {
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                value.setBox(i, x[i], y[i], x[i], y[i]);
+            }
+        }
+    };
+    private float[] x;
+    private float[] y;
+
+    PickIndexRunnable(@NonNull D3Line<T> line) {
+        this.line = line;
+        value = new BoxIndex();
+    }
+
+    @Override protected void computeValue() {
+        if (!line.pickable) {
+            value.reset(0);
+            return;
+        }
+        x = line.storeX.getValue();
+        y = line.storeY.getValue();
+        int length = Math.min(x.length, y.length);
+        value.reset(length);
+        parallelFor.run(length, computeBody);
+        if (isCancelled()) {
+            return;
+        }
+        value.build();
+    }
+
+    @Override protected void recycle(@Nullable BoxIndex spare) {
+        value = spare == null ? new BoxIndex() : spare;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+import android.support.annotation.NonNull;
+
+import com.fabernovel.d3library.scale.D3Converter;
+import com.fabernovel.d3library.scale.D3Scale;
+
+import java.util.Arrays;
+
+/**
+ * Float values of the domains and ranges of scales, used to know if the scales changed since
+ * the last projection.
+ */
+class ScalesSnapshot {
+    @NonNull private float[] values = new float[0];
+    private int length = -1;
+    private int position;
+    private boolean changed;
+
+    /**
+     * Takes a new snapshot of the scales. Returns true if it differs from the previous one.
+     */
+    boolean update(@NonNull D3Scale<?>[] scales) {
+        position = 0;
+        changed = false;
+        for (D3Scale<?> scale : scales) {
+            add(scale);
+        }
+        changed = changed || position != length;
+        length = position;
+        return changed;
+    }
+
+    private <S> void add(@NonNull D3Scale<S> scale) {
+        S[] domain = scale.domain();
+        D3Converter<S> converter = scale.converter();
+        if (domain != null && converter != null) {
+            for (S domainValue : domain) {
+                add(converter.convert(domainValue));
+            }
+        }
+        float[] range = scale.range();
+        if (range != null) {
+            for (float rangeValue : range) {
+                add(rangeValue);
+            }
+        }
+    }
+
+    private void add(float value) {
+        if (position == values.length) {
+            values = Arrays.copyOf(values, Math.max(2 * values.length, 4));
+        }
+        changed = changed || position >= length || Float.compare(values[position], value) != 0;
+        values[position] = value;
+        position++;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+/**
+ * Points of a D3DataStream seen by one computation of a Line. A point appended at the position
+ * p, counted since the creation of the stream, is stored at the slot p % capacity.
+ */
+class StreamWindow {
+    D3DataStream<?> stream;
+    Object[] points = new Object[0];
+    long start;
+    long end;
+
+    int size() {
+        return (int) (end - start);
+    }
+
+    int slot(long position) {
+        return (int) (position % points.length);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+import android.support.annotation.NonNull;
+
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+class StreamWindowRunnable<T> extends ValueRunnable<StreamWindow> {
+    @NonNull private final D3Line<T> line;
+
+    StreamWindowRunnable(@NonNull D3Line<T> line) {
+        this.line = line;
+        value = new StreamWindow();
+    }
+
+    @Override protected void computeValue() {
+        D3DataStream<T> stream = line.stream;
+        if (stream == null) {
+            value.start = 0L;
+            value.end = 0L;
+            return;
+        }
+        stream.update(value);
+    }
+}
@@ -21,6 +21,9 @@ package com.fabernovel.d3library.mappers;
  */
 public interface D3FloatDataMapperFunction<T> {
     /**
+     * Unless {@link com.fabernovel.d3library.D3Drawable#parallelMappers(boolean)} is enabled,
+     * it is never called on several threads at once.
+     *
      * @param object The object to consider.
      * @param position The position of the object.
      * @param data The array of data.
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.pick;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Spatial index of boxes, such as the points of a line or the bars of a chart, which finds the
+ * box nearest to a point by only testing the few cells of a uniform grid around it.
+ * The boxes are set with {@link #setBox(int, float, float, float, float)} after
+ * {@link #reset(int)}, possibly in parallel, then {@link #build()} bins each box in the cells
+ * its bounds cover. The index is empty until it is built.
+ */
+public final class BoxIndex {
+    public static final int NO_BOX = -1;
+
+    private static final int BOXES_PER_CELL = 2;
+    private static final int MAX_SIDE_CELLS = 1024;
+
+    private int boxesNumber;
+    /* Left, top, right and bottom of each box, the left being NaN for the empty ones */
+    @NonNull private float[] bounds = new float[0];
+
+    private float gridLeft;
+    private float gridTop;
+    private float gridRight;
+    private float gridBottom;
+    private float cellWidth;
+    private float cellHeight;
+    private int columns;
+    private int rows;
+    @NonNull private int[] cellStarts = new int[1];
+    @NonNull private int[] cellBoxes = new int[0];
+
+    /* Result of the query in progress */
+    private int nearest;
+    private float nearestDistance;
+
+    /**
+     * Empties the index and prepares it to receive the given number of boxes.
+     */
+    public synchronized void reset(int boxesNumber) {
+        this.boxesNumber = boxesNumber;
+        if (bounds.length < 4 * boxesNumber) {
+            bounds = new float[4 * boxesNumber];
+        }
+        columns = 0;
+        rows = 0;
+    }
+
+    /**
+     * Sets the bounds of a box. A NaN left bound leaves the box out of the index. Different
+     * boxes can be set concurrently.
+     */
+    public void setBox(int box, float left, float top, float right, float bottom) {
+        bounds[4 * box] = left;
+        bounds[4 * box + 1] = top;
+        bounds[4 * box + 2] = right;
+        bounds[4 * box + 3] = bottom;
+    }
+
+    /**
+     * Bins the boxes in the cells of the grid.
+     */
+    public synchronized void build() {
+        gridLeft = Float.POSITIVE_INFINITY;
+        gridTop = Float.POSITIVE_INFINITY;
+        gridRight = Float.NEGATIVE_INFINITY;
+        gridBottom = Float.NEGATIVE_INFINITY;
+        double widthsSum = 0D;
+        double heightsSum = 0D;
+        int indexedNumber = 0;
+        for (int b = 0; b < boxesNumber; b++) {
+            if (Float.isNaN(bounds[4 * b])) {
+                continue;
+            }
+            gridLeft = Math.min(gridLeft, bounds[4 * b]);
+            gridTop = Math.min(gridTop, bounds[4 * b + 1]);
+            gridRight = Math.max(gridRight, bounds[4 * b + 2]);
+            gridBottom = Math.max(gridBottom, bounds[4 * b + 3]);
+            widthsSum += bounds[4 * b + 2] - bounds[4 * b];
+            heightsSum += bounds[4 * b + 3] - bounds[4 * b + 1];
+            indexedNumber++;
+        }
+        if (indexedNumber == 0 || !(gridLeft <= gridRight && gridTop <= gridBottom)) {
+            columns = 0;
+            rows = 0;
+            return;
+        }
+
+        /* Cells hold a few boxes on average, and are not smaller than the average box so that a
+         * box only covers a few cells. */
+        float gridWidth = gridRight - gridLeft;
+        float gridHeight = gridBottom - gridTop;
+        int cellsNumber = Math.max(1, indexedNumber / BOXES_PER_CELL);
+        double side = gridWidth > 0F && gridHeight > 0F ?
+            Math.sqrt((double) gridWidth * gridHeight / cellsNumber)
+            : Math.max(gridWidth, gridHeight) / cellsNumber;
+        columns = sideCells(gridWidth, Math.max(side, widthsSum / indexedNumber));
+        rows = sideCells(gridHeight, Math.max(side, heightsSum / indexedNumber));
+        cellWidth = Math.max(gridWidth / columns, Float.MIN_NORMAL);
+        cellHeight = Math.max(gridHeight / rows, Float.MIN_NORMAL);
+
+        cellsNumber = columns * rows;
+        if (cellStarts.length < cellsNumber + 1) {
+            cellStarts = new int[cellsNumber + 1];
+        }
+        for (int i = 0; i <= cellsNumber; i++) {
+            cellStarts[i] = 0;
+        }
+        for (int b = 0; b < boxesNumber; b++) {
+            forEachCell(b, false);
+        }
+        for (int i = 0; i < cellsNumber; i++) {
+            cellStarts[i + 1] += cellStarts[i];
+        }
+        if (cellBoxes.length < cellStarts[cellsNumber]) {
+            cellBoxes = new int[cellStarts[cellsNumber]];
+        }
+        /* Filling the cells moves each start to the next cell's one, they are shifted back. */
+        for (int b = 0; b < boxesNumber; b++) {
+            forEachCell(b, true);
+        }
+        for (int i = cellsNumber; i > 0; i--) {
+            cellStarts[i] = cellStarts[i - 1];
+        }
+        cellStarts[0] = 0;
+    }
+
+    private static int sideCells(float length, double cellLength) {
+        if (length <= 0F || cellLength <= 0D) {
+            return 1;
+        }
+        return (int) Math.max(1D, Math.min(MAX_SIDE_CELLS, Math.ceil(length / cellLength)));
+    }
+
+    /**
+     * Counts the box in each cell covered by its bounds, or adds it to those cells.
+     */
+    private void forEachCell(int box, boolean fill) {
+        if (Float.isNaN(bounds[4 * box])) {
+            return;
+        }
+        int firstColumn = column(bounds[4 * box]);
+        int lastColumn = column(bounds[4 * box + 2]);
+        int lastRow = row(bounds[4 * box + 3]);
+        for (int row = row(bounds[4 * box + 1]); row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (fill) {
+                    cellBoxes[cellStarts[row * columns + column]++] = box;
+                } else {
+                    cellStarts[row * columns + column + 1]++;
+                }
+            }
+        }
+    }
+
+    private int column(float x) {
+        return Math.min(Math.max((int) ((x - gridLeft) / cellWidth), 0), columns - 1);
+    }
+
+    private int row(float y) {
+        return Math.min(Math.max((int) ((y - gridTop) / cellHeight), 0), rows - 1);
+    }
+
+    /**
+     * Returns the number of boxes of the index.
+     */
+    public synchronized int size() {
+        return boxesNumber;
+    }
+
+    /**
+     * Returns the box nearest to the point within the given radius, or {@link #NO_BOX} if there
+     * is none. The distance to a box containing the point is zero, and among boxes at the same
+     * distance the last one is returned.
+     */
+    public synchronized int nearest(float x, float y, float radius) {
+        nearest = NO_BOX;
+        nearestDistance = radius;
+        if (columns == 0 || x + radius < gridLeft || x - radius > gridRight
+            || y + radius < gridTop || y - radius > gridBottom) {
+            return NO_BOX;
+        }
+        int firstColumn = column(x - radius);
+        int lastColumn = column(x + radius);
+        int firstRow = row(y - radius);
+        int lastRow = row(y + radius);
+        int centerColumn = column(x);
+        int centerRow = row(y);
+        int lastRing = Math.max(
+            Math.max(centerColumn - firstColumn, lastColumn - centerColumn),
+            Math.max(centerRow - firstRow, lastRow - centerRow)
+        );
+        float cellSize = Math.min(cellWidth, cellHeight);
+        /* The cells are searched by rings around the cell of the point, until the ring is
+         * farther than the nearest box found. */
+        for (int ring = 0; ring <= lastRing && (ring - 1) * cellSize <= nearestDistance; ring++) {
+            int ringFirstColumn = Math.max(firstColumn, centerColumn - ring);
+            int ringLastColumn = Math.min(lastColumn, centerColumn + ring);
+            int ringLastRow = Math.min(lastRow, centerRow + ring);
+            for (int row = Math.max(firstRow, centerRow - ring); row <= ringLastRow; row++) {
+                if (Math.abs(row - centerRow) == ring) {
+                    for (int column = ringFirstColumn; column <= ringLastColumn; column++) {
+                        searchCell(row * columns + column, x, y);
+                    }
+                    continue;
+                }
+                if (centerColumn - ring >= firstColumn) {
+                    searchCell(row * columns + centerColumn - ring, x, y);
+                }
+                if (centerColumn + ring <= lastColumn) {
+                    searchCell(row * columns + centerColumn + ring, x, y);
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private void searchCell(int cell, float x, float y) {
+        for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+            int box = cellBoxes[i];
+            float distance = boxDistance(box, x, y);
+            if (distance < nearestDistance || distance == nearestDistance && box > nearest) {
+                nearest = box;
+                nearestDistance = distance;
+            }
+        }
+    }
+
+    /**
+     * Returns the distance from the point to the box, zero if the box contains the point.
+     */
+    public synchronized float distance(int box, float x, float y) {
+        return boxDistance(box, x, y);
+    }
+
+    private float boxDistance(int box, float x, float y) {
+        float dX = Math.max(0F, Math.max(bounds[4 * box] - x, x - bounds[4 * box + 2]));
+        float dY = Math.max(0F, Math.max(bounds[4 * box + 1] - y, y - bounds[4 * box + 3]));
+        return (float) Math.sqrt(dX * dX + dY * dY);
+    }
+}
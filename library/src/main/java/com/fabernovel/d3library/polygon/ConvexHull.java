@@ -0,0 +1,242 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.support.annotation.NonNull;
+
+import com.fabernovel.d3library.threading.ParallelFor;
+
+import java.util.Arrays;
+
+/**
+ * Computes convex hulls with the monotone chain algorithm in O(n log n). The points are sorted
+ * as primitive keys packing both coordinates, so neither the points are boxed nor the input
+ * arrays are modified, and the buffers are kept from one computation to the next. Large point
+ * clouds are divided into chunks whose hulls are computed in parallel, the hull of all the
+ * points being the hull of those hulls.
+ */
+public final class ConvexHull {
+    /**
+     * Number of points from which the hull is computed in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int PARALLEL_GRAIN = 1 << 14;
+    private static final String LENGTH_ERROR = "X and y should hold at least length points";
+    private static final String RESULT_ERROR = "Result should hold 2 * length floats";
+
+    @NonNull private long[] keys = new long[0];
+    @NonNull private float[] sortedX = new float[0];
+    @NonNull private float[] sortedY = new float[0];
+    @NonNull private int[] stack = new int[0];
+    @NonNull private boolean[] candidates = new boolean[0];
+
+    private float[] x;
+    private float[] y;
+    @NonNull private final ParallelFor parallelFor = new ParallelFor();
+    @NonNull private final ParallelFor.Body chunkBody = new ParallelFor.Body() {
+        @Override public void compute(int from, int to) {
+            sort(x, y, from, to);
+            for (int i = from; i < to; i++) {
+                candidates[i] = false;
+            }
+            int size = lowerHull(from, to);
+            for (int i = 0; i < size; i++) {
+                candidates[stack[from + i]] = true;
+            }
+            size = upperHull(from, to);
+            for (int i = 0; i < size; i++) {
+                candidates[stack[from + i]] = true;
+            }
+        }
+    };
+
+    /**
+     * Returns the coordinates of the hull of the points, in the format [x1, y1, x2, y2, ...].
+     */
+    @NonNull public float[] compute(@NonNull float[] x, @NonNull float[] y) {
+        int length = Math.min(x.length, y.length);
+        float[] result = new float[2 * length];
+        return Arrays.copyOf(result, 2 * compute(x, y, length, result));
+    }
+
+    /**
+     * Writes the coordinates of the hull of the length first points into the result, in the
+     * format [x1, y1, x2, y2, ...], and returns the number of points of the hull. The hull starts
+     * from the point with the lowest x and the highest y, and has no collinear points. The result
+     * should hold 2 * length floats.
+     */
+    public int compute(
+        @NonNull float[] x, @NonNull float[] y, int length, @NonNull float[] result
+    ) {
+        if (x.length < length || y.length < length) {
+            throw new IllegalStateException(LENGTH_ERROR);
+        }
+        if (result.length < 2 * length) {
+            throw new IllegalStateException(RESULT_ERROR);
+        }
+        reserve(length);
+        int pointsNumber = length;
+        if (length >= PARALLEL_THRESHOLD) {
+            pointsNumber = reduceInParallel(x, y, length);
+        } else {
+            sort(x, y, 0, length);
+        }
+        /* The points are sorted, so they are all equal if the first and the last ones are. */
+        if (pointsNumber > 1 && sortedX[0] == sortedX[pointsNumber - 1]
+            && sortedY[0] == sortedY[pointsNumber - 1]) {
+            pointsNumber = 1;
+        }
+        if (pointsNumber == 1) {
+            result[0] = sortedX[0];
+            result[1] = sortedY[0];
+        }
+        if (pointsNumber <= 1) {
+            return pointsNumber;
+        }
+
+        int lowerSize = lowerHull(0, pointsNumber);
+        int size = 0;
+        for (int i = 0; i < lowerSize - 1; i++) {
+            result[2 * size] = sortedX[stack[i]];
+            result[2 * size + 1] = sortedY[stack[i]];
+            size++;
+        }
+        int upperSize = upperHull(0, pointsNumber);
+        for (int i = 0; i < upperSize - 1; i++) {
+            result[2 * size] = sortedX[stack[i]];
+            result[2 * size + 1] = sortedY[stack[i]];
+            size++;
+        }
+        return size;
+    }
+
+    private void reserve(int length) {
+        if (keys.length < length) {
+            keys = new long[length];
+            sortedX = new float[length];
+            sortedY = new float[length];
+            stack = new int[length];
+        }
+    }
+
+    /**
+     * Keeps only the vertices of the hulls of chunks of the points, sorted at the start of the
+     * sorted coordinates, and returns their number.
+     */
+    private int reduceInParallel(@NonNull float[] x, @NonNull float[] y, int length) {
+        if (candidates.length < length) {
+            candidates = new boolean[length];
+        }
+        this.x = x;
+        this.y = y;
+        try {
+            parallelFor.run(length, PARALLEL_GRAIN, chunkBody);
+        } finally {
+            this.x = null;
+            this.y = null;
+        }
+        int candidatesNumber = 0;
+        for (int i = 0; i < length; i++) {
+            if (candidates[i]) {
+                keys[candidatesNumber++] = key(sortedX[i], sortedY[i]);
+            }
+        }
+        Arrays.sort(keys, 0, candidatesNumber);
+        decode(0, candidatesNumber);
+        return candidatesNumber;
+    }
+
+    /**
+     * Sorts the points from from (inclusive) to to (exclusive) by increasing x, then by
+     * decreasing y, into the sorted coordinates.
+     */
+    private void sort(@NonNull float[] x, @NonNull float[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            keys[i] = key(x[i], y[i]);
+        }
+        Arrays.sort(keys, from, to);
+        decode(from, to);
+    }
+
+    private void decode(int from, int to) {
+        for (int i = from; i < to; i++) {
+            long key = keys[i];
+            sortedX[i] = Float.intBitsToFloat(fromSortable((int) (key >> 32)));
+            sortedY[i] = Float.intBitsToFloat(fromSortable((int) key ^ Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Returns a key whose signed order is the order of increasing x, then of decreasing y.
+     */
+    private static long key(float x, float y) {
+        long high = (long) toSortable(x) << 32;
+        long low = (toSortable(y) ^ Integer.MAX_VALUE) & 0xFFFFFFFFL;
+        return high | low;
+    }
+
+    /**
+     * Returns an int whose signed order is the order of the float, 0 and -0 being equal.
+     */
+    private static int toSortable(float value) {
+        int bits = Float.floatToIntBits(value + 0F);
+        return bits ^ (bits >> 31) & Integer.MAX_VALUE;
+    }
+
+    private static int fromSortable(int sortable) {
+        return sortable ^ (sortable >> 31) & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Pushes the indexes of the lower hull of the sorted points from from (inclusive) to to
+     * (exclusive) on the stack from from, and returns its size.
+     */
+    private int lowerHull(int from, int to) {
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            while (size >= 2 && !turnsLeft(stack[from + size - 2], stack[from + size - 1], i)) {
+                size--;
+            }
+            stack[from + size++] = i;
+        }
+        return size;
+    }
+
+    /**
+     * Pushes the indexes of the upper hull of the sorted points from from (inclusive) to to
+     * (exclusive) on the stack from from, and returns its size.
+     */
+    private int upperHull(int from, int to) {
+        int size = 0;
+        for (int i = to - 1; i >= from; i--) {
+            while (size >= 2 && !turnsLeft(stack[from + size - 2], stack[from + size - 1], i)) {
+                size--;
+            }
+            stack[from + size++] = i;
+        }
+        return size;
+    }
+
+    /**
+     * Returns true if the sorted points a, b and c are arranged in counterclockwise order.
+     */
+    private boolean turnsLeft(int a, int b, int c) {
+        double cross = ((double) sortedX[b] - sortedX[a]) * ((double) sortedY[c] - sortedY[b])
+            - ((double) sortedY[b] - sortedY[a]) * ((double) sortedX[c] - sortedX[b]);
+        return cross > 0D;
+    }
+}
@@ -18,32 +18,41 @@ package com.fabernovel.d3library.polygon;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.D3Drawable;
+import com.fabernovel.d3library.D3Pick;
 import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
 import com.fabernovel.d3library.action.OnPinchAction;
 import com.fabernovel.d3library.action.OnScrollAction;
 import com.fabernovel.d3library.axes.D3FloatFunction;
-import com.fabernovel.d3library.threading.ValueStorage;
-
-import java.util.Arrays;
+import com.fabernovel.d3library.helper.CanvasHelper;
+import com.fabernovel.d3library.threading.BoundedBitmap;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
 
 public class D3Polygon extends D3Drawable {
     private static final String X_ERROR = "X should not be null";
     private static final String Y_ERROR = "Y should not be null";
 
-    @NonNull private final ValueStorage<Bitmap> bitmapValueStorage = new ValueStorage<>();
+    @NonNull private final BufferedValueStorage<BoundedBitmap> bitmapValueStorage =
+        new BufferedValueStorage<>();
     @NonNull private final PolygonBitmapValueRunnable bitmapValueRunnable
         = new PolygonBitmapValueRunnable(this);
 
     @Nullable float[] x;
     @Nullable float[] y;
+    @Nullable float[][] holes;
     boolean proportional;
+    /* Incremented each time the vertices change, so that they are triangulated again */
+    volatile long generation;
+
+    @NonNull private final BufferedValueStorage<PolygonMesh> mesh = new BufferedValueStorage<>();
 
-    @NonNull private final ValueStorage<Float> offsetX = new ValueStorage<>();
-    @NonNull private final ValueStorage<Float> offsetY = new ValueStorage<>();
+    @NonNull private final BufferedValueStorage<Float> offsetX = new BufferedValueStorage<>();
+    @NonNull private final BufferedValueStorage<Float> offsetY = new BufferedValueStorage<>();
 
     @NonNull private final OffsetRunnable offsetXRunnable = new OffsetRunnable();
     @NonNull private final OffsetRunnable offsetYRunnable = new OffsetRunnable();
@@ -67,6 +76,15 @@ public class D3Polygon extends D3Drawable {
         setupPaint();
         setupActions();
         setupDefaultOffset();
+        setupTaskGraph();
+    }
+
+    private void setupTaskGraph() {
+        taskGraph
+            .add(offsetX, offsetXRunnable)
+            .add(offsetY, offsetYRunnable)
+            .add(bitmapValueStorage, bitmapValueRunnable, offsetX, offsetY)
+            .add(mesh, new PolygonMeshRunnable(this));
     }
 
     private void setupActions() {
@@ -100,6 +118,7 @@ public class D3Polygon extends D3Drawable {
      */
     public D3Polygon x(float[] x) {
         this.x = x;
+        generation++;
         return this;
     }
 
@@ -115,6 +134,25 @@ public class D3Polygon extends D3Drawable {
      */
     public D3Polygon y(float[] y) {
         this.y = y;
+        generation++;
+        return this;
+    }
+
+    /**
+     * Returns the coordinates of the Polygon's holes, or null if it has none.
+     */
+    @Nullable public float[][] holes() {
+        return holes;
+    }
+
+    /**
+     * Sets the coordinates of the Polygon's holes. The format of each hole should be
+     * [x1, y1, x2, y2, ...]. Holes should be inside the Polygon and should not overlap.
+     */
+    public D3Polygon holes(@Nullable float[][] holes) {
+        this.holes = holes;
+        generation++;
+        updateNeeded();
         return this;
     }
 
@@ -161,6 +199,7 @@ public class D3Polygon extends D3Drawable {
         x = new float[coordinates.length / 2];
         y = new float[coordinates.length / 2];
         separateArray(coordinates, x, y);
+        generation++;
         return this;
     }
 
@@ -202,6 +241,11 @@ public class D3Polygon extends D3Drawable {
         return this;
     }
 
+    @Override public D3Polygon onGestureAction(@Nullable OnGestureAction onGestureAction) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
     @Override public D3Polygon setClipRect(
         @NonNull D3FloatFunction leftLimit,
         @NonNull D3FloatFunction topLimit,
@@ -230,72 +274,11 @@ public class D3Polygon extends D3Drawable {
 
     /**
      * Returns the coordinates of hull of the polygon which coordinates are given. The coordinates'
-     * format is [x1, y1, x2, y2, ...]
+     * format is [x1, y1, x2, y2, ...]. The given arrays are not modified. In order to reuse the
+     * buffers from one hull to the next, see {@link ConvexHull}.
      */
     public static float[] polygonHull(float[] x, float[] y) {
-        int n = x.length;
-        int pointer = 0;
-        float[] hullX = new float[2 * n];
-        float[] hullY = new float[2 * n];
-
-        sortPoints(x, y);
-        for (int i = 0; i < n; ++i) {
-            while (pointer >= 2 && cross(
-                hullX[pointer - 2], hullY[pointer - 2],
-                hullX[pointer - 1], hullY[pointer - 1],
-                x[i], y[i]
-            )) {
-                pointer--;
-            }
-            hullX[pointer] = x[i];
-            hullY[pointer++] = y[i];
-        }
-
-        for (int i = n - 2, t = pointer + 1; i >= 0; i--) {
-            while (pointer >= t && cross(
-                hullX[pointer - 2], hullY[pointer - 2],
-                hullX[pointer - 1], hullY[pointer - 1],
-                x[i], y[i]
-            )) {
-                pointer--;
-            }
-            hullX[pointer] = x[i];
-            hullY[pointer++] = y[i];
-        }
-
-        return mergeArrays(
-            Arrays.copyOfRange(hullX, 0, pointer - 1), Arrays.copyOfRange(hullY, 0, pointer - 1)
-        );
-    }
-
-    /**
-     * Return if the points O1 02 03 ae arranged in counterclockwise order.
-     */
-    private static boolean cross(
-        float x1, float y1,
-        float x2, float y2,
-        float x3, float y3
-    ) {
-        return (x2 - x1) * (y2 - y3) + (y2 - y1) * (x3 - x2) >= 0;
-    }
-
-    private static void sortPoints(@NonNull float[] x, @NonNull float[] y) {
-        int pointer = 0;
-        float tmp;
-        while (pointer < x.length - 1) {
-            if (x[pointer] > x[pointer + 1]
-                || (x[pointer] == x[pointer + 1] && y[pointer] < y[pointer + 1])) {
-                tmp = x[pointer];
-                x[pointer] = x[pointer + 1];
-                x[pointer + 1] = tmp;
-                tmp = y[pointer];
-                y[pointer] = y[pointer + 1];
-                y[pointer + 1] = tmp;
-                pointer = Math.max(pointer - 1, 0);
-            } else {
-                pointer++;
-            }
-        }
+        return new ConvexHull().compute(x, y);
     }
 
     /**
@@ -321,7 +304,18 @@ public class D3Polygon extends D3Drawable {
     }
 
     /**
-     * Returns true if the given point is in the area defined by the polygon.
+     * Returns the Polygon if it contains the given coordinates, at a null distance, or null
+     * otherwise. The index of the pick is always 0. It waits for the offsets to be computed.
+     */
+    @Nullable @Override public D3Pick pick(float x, float y, float radius) {
+        if (this.x == null || this.y == null || this.x.length == 0) {
+            return null;
+        }
+        return contains(x, y) ? new D3Pick(this, 0, 0F) : null;
+    }
+
+    /**
+     * Returns true if the given point is in the area defined by the polygon, out of its holes.
      */
     public boolean contains(float coordinateX, float coordinateY) {
         float x1;
@@ -345,28 +339,89 @@ public class D3Polygon extends D3Drawable {
             x0 = x1;
             y0 = y1;
         }
+        if (holes == null) {
+            return inside;
+        }
+        for (float[] hole : holes) {
+            if (hole.length < 2) {
+                continue;
+            }
+            x0 = hole[hole.length - 2] + computedOffsetX;
+            y0 = hole[hole.length - 1] + computedOffsetY;
+            for (int i = 0; i + 1 < hole.length; i += 2) {
+                x1 = hole[i] + computedOffsetX;
+                y1 = hole[i + 1] + computedOffsetY;
+                if (((y1 > coordinateY) != (y0 > coordinateY))
+                    && (coordinateX < (x0 - x1) * (coordinateY - y1) / (y0 - y1) + x1)) {
+                    inside = !inside;
+                }
+                x0 = x1;
+                y0 = y1;
+            }
+        }
         return inside;
     }
 
+    /**
+     * Returns true if the Polygon is drawn from its triangles rather than rasterised into a
+     * bitmap: hardware canvases only draw vertices since Android Q, and the triangles only fill
+     * the Polygon.
+     */
+    boolean drawsVertices() {
+        if (!CanvasHelper.drawsVertices() || paint.getStyle() != Paint.Style.FILL || x == null) {
+            return false;
+        }
+        int verticesNumber = x.length;
+        if (holes != null) {
+            for (float[] hole : holes) {
+                verticesNumber += hole.length / 2;
+            }
+        }
+        return verticesNumber <= PolygonMesh.MAX_VERTICES;
+    }
+
     @Override public void prepareParameters() {
         if (lazyRecomputing && calculationNeeded() == 0) {
             return;
         }
-        offsetX.setValue(offsetXRunnable);
-        offsetY.setValue(offsetYRunnable);
-        bitmapValueStorage.setValue(bitmapValueRunnable);
+        taskGraph.execute();
     }
 
     @Override protected void onDimensionsChange(float width, float height) {
         bitmapValueRunnable.resizeBitmap(width, height);
     }
 
+    /**
+     * Sets the configuration of the bitmap in which the polygon is drawn, see
+     * {@link com.fabernovel.d3library.threading.BitmapValueRunnable#bitmapConfig(Bitmap.Config)}.
+     */
+    public D3Polygon bitmapConfig(@NonNull Bitmap.Config config) {
+        bitmapValueRunnable.bitmapConfig(config);
+        updateNeeded();
+        return this;
+    }
+
     @Override public D3Polygon lazyRecomputing(boolean lazyRecomputing) {
         super.lazyRecomputing(lazyRecomputing);
         return this;
     }
 
+    @Override public D3Polygon renderStale(boolean renderStale) {
+        super.renderStale(renderStale);
+        return this;
+    }
+
     @Override public void draw(@NonNull Canvas canvas) {
-        canvas.drawBitmap(bitmapValueStorage.getValue(), 0F, 0F, null);
+        if (!drawsVertices()) {
+            bitmapValueStorage.getLatestValue().draw(canvas, paint);
+            return;
+        }
+        canvas.save();
+        if (proportional) {
+            canvas.scale(width(), height());
+        }
+        canvas.translate(offsetX.getLatestValue(), offsetY.getLatestValue());
+        mesh.getLatestValue().draw(canvas, paint);
+        canvas.restore();
     }
 }
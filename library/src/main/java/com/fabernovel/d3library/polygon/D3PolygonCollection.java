@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.graphics.Canvas;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.D3Drawable;
+import com.fabernovel.d3library.D3Pick;
+import com.fabernovel.d3library.action.OnClickAction;
+import com.fabernovel.d3library.action.OnGestureAction;
+import com.fabernovel.d3library.action.OnPinchAction;
+import com.fabernovel.d3library.action.OnScrollAction;
+import com.fabernovel.d3library.axes.D3FloatFunction;
+import com.fabernovel.d3library.threading.BufferedValueStorage;
+import com.fabernovel.d3library.threading.CommittedValueStorage;
+
+/**
+ * Draws many polygons, for example the regions of a map, and finds the polygon containing a
+ * point through a spatial index built off the UI thread, whatever the number of polygons.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class D3PolygonCollection extends D3Drawable {
+    @NonNull float[][] polygons = new float[0][];
+    volatile long generation;
+    @NonNull private int[] colors = new int[]{0xFF0000FF};
+
+    @NonNull private final BufferedValueStorage<Float> offsetX = new BufferedValueStorage<>();
+    @NonNull private final BufferedValueStorage<Float> offsetY = new BufferedValueStorage<>();
+    @NonNull private final OffsetRunnable offsetXRunnable = new OffsetRunnable();
+    @NonNull private final OffsetRunnable offsetYRunnable = new OffsetRunnable();
+
+    @NonNull private final BufferedValueStorage<PolygonPaths> paths
+        = new BufferedValueStorage<>();
+    @NonNull private final CommittedValueStorage<PolygonIndex> index
+        = new CommittedValueStorage<>();
+
+    public D3PolygonCollection() {
+        this(new float[0][]);
+    }
+
+    /**
+     * The format of the coordinates of each polygon should be [x1, y1, x2, y2, ...].
+     */
+    public D3PolygonCollection(@NonNull float[][] polygons) {
+        taskGraph
+            .add(offsetX, offsetXRunnable)
+            .add(offsetY, offsetYRunnable)
+            .add(paths, new PolygonPathsRunnable(this), offsetX, offsetY)
+            .add(index, new PolygonIndexRunnable(this), offsetX, offsetY);
+        polygons(polygons);
+        setupPaint();
+        offsetX(new D3FloatFunction() {
+            @Override public float getFloat() {
+                return 0F;
+            }
+        });
+        offsetY(new D3FloatFunction() {
+            @Override public float getFloat() {
+                return 0F;
+            }
+        });
+    }
+
+    /**
+     * Returns the coordinates of the polygons.
+     */
+    @NonNull public float[][] polygons() {
+        return polygons;
+    }
+
+    /**
+     * Sets the coordinates of the polygons, whose format should be [x1, y1, x2, y2, ...]. The
+     * arrays are not copied: call this method again after modifying them, so that the index is
+     * built again.
+     */
+    public D3PolygonCollection polygons(@NonNull float[][] polygons) {
+        this.polygons = polygons;
+        generation++;
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the colors of the polygons. If there are more polygons than colors, colors are
+     * used circularly.
+     */
+    @NonNull public int[] colors() {
+        return colors;
+    }
+
+    /**
+     * Sets the colors of the polygons. If there are more polygons than colors, colors are used
+     * circularly.
+     */
+    public D3PolygonCollection colors(@NonNull int[] colors) {
+        this.colors = colors;
+        updateNeeded();
+        return this;
+    }
+
+    public float offsetX() {
+        return offsetX.getValue();
+    }
+
+    public D3PolygonCollection offsetX(@NonNull D3FloatFunction offsetX) {
+        offsetXRunnable.setOffsetFunction(offsetX);
+        updateNeeded();
+        return this;
+    }
+
+    public float offsetY() {
+        return offsetY.getValue();
+    }
+
+    public D3PolygonCollection offsetY(@NonNull D3FloatFunction offsetY) {
+        offsetYRunnable.setOffsetFunction(offsetY);
+        updateNeeded();
+        return this;
+    }
+
+    /**
+     * Returns the index of the polygon containing the point, or -1 if there is none. When
+     * polygons overlap, the last one, drawn above the others, is returned. The query never
+     * waits for a computation: it reads the index of the last computed polygons and offsets, and
+     * returns -1 until the first index is computed. The result of the last query is kept until
+     * they change.
+     */
+    public int polygonAt(float x, float y) {
+        PolygonIndex computed = index.getCommittedValue();
+        return computed == null ? -1 : computed.find(x, y);
+    }
+
+    /**
+     * Returns the polygon containing the given coordinates, at a null distance, or null if there
+     * is none. See {@link #polygonAt(float, float)}.
+     */
+    @Nullable @Override public D3Pick pick(float x, float y, float radius) {
+        int polygon = polygonAt(x, y);
+        return polygon < 0 ? null : new D3Pick(this, polygon, 0F);
+    }
+
+    @Override public D3PolygonCollection onClickAction(@Nullable OnClickAction onClickAction) {
+        super.onClickAction(onClickAction);
+        return this;
+    }
+
+    @Override public D3PolygonCollection onScrollAction(@Nullable OnScrollAction onScrollAction) {
+        super.onScrollAction(onScrollAction);
+        return this;
+    }
+
+    @Override public D3PolygonCollection onPinchAction(@Nullable OnPinchAction onPinchAction) {
+        super.onPinchAction(onPinchAction);
+        return this;
+    }
+
+    @Override public D3PolygonCollection onGestureAction(
+        @Nullable OnGestureAction onGestureAction
+    ) {
+        super.onGestureAction(onGestureAction);
+        return this;
+    }
+
+    @Override public D3PolygonCollection setClipRect(
+        @NonNull D3FloatFunction leftLimit,
+        @NonNull D3FloatFunction topLimit,
+        @NonNull D3FloatFunction rightLimit,
+        @NonNull D3FloatFunction bottomLimit
+    ) {
+        super.setClipRect(leftLimit, topLimit, rightLimit, bottomLimit);
+        return this;
+    }
+
+    @Override public D3PolygonCollection deleteClipRect() {
+        super.deleteClipRect();
+        return this;
+    }
+
+    @Override public D3PolygonCollection lazyRecomputing(boolean lazyRecomputing) {
+        super.lazyRecomputing(lazyRecomputing);
+        return this;
+    }
+
+    @Override public D3PolygonCollection renderStale(boolean renderStale) {
+        super.renderStale(renderStale);
+        return this;
+    }
+
+    @Override public void prepareParameters() {
+        if (lazyRecomputing && calculationNeeded() == 0) {
+            return;
+        }
+        taskGraph.execute();
+    }
+
+    @Override public void draw(@NonNull Canvas canvas) {
+        paths.getLatestValue().draw(canvas, colors, paint);
+    }
+}
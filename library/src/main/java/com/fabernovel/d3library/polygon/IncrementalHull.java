@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Convex hull of points added over time. A point inside the current hull is dropped in
+ * O(log h), h being the size of the hull, and the hull is only computed again from its vertices
+ * and the points added outside of it, never from all the points added so far.
+ */
+public final class IncrementalHull {
+    private static final int MIN_PENDING_POINTS = 256;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    @NonNull private final ConvexHull convexHull = new ConvexHull();
+    /* The vertices of the hull, followed by the points added outside of it */
+    @NonNull private float[] x = new float[DEFAULT_CAPACITY];
+    @NonNull private float[] y = new float[DEFAULT_CAPACITY];
+    @NonNull private float[] hull = new float[2 * DEFAULT_CAPACITY];
+    private int hullSize;
+    private int size;
+    /* Positive if the hull is counterclockwise, negative otherwise */
+    private double orientation;
+
+    /**
+     * Adds a point to the hull.
+     */
+    public IncrementalHull add(float pointX, float pointY) {
+        if (contains(hullSize, pointX, pointY)) {
+            return this;
+        }
+        if (size == x.length) {
+            x = Arrays.copyOf(x, 2 * size);
+            y = Arrays.copyOf(y, 2 * size);
+        }
+        x[size] = pointX;
+        y[size++] = pointY;
+        if (size - hullSize > Math.max(MIN_PENDING_POINTS, hullSize)) {
+            update();
+        }
+        return this;
+    }
+
+    /**
+     * Adds the points from from (inclusive) to to (exclusive) to the hull.
+     */
+    public IncrementalHull add(
+        @NonNull float[] pointsX, @NonNull float[] pointsY, int from, int to
+    ) {
+        for (int i = from; i < to; i++) {
+            add(pointsX[i], pointsY[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Removes all the points.
+     */
+    public IncrementalHull clear() {
+        hullSize = 0;
+        size = 0;
+        return this;
+    }
+
+    /**
+     * Returns the number of points of the hull.
+     */
+    public int size() {
+        update();
+        return hullSize;
+    }
+
+    /**
+     * Returns the horizontal coordinate of the point of the hull at the index.
+     */
+    public float x(int index) {
+        update();
+        return x[index];
+    }
+
+    /**
+     * Returns the vertical coordinate of the point of the hull at the index.
+     */
+    public float y(int index) {
+        update();
+        return y[index];
+    }
+
+    /**
+     * Returns a copy of the coordinates of the hull, in the format [x1, y1, x2, y2, ...].
+     */
+    @NonNull public float[] coordinates() {
+        update();
+        return Arrays.copyOf(hull, 2 * hullSize);
+    }
+
+    /**
+     * Returns true if the point is inside the hull or on its boundary.
+     */
+    public boolean contains(float pointX, float pointY) {
+        update();
+        return contains(hullSize, pointX, pointY);
+    }
+
+    private void update() {
+        if (size == hullSize) {
+            return;
+        }
+        if (hull.length < 2 * size) {
+            hull = new float[2 * x.length];
+        }
+        hullSize = convexHull.compute(x, y, size, hull);
+        size = hullSize;
+        for (int i = 0; i < hullSize; i++) {
+            x[i] = hull[2 * i];
+            y[i] = hull[2 * i + 1];
+        }
+        orientation = hullSize >= 3 ? side(0, 1, x[2], y[2]) : 0D;
+    }
+
+    /**
+     * Returns true if the point is inside the convex polygon made of the vertices count first
+     * points, by a binary search of the triangle of the fan from the first vertex holding it.
+     */
+    private boolean contains(int count, float pointX, float pointY) {
+        if (count < 3) {
+            return false;
+        }
+        if (side(0, 1, pointX, pointY) * orientation < 0D
+            || side(0, count - 1, pointX, pointY) * orientation > 0D) {
+            return false;
+        }
+        int low = 1;
+        int high = count - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (side(0, middle, pointX, pointY) * orientation >= 0D) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return side(low, high, pointX, pointY) * orientation >= 0D;
+    }
+
+    /**
+     * Returns a value positive if the point is on the left of the line from the vertex a to the
+     * vertex b, negative if it is on its right and zero if it is on the line.
+     */
+    private double side(int a, int b, float pointX, float pointY) {
+        return ((double) x[b] - x[a]) * ((double) pointY - y[a])
+            - ((double) y[b] - y[a]) * ((double) pointX - x[a]);
+    }
+}
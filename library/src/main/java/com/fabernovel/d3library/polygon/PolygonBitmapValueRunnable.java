@@ -33,13 +33,17 @@ class PolygonBitmapValueRunnable extends BitmapValueRunnable {
     }
 
     @Override protected void computeValue() {
-        value.eraseColor(0);
-
+        if (polygon.drawsVertices()) {
+            return;
+        }
         if (polygon.x.length == 0) {
+            prepareBitmap(0F, 0F, 0F, 0F);
             return;
         }
 
         path.rewind();
+        float[][] holes = polygon.holes;
+        path.setFillType(holes == null ? Path.FillType.WINDING : Path.FillType.EVEN_ODD);
 
         float computedOffsetX = polygon.offsetX();
         float computedOffsetY = polygon.offsetY();
@@ -58,12 +62,36 @@ class PolygonBitmapValueRunnable extends BitmapValueRunnable {
                     (polygon.y[i] + computedOffsetY) * height
                 );
             }
+            if (holes != null) {
+                for (float[] hole : holes) {
+                    addHole(hole, computedOffsetX, computedOffsetY, width, height);
+                }
+            }
         } else {
             path.moveTo(polygon.x[0] + computedOffsetX, polygon.y[0] + computedOffsetY);
             for (int i = 1; i < polygon.x.length; i++) {
                 path.lineTo(polygon.x[i] + computedOffsetX, polygon.y[i] + computedOffsetY);
             }
+            if (holes != null) {
+                for (float[] hole : holes) {
+                    addHole(hole, computedOffsetX, computedOffsetY, 1F, 1F);
+                }
+            }
         }
+        prepareBitmap(path, polygon.paint());
         canvas.drawPath(path, polygon.paint());
     }
+
+    private void addHole(
+        @NonNull float[] hole, float offsetX, float offsetY, float width, float height
+    ) {
+        if (hole.length < 2) {
+            return;
+        }
+        path.close();
+        path.moveTo((hole[0] + offsetX) * width, (hole[1] + offsetY) * height);
+        for (int i = 2; i + 1 < hole.length; i += 2) {
+            path.lineTo((hole[i] + offsetX) * width, (hole[i + 1] + offsetY) * height);
+        }
+    }
 }
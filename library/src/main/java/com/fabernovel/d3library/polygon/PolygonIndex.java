@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Spatial index of the polygons of a {@link D3PolygonCollection}. A uniform grid over their
+ * bounding boxes gives the few polygons which may contain a point, and the edges of each
+ * polygon are binned in horizontal bands, so that a ray cast only crosses the edges of the band
+ * of the point. The index is built for a generation of the polygons and of their offsets.
+ */
+final class PolygonIndex {
+    private static final int NO_POLYGON = -1;
+
+    long generation = -1L;
+    float offsetX;
+    float offsetY;
+
+    @Nullable private float[][] polygons;
+    private int polygonsNumber;
+    /* Left, top, right and bottom of each polygon, the left being NaN for the empty ones */
+    @NonNull private float[] bounds = new float[0];
+
+    private float gridLeft;
+    private float gridTop;
+    private float gridRight;
+    private float gridBottom;
+    private float cellWidth;
+    private float cellHeight;
+    private int columns;
+    private int rows;
+    @NonNull private int[] cellStarts = new int[1];
+    @NonNull private int[] cellPolygons = new int[0];
+
+    /* The bands of the polygon p are the bands from polygonBands[p] to polygonBands[p + 1] */
+    @NonNull private int[] polygonBands = new int[1];
+    @NonNull private int[] bandStarts = new int[1];
+    @NonNull private int[] bandEdges = new int[0];
+
+    private float lastX = Float.NaN;
+    private float lastY = Float.NaN;
+    private int lastPolygon = NO_POLYGON;
+
+    /**
+     * Builds the index of the polygons, whose coordinates' format is [x1, y1, x2, y2, ...]. The
+     * polygons are referenced, not copied.
+     */
+    void build(@NonNull float[][] polygons) {
+        this.polygons = polygons;
+        polygonsNumber = polygons.length;
+        synchronized (this) {
+            lastX = Float.NaN;
+            lastY = Float.NaN;
+        }
+        computeBounds();
+        buildGrid();
+        buildBands();
+    }
+
+    private void computeBounds() {
+        if (bounds.length < 4 * polygonsNumber) {
+            bounds = new float[4 * polygonsNumber];
+        }
+        gridLeft = Float.POSITIVE_INFINITY;
+        gridTop = Float.POSITIVE_INFINITY;
+        gridRight = Float.NEGATIVE_INFINITY;
+        gridBottom = Float.NEGATIVE_INFINITY;
+        for (int p = 0; p < polygonsNumber; p++) {
+            float[] coordinates = polygons[p];
+            if (coordinates.length < 6) {
+                bounds[4 * p] = Float.NaN;
+                continue;
+            }
+            float left = coordinates[0];
+            float top = coordinates[1];
+            float right = left;
+            float bottom = top;
+            for (int i = 2; i + 1 < coordinates.length; i += 2) {
+                left = Math.min(left, coordinates[i]);
+                right = Math.max(right, coordinates[i]);
+                top = Math.min(top, coordinates[i + 1]);
+                bottom = Math.max(bottom, coordinates[i + 1]);
+            }
+            bounds[4 * p] = left;
+            bounds[4 * p + 1] = top;
+            bounds[4 * p + 2] = right;
+            bounds[4 * p + 3] = bottom;
+            gridLeft = Math.min(gridLeft, left);
+            gridTop = Math.min(gridTop, top);
+            gridRight = Math.max(gridRight, right);
+            gridBottom = Math.max(gridBottom, bottom);
+        }
+    }
+
+    private void buildGrid() {
+        if (gridLeft > gridRight) {
+            columns = 0;
+            rows = 0;
+            return;
+        }
+        columns = Math.max(1, (int) Math.ceil(Math.sqrt(polygonsNumber)));
+        rows = columns;
+        cellWidth = Math.max((gridRight - gridLeft) / columns, Float.MIN_NORMAL);
+        cellHeight = Math.max((gridBottom - gridTop) / rows, Float.MIN_NORMAL);
+
+        int cellsNumber = columns * rows;
+        if (cellStarts.length < cellsNumber + 1) {
+            cellStarts = new int[cellsNumber + 1];
+        }
+        for (int i = 0; i <= cellsNumber; i++) {
+            cellStarts[i] = 0;
+        }
+        for (int p = 0; p < polygonsNumber; p++) {
+            forEachCell(p, false);
+        }
+        for (int i = 0; i < cellsNumber; i++) {
+            cellStarts[i + 1] += cellStarts[i];
+        }
+        if (cellPolygons.length < cellStarts[cellsNumber]) {
+            cellPolygons = new int[cellStarts[cellsNumber]];
+        }
+        /* Filling the cells moves each start to the next cell's one, they are shifted back. */
+        for (int p = 0; p < polygonsNumber; p++) {
+            forEachCell(p, true);
+        }
+        for (int i = cellsNumber; i > 0; i--) {
+            cellStarts[i] = cellStarts[i - 1];
+        }
+        cellStarts[0] = 0;
+    }
+
+    /**
+     * Counts the polygon in each cell covered by its bounding box, or adds it to those cells.
+     */
+    private void forEachCell(int polygon, boolean fill) {
+        if (Float.isNaN(bounds[4 * polygon])) {
+            return;
+        }
+        int firstColumn = column(bounds[4 * polygon]);
+        int lastColumn = column(bounds[4 * polygon + 2]);
+        int lastRow = row(bounds[4 * polygon + 3]);
+        for (int row = row(bounds[4 * polygon + 1]); row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (fill) {
+                    cellPolygons[cellStarts[row * columns + column]++] = polygon;
+                } else {
+                    cellStarts[row * columns + column + 1]++;
+                }
+            }
+        }
+    }
+
+    private void buildBands() {
+        if (polygonBands.length < polygonsNumber + 1) {
+            polygonBands = new int[polygonsNumber + 1];
+        }
+        int bandsNumber = 0;
+        for (int p = 0; p < polygonsNumber; p++) {
+            polygonBands[p] = bandsNumber;
+            if (!Float.isNaN(bounds[4 * p])) {
+                bandsNumber += Math.max(1, (int) Math.sqrt(polygons[p].length / 2));
+            }
+        }
+        polygonBands[polygonsNumber] = bandsNumber;
+        if (bandStarts.length < bandsNumber + 1) {
+            bandStarts = new int[bandsNumber + 1];
+        }
+        for (int i = 0; i <= bandsNumber; i++) {
+            bandStarts[i] = 0;
+        }
+        for (int p = 0; p < polygonsNumber; p++) {
+            forEachEdgeBand(p, false);
+        }
+        for (int i = 0; i < bandsNumber; i++) {
+            bandStarts[i + 1] += bandStarts[i];
+        }
+        if (bandEdges.length < bandStarts[bandsNumber]) {
+            bandEdges = new int[bandStarts[bandsNumber]];
+        }
+        for (int p = 0; p < polygonsNumber; p++) {
+            forEachEdgeBand(p, true);
+        }
+        for (int i = bandsNumber; i > 0; i--) {
+            bandStarts[i] = bandStarts[i - 1];
+        }
+        bandStarts[0] = 0;
+    }
+
+    /**
+     * Counts the edges of each band of the polygon, or adds them to the bands.
+     */
+    private void forEachEdgeBand(int polygon, boolean fill) {
+        if (Float.isNaN(bounds[4 * polygon])) {
+            return;
+        }
+        float[] coordinates = polygons[polygon];
+        int pointsNumber = coordinates.length / 2;
+        int firstBand = polygonBands[polygon];
+        for (int i = 0, previous = pointsNumber - 1; i < pointsNumber; previous = i++) {
+            float y0 = coordinates[2 * previous + 1];
+            float y1 = coordinates[2 * i + 1];
+            int lowestBand = firstBand + band(polygon, Math.min(y0, y1));
+            int highestBand = firstBand + band(polygon, Math.max(y0, y1));
+            for (int band = lowestBand; band <= highestBand; band++) {
+                if (fill) {
+                    bandEdges[bandStarts[band]++] = i;
+                } else {
+                    bandStarts[band + 1]++;
+                }
+            }
+        }
+    }
+
+    private int band(int polygon, float y) {
+        int bandsNumber = polygonBands[polygon + 1] - polygonBands[polygon];
+        float top = bounds[4 * polygon + 1];
+        float height = bounds[4 * polygon + 3] - top;
+        if (height <= 0F) {
+            return 0;
+        }
+        int band = (int) ((y - top) / height * bandsNumber);
+        return Math.max(0, Math.min(bandsNumber - 1, band));
+    }
+
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) ((x - gridLeft) / cellWidth)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - gridTop) / cellHeight)));
+    }
+
+    /**
+     * Returns the index of the last polygon containing the point, which is drawn above the
+     * others, or -1 if no polygon contains it.
+     */
+    synchronized int find(float x, float y) {
+        if (x == lastX && y == lastY) {
+            return lastPolygon;
+        }
+        lastX = x;
+        lastY = y;
+        lastPolygon = findPolygon(x - offsetX, y - offsetY);
+        return lastPolygon;
+    }
+
+    private int findPolygon(float x, float y) {
+        if (columns == 0 || x < gridLeft || x > gridRight || y < gridTop || y > gridBottom) {
+            return NO_POLYGON;
+        }
+        int cell = row(y) * columns + column(x);
+        for (int i = cellStarts[cell + 1] - 1; i >= cellStarts[cell]; i--) {
+            int polygon = cellPolygons[i];
+            if (x >= bounds[4 * polygon] && x <= bounds[4 * polygon + 2]
+                && y >= bounds[4 * polygon + 1] && y <= bounds[4 * polygon + 3]
+                && contains(polygon, x, y)) {
+                return polygon;
+            }
+        }
+        return NO_POLYGON;
+    }
+
+    /**
+     * Casts a ray from the point, crossing only the edges of the band of the point.
+     */
+    private boolean contains(int polygon, float x, float y) {
+        float[] coordinates = polygons[polygon];
+        int pointsNumber = coordinates.length / 2;
+        int band = polygonBands[polygon] + band(polygon, y);
+        boolean inside = false;
+        for (int i = bandStarts[band]; i < bandStarts[band + 1]; i++) {
+            int edge = bandEdges[i];
+            int previous = edge == 0 ? pointsNumber - 1 : edge - 1;
+            float x0 = coordinates[2 * previous];
+            float y0 = coordinates[2 * previous + 1];
+            float x1 = coordinates[2 * edge];
+            float y1 = coordinates[2 * edge + 1];
+            if (((y1 > y) != (y0 > y)) && (x < (x0 - x1) * (y - y1) / (y0 - y1) + x1)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Builds the spatial index of the polygons of a collection, unless the last index built was
+ * built for the same generation of the polygons and the same offsets: it is then committed
+ * again, as committed indexes are never modified.
+ */
+class PolygonIndexRunnable extends ValueRunnable<PolygonIndex> {
+    @NonNull private final D3PolygonCollection collection;
+    @Nullable private PolygonIndex built;
+
+    PolygonIndexRunnable(@NonNull D3PolygonCollection collection) {
+        this.collection = collection;
+    }
+
+    @Override protected void computeValue() {
+        float[][] polygons = collection.polygons;
+        long generation = collection.generation;
+        float offsetX = collection.offsetX();
+        float offsetY = collection.offsetY();
+        if (built != null && built.generation == generation && built.offsetX == offsetX
+            && built.offsetY == offsetY) {
+            value = built;
+            return;
+        }
+        if (value == null || value == built) {
+            value = new PolygonIndex();
+        }
+        value.offsetX = offsetX;
+        value.offsetY = offsetY;
+        value.build(polygons);
+        value.generation = generation;
+        built = value;
+    }
+
+    @Override protected void recycle(@Nullable PolygonIndex spare) {
+        value = spare;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Triangles of a polygon, in the coordinates of the polygon, built for a generation of its
+ * vertices. It is drawn with a single call under the matrix of the canvas, so moving or scaling
+ * the polygon does not need to triangulate it again.
+ */
+final class PolygonMesh {
+    /**
+     * Maximum number of vertices, whose indexes must fit in shorts.
+     */
+    static final int MAX_VERTICES = Short.MAX_VALUE + 1;
+
+    final long generation;
+    @NonNull final float[] vertices;
+    @Nullable final short[] indices;
+    final int indicesNumber;
+
+    PolygonMesh(
+        long generation, @NonNull float[] vertices, @Nullable short[] indices, int indicesNumber
+    ) {
+        this.generation = generation;
+        this.vertices = vertices;
+        this.indices = indices;
+        this.indicesNumber = indicesNumber;
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull Paint paint) {
+        if (indices == null || indicesNumber == 0) {
+            return;
+        }
+        canvas.drawVertices(
+            Canvas.VertexMode.TRIANGLES, vertices.length, vertices, 0, null, 0, null, 0,
+            indices, 0, indicesNumber, paint
+        );
+    }
+}
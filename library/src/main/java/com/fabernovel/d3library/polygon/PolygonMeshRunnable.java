@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.support.annotation.NonNull;
+
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+/**
+ * Triangulates the polygon, only when its vertices changed since the last triangulation and
+ * when the polygon is drawn from its triangles.
+ */
+class PolygonMeshRunnable extends ValueRunnable<PolygonMesh> {
+    /* Generation of the empty mesh kept while the polygon is not drawn from triangles. */
+    private static final long NO_GENERATION = -1L;
+
+    @NonNull private final D3Polygon polygon;
+    @NonNull private final Triangulator triangulator = new Triangulator();
+    @NonNull private int[] ringEnds = new int[1];
+
+    PolygonMeshRunnable(@NonNull D3Polygon polygon) {
+        this.polygon = polygon;
+    }
+
+    @Override protected void computeValue() {
+        if (!polygon.drawsVertices()) {
+            if (value == null) {
+                value = new PolygonMesh(NO_GENERATION, new float[0], null, 0);
+            }
+            return;
+        }
+        long generation = polygon.generation;
+        if (value != null && value.generation == generation) {
+            return;
+        }
+        float[] x = polygon.x;
+        float[] y = polygon.y;
+        float[][] holes = polygon.holes;
+        if (x == null || y == null) {
+            value = new PolygonMesh(generation, new float[0], null, 0);
+            return;
+        }
+        int ringsNumber = 1 + (holes == null ? 0 : holes.length);
+        if (ringEnds.length < ringsNumber) {
+            ringEnds = new int[ringsNumber];
+        }
+        int verticesNumber = Math.min(x.length, y.length);
+        ringEnds[0] = verticesNumber;
+        for (int i = 1; i < ringsNumber; i++) {
+            verticesNumber += holes[i - 1].length / 2;
+            ringEnds[i] = verticesNumber;
+        }
+
+        float[] vertices = new float[2 * verticesNumber];
+        for (int i = 0; i < ringEnds[0]; i++) {
+            vertices[2 * i] = x[i];
+            vertices[2 * i + 1] = y[i];
+        }
+        for (int i = 1; i < ringsNumber; i++) {
+            System.arraycopy(
+                holes[i - 1], 0, vertices, 2 * ringEnds[i - 1], 2 * (ringEnds[i] - ringEnds[i - 1])
+            );
+        }
+        if (verticesNumber > PolygonMesh.MAX_VERTICES) {
+            value = new PolygonMesh(generation, vertices, null, 0);
+            return;
+        }
+
+        int indicesNumber = triangulator.triangulate(vertices, ringEnds, ringsNumber);
+        int[] triangles = triangulator.triangles();
+        short[] indices = new short[indicesNumber];
+        for (int i = 0; i < indicesNumber; i++) {
+            indices[i] = (short) triangles[i];
+        }
+        value = new PolygonMesh(generation, vertices, indices, indicesNumber);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Polygons of a {@link D3PolygonCollection} gathered in a Path per color.
+ */
+class PolygonPaths {
+    @NonNull Path[] paths = new Path[0];
+    int colorsNumber;
+
+    void clear(int colorsNumber) {
+        if (paths.length < colorsNumber) {
+            int previousLength = paths.length;
+            paths = Arrays.copyOf(paths, colorsNumber);
+            for (int i = previousLength; i < colorsNumber; i++) {
+                paths[i] = new Path();
+                paths[i].setFillType(Path.FillType.WINDING);
+            }
+        }
+        for (int i = 0; i < colorsNumber; i++) {
+            paths[i].rewind();
+        }
+        this.colorsNumber = colorsNumber;
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull int[] colors, @NonNull Paint paint) {
+        for (int i = 0; i < colorsNumber; i++) {
+            if (paths[i].isEmpty()) {
+                continue;
+            }
+            paint.setColor(colors[i % colors.length]);
+            canvas.drawPath(paths[i], paint);
+        }
+    }
+}
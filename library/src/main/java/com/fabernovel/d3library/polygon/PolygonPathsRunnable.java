@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.graphics.Path;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.threading.ValueRunnable;
+
+class PolygonPathsRunnable extends ValueRunnable<PolygonPaths> {
+    private static final int CANCELLATION_CHECK_INTERVAL = 64;
+
+    @NonNull private final D3PolygonCollection collection;
+
+    PolygonPathsRunnable(@NonNull D3PolygonCollection collection) {
+        this.collection = collection;
+        value = new PolygonPaths();
+    }
+
+    @Override protected void computeValue() {
+        int[] colors = collection.colors();
+        value.clear(colors.length);
+        float[][] polygons = collection.polygons;
+        float offsetX = collection.offsetX();
+        float offsetY = collection.offsetY();
+        for (int p = 0; p < polygons.length; p++) {
+            if (p % CANCELLATION_CHECK_INTERVAL == 0 && isCancelled()) {
+                return;
+            }
+            float[] coordinates = polygons[p];
+            if (coordinates.length < 6) {
+                continue;
+            }
+            Path path = value.paths[p % colors.length];
+            path.moveTo(coordinates[0] + offsetX, coordinates[1] + offsetY);
+            for (int i = 2; i + 1 < coordinates.length; i += 2) {
+                path.lineTo(coordinates[i] + offsetX, coordinates[i + 1] + offsetY);
+            }
+            path.close();
+        }
+    }
+
+    @Override protected void recycle(@Nullable PolygonPaths spare) {
+        value = spare == null ? new PolygonPaths() : spare;
+    }
+}
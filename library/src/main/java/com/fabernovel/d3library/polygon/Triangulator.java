@@ -0,0 +1,492 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Triangulates polygons with holes by ear clipping. The rings are kept in a doubly linked list
+ * of nodes stored in arrays, each hole being bridged to the outer ring from its leftmost point,
+ * as in the earcut library. When no ear is left, the local self-intersections are cured, then
+ * the polygon is split along a valid diagonal. The buffers are kept from one triangulation to
+ * the next.
+ */
+final class Triangulator {
+    private static final int NO_NODE = -1;
+
+    @NonNull private float[] vertices = new float[0];
+    @NonNull private int[] nodeVertex = new int[0];
+    @NonNull private int[] previousNode = new int[0];
+    @NonNull private int[] nextNode = new int[0];
+    private int nodesNumber;
+    @NonNull private long[] holeQueue = new long[0];
+
+    @NonNull private int[] triangles = new int[0];
+    private int trianglesLength;
+
+    /**
+     * Triangulates the polygon whose vertices are given in the format [x1, y1, x2, y2, ...]. The
+     * first ring, the outer one, ends at the vertex ringEnds[0] (exclusive), the following rings
+     * being holes. Returns the number of indexes written in {@link #triangles()}, three per
+     * triangle.
+     */
+    int triangulate(@NonNull float[] vertices, @NonNull int[] ringEnds, int ringsNumber) {
+        this.vertices = vertices;
+        int verticesNumber = ringsNumber > 0 ? ringEnds[ringsNumber - 1] : 0;
+        nodesNumber = 0;
+        trianglesLength = 0;
+        reserveNodes(verticesNumber + 2 * ringsNumber + 16);
+        reserveTriangles(3 * verticesNumber);
+
+        if (ringsNumber == 0) {
+            return 0;
+        }
+        int outer = linkedList(0, ringEnds[0], true);
+        if (outer == NO_NODE || nextNode[outer] == previousNode[outer]) {
+            return 0;
+        }
+        if (ringsNumber > 1) {
+            outer = eliminateHoles(ringEnds, ringsNumber, outer);
+        }
+        earcutLinked(outer, 0);
+        return trianglesLength;
+    }
+
+    /**
+     * Returns the indexes of the vertices of the triangles.
+     */
+    @NonNull int[] triangles() {
+        return triangles;
+    }
+
+    private void reserveNodes(int capacity) {
+        if (nodeVertex.length < capacity) {
+            int newCapacity = Math.max(capacity, 2 * nodeVertex.length);
+            nodeVertex = Arrays.copyOf(nodeVertex, newCapacity);
+            previousNode = Arrays.copyOf(previousNode, newCapacity);
+            nextNode = Arrays.copyOf(nextNode, newCapacity);
+        }
+    }
+
+    private void reserveTriangles(int capacity) {
+        if (triangles.length < capacity) {
+            triangles = Arrays.copyOf(triangles, Math.max(capacity, 2 * triangles.length));
+        }
+    }
+
+    /**
+     * Links the vertices of a ring in the given orientation and returns its last node.
+     */
+    private int linkedList(int start, int end, boolean clockwise) {
+        int last = NO_NODE;
+        if (clockwise == (signedArea(start, end) > 0F)) {
+            for (int i = start; i < end; i++) {
+                last = insertNode(i, last);
+            }
+        } else {
+            for (int i = end - 1; i >= start; i--) {
+                last = insertNode(i, last);
+            }
+        }
+        if (last != NO_NODE && equals(last, nextNode[last])) {
+            removeNode(last);
+            last = nextNode[last];
+        }
+        return last;
+    }
+
+    private float signedArea(int start, int end) {
+        float sum = 0F;
+        for (int i = start, j = end - 1; i < end; j = i++) {
+            sum += (vertices[2 * j] - vertices[2 * i])
+                * (vertices[2 * i + 1] + vertices[2 * j + 1]);
+        }
+        return sum;
+    }
+
+    /**
+     * Removes the duplicate and the collinear points from start to end, and returns the end.
+     */
+    private int filterPoints(int start, int end) {
+        if (start == NO_NODE) {
+            return start;
+        }
+        if (end == NO_NODE) {
+            end = start;
+        }
+        int p = start;
+        boolean again;
+        do {
+            again = false;
+            if (equals(p, nextNode[p]) || area(previousNode[p], p, nextNode[p]) == 0F) {
+                removeNode(p);
+                p = end = previousNode[p];
+                if (p == nextNode[p]) {
+                    break;
+                }
+                again = true;
+            } else {
+                p = nextNode[p];
+            }
+        } while (again || p != end);
+        return end;
+    }
+
+    private void earcutLinked(int ear, int pass) {
+        if (ear == NO_NODE) {
+            return;
+        }
+        int stop = ear;
+        while (previousNode[ear] != nextNode[ear]) {
+            int previous = previousNode[ear];
+            int next = nextNode[ear];
+            if (isEar(ear)) {
+                addTriangle(previous, ear, next);
+                removeNode(ear);
+                /* Skipping the next vertex leads to less sliver triangles. */
+                ear = nextNode[next];
+                stop = nextNode[next];
+                continue;
+            }
+            ear = next;
+            if (ear == stop) {
+                if (pass == 0) {
+                    earcutLinked(filterPoints(ear, NO_NODE), 1);
+                } else if (pass == 1) {
+                    earcutLinked(cureLocalIntersections(filterPoints(ear, NO_NODE)), 2);
+                } else {
+                    splitEarcut(ear);
+                }
+                break;
+            }
+        }
+    }
+
+    private boolean isEar(int ear) {
+        int a = previousNode[ear];
+        int c = nextNode[ear];
+        if (area(a, ear, c) >= 0F) {
+            return false;
+        }
+        float ax = x(a);
+        float ay = y(a);
+        float bx = x(ear);
+        float by = y(ear);
+        float cx = x(c);
+        float cy = y(c);
+        for (int p = nextNode[c]; p != a; p = nextNode[p]) {
+            if (pointInTriangle(ax, ay, bx, by, cx, cy, x(p), y(p))
+                && area(previousNode[p], p, nextNode[p]) >= 0F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int cureLocalIntersections(int start) {
+        int p = start;
+        do {
+            int a = previousNode[p];
+            int b = nextNode[nextNode[p]];
+            if (!equals(a, b) && intersects(a, p, nextNode[p], b)
+                && locallyInside(a, b) && locallyInside(b, a)) {
+                addTriangle(a, p, b);
+                removeNode(p);
+                removeNode(nextNode[p]);
+                p = start = b;
+            }
+            p = nextNode[p];
+        } while (p != start);
+        return filterPoints(p, NO_NODE);
+    }
+
+    private void splitEarcut(int start) {
+        int a = start;
+        do {
+            int b = nextNode[nextNode[a]];
+            while (b != previousNode[a]) {
+                if (nodeVertex[a] != nodeVertex[b] && isValidDiagonal(a, b)) {
+                    int c = splitPolygon(a, b);
+                    a = filterPoints(a, nextNode[a]);
+                    c = filterPoints(c, nextNode[c]);
+                    earcutLinked(a, 0);
+                    earcutLinked(c, 0);
+                    return;
+                }
+                b = nextNode[b];
+            }
+            a = nextNode[a];
+        } while (a != start);
+    }
+
+    /**
+     * Bridges the holes to the outer ring, from left to right, and returns the outer ring.
+     */
+    private int eliminateHoles(@NonNull int[] ringEnds, int ringsNumber, int outer) {
+        if (holeQueue.length < ringsNumber) {
+            holeQueue = new long[ringsNumber];
+        }
+        int holesNumber = 0;
+        for (int ring = 1; ring < ringsNumber; ring++) {
+            int list = linkedList(ringEnds[ring - 1], ringEnds[ring], false);
+            if (list == NO_NODE) {
+                continue;
+            }
+            int leftmost = leftmost(list);
+            /* Sorting keys ordered by the x of the leftmost node, then by the node */
+            holeQueue[holesNumber++] = (long) sortable(x(leftmost)) << 32 | leftmost;
+        }
+        Arrays.sort(holeQueue, 0, holesNumber);
+        for (int i = 0; i < holesNumber; i++) {
+            outer = eliminateHole((int) holeQueue[i], outer);
+        }
+        return outer;
+    }
+
+    private static int sortable(float value) {
+        int bits = Float.floatToIntBits(value + 0F);
+        return bits ^ (bits >> 31) & Integer.MAX_VALUE;
+    }
+
+    private int eliminateHole(int hole, int outer) {
+        int bridge = findHoleBridge(hole, outer);
+        if (bridge == NO_NODE) {
+            return outer;
+        }
+        int bridgeReverse = splitPolygon(bridge, hole);
+        filterPoints(bridgeReverse, nextNode[bridgeReverse]);
+        return filterPoints(bridge, nextNode[bridge]);
+    }
+
+    /**
+     * Finds a node of the outer ring visible from the leftmost point of the hole.
+     */
+    private int findHoleBridge(int hole, int outer) {
+        float hx = x(hole);
+        float hy = y(hole);
+        float qx = Float.NEGATIVE_INFINITY;
+        int m = NO_NODE;
+        int p = outer;
+        /* Finds the segment of the outer ring intersected by a ray going left from the hole */
+        do {
+            int next = nextNode[p];
+            if (hy <= y(p) && hy >= y(next) && y(next) != y(p)) {
+                float x = x(p) + (hy - y(p)) * (x(next) - x(p)) / (y(next) - y(p));
+                if (x <= hx && x > qx) {
+                    qx = x;
+                    m = x(p) < x(next) ? p : next;
+                    if (x == hx) {
+                        return m;
+                    }
+                }
+            }
+            p = next;
+        } while (p != outer);
+        if (m == NO_NODE) {
+            return NO_NODE;
+        }
+
+        /* Keeps the point inside the triangle of the hole, the intersection and the segment's
+         * point, with the smallest angle to the ray, if any. */
+        int stop = m;
+        float mx = x(m);
+        float my = y(m);
+        float tanMin = Float.POSITIVE_INFINITY;
+        p = m;
+        do {
+            float px = x(p);
+            float py = y(p);
+            if (hx >= px && px >= mx && hx != px && pointInTriangle(
+                hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, px, py
+            )) {
+                float tan = Math.abs(hy - py) / (hx - px);
+                if (locallyInside(p, hole) && (tan < tanMin || tan == tanMin
+                    && (px > x(m) || px == x(m) && sectorContainsSector(m, p)))) {
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = nextNode[p];
+        } while (p != stop);
+        return m;
+    }
+
+    private boolean sectorContainsSector(int m, int p) {
+        return area(previousNode[m], m, previousNode[p]) < 0F
+            && area(nextNode[p], m, nextNode[m]) < 0F;
+    }
+
+    private int leftmost(int start) {
+        int p = start;
+        int leftmost = start;
+        do {
+            if (x(p) < x(leftmost) || x(p) == x(leftmost) && y(p) < y(leftmost)) {
+                leftmost = p;
+            }
+            p = nextNode[p];
+        } while (p != start);
+        return leftmost;
+    }
+
+    private static boolean pointInTriangle(
+        float ax, float ay, float bx, float by, float cx, float cy, float px, float py
+    ) {
+        return (cx - px) * (ay - py) >= (ax - px) * (cy - py)
+            && (ax - px) * (by - py) >= (bx - px) * (ay - py)
+            && (bx - px) * (cy - py) >= (cx - px) * (by - py);
+    }
+
+    private boolean isValidDiagonal(int a, int b) {
+        return nodeVertex[nextNode[a]] != nodeVertex[b]
+            && nodeVertex[previousNode[a]] != nodeVertex[b]
+            && !intersectsPolygon(a, b)
+            && (locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b)
+                && (area(previousNode[a], a, previousNode[b]) != 0F
+                    || area(a, previousNode[b], b) != 0F)
+                || equals(a, b) && area(previousNode[a], a, nextNode[a]) > 0F
+                    && area(previousNode[b], b, nextNode[b]) > 0F);
+    }
+
+    /**
+     * Returns a value whose sign gives the orientation of the nodes p, q and r.
+     */
+    private float area(int p, int q, int r) {
+        return (y(q) - y(p)) * (x(r) - x(q)) - (x(q) - x(p)) * (y(r) - y(q));
+    }
+
+    private boolean equals(int p, int q) {
+        return x(p) == x(q) && y(p) == y(q);
+    }
+
+    private boolean intersects(int p1, int q1, int p2, int q2) {
+        float o1 = Math.signum(area(p1, q1, p2));
+        float o2 = Math.signum(area(p1, q1, q2));
+        float o3 = Math.signum(area(p2, q2, p1));
+        float o4 = Math.signum(area(p2, q2, q1));
+        return o1 != o2 && o3 != o4
+            || o1 == 0F && onSegment(p1, p2, q1)
+            || o2 == 0F && onSegment(p1, q2, q1)
+            || o3 == 0F && onSegment(p2, p1, q2)
+            || o4 == 0F && onSegment(p2, q1, q2);
+    }
+
+    /**
+     * Returns true if the node q, collinear with p and r, lies on the segment pr.
+     */
+    private boolean onSegment(int p, int q, int r) {
+        return x(q) <= Math.max(x(p), x(r)) && x(q) >= Math.min(x(p), x(r))
+            && y(q) <= Math.max(y(p), y(r)) && y(q) >= Math.min(y(p), y(r));
+    }
+
+    private boolean intersectsPolygon(int a, int b) {
+        int p = a;
+        do {
+            int next = nextNode[p];
+            if (nodeVertex[p] != nodeVertex[a] && nodeVertex[next] != nodeVertex[a]
+                && nodeVertex[p] != nodeVertex[b] && nodeVertex[next] != nodeVertex[b]
+                && intersects(p, next, a, b)) {
+                return true;
+            }
+            p = next;
+        } while (p != a);
+        return false;
+    }
+
+    private boolean locallyInside(int a, int b) {
+        return area(previousNode[a], a, nextNode[a]) < 0F ?
+            area(a, b, nextNode[a]) >= 0F && area(a, previousNode[a], b) >= 0F :
+            area(a, b, previousNode[a]) < 0F || area(a, nextNode[a], b) < 0F;
+    }
+
+    private boolean middleInside(int a, int b) {
+        float middleX = (x(a) + x(b)) / 2F;
+        float middleY = (y(a) + y(b)) / 2F;
+        boolean inside = false;
+        int p = a;
+        do {
+            int next = nextNode[p];
+            if ((y(p) > middleY) != (y(next) > middleY) && y(next) != y(p)
+                && middleX < (x(next) - x(p)) * (middleY - y(p)) / (y(next) - y(p)) + x(p)) {
+                inside = !inside;
+            }
+            p = next;
+        } while (p != a);
+        return inside;
+    }
+
+    /**
+     * Links the nodes a and b with a bridge, duplicating them, and returns the duplicate of b.
+     */
+    private int splitPolygon(int a, int b) {
+        int a2 = newNode(nodeVertex[a]);
+        int b2 = newNode(nodeVertex[b]);
+        int an = nextNode[a];
+        int bp = previousNode[b];
+
+        nextNode[a] = b;
+        previousNode[b] = a;
+        nextNode[a2] = an;
+        previousNode[an] = a2;
+        nextNode[b2] = a2;
+        previousNode[a2] = b2;
+        nextNode[bp] = b2;
+        previousNode[b2] = bp;
+        return b2;
+    }
+
+    private int insertNode(int vertex, int last) {
+        int p = newNode(vertex);
+        if (last == NO_NODE) {
+            previousNode[p] = p;
+            nextNode[p] = p;
+        } else {
+            nextNode[p] = nextNode[last];
+            previousNode[p] = last;
+            previousNode[nextNode[last]] = p;
+            nextNode[last] = p;
+        }
+        return p;
+    }
+
+    private void removeNode(int p) {
+        nextNode[previousNode[p]] = nextNode[p];
+        previousNode[nextNode[p]] = previousNode[p];
+    }
+
+    private int newNode(int vertex) {
+        reserveNodes(nodesNumber + 1);
+        nodeVertex[nodesNumber] = vertex;
+        return nodesNumber++;
+    }
+
+    private void addTriangle(int a, int b, int c) {
+        reserveTriangles(trianglesLength + 3);
+        triangles[trianglesLength++] = nodeVertex[a];
+        triangles[trianglesLength++] = nodeVertex[b];
+        triangles[trianglesLength++] = nodeVertex[c];
+    }
+
+    private float x(int node) {
+        return vertices[2 * nodeVertex[node]];
+    }
+
+    private float y(int node) {
+        return vertices[2 * nodeVertex[node] + 1];
+    }
+}
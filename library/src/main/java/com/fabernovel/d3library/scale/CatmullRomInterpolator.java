@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Catmull-Rom spline: the slope at each point is the one of the line going through its two
+ * neighbours.
+ */
+public class CatmullRomInterpolator extends SplineInterpolator {
+    @Override void computeSlopes(
+        @NonNull float[] x, @NonNull float[] y, int size, @NonNull float[] slopes,
+        @NonNull float[] scratch
+    ) {
+        slopes[0] = SplineInterpolator.secant(x, y, 0);
+        slopes[size - 1] = SplineInterpolator.secant(x, y, size - 2);
+        for (int i = 1; i < size - 1; i++) {
+            slopes[i] = (y[i + 1] - y[i - 1]) / (x[i + 1] - x[i - 1]);
+        }
+    }
+}
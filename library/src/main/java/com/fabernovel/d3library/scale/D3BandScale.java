@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.fabernovel.d3library.axes.D3RangeFunction;
+
+/**
+ * Scale dividing its range into uniform bands, one per index, like a d3 band scale. The bands
+ * are separated by the inner padding and the outer padding is left before the first one and
+ * after the last one, both expressed as fractions of the step between two bands.
+ */
+@SuppressWarnings("unused") public class D3BandScale {
+    private static final String RANGE_ERROR = "Range should not be null";
+    private static final String PADDING_ERROR = "Padding should be between 0 and 1";
+
+    private int bandsNumber;
+    @Nullable private D3RangeFunction range;
+    private float paddingInner;
+    private float paddingOuter;
+    private float align = 0.5F;
+
+    public D3BandScale() {
+    }
+
+    public D3BandScale(int bandsNumber) {
+        this.bandsNumber = bandsNumber;
+    }
+
+    public D3BandScale(int bandsNumber, @Nullable float[] range) {
+        this.bandsNumber = bandsNumber;
+        if (range != null) {
+            range(range);
+        }
+    }
+
+    /**
+     * Returns the number of bands.
+     */
+    public int bandsNumber() {
+        return bandsNumber;
+    }
+
+    /**
+     * Sets the number of bands.
+     */
+    public D3BandScale bandsNumber(int bandsNumber) {
+        this.bandsNumber = bandsNumber;
+        return this;
+    }
+
+    /**
+     * Returns the range of the Scale.
+     */
+    @Nullable public float[] range() {
+        return range != null ? range.getRange() : null;
+    }
+
+    /**
+     * Sets the range of the Scale.
+     */
+    public D3BandScale range(@NonNull final float[] range) {
+        return range(new D3RangeFunction() {
+            @Override @NonNull public float[] getRange() {
+                return range;
+            }
+        });
+    }
+
+    /**
+     * Sets the range of the Scale.
+     */
+    public D3BandScale range(@Nullable D3RangeFunction range) {
+        this.range = range;
+        return this;
+    }
+
+    /**
+     * Returns the padding between two bands.
+     */
+    public float paddingInner() {
+        return paddingInner;
+    }
+
+    /**
+     * Sets the padding between two bands, as a fraction of the step.
+     */
+    public D3BandScale paddingInner(float paddingInner) {
+        if (paddingInner < 0F || paddingInner > 1F) {
+            throw new IllegalStateException(PADDING_ERROR);
+        }
+        this.paddingInner = paddingInner;
+        return this;
+    }
+
+    /**
+     * Returns the padding before the first band and after the last one.
+     */
+    public float paddingOuter() {
+        return paddingOuter;
+    }
+
+    /**
+     * Sets the padding before the first band and after the last one, as a fraction of the step.
+     */
+    public D3BandScale paddingOuter(float paddingOuter) {
+        if (paddingOuter < 0F) {
+            throw new IllegalStateException(PADDING_ERROR);
+        }
+        this.paddingOuter = paddingOuter;
+        return this;
+    }
+
+    /**
+     * Sets both the inner and the outer paddings.
+     */
+    public D3BandScale padding(float padding) {
+        paddingInner(padding);
+        return paddingOuter(padding);
+    }
+
+    /**
+     * Returns how the outer space is distributed: 0 puts it after the bands, 1 before them.
+     */
+    public float align() {
+        return align;
+    }
+
+    /**
+     * Sets how the outer space is distributed: 0 puts it after the bands, 1 before them.
+     */
+    public D3BandScale align(float align) {
+        this.align = Math.max(0F, Math.min(1F, align));
+        return this;
+    }
+
+    /**
+     * Returns the distance between the starts of two adjacent bands.
+     */
+    public float step() {
+        float[] computedRange = computedRange();
+        return step(computedRange[0], computedRange[computedRange.length - 1]);
+    }
+
+    /**
+     * Returns the width of a band.
+     */
+    public float bandwidth() {
+        return step() * (1F - paddingInner);
+    }
+
+    /**
+     * Returns the start of the band at the index.
+     */
+    public float value(int index) {
+        float[] computedRange = computedRange();
+        float start = computedRange[0];
+        float stop = computedRange[computedRange.length - 1];
+        float step = step(start, stop);
+        return start + (stop - start - step * (bandsNumber - paddingInner)) * align
+            + step * index;
+    }
+
+    /**
+     * Writes the starts of all the bands into the result, which is returned if large enough, and
+     * replaced otherwise.
+     */
+    @NonNull public float[] values(@Nullable float[] result) {
+        float[] values = result != null && result.length >= bandsNumber ?
+            result : new float[bandsNumber];
+        float[] computedRange = computedRange();
+        float start = computedRange[0];
+        float stop = computedRange[computedRange.length - 1];
+        float step = step(start, stop);
+        float first = start + (stop - start - step * (bandsNumber - paddingInner)) * align;
+        for (int i = 0; i < bandsNumber; i++) {
+            values[i] = first + step * i;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the index of the band containing the coordinate, or -1 if it is outside every band.
+     */
+    public int invert(float coordinate) {
+        float step = step();
+        if (step == 0F) {
+            return -1;
+        }
+        float offset = coordinate - value(0);
+        int index = (int) Math.floor(offset / step);
+        if (index < 0 || index >= bandsNumber) {
+            return -1;
+        }
+        float inBand = offset - index * step;
+        return inBand * Math.signum(step) <= Math.abs(step) * (1F - paddingInner) ? index : -1;
+    }
+
+    private float step(float start, float stop) {
+        return (stop - start) / Math.max(1F, bandsNumber - paddingInner + 2F * paddingOuter);
+    }
+
+    @NonNull private float[] computedRange() {
+        float[] computedRange = range();
+        if (computedRange == null || computedRange.length == 0) {
+            throw new IllegalStateException(RANGE_ERROR);
+        }
+        return computedRange;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+/**
+ * Converter which also gives the domain values in double precision. Floats only represent
+ * timestamps in milliseconds to about two minutes, so Scales using this converter compute their
+ * linear projection from the double values, and columns of long or double values keep their
+ * precision.
+ */
+public interface D3DoubleConverter<T> extends D3Converter<T> {
+    /**
+     * Returns the value converted in double precision, which {@link #convert(Object)} returns
+     * rounded to float.
+     */
+    double convertDouble(T toConvert);
+}
@@ -21,15 +21,22 @@ import android.support.annotation.Nullable;
 
 import com.fabernovel.d3library.axes.D3DomainFunction;
 import com.fabernovel.d3library.axes.D3RangeFunction;
+import com.fabernovel.d3library.data.D3Column;
 
 @SuppressWarnings("unused") public class D3Scale<T> {
     private static final int DEFAULT_TICK_NUMBER = 10;
     private static final String DOMAIN_ERROR = "Domain should not be null";
     private static final String CONVERTER_ERROR = "Converter should not be null";
+    private static final String INVERT_ERROR = "Domain and range should not be null";
 
     @Nullable private D3DomainFunction<T> domain;
-    private float[] domainArray;
     @Nullable private D3RangeFunction range;
+    @Nullable private volatile ScaleTransform transform;
+    /* Incremented each time the domain, the range, the interpolator or the converter is set */
+    private volatile long version;
+    /* Whether the domain or the range is given by a function, whose values may change anytime */
+    private volatile boolean dynamicDomain;
+    private volatile boolean dynamicRange;
 
     @NonNull private Interpolator interpolator;
     @Nullable private D3Converter<T> converter;
@@ -80,23 +87,19 @@ import com.fabernovel.d3library.axes.D3RangeFunction;
             domain(new WrapperDomainFunction<>(domain));
         } else {
             ((WrapperDomainFunction<T>)this.domain).setData(domain);
-            AdaptDomainArrayLength(this.domain);
+            version++;
         }
         return this;
     }
 
-    private void AdaptDomainArrayLength(@Nullable D3DomainFunction<T> domain) {
-        if (domainArray == null || domainArray.length != domain.getRange().length) {
-            domainArray = new float[domain.getRange().length];
-        }
-    }
-
     /**
-     * Sets the domain of the Scale.
+     * Sets the domain of the Scale. The function is called and its values are converted at each
+     * projection, to know if they changed.
      */
     public D3Scale<T> domain(@Nullable D3DomainFunction<T> domain) {
         this.domain = domain;
-        AdaptDomainArrayLength(domain);
+        dynamicDomain = domain != null && !(domain instanceof WrapperDomainFunction);
+        version++;
         return this;
     }
 
@@ -104,51 +107,87 @@ import com.fabernovel.d3library.axes.D3RangeFunction;
      * Returns the range of the Scale.
      */
     @Nullable public float[] range() {
-        return range.getRange();
+        return range != null ? range.getRange() : null;
     }
 
-    @Nullable private float[] domainFloatValue() {
+    /**
+     * Returns the transform compiled from the current domain, range, interpolator and converter.
+     * It is compiled again only when one of them was set, or when the values of a domain or
+     * range function changed.
+     */
+    @NonNull private ScaleTransform transform() {
         if (domain == null) {
-            return domainArray;
+            throw new IllegalStateException(DOMAIN_ERROR);
         }
         if (converter == null) {
             throw new IllegalStateException(CONVERTER_ERROR);
         }
-        T[] computedDomain = domain.getRange();
-        for (int i = 0; i < computedDomain.length; i++) {
-            domainArray[i] = converter.convert(computedDomain[i]);
+        long currentVersion = version;
+        ScaleTransform current = transform;
+        if (current == null || current.version != currentVersion
+            || dynamicDomain && !current.matchesDomain(domain.getRange(), converter)
+            || dynamicRange && !current.matchesRange(range())) {
+            current = new ScaleTransform(
+                domain.getRange(), range(), interpolator, converter, currentVersion
+            );
+            transform = current;
         }
-        return domainArray;
+        return current;
+    }
+
+    /**
+     * Makes the Scale take its domain and range into account again at the next projection. It
+     * must be called after modifying in place the domain or the range given as arrays, such as
+     * a Date of the domain.
+     */
+    public D3Scale<T> invalidate() {
+        version++;
+        return this;
     }
 
     /**
      * Sets the range of the Scale.
      */
     public D3Scale<T> range(@NonNull final float[] range) {
-        range(new D3RangeFunction() {
+        setRange(new D3RangeFunction() {
             private float[] data = range;
 
             @Override @Nullable public float[] getRange() {
                 return data;
             }
-        });
+        }, false);
         return this;
     }
 
     /**
-     * Sets the range of the Scale.
+     * Sets the range of the Scale. The function is called at each projection, to know if its
+     * values changed.
      */
     public D3Scale<T> range(@Nullable D3RangeFunction range) {
-        this.range = range;
+        setRange(range, range != null);
         return this;
     }
 
+    private void setRange(@Nullable D3RangeFunction range, boolean dynamic) {
+        this.range = range;
+        dynamicRange = dynamic;
+        version++;
+    }
+
+
+    /**
+     * Returns the interpolator.
+     */
+    @NonNull public Interpolator interpolator() {
+        return interpolator;
+    }
 
     /**
      * Sets the interpolator.
      */
     public D3Scale<T> interpolator(@NonNull Interpolator interpolator) {
         this.interpolator = interpolator;
+        version++;
         return this;
     }
 
@@ -156,20 +195,43 @@ import com.fabernovel.d3library.axes.D3RangeFunction;
      * Returns the float value associated to the given domain value.
      */
     public float value(@NonNull T domainValue) {
-        if (domain == null) {
-            throw new IllegalStateException(DOMAIN_ERROR);
-        }
-        if (converter == null) {
-            throw new IllegalStateException(CONVERTER_ERROR);
-        }
-        if (range == null) {
-            return converter.convert(domainValue);
+        ScaleTransform compiled = transform();
+        return compiled.value(ScaleTransform.convert(converter, domainValue));
+    }
+
+    /**
+     * Returns the float value associated to a domain value already converted to float.
+     */
+    public float convertedValue(double convertedDomainValue) {
+        return transform().value(convertedDomainValue);
+    }
+
+    /**
+     * Writes into the destination, from the index from (inclusive) to the index to
+     * (exclusive), the float values associated to the domain values of the source, already
+     * converted to float.
+     */
+    public void value(@NonNull float[] source, @NonNull float[] destination, int from, int to) {
+        transform().values(source, destination, from, to);
+    }
+
+    /**
+     * Writes into the result the float values associated to the values of the column, which
+     * are domain values already converted to float. With a linear interpolator, the values are
+     * projected in a single loop, without calling the interpolator for each value. Long and
+     * double values keep their precision if the converter is a {@link D3DoubleConverter}.
+     */
+    public void values(@NonNull D3Column column, @NonNull float[] result) {
+        ScaleTransform compiled = transform();
+        if (compiled.range == null) {
+            column.copyTo(result);
+        } else if (compiled.affine) {
+            column.project(compiled.origin, compiled.factor, compiled.offset, result);
+        } else {
+            for (int i = 0; i < column.length(); i++) {
+                result[i] = compiled.value(column.doubleValue(i));
+            }
         }
-        return interpolator.interpolate(
-            converter.convert(domainValue),
-            domainFloatValue(),
-            range()
-        );
     }
 
     /**
@@ -177,17 +239,22 @@ import com.fabernovel.d3library.axes.D3RangeFunction;
      */
     @NonNull public T invert(float rangeValue) {
         if (domain == null || range == null) {
-            throw new IllegalStateException("Domain and range should not be null");
+            throw new IllegalStateException(INVERT_ERROR);
         }
-        if (converter == null) {
-            throw new IllegalStateException(CONVERTER_ERROR);
+        ScaleTransform compiled = transform();
+        return converter.invert(compiled.invert(rangeValue));
+    }
+
+    /**
+     * Writes into the destination, from the index from (inclusive) to the index to
+     * (exclusive), the domain values converted to float associated to the range values of the
+     * source.
+     */
+    public void invert(@NonNull float[] source, @NonNull float[] destination, int from, int to) {
+        if (domain == null || range == null) {
+            throw new IllegalStateException(INVERT_ERROR);
         }
-        float interpolation = interpolator.interpolate(
-            rangeValue,
-            range(),
-            domainFloatValue()
-        );
-        return converter.invert(interpolation);
+        transform().inverts(source, destination, from, to);
     }
 
     /**
@@ -195,6 +262,7 @@ import com.fabernovel.d3library.axes.D3RangeFunction;
      */
     public D3Scale<T> converter(@NonNull D3Converter<T> converter) {
         this.converter = converter;
+        version++;
         return this;
     }
 
@@ -232,10 +300,7 @@ import com.fabernovel.d3library.axes.D3RangeFunction;
      * Returns uniformly spaced float domain values.
      */
     public float[] ticks(int count, float[] result) {
-        if (domain == null) {
-            throw new IllegalStateException(DOMAIN_ERROR);
-        }
-        float[] computedDomain = domainFloatValue();
+        float[] computedDomain = transform().domain;
         if (count == 1) {
             result[0] = (computedDomain[0] + computedDomain[computedDomain.length - 1]) / 2;
             return result;
@@ -253,13 +318,7 @@ import com.fabernovel.d3library.axes.D3RangeFunction;
      * Returns the labels of uniformly spaced float domain values.
      */
     public String[] ticksLegend(int count, String[] result) {
-        if (domain == null) {
-            throw new IllegalStateException(DOMAIN_ERROR);
-        }
-        if (converter == null) {
-            throw new IllegalStateException(CONVERTER_ERROR);
-        }
-        float[] computedDomain = domainFloatValue();
+        float[] computedDomain = transform().domain;
 
         if (count == 1) {
             result[0] = labelFunction.getLabel(converter.invert(
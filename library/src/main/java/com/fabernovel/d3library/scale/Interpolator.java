@@ -16,6 +16,11 @@
 
 package com.fabernovel.d3library.scale;
 
+/**
+ * Interpolates a value between two points. Unless
+ * {@link com.fabernovel.d3library.D3Drawable#parallelMappers(boolean)} is enabled on the Drawable
+ * using it, it is never called on several threads at once.
+ */
 public interface Interpolator {
     float interpolate(
         float initialValue, float[] initialScope, float[] destinationScope
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Monotone cubic spline (Fritsch-Carlson): the curve does not overshoot the points, it is
+ * monotone wherever the data is.
+ */
+public class MonotoneSplineInterpolator extends SplineInterpolator {
+    @Override void computeSlopes(
+        @NonNull float[] x, @NonNull float[] y, int size, @NonNull float[] slopes,
+        @NonNull float[] scratch
+    ) {
+        for (int i = 0; i < size - 1; i++) {
+            scratch[i] = SplineInterpolator.secant(x, y, i);
+        }
+        slopes[0] = scratch[0];
+        slopes[size - 1] = scratch[size - 2];
+        for (int i = 1; i < size - 1; i++) {
+            slopes[i] = scratch[i - 1] * scratch[i] <= 0F ? 0F : (scratch[i - 1] + scratch[i]) / 2F;
+        }
+        for (int i = 0; i < size - 1; i++) {
+            if (scratch[i] == 0F) {
+                slopes[i] = 0F;
+                slopes[i + 1] = 0F;
+                continue;
+            }
+            float alpha = slopes[i] / scratch[i];
+            float beta = slopes[i + 1] / scratch[i];
+            float norm = alpha * alpha + beta * beta;
+            if (norm > 9F) {
+                float tau = 3F / (float) Math.sqrt(norm);
+                slopes[i] = tau * alpha * scratch[i];
+                slopes[i + 1] = tau * beta * scratch[i];
+            }
+        }
+    }
+}
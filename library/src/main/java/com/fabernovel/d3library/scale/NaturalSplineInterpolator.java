@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Natural cubic spline: the curve and its first two derivatives are continuous and the second
+ * derivative is null at both ends. The slopes are the solution of a tridiagonal system.
+ */
+public class NaturalSplineInterpolator extends SplineInterpolator {
+    @Override void computeSlopes(
+        @NonNull float[] x, @NonNull float[] y, int size, @NonNull float[] slopes,
+        @NonNull float[] scratch
+    ) {
+        /* Thomas algorithm, the modified upper diagonal is stored at the start of scratch and
+         * the modified right hand side after it. */
+        float inverseH = 1F / (x[1] - x[0]);
+        float secant = SplineInterpolator.secant(x, y, 0);
+        scratch[0] = 0.5F;
+        scratch[size] = 1.5F * secant;
+        for (int i = 1; i < size; i++) {
+            float lower = inverseH;
+            float diagonal = 2F * inverseH;
+            float upper = 0F;
+            float rightHandSide = 3F * secant * inverseH;
+            if (i < size - 1) {
+                inverseH = 1F / (x[i + 1] - x[i]);
+                secant = SplineInterpolator.secant(x, y, i);
+                diagonal += 2F * inverseH;
+                upper = inverseH;
+                rightHandSide += 3F * secant * inverseH;
+            }
+            float denominator = diagonal - lower * scratch[i - 1];
+            scratch[i] = upper / denominator;
+            scratch[size + i] = (rightHandSide - lower * scratch[size + i - 1]) / denominator;
+        }
+        slopes[size - 1] = scratch[2 * size - 1];
+        for (int i = size - 2; i >= 0; i--) {
+            slopes[i] = scratch[size + i] - scratch[i] * slopes[i + 1];
+        }
+    }
+}
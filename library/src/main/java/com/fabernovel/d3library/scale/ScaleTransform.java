@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Domain, range and interpolator of a Scale compiled once for all the values to project.
+ * With a linear interpolator, a value is projected as offset + factor * (value - origin), the
+ * origin and the factor being computed in double precision with a {@link D3DoubleConverter}.
+ */
+final class ScaleTransform {
+    @NonNull private final double[] preciseDomain;
+    @NonNull final float[] domain;
+    @Nullable final float[] range;
+    @NonNull private final Interpolator interpolator;
+    @NonNull private final D3Converter<?> converter;
+    /* Version of the Scale the transform was compiled from */
+    final long version;
+
+    final boolean affine;
+    final double origin;
+    final double factor;
+    final double offset;
+    private final double inverseFactor;
+
+    <T> ScaleTransform(
+        @NonNull T[] domainValues,
+        @Nullable float[] range,
+        @NonNull Interpolator interpolator,
+        @NonNull D3Converter<T> converter,
+        long version
+    ) {
+        this.range = range == null ? null : range.clone();
+        this.interpolator = interpolator;
+        this.converter = converter;
+        this.version = version;
+        domain = new float[domainValues.length];
+        preciseDomain = new double[domainValues.length];
+        for (int i = 0; i < domainValues.length; i++) {
+            preciseDomain[i] = convert(converter, domainValues[i]);
+            domain[i] = (float) preciseDomain[i];
+        }
+        affine = interpolator instanceof LinearInterpolator && this.range != null
+            && domain.length >= 2 && this.range.length >= 2;
+        if (affine) {
+            origin = preciseDomain[0];
+            offset = this.range[0];
+            factor = this.range[0] == this.range[1] ? 0D :
+                ((double) this.range[1] - this.range[0]) / (preciseDomain[1] - preciseDomain[0]);
+            inverseFactor = preciseDomain[0] == preciseDomain[1] ? 0D :
+                (preciseDomain[1] - preciseDomain[0]) / ((double) this.range[1] - this.range[0]);
+        } else {
+            origin = 0D;
+            offset = 0D;
+            factor = 1D;
+            inverseFactor = 1D;
+        }
+    }
+
+    /**
+     * Returns true if the transform was compiled from these domain values, compared once
+     * converted.
+     */
+    <T> boolean matchesDomain(@NonNull T[] domainValues, @NonNull D3Converter<T> converter) {
+        if (domainValues.length != preciseDomain.length) {
+            return false;
+        }
+        for (int i = 0; i < domainValues.length; i++) {
+            if (Double.compare(convert(converter, domainValues[i]), preciseDomain[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the transform was compiled from these range values.
+     */
+    boolean matchesRange(@Nullable float[] range) {
+        if (range == null || this.range == null) {
+            return range == this.range;
+        }
+        if (range.length != this.range.length) {
+            return false;
+        }
+        for (int i = 0; i < range.length; i++) {
+            if (Float.compare(range[i], this.range[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the domain value converted in double precision if the converter supports it.
+     */
+    static <T> double convert(@NonNull D3Converter<T> converter, T domainValue) {
+        if (converter instanceof D3DoubleConverter) {
+            return ((D3DoubleConverter<T>) converter).convertDouble(domainValue);
+        }
+        return converter.convert(domainValue);
+    }
+
+    float value(double convertedDomainValue) {
+        if (range == null) {
+            return (float) convertedDomainValue;
+        }
+        if (affine) {
+            return (float) (offset + factor * (convertedDomainValue - origin));
+        }
+        return interpolator.interpolate((float) convertedDomainValue, domain, range);
+    }
+
+    void values(@NonNull float[] source, @NonNull float[] destination, int from, int to) {
+        if (range == null) {
+            System.arraycopy(source, from, destination, from, to - from);
+        } else if (affine) {
+            for (int i = from; i < to; i++) {
+                destination[i] = (float) (offset + factor * (source[i] - origin));
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                destination[i] = interpolator.interpolate(source[i], domain, range);
+            }
+        }
+    }
+
+    float invert(float rangeValue) {
+        if (affine) {
+            return (float) (origin + inverseFactor * (rangeValue - offset));
+        }
+        return interpolator.interpolate(rangeValue, range, domain);
+    }
+
+    void inverts(@NonNull float[] source, @NonNull float[] destination, int from, int to) {
+        if (affine) {
+            for (int i = from; i < to; i++) {
+                destination[i] = (float) (origin + inverseFactor * (source[i] - offset));
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                destination[i] = interpolator.interpolate(source[i], range, domain);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Piecewise cubic Hermite curve going through the points given to a {@link SplineInterpolator}.
+ * Each segment is found with a binary search. Outside of the points, the curve is extended
+ * linearly with the slope of the nearest point.
+ */
+public final class Spline {
+    @NonNull float[] x = new float[0];
+    @NonNull float[] y = new float[0];
+    @NonNull float[] slopes = new float[0];
+    @NonNull float[] scratch = new float[0];
+    int size;
+
+    /**
+     * Returns the number of points of the Spline.
+     */
+    public int size() {
+        return size;
+    }
+
+    void setPoints(@NonNull float[] xData, @NonNull float[] yData, int size) {
+        if (x.length < size) {
+            x = new float[size];
+            y = new float[size];
+            slopes = new float[size];
+            scratch = new float[2 * size];
+        }
+        System.arraycopy(xData, 0, x, 0, size);
+        System.arraycopy(yData, 0, y, 0, size);
+        this.size = size;
+    }
+
+    /**
+     * Returns the value of the Spline at the horizontal coordinate given.
+     */
+    public float value(float measuredX) {
+        if (size < 2) {
+            return size == 0 ? Float.NaN : y[0];
+        }
+        return value(measuredX, segment(measuredX));
+    }
+
+    /**
+     * Writes into the destination, from the index from (inclusive) to the index to
+     * (exclusive), the values of the Spline at the horizontal coordinates of the source. When
+     * the source is sorted, the segment of each coordinate is found without searching.
+     */
+    public void values(@NonNull float[] source, @NonNull float[] destination, int from, int to) {
+        if (size < 2) {
+            Arrays.fill(destination, from, to, size == 0 ? Float.NaN : y[0]);
+            return;
+        }
+        int segment = 0;
+        for (int i = from; i < to; i++) {
+            float measuredX = source[i];
+            if (segment < size - 2 && measuredX >= x[segment + 1]
+                && (segment == size - 3 || measuredX < x[segment + 2])) {
+                segment++;
+            } else if (measuredX < x[segment]
+                || segment < size - 2 && measuredX >= x[segment + 1]) {
+                segment = segment(measuredX);
+            }
+            destination[i] = value(measuredX, segment);
+        }
+    }
+
+    /**
+     * Returns the index of the last point whose coordinate is lower than the one given,
+     * between 0 and size - 2.
+     */
+    private int segment(float measuredX) {
+        int low = 0;
+        int high = size - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (x[middle] <= measuredX) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private float value(float measuredX, int segment) {
+        if (measuredX <= x[0]) {
+            return y[0] + slopes[0] * (measuredX - x[0]);
+        }
+        if (measuredX >= x[size - 1]) {
+            return y[size - 1] + slopes[size - 1] * (measuredX - x[size - 1]);
+        }
+        float h = x[segment + 1] - x[segment];
+        float t = (measuredX - x[segment]) / h;
+        float t2 = t * t;
+        float t3 = t2 * t;
+        return (2 * t3 - 3 * t2 + 1) * y[segment]
+            + (t3 - 2 * t2 + t) * h * slopes[segment]
+            + (3 * t2 - 2 * t3) * y[segment + 1]
+            + (t3 - t2) * h * slopes[segment + 1];
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Interpolator going through all the given points with a cubic {@link Spline}. The horizontal
+ * coordinates should be strictly increasing.
+ * <p>
+ * The coefficients are computed in O(n) by {@link #fit(float[], float[], Spline)}, which
+ * should be called once per data set when many values are interpolated. A single call to
+ * {@link #interpolate(float, float[], float[])} fits the whole data set again.
+ */
+public abstract class SplineInterpolator implements Interpolator {
+    @NonNull private final Spline spline = new Spline();
+
+    SplineInterpolator() {
+    }
+
+    /**
+     * Returns a Spline going through the points given. The spare Spline is reused if given.
+     */
+    @NonNull public Spline fit(
+        @NonNull float[] xData, @NonNull float[] yData, @Nullable Spline spare
+    ) {
+        Spline result = spare != null ? spare : new Spline();
+        int size = Math.min(xData.length, yData.length);
+        result.setPoints(xData, yData, size);
+        if (size >= 2) {
+            computeSlopes(result.x, result.y, size, result.slopes, result.scratch);
+        } else if (size == 1) {
+            result.slopes[0] = 0F;
+        }
+        return result;
+    }
+
+    @Override public synchronized float interpolate(
+        float initialValue, float[] initialScope, float[] destinationScope
+    ) {
+        return fit(initialScope, destinationScope, spline).value(initialValue);
+    }
+
+    /**
+     * Writes into slopes the derivative of the curve at each of the size points, size being at
+     * least 2. The scratch array can hold 2 * size values.
+     */
+    abstract void computeSlopes(
+        @NonNull float[] x, @NonNull float[] y, int size, @NonNull float[] slopes,
+        @NonNull float[] scratch
+    );
+
+    static float secant(@NonNull float[] x, @NonNull float[] y, int index) {
+        return (y[index + 1] - y[index]) / (x[index + 1] - x[index]);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of Bitmaps shared by all the Drawables. The dimensions of the Bitmaps are rounded up to a
+ * multiple of {@link #BUCKET_SIZE} pixels, so that a Bitmap released by a Drawable can be reused
+ * by another one, or by the same one after a resize.
+ */
+public final class BitmapPool {
+    public static final int BUCKET_SIZE = 64;
+    private static final long DEFAULT_MAX_POOLED_BYTES = Runtime.getRuntime().maxMemory() / 16L;
+
+    @NonNull private static final Object key = new Object();
+    @NonNull private static final Map<Long, List<Bitmap>> buckets = new HashMap<>();
+    private static long maxPooledBytes = DEFAULT_MAX_POOLED_BYTES;
+    private static long pooledBytes;
+
+    private BitmapPool() {
+    }
+
+    /**
+     * Returns a Bitmap of at least the given dimensions, reused from the pool if possible. Its
+     * content is undefined.
+     */
+    @NonNull public static Bitmap obtain(int width, int height, @NonNull Bitmap.Config config) {
+        int bucketWidth = bucket(width);
+        int bucketHeight = bucket(height);
+        synchronized (key) {
+            List<Bitmap> bitmaps = buckets.get(bucketKey(bucketWidth, bucketHeight, config));
+            if (bitmaps != null && !bitmaps.isEmpty()) {
+                Bitmap bitmap = bitmaps.remove(bitmaps.size() - 1);
+                pooledBytes -= byteCount(bitmap);
+                return bitmap;
+            }
+        }
+        return Bitmap.createBitmap(bucketWidth, bucketHeight, config);
+    }
+
+    /**
+     * Returns true if the Bitmap is the one the pool would give for these dimensions and
+     * configuration.
+     */
+    public static boolean fits(
+        @Nullable Bitmap bitmap, int width, int height, @NonNull Bitmap.Config config
+    ) {
+        return bitmap != null
+            && bitmap.getConfig() == config
+            && bitmap.getWidth() == bucket(width)
+            && bitmap.getHeight() == bucket(height);
+    }
+
+    /**
+     * Gives back a Bitmap which is not used anymore. It is kept only if the pool is not full.
+     */
+    public static void release(@Nullable Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || bitmap.getConfig() == null) {
+            return;
+        }
+        long bytes = byteCount(bitmap);
+        synchronized (key) {
+            if (pooledBytes + bytes > maxPooledBytes) {
+                return;
+            }
+            Long bucketKey = bucketKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+            List<Bitmap> bitmaps = buckets.get(bucketKey);
+            if (bitmaps == null) {
+                bitmaps = new ArrayList<>();
+                buckets.put(bucketKey, bitmaps);
+            }
+            bitmaps.add(bitmap);
+            pooledBytes += bytes;
+        }
+    }
+
+    /**
+     * Sets the maximum number of bytes of unused Bitmaps kept by the pool. By default, it is a
+     * sixteenth of the maximum memory of the application.
+     */
+    public static void setMaxPooledBytes(long maxPooledBytes) {
+        synchronized (key) {
+            BitmapPool.maxPooledBytes = maxPooledBytes;
+            if (pooledBytes > maxPooledBytes) {
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Drops all the unused Bitmaps, for instance when the application is asked to trim its
+     * memory.
+     */
+    public static void clear() {
+        synchronized (key) {
+            buckets.clear();
+            pooledBytes = 0L;
+        }
+    }
+
+    private static int bucket(int size) {
+        return Math.max((size + BUCKET_SIZE - 1) / BUCKET_SIZE, 1) * BUCKET_SIZE;
+    }
+
+    private static long bucketKey(int width, int height, @NonNull Bitmap.Config config) {
+        return ((long) config.ordinal() << 48) | ((long) width << 24) | height;
+    }
+
+    private static long byteCount(@NonNull Bitmap bitmap) {
+        return (long) bitmap.getRowBytes() * bitmap.getHeight();
+    }
+}
@@ -18,20 +18,106 @@ package com.fabernovel.d3library.threading;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Draws into a Bitmap covering only the bounding box of the drawing, taken from the
+ * {@link BitmapPool}. Child classes call one of the prepareBitmap methods before drawing on the
+ * {@link #canvas}, which then uses the coordinates of the view.
+ */
+public abstract class BitmapValueRunnable extends ValueRunnable<BoundedBitmap> {
+    /**
+     * Margin added around the bounds of a path, for antialiasing.
+     */
+    private static final float BOUNDS_MARGIN = 1F;
 
-public abstract class BitmapValueRunnable extends ValueRunnable<Bitmap> {
     @NonNull protected final Canvas canvas;
+    @NonNull private final RectF bounds = new RectF();
+    @NonNull private Bitmap.Config config = Bitmap.Config.ARGB_8888;
+    private float width;
+    private float height;
 
     protected BitmapValueRunnable() {
         canvas = new Canvas();
-        resizeBitmap(1F, 1F);
+        value = new BoundedBitmap();
     }
 
+    /**
+     * Sets the dimensions of the view, out of which nothing is drawn.
+     */
     public void resizeBitmap(float width, float height) {
         synchronized (key) {
-            value = Bitmap.createBitmap((int) width, (int) height, Bitmap.Config.ARGB_8888);
-            canvas.setBitmap(value);
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Sets the configuration of the bitmap. ALPHA_8 only keeps the coverage of the drawing and
+     * is drawn with the color of the paint of the Drawable. RGB_565 has no transparency: its
+     * bounding box is filled with white. By default, ARGB_8888 is used.
+     */
+    public void bitmapConfig(@NonNull Bitmap.Config config) {
+        synchronized (key) {
+            this.config = config;
+        }
+    }
+
+    /**
+     * Prepares an empty bitmap covering the bounding box of the path drawn with the paint.
+     */
+    protected final void prepareBitmap(@NonNull Path path, @NonNull Paint paint) {
+        path.computeBounds(bounds, true);
+        float margin = BOUNDS_MARGIN;
+        if (paint.getStyle() != Paint.Style.FILL) {
+            margin += paint.getStrokeWidth() / 2F;
         }
+        bounds.inset(-margin, -margin);
+        prepareBitmap(bounds);
+    }
+
+    /**
+     * Prepares an empty bitmap covering the bounds, clipped to the view.
+     */
+    protected final void prepareBitmap(@NonNull RectF bounds) {
+        prepareBitmap(bounds.left, bounds.top, bounds.right, bounds.bottom);
+    }
+
+    /**
+     * Prepares an empty bitmap covering the bounds, clipped to the view.
+     */
+    protected final void prepareBitmap(float left, float top, float right, float bottom) {
+        int clippedLeft = (int) Math.max(Math.floor(left), 0F);
+        int clippedTop = (int) Math.max(Math.floor(top), 0F);
+        int clippedRight = (int) Math.min(Math.ceil(right), Math.ceil(width));
+        int clippedBottom = (int) Math.min(Math.ceil(bottom), Math.ceil(height));
+        int bitmapWidth = Math.max(clippedRight - clippedLeft, 1);
+        int bitmapHeight = Math.max(clippedBottom - clippedTop, 1);
+
+        Bitmap bitmap = value.bitmap;
+        if (!BitmapPool.fits(bitmap, bitmapWidth, bitmapHeight, config)) {
+            BitmapPool.release(bitmap);
+            bitmap = BitmapPool.obtain(bitmapWidth, bitmapHeight, config);
+            value.bitmap = bitmap;
+        }
+        bitmap.eraseColor(bitmap.hasAlpha() ? Color.TRANSPARENT : Color.WHITE);
+        value.left = clippedLeft;
+        value.top = clippedTop;
+        value.width = bitmapWidth;
+        value.height = bitmapHeight;
+
+        canvas.setBitmap(bitmap);
+        canvas.setMatrix((Matrix) null);
+        canvas.translate(-clippedLeft, -clippedTop);
+    }
+
+    @Override protected void recycle(@Nullable BoundedBitmap spare) {
+        value = spare == null ? new BoundedBitmap() : spare;
     }
 }
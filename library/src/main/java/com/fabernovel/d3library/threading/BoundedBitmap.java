@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Bitmap covering only the bounding box of a drawing. Its top left corner is drawn at the
+ * coordinates (left, top) of the view. Pooled bitmaps can be larger than the bounding box, so
+ * only its width and height are drawn.
+ */
+public final class BoundedBitmap {
+    @Nullable Bitmap bitmap;
+    float left;
+    float top;
+    int width;
+    int height;
+
+    @NonNull private final Rect source = new Rect();
+    @NonNull private final RectF destination = new RectF();
+
+    /**
+     * Returns the bitmap, null if nothing has been drawn yet.
+     */
+    @Nullable public Bitmap bitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Returns the abscissa of the top left corner of the bitmap in the view.
+     */
+    public float left() {
+        return left;
+    }
+
+    /**
+     * Returns the ordinate of the top left corner of the bitmap in the view.
+     */
+    public float top() {
+        return top;
+    }
+
+    /**
+     * Draws the bitmap at its position. ALPHA_8 bitmaps are drawn with the color of the paint.
+     */
+    public void draw(@NonNull Canvas canvas, @Nullable Paint paint) {
+        if (bitmap == null) {
+            return;
+        }
+        source.set(0, 0, width, height);
+        destination.set(left, top, left + width, top + height);
+        canvas.drawBitmap(
+            bitmap, source, destination,
+            bitmap.getConfig() == Bitmap.Config.ALPHA_8 ? paint : null
+        );
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * ValueStorage keeping the last committed value available while the next one is computed.
+ * When buffered, it uses three buffers: the front one is drawn, the ready one is the last
+ * committed value and the runnable computes into the third one. {@link #getLatestValue()} then
+ * never waits for a computation, except for the very first one.
+ */
+public class BufferedValueStorage<T> extends ValueStorage<T> {
+    private static final String COMPUTATION_ERROR = "The computation of the value failed";
+
+    @NonNull private final Object bufferKey = new Object();
+
+    private boolean buffered;
+    private boolean readyFresh;
+    @Nullable private T front;
+    @Nullable private T ready;
+    /* Failure of the last computation, only thrown while there is no value to draw */
+    @Nullable private RuntimeException failure;
+    private long frontGeneration;
+    private long readyGeneration;
+
+    /**
+     * Enables or disables the buffering. When disabled, {@link #getLatestValue()} behaves like
+     * {@link #getValue()}.
+     */
+    public void setBuffered(boolean buffered) {
+        synchronized (bufferKey) {
+            this.buffered = buffered;
+            front = null;
+            ready = null;
+            readyFresh = false;
+            failure = null;
+        }
+    }
+
+    @Override void commit(@NonNull ValueRunnable<T> valueRunnable, long generation) {
+        synchronized (bufferKey) {
+            if (!buffered) {
+                return;
+            }
+            T spare = ready;
+            ready = valueRunnable.getValue();
+            readyGeneration = generation;
+            readyFresh = true;
+            failure = null;
+            valueRunnable.swapBuffer(spare);
+            bufferKey.notifyAll();
+        }
+    }
+
+    @Override void invalidate() {
+        super.invalidate();
+        synchronized (bufferKey) {
+            failure = null;
+        }
+    }
+
+    @Override void fail(@NonNull RuntimeException exception) {
+        super.fail(exception);
+        synchronized (bufferKey) {
+            failure = exception;
+            bufferKey.notifyAll();
+        }
+    }
+
+    @Override void swap() {
+        synchronized (bufferKey) {
+            swapIfFresh();
+        }
+    }
+
+    private void swapIfFresh() {
+        if (!readyFresh) {
+            return;
+        }
+        T previousFront = front;
+        front = ready;
+        ready = previousFront;
+        frontGeneration = readyGeneration;
+        readyFresh = false;
+    }
+
+    /**
+     * Returns the value to draw. When buffered, it is the value made visible by the last swap,
+     * even if a newer value is being computed. Otherwise, waits for the current computation.
+     * Throws if the computation failed and there is no value to draw.
+     */
+    public T getLatestValue() {
+        synchronized (bufferKey) {
+            if (buffered) {
+                try {
+                    while (front == null) {
+                        if (readyFresh) {
+                            swapIfFresh();
+                        } else if (failure != null) {
+                            throw new IllegalStateException(COMPUTATION_ERROR, failure);
+                        } else {
+                            bufferKey.wait();
+                        }
+                    }
+                    return front;
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+        }
+        return getValue();
+    }
+
+    /**
+     * Returns the generation of the value returned by {@link #getLatestValue()} when buffered.
+     */
+    public long generation() {
+        synchronized (bufferKey) {
+            return frontGeneration;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * FrameClock aligned on the display vsync. It must be created on a thread owning a Looper,
+ * usually the main thread.
+ */
+public class ChoreographerFrameClock implements FrameClock {
+    private static final float DEFAULT_REFRESH_RATE = 60F;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    @NonNull private final Choreographer choreographer;
+    private final long frameIntervalNanos;
+
+    public ChoreographerFrameClock() {
+        this(DEFAULT_REFRESH_RATE);
+    }
+
+    /**
+     * @param refreshRate The refresh rate of the display, in frames per second.
+     */
+    public ChoreographerFrameClock(float refreshRate) {
+        choreographer = Choreographer.getInstance();
+        frameIntervalNanos = (long) (NANOS_PER_SECOND /
+            (refreshRate > 0F ? refreshRate : DEFAULT_REFRESH_RATE));
+    }
+
+    @Override public void postFrame(@NonNull final FrameListener listener) {
+        choreographer.postFrameCallback(new Choreographer.FrameCallback() {
+            @Override public void doFrame(long frameTimeNanos) {
+                listener.onFrame(frameTimeNanos);
+            }
+        });
+    }
+
+    @Override public long frameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+}
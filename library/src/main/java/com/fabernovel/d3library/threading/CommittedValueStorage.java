@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * ValueStorage whose last committed value can be read without waiting, whether or not the graph
+ * is buffered. Committed values are never handed back to the runnable, so a reader can keep
+ * using one while the next one is computed.
+ */
+public class CommittedValueStorage<T> extends ValueStorage<T> {
+    @NonNull private final Object committedKey = new Object();
+
+    @Nullable private T committed;
+
+    @Override void commit(@NonNull ValueRunnable<T> valueRunnable, long generation) {
+        synchronized (committedKey) {
+            committed = valueRunnable.getValue();
+            valueRunnable.swapBuffer(null);
+        }
+    }
+
+    /**
+     * Returns the last committed value, null if none has been committed yet. It never waits
+     * for a computation, and can be called from the UI thread.
+     */
+    @Nullable public T getCommittedValue() {
+        synchronized (committedKey) {
+            return committed;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FrameClock ticking at a fixed rate on a background thread. It does not need any Looper, which
+ * makes it usable in tests or when no display is available.
+ */
+public class FixedRateFrameClock implements FrameClock {
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final long frameIntervalNanos;
+
+    /**
+     * @param frameIntervalMillis The duration between two frames, in milliseconds.
+     */
+    public FixedRateFrameClock(long frameIntervalMillis) {
+        frameIntervalNanos = frameIntervalMillis * NANOS_PER_MILLI;
+    }
+
+    @Override public void postFrame(@NonNull final FrameListener listener) {
+        long now = System.nanoTime();
+        long delay = frameIntervalNanos - now % frameIntervalNanos;
+        ThreadPool.schedule(new Runnable() {
+            @Override public void run() {
+                listener.onFrame(System.nanoTime());
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    @Override public long frameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Source of frame ticks used by the D3View to schedule its drawing. A tick is delivered only
+ * once per call to {@link #postFrame(FrameListener)}, so an idle view does not consume any tick.
+ */
+public interface FrameClock {
+    /**
+     * Requests the listener to be called once, at the next frame.
+     */
+    void postFrame(@NonNull FrameListener listener);
+
+    /**
+     * Returns the nominal duration between two frames, in nanoseconds.
+     */
+    long frameIntervalNanos();
+
+    interface FrameListener {
+        /**
+         * @param frameTimeNanos The time at which the frame started, in nanoseconds.
+         */
+        void onFrame(long frameTimeNanos);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a loop over an index range on several threads. The range is cut into contiguous chunks
+ * starting at multiples of {@link #ALIGNMENT} indexes: chunks are sized to limit false sharing,
+ * as two threads can only write into the same cache line of a float or int array at the
+ * boundaries of their chunks. Chunks are claimed by the calling thread and by helpers of the
+ * secondary pool, so that a slow thread does not delay the others. Ranges shorter than twice
+ * the grain are run on the calling thread only.
+ * <p>
+ * An instance is meant to be owned by a single {@link ValueRunnable}: it allocates nothing once
+ * created, but only runs one loop at a time.
+ */
+public final class ParallelFor {
+    /**
+     * Default minimum number of indexes of a chunk.
+     */
+    public static final int DEFAULT_GRAIN = 512;
+    /**
+     * Grain running the whole range on the calling thread.
+     */
+    public static final int SERIAL_GRAIN = Integer.MAX_VALUE;
+    /**
+     * Number of 4-byte values in a 64-byte cache line. Array data is not aligned on cache lines,
+     * so chunk boundaries may still fall inside one.
+     */
+    public static final int ALIGNMENT = 16;
+    private static final int CHUNKS_PER_CORE = 4;
+
+    /**
+     * Body of the loop, computing the indexes from from (inclusive) to to (exclusive).
+     */
+    public interface Body {
+        void compute(int from, int to);
+    }
+
+    /* Number of chunks in the high half, index of the next chunk to claim in the low half. */
+    @NonNull private final AtomicLong chunks = new AtomicLong();
+    @NonNull private final AtomicInteger completed = new AtomicInteger();
+    @NonNull private final Runnable helper = new Runnable() {
+        @Override public void run() {
+            work();
+        }
+    };
+    @Nullable private Body body;
+    private int length;
+    private int chunkSize;
+    private int chunksNumber;
+    @Nullable private volatile Throwable failure;
+
+    /**
+     * Returns {@link #DEFAULT_GRAIN} if the body can run on several threads at once,
+     * {@link #SERIAL_GRAIN} otherwise.
+     */
+    public static int grain(boolean parallel) {
+        return parallel ? DEFAULT_GRAIN : SERIAL_GRAIN;
+    }
+
+    /**
+     * See {@link #run(int, int, Body)}. Uses {@link #DEFAULT_GRAIN}.
+     */
+    public void run(int length, @NonNull Body body) {
+        run(length, DEFAULT_GRAIN, body);
+    }
+
+    /**
+     * Calls the body on chunks covering the indexes from 0 to length, each chunk holding at
+     * least grain indexes, and returns once every chunk is computed.
+     */
+    public void run(int length, int grain, @NonNull Body body) {
+        if (length <= 0) {
+            return;
+        }
+        int maxChunks = Math.min(
+            length / Math.max(grain, 1), ThreadPool.CORES_NUMBER * CHUNKS_PER_CORE
+        );
+        if (maxChunks < 2) {
+            body.compute(0, length);
+            return;
+        }
+        int size = (length + maxChunks - 1) / maxChunks;
+        size = (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        int number = (length + size - 1) / size;
+
+        this.body = body;
+        this.length = length;
+        chunkSize = size;
+        chunksNumber = number;
+        completed.set(0);
+        chunks.set((long) number << 32);
+        for (int i = Math.min(number, ThreadPool.CORES_NUMBER) - 1; i > 0; i--) {
+            ThreadPool.executeOnSecondaryPool(helper);
+        }
+        work();
+
+        /* The helpers still write into the value, so the loop keeps waiting when interrupted. */
+        boolean interrupted = false;
+        synchronized (this) {
+            while (completed.get() < number) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        this.body = null;
+        Throwable error = failure;
+        if (error != null) {
+            failure = null;
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw new RuntimeException(error);
+        }
+    }
+
+    private void work() {
+        int chunk;
+        while ((chunk = claim()) >= 0) {
+            /* The parameters were written before the chunks were made claimable. */
+            int from = chunk * chunkSize;
+            try {
+                body.compute(from, Math.min(from + chunkSize, length));
+            } catch (Throwable error) {
+                failure = error;
+            }
+            if (completed.incrementAndGet() == chunksNumber) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a chunk not computed yet, -1 if there is none. Helpers started after
+     * the end of the loop find no chunk and return.
+     */
+    private int claim() {
+        while (true) {
+            long state = chunks.get();
+            int next = (int) state;
+            if (next >= (int) (state >>> 32)) {
+                return -1;
+            }
+            if (chunks.compareAndSet(state, state + 1)) {
+                return next;
+            }
+        }
+    }
+}
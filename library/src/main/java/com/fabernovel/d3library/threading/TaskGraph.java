@@ -0,0 +1,273 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes a set of ValueStorages depending on each other. Each node declares the storages it
+ * reads, and is only submitted to the pool once all of them are computed, so no worker thread
+ * ever waits for a sibling computation.
+ * If the graph is executed while a previous execution is still running, the previous execution
+ * is cancelled and the new one is started as soon as the running nodes return. Several
+ * executions requested meanwhile are coalesced into a single one.
+ */
+public class TaskGraph {
+    /**
+     * Beyond this number of executions cancelled in a row, the running execution is allowed to
+     * complete, so that requests faster than the computation cannot starve the drawing.
+     */
+    private static final int MAX_CONSECUTIVE_CANCELLATIONS = 2;
+    private static final String INPUT_ERROR =
+        "Inputs should be added to the graph before the nodes depending on them";
+
+    @NonNull private final List<Node<?>> nodes = new ArrayList<>();
+    @NonNull private final Object key = new Object();
+
+    private int remainingNodes;
+    private boolean running;
+    private boolean executionPending;
+    private long generation;
+    private long visibleGeneration;
+    private volatile boolean cancelled;
+    private int consecutiveCancellations;
+
+    /**
+     * Adds a node to the graph. The value of the storage will be computed by the runnable once
+     * every input storage has been computed. Inputs must already be part of the graph.
+     */
+    public <T> TaskGraph add(
+        @NonNull ValueStorage<T> storage,
+        @NonNull ValueRunnable<T> runnable,
+        @NonNull ValueStorage<?>... inputs
+    ) {
+        Node<T> node = new Node<>(storage, runnable);
+        for (ValueStorage<?> input : inputs) {
+            Node<?> inputNode = findNode(input);
+            if (inputNode == null) {
+                throw new IllegalStateException(INPUT_ERROR);
+            }
+            inputNode.successors.add(node);
+            node.inputsNumber++;
+        }
+        synchronized (key) {
+            nodes.add(node);
+        }
+        return this;
+    }
+
+    @Nullable private Node<?> findNode(@NonNull ValueStorage<?> storage) {
+        synchronized (key) {
+            for (int i = 0; i < nodes.size(); i++) {
+                if (nodes.get(i).storage == storage) {
+                    return nodes.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Launches the computation of every node of the graph.
+     */
+    public void execute() {
+        synchronized (key) {
+            if (running) {
+                executionPending = true;
+                if (!cancelled && consecutiveCancellations < MAX_CONSECUTIVE_CANCELLATIONS) {
+                    consecutiveCancellations++;
+                    cancelRunningNodes();
+                }
+                return;
+            }
+            start();
+        }
+    }
+
+    /**
+     * Nodes which have not started yet are skipped, and running ones are asked to stop. Their
+     * storages are invalidated, so that readers wait for the next execution rather than reading
+     * values of the cancelled one.
+     */
+    private void cancelRunningNodes() {
+        cancelled = true;
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.get(i).runnable.cancel();
+            nodes.get(i).storage.invalidate();
+        }
+    }
+
+    private void start() {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        running = true;
+        cancelled = false;
+        remainingNodes = nodes.size();
+        for (int i = 0; i < nodes.size(); i++) {
+            Node<?> node = nodes.get(i);
+            node.remainingInputs.set(node.inputsNumber);
+            node.inputFailed = false;
+            node.failure = null;
+            node.computed = false;
+            node.runnable.resetCancellation();
+            node.storage.invalidate();
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).inputsNumber == 0) {
+                ThreadPool.execute(nodes.get(i));
+            }
+        }
+    }
+
+    /**
+     * When a node fails, the nodes depending on it are skipped rather than waiting for a value
+     * that will never be published, and their storages fail with the same exception.
+     */
+    private void onNodeComputed(@NonNull Node<?> node, boolean computed) {
+        for (int i = 0; i < node.successors.size(); i++) {
+            Node<?> successor = node.successors.get(i);
+            if (!computed) {
+                successor.inputFailed = true;
+            }
+            if (node.failure != null) {
+                successor.failure = node.failure;
+            }
+            if (successor.remainingInputs.decrementAndGet() == 0) {
+                ThreadPool.execute(successor);
+            }
+        }
+        synchronized (key) {
+            remainingNodes--;
+            if (remainingNodes > 0) {
+                return;
+            }
+            running = false;
+            if (!cancelled) {
+                consecutiveCancellations = 0;
+                generation++;
+                for (int i = 0; i < nodes.size(); i++) {
+                    nodes.get(i).commit(generation);
+                }
+            }
+            if (executionPending) {
+                executionPending = false;
+                start();
+            }
+        }
+    }
+
+    /**
+     * Enables or disables the buffering of every {@link BufferedValueStorage} of the graph.
+     */
+    public void setBuffered(boolean buffered) {
+        synchronized (key) {
+            for (int i = 0; i < nodes.size(); i++) {
+                if (nodes.get(i).storage instanceof BufferedValueStorage) {
+                    ((BufferedValueStorage<?>) nodes.get(i).storage).setBuffered(buffered);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes the values of the last complete execution visible to the drawing, for every
+     * {@link BufferedValueStorage} of the graph at once so that they all belong to the same
+     * execution. Returns the generation of this execution, 0 if none is complete yet.
+     */
+    public long swapBuffers() {
+        synchronized (key) {
+            for (int i = 0; i < nodes.size(); i++) {
+                nodes.get(i).storage.swap();
+            }
+            visibleGeneration = generation;
+            return visibleGeneration;
+        }
+    }
+
+    /**
+     * Returns true if an execution completed since the last call to {@link #swapBuffers()}.
+     */
+    public boolean swapPending() {
+        synchronized (key) {
+            return generation != visibleGeneration;
+        }
+    }
+
+    /**
+     * Returns the generation made visible by the last call to {@link #swapBuffers()}.
+     */
+    public long visibleGeneration() {
+        synchronized (key) {
+            return visibleGeneration;
+        }
+    }
+
+    private final class Node<T> implements Runnable {
+        @NonNull private final ValueStorage<T> storage;
+        @NonNull private final ValueRunnable<T> runnable;
+        @NonNull private final List<Node<?>> successors = new ArrayList<>();
+        @NonNull private final AtomicInteger remainingInputs = new AtomicInteger();
+        private int inputsNumber;
+        private volatile boolean inputFailed;
+        /* Exception thrown by the runnable of this node or of one of its inputs */
+        @Nullable private volatile RuntimeException failure;
+        private volatile boolean computed;
+
+        private Node(@NonNull ValueStorage<T> storage, @NonNull ValueRunnable<T> runnable) {
+            this.storage = storage;
+            this.runnable = runnable;
+        }
+
+        @Override public void run() {
+            try {
+                if (failure != null) {
+                    storage.fail(failure);
+                } else if (!inputFailed && !cancelled) {
+                    runnable.run();
+                    runnable.getSemaphore().acquire();
+                    /* The node is cancelled under the key, so it cannot publish once its storage
+                     * has been invalidated. */
+                    synchronized (key) {
+                        if (!runnable.isCancelled()) {
+                            storage.publish(runnable.getValue());
+                            computed = true;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            } catch (RuntimeException e) {
+                failure = e;
+                storage.fail(e);
+            } finally {
+                onNodeComputed(this, computed);
+            }
+        }
+
+        private void commit(long generation) {
+            if (computed) {
+                storage.commit(runnable, generation);
+            }
+        }
+    }
+}
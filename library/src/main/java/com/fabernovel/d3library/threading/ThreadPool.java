@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public final class ThreadPool {
     private static final int MIN_THREADS_NUMBER = 5;
@@ -35,6 +37,12 @@ public final class ThreadPool {
         Math.max(CORES_NUMBER + 1, MIN_THREADS_NUMBER)
     );
 
+    /**
+     * This single thread pool is only used to delay short actions, such as frame ticks.
+     */
+    private static ScheduledExecutorService scheduledExecutor =
+        Executors.newSingleThreadScheduledExecutor();
+
     private ThreadPool() {
     }
 
@@ -50,6 +58,13 @@ public final class ThreadPool {
         executor.execute(runnable);
     }
 
+    /**
+     * See {@link #scheduledExecutor}.
+     */
+    public static void schedule(Runnable runnable, long delay, TimeUnit unit) {
+        scheduledExecutor.schedule(runnable, delay, unit);
+    }
+
 
     /**
      * See {@link #secondaryExecutor}.
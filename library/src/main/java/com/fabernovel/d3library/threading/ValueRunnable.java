@@ -17,6 +17,7 @@
 package com.fabernovel.d3library.threading;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import java.util.concurrent.Semaphore;
 
@@ -26,6 +27,8 @@ public abstract class ValueRunnable<T> {
 
     protected T value;
 
+    private volatile boolean cancelled;
+
     public T getValue() {
         return value;
     }
@@ -42,4 +45,35 @@ public abstract class ValueRunnable<T> {
     }
 
     protected abstract void computeValue();
+
+    /**
+     * Returns true if the current computation has been superseded by a newer one. Long
+     * computations should check it regularly and return early: their value will be discarded.
+     */
+    protected final boolean isCancelled() {
+        return cancelled;
+    }
+
+    final void cancel() {
+        cancelled = true;
+    }
+
+    final void resetCancellation() {
+        cancelled = false;
+    }
+
+    final void swapBuffer(@Nullable T spare) {
+        synchronized (key) {
+            recycle(spare);
+        }
+    }
+
+    /**
+     * Called by a {@link BufferedValueStorage} once the value has been committed: the runnable
+     * must not write into it anymore. Runnables computing their value in place should reuse the
+     * spare buffer, which is not read anymore, or allocate a new one if it is null or does not
+     * fit. Runnables creating a new value at each computation do not need to override it.
+     */
+    protected void recycle(@Nullable T spare) {
+    }
 }
@@ -16,11 +16,24 @@
 
 package com.fabernovel.d3library.threading;
 
+import android.support.annotation.NonNull;
+
 public class ValueStorage<T> {
+    private static final String COMPUTATION_ERROR = "The computation of the value failed";
+
     private T storedValue;
+    private RuntimeException failure;
     private final Object synchronisationKey;
     private final SetValueRunnable runnable;
     private boolean initialized;
+    private long generation;
+
+    /* Those variables are used to coalesce the computation requests */
+    private ValueRunnable<T> pendingRunnable;
+    private long requestedVersion;
+    private boolean queued;
+    private boolean running;
+    private ValueRunnable<T> runningRunnable;
 
     public ValueStorage() {
         synchronisationKey = new Object();
@@ -28,13 +41,69 @@ public class ValueStorage<T> {
         runnable = new SetValueRunnable();
     }
 
+    /**
+     * Launches the computation of the value. Requests are coalesced: a request superseded before
+     * it starts is dropped, and a running computation superseded by a new request is cancelled,
+     * so only the value of the latest request is ever published.
+     */
     public void setValue(final ValueRunnable<T> valueRunnable) {
+        synchronized (synchronisationKey) {
+            invalidate();
+            pendingRunnable = valueRunnable;
+            requestedVersion++;
+            if (running) {
+                runningRunnable.cancel();
+            }
+            if (queued || running) {
+                return;
+            }
+            queued = true;
+        }
+        ThreadPool.execute(runnable);
+    }
+
+    /**
+     * Marks the stored value as being recomputed: readers will wait for {@link #publish(Object)}.
+     */
+    void invalidate() {
         synchronized (synchronisationKey) {
             initialized = true;
             storedValue = null;
+            failure = null;
+        }
+    }
+
+    void publish(T value) {
+        synchronized (synchronisationKey) {
+            storedValue = value;
+            failure = null;
+            synchronisationKey.notifyAll();
         }
-        runnable.setRunnable(valueRunnable);
-        ThreadPool.execute(runnable);
+    }
+
+    /**
+     * Marks the computation of the value as failed: readers stop waiting and rethrow the
+     * exception on their own thread.
+     */
+    void fail(@NonNull RuntimeException exception) {
+        synchronized (synchronisationKey) {
+            failure = exception;
+            synchronisationKey.notifyAll();
+        }
+    }
+
+    /**
+     * Called once the value computed by the runnable is final. It does nothing by default, see
+     * {@link BufferedValueStorage}.
+     */
+    void commit(@NonNull ValueRunnable<T> valueRunnable, long generation) {
+    }
+
+    /**
+     * Makes the last committed value visible to the drawing. It does nothing by default, see
+     * {@link BufferedValueStorage}.
+     */
+    void swap() {
     }
 
     public T getValue() {
@@ -44,6 +113,9 @@ public class ValueStorage<T> {
                     throw new IllegalStateException("Not initialized");
                 }
                 while (storedValue == null) {
+                    if (failure != null) {
+                        throw new IllegalStateException(COMPUTATION_ERROR, failure);
+                    }
                     synchronisationKey.wait();
                 }
                 return storedValue;
@@ -55,22 +127,47 @@ public class ValueStorage<T> {
     }
 
     private class SetValueRunnable implements Runnable {
-        private ValueRunnable<T> runnable;
-
-        private void setRunnable(ValueRunnable<T> runnable) {
-            this.runnable = runnable;
+        @Override public void run() {
+            ValueRunnable<T> computedRunnable;
+            long version;
+            while (true) {
+                synchronized (synchronisationKey) {
+                    queued = false;
+                    if (pendingRunnable == null) {
+                        running = false;
+                        runningRunnable = null;
+                        return;
+                    }
+                    computedRunnable = pendingRunnable;
+                    version = requestedVersion;
+                    pendingRunnable = null;
+                    running = true;
+                    runningRunnable = computedRunnable;
+                    computedRunnable.resetCancellation();
+                }
+                compute(computedRunnable, version);
+            }
         }
 
-        @Override public void run() {
+        private void compute(@NonNull ValueRunnable<T> computedRunnable, long version) {
             try {
-                runnable.run();
-                runnable.getSemaphore().acquire();
-                synchronized (ValueStorage.this.synchronisationKey) {
-                    storedValue = runnable.getValue();
-                    synchronisationKey.notifyAll();
+                computedRunnable.run();
+                computedRunnable.getSemaphore().acquire();
+                synchronized (synchronisationKey) {
+                    if (version != requestedVersion) {
+                        return;
+                    }
+                    publish(computedRunnable.getValue());
+                    commit(computedRunnable, ++generation);
                 }
             } catch (InterruptedException e) {
                 e.printStackTrace();
+            } catch (RuntimeException e) {
+                synchronized (synchronisationKey) {
+                    if (version == requestedVersion) {
+                        fail(e);
+                    }
+                }
             }
         }
     }
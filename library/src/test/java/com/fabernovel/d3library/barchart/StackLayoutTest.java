@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.barchart;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StackLayoutTest {
+    /* Enough columns for the stacks to be computed by several threads. */
+    private static final int COLUMNS = 3000;
+
+    @Test public void stacksMatchColumnSums() {
+        Random random = new Random(1L);
+        StackLayout layout = new StackLayout();
+        for (StackOffset offset : StackOffset.values()) {
+            for (StackOrder order : StackOrder.values()) {
+                for (int test = 0; test < 5; test++) {
+                    int layers = 1 + random.nextInt(8);
+                    int columns = 1 + random.nextInt(COLUMNS);
+                    /* Whole heights keep the sums exact, so that equal layers stay equal. */
+                    float[][] heights = new float[layers][COLUMNS];
+                    for (int layer = 0; layer < layers; layer++) {
+                        for (int i = 0; i < COLUMNS; i++) {
+                            heights[layer][i] = offset == StackOffset.EXPAND ?
+                                random.nextInt(10) : random.nextInt(16) - 5;
+                        }
+                    }
+                    float[][] lower = new float[layers][COLUMNS];
+                    float[][] upper = new float[layers][COLUMNS];
+                    layout.offset(offset).order(order).compute(heights, columns, lower, upper);
+                    assertStacks(heights, columns, offset, order, lower, upper);
+                }
+            }
+        }
+    }
+
+    @Test public void emptyLayoutsAreComputed() {
+        StackLayout layout = new StackLayout().offset(StackOffset.EXPAND);
+        layout.compute(new float[0][], 10, new float[0][], new float[0][]);
+        float[][] heights = new float[2][4];
+        float[][] lower = new float[2][4];
+        float[][] upper = new float[2][4];
+        layout.compute(heights, 0, lower, upper);
+        layout.compute(heights, 4, lower, upper);
+        for (int layer = 0; layer < 2; layer++) {
+            for (int i = 0; i < 4; i++) {
+                assertEquals(0F, lower[layer][i], 0F);
+                assertEquals(0F, upper[layer][i], 0F);
+            }
+        }
+    }
+
+    private static void assertStacks(
+        float[][] heights, int columns, StackOffset offset, StackOrder order, float[][] lower,
+        float[][] upper
+    ) {
+        List<Integer> layersOrder = order(heights, columns, order);
+        double maxTotal = 0D;
+        for (int i = 0; i < columns; i++) {
+            maxTotal = Math.max(maxTotal, Math.abs(total(heights, i)));
+        }
+        for (int i = 0; i < columns; i++) {
+            double total = total(heights, i);
+            double factor = 1D;
+            if (offset == StackOffset.EXPAND) {
+                factor = total == 0D ? 0D : maxTotal / Math.abs(total);
+            }
+            double bound = offset == StackOffset.SILHOUETTE ? -total / 2D : 0D;
+            double positive = 0D;
+            double negative = 0D;
+            for (int layer : layersOrder) {
+                double height = heights[layer][i];
+                double expectedLower;
+                double expectedUpper;
+                if (offset != StackOffset.DIVERGING) {
+                    expectedLower = bound;
+                    bound += height;
+                    expectedUpper = bound;
+                } else if (height >= 0D) {
+                    expectedLower = positive;
+                    positive += height;
+                    expectedUpper = positive;
+                } else {
+                    expectedLower = negative;
+                    negative += height;
+                    expectedUpper = negative;
+                }
+                double tolerance = 1E-4D * Math.max(1D, maxTotal);
+                assertEquals(expectedLower * factor, lower[layer][i], tolerance);
+                assertEquals(expectedUpper * factor, upper[layer][i], tolerance);
+            }
+        }
+    }
+
+    private static double total(float[][] heights, int column) {
+        double total = 0D;
+        for (float[] layer : heights) {
+            total += layer[column];
+        }
+        return total;
+    }
+
+    private static List<Integer> order(
+        final float[][] heights, final int columns, StackOrder order
+    ) {
+        List<Integer> layers = new ArrayList<>();
+        for (int layer = 0; layer < heights.length; layer++) {
+            layers.add(layer);
+        }
+        if (order == StackOrder.REVERSE) {
+            Collections.reverse(layers);
+        } else if (order == StackOrder.ASCENDING || order == StackOrder.DESCENDING) {
+            final double sign = order == StackOrder.ASCENDING ? 1D : -1D;
+            /* Collections.sort is stable, equal layers keep their order. */
+            Collections.sort(layers, new Comparator<Integer>() {
+                @Override public int compare(Integer first, Integer second) {
+                    return Double.compare(sign * sum(first), sign * sum(second));
+                }
+
+                private double sum(int layer) {
+                    double sum = 0D;
+                    for (int i = 0; i < columns; i++) {
+                        sum += heights[layer][i];
+                    }
+                    return sum;
+                }
+            });
+        }
+        return layers;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class P2EstimatorTest {
+    private static final int SAMPLES_NUMBER = 100000;
+    private static final float[] QUANTILES = {0.25F, 0.5F, 0.75F};
+
+    @Test public void isExactForFewSamples() {
+        P2Estimator estimator = new P2Estimator(0.5F);
+        assertTrue(Float.isNaN(estimator.value()));
+        float[] samples = {4F, 1F, 3F, 2F};
+        for (int i = 0; i < samples.length; i++) {
+            estimator.add(samples[i]);
+            float[] sorted = Arrays.copyOf(samples, i + 1);
+            Arrays.sort(sorted);
+            assertEquals(sorted[Math.round(i * 0.5F)], estimator.value(), 0F);
+        }
+    }
+
+    @Test public void estimatesUniformSamples() {
+        Random random = new Random(1L);
+        float[] samples = new float[SAMPLES_NUMBER];
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            samples[i] = 100F * random.nextFloat();
+        }
+        assertEstimates(samples, 1F);
+    }
+
+    @Test public void estimatesNormalSamples() {
+        Random random = new Random(2L);
+        float[] samples = new float[SAMPLES_NUMBER];
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            samples[i] = (float) (50D + 10D * random.nextGaussian());
+        }
+        assertEstimates(samples, 0.5F);
+    }
+
+    @Test public void estimatesIncreasingSamples() {
+        float[] samples = new float[SAMPLES_NUMBER];
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            samples[i] = i / 1000F;
+        }
+        assertEstimates(samples, 1F);
+    }
+
+    @Test public void resetForgetsTheSamples() {
+        P2Estimator estimator = new P2Estimator(0.5F);
+        for (int i = 0; i < 1000; i++) {
+            estimator.add(1000F + i);
+        }
+        estimator.reset();
+        assertTrue(Float.isNaN(estimator.value()));
+        estimator.add(3F);
+        assertEquals(3F, estimator.value(), 0F);
+    }
+
+    /**
+     * Compares the estimates with the exact quantiles of the sorted samples, the tolerance being
+     * in the unit of the samples.
+     */
+    private static void assertEstimates(float[] samples, float tolerance) {
+        float[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        for (float quantile : QUANTILES) {
+            P2Estimator estimator = new P2Estimator(quantile);
+            for (float sample : samples) {
+                estimator.add(sample);
+            }
+            float exact = sorted[Math.round((sorted.length - 1) * quantile)];
+            assertEquals(exact, estimator.value(), tolerance);
+        }
+    }
+}
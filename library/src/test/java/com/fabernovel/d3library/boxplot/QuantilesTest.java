@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.boxplot;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantilesTest {
+    @Test public void computeMatchesSortedValues() {
+        Random random = new Random(1L);
+        for (int length = 1; length <= 300; length++) {
+            /* Few distinct values exercise the repeated values of the three-way partition. */
+            int distinctValues = random.nextBoolean() ? 5 : 1000;
+            float[] values = new float[length + 4];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(distinctValues) - distinctValues / 2;
+            }
+            assertStatistics(values, 2, length + 2);
+        }
+    }
+
+    @Test public void computeHandlesOrderedValues() {
+        int length = 10001;
+        float[] increasing = new float[length];
+        float[] decreasing = new float[length];
+        float[] organPipe = new float[length];
+        for (int i = 0; i < length; i++) {
+            increasing[i] = i;
+            decreasing[i] = length - i;
+            organPipe[i] = Math.min(i, length - i);
+        }
+        assertStatistics(increasing, 0, length);
+        assertStatistics(decreasing, 0, length);
+        assertStatistics(organPipe, 0, length);
+    }
+
+    @Test public void selectPartitionsAroundTheIndex() {
+        Random random = new Random(2L);
+        for (int test = 0; test < 200; test++) {
+            int length = 1 + random.nextInt(500);
+            float[] values = new float[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = random.nextInt(50);
+            }
+            float[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int index = random.nextInt(length);
+            float selected = Quantiles.select(values, 0, length, index);
+            assertEquals(sorted[index], selected, 0F);
+            for (int i = 0; i < index; i++) {
+                assertTrue(values[i] <= selected);
+            }
+            for (int i = index + 1; i < length; i++) {
+                assertTrue(values[i] >= selected);
+            }
+        }
+    }
+
+    private static void assertStatistics(float[] values, int from, int to) {
+        float[] sorted = Arrays.copyOfRange(values, from, to);
+        Arrays.sort(sorted);
+        int length = sorted.length;
+        Statistics statistics = new Statistics();
+        Quantiles.compute(values.clone(), from, to, statistics);
+
+        float median = length % 2 == 0 ?
+            (sorted[length / 2 - 1] + sorted[length / 2]) / 2F : sorted[length / 2];
+        assertEquals(sorted[0], statistics.min, 0F);
+        assertEquals(sorted[length - 1], statistics.max, 0F);
+        assertEquals(median, statistics.median, 0F);
+        assertEquals(
+            sorted[Math.round((float) (length - 1) / 4F)], statistics.lowerQuartile, 0F
+        );
+        assertEquals(
+            sorted[Math.round((float) (length - 1) * 3F / 4F)], statistics.upperQuartile, 0F
+        );
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.line;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class DecimatorTest {
+    @Test public void minMaxKeepsTheExtremaOfEachColumn() {
+        Random random = new Random(1L);
+        for (int test = 0; test < 100; test++) {
+            int length = random.nextInt(5000);
+            float width = 1F + random.nextInt(300);
+            float[] x = new float[length];
+            float[] y = new float[length];
+            for (int i = 0; i < length; i++) {
+                /* Sorted coordinates, starting and ending out of the view. */
+                x[i] = -20F + (width + 40F) * i / Math.max(length, 1);
+                y[i] = random.nextInt(50);
+            }
+            DecimatedPoints points = new DecimatedPoints();
+            Decimator.minMax(x, y, length, width, points);
+            assertPoints(x, y, minMaxReference(x, y, length, width), points);
+        }
+    }
+
+    @Test public void lttbSelectsTheLargestTriangles() {
+        Random random = new Random(2L);
+        for (int test = 0; test < 100; test++) {
+            int length = 2 + random.nextInt(3000);
+            int from = random.nextInt(10);
+            float[] x = new float[from + length];
+            float[] y = new float[from + length];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = i;
+                y[i] = (float) (100D * Math.sin(i / 50D) + 20D * random.nextGaussian());
+            }
+            int threshold = random.nextInt(length + 10);
+            DecimatedPoints points = new DecimatedPoints();
+            Decimator.lttb(x, y, from, from + length, threshold, points);
+            assertPoints(x, y, lttbReference(x, y, from, from + length, threshold), points);
+        }
+    }
+
+    private static void assertPoints(
+        float[] x, float[] y, List<Integer> expected, DecimatedPoints points
+    ) {
+        assertEquals(expected.size(), points.size);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(x[expected.get(i)], points.x[i], 0F);
+            assertEquals(y[expected.get(i)], points.y[i], 0F);
+        }
+    }
+
+    /**
+     * Returns, for each run of points in the same column, the indexes of its first, lowest,
+     * highest and last points in their order.
+     */
+    private static List<Integer> minMaxReference(float[] x, float[] y, int length, float width) {
+        List<Integer> result = new ArrayList<>();
+        int start = 0;
+        while (start < length) {
+            int end = start + 1;
+            while (end < length && column(x[end], width) == column(x[start], width)) {
+                end++;
+            }
+            int min = start;
+            int max = start;
+            for (int i = start; i < end; i++) {
+                if (y[i] < y[min]) {
+                    min = i;
+                }
+                if (y[i] > y[max]) {
+                    max = i;
+                }
+            }
+            TreeSet<Integer> kept = new TreeSet<>();
+            kept.add(start);
+            kept.add(min);
+            kept.add(max);
+            kept.add(end - 1);
+            result.addAll(kept);
+            start = end;
+        }
+        return result;
+    }
+
+    private static int column(float x, float width) {
+        if (x < 0F) {
+            return -1;
+        }
+        return (int) Math.min(x, width);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets as described by Steinarsson: the points between the first
+     * and the last ones are split into threshold - 2 buckets, and each bucket keeps the point
+     * making the largest triangle with the point kept before it and the average of the next
+     * bucket.
+     */
+    private static List<Integer> lttbReference(
+        float[] x, float[] y, int from, int to, int threshold
+    ) {
+        List<Integer> result = new ArrayList<>();
+        int length = to - from;
+        if (threshold >= length || threshold < 3) {
+            for (int i = from; i < to; i++) {
+                result.add(i);
+            }
+            return result;
+        }
+        double every = (double) (length - 2) / (threshold - 2);
+        int selected = from;
+        result.add(selected);
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = from + (int) Math.floor((bucket + 1) * every) + 1;
+            int nextEnd = Math.min(from + (int) Math.floor((bucket + 2) * every) + 1, to);
+            double averageX = 0D;
+            double averageY = 0D;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= Math.max(nextEnd - nextStart, 1);
+            averageY /= Math.max(nextEnd - nextStart, 1);
+            int start = from + (int) Math.floor(bucket * every) + 1;
+            int end = from + (int) Math.floor((bucket + 1) * every) + 1;
+            int best = start;
+            double bestArea = -1D;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs(
+                    (x[selected] - averageX) * (y[i] - y[selected])
+                        - (x[selected] - x[i]) * (averageY - y[selected])
+                ) / 2D;
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = i;
+                }
+            }
+            selected = best;
+            result.add(selected);
+        }
+        result.add(to - 1);
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.pick;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BoxIndexTest {
+    private static final int QUERIES_NUMBER = 2000;
+
+    @Test public void findsTheNearestPoint() {
+        Random random = new Random(1L);
+        float[] bounds = new float[4 * 5000];
+        for (int box = 0; box < 5000; box++) {
+            float x = 1000F * random.nextFloat();
+            float y = 500F * random.nextFloat();
+            setBounds(bounds, box, x, y, x, y);
+        }
+        assertQueries(random, bounds, 5000, new float[]{0F, 2F, 20F, 2000F});
+    }
+
+    @Test public void findsTheNearestRectangle() {
+        Random random = new Random(2L);
+        float[] bounds = new float[4 * 3000];
+        for (int box = 0; box < 3000; box++) {
+            /* Bars of various sizes, some of them overlapping, some of them left out. */
+            float left = 1000F * random.nextFloat();
+            float top = 500F * random.nextFloat();
+            if (random.nextInt(10) == 0) {
+                setBounds(bounds, box, Float.NaN, 0F, 0F, 0F);
+            } else {
+                setBounds(
+                    bounds, box, left, top, left + 30F * random.nextFloat(),
+                    top + 200F * random.nextFloat()
+                );
+            }
+        }
+        assertQueries(random, bounds, 3000, new float[]{0F, 5F, 50F});
+    }
+
+    @Test public void handlesDegenerateGrids() {
+        Random random = new Random(3L);
+        float[] bounds = new float[4 * 100];
+        for (int box = 0; box < 100; box++) {
+            setBounds(bounds, box, 10F, 10F, 10F, 10F);
+        }
+        /* All the boxes are at the same position: the last one is returned. */
+        assertQueries(random, bounds, 100, new float[]{0F, 5F, 50F});
+        for (int box = 0; box < 100; box++) {
+            float x = 10F * box;
+            setBounds(bounds, box, x, 10F, x, 10F);
+        }
+        assertQueries(random, bounds, 100, new float[]{0F, 5F, 50F});
+    }
+
+    @Test public void emptyIndexFindsNothing() {
+        BoxIndex index = new BoxIndex();
+        assertEquals(BoxIndex.NO_BOX, index.nearest(0F, 0F, 100F));
+        index.reset(10);
+        for (int box = 0; box < 10; box++) {
+            index.setBox(box, Float.NaN, 0F, 0F, 0F);
+        }
+        index.build();
+        assertEquals(BoxIndex.NO_BOX, index.nearest(0F, 0F, 100F));
+        index.reset(0);
+        index.build();
+        assertEquals(0, index.size());
+        assertEquals(BoxIndex.NO_BOX, index.nearest(0F, 0F, 100F));
+    }
+
+    private static void setBounds(
+        float[] bounds, int box, float left, float top, float right, float bottom
+    ) {
+        bounds[4 * box] = left;
+        bounds[4 * box + 1] = top;
+        bounds[4 * box + 2] = right;
+        bounds[4 * box + 3] = bottom;
+    }
+
+    /**
+     * Compares the results of random queries, around and out of the boxes, with a test of all
+     * the boxes.
+     */
+    private static void assertQueries(
+        Random random, float[] bounds, int boxesNumber, float[] radii
+    ) {
+        BoxIndex index = new BoxIndex();
+        index.reset(boxesNumber);
+        for (int box = 0; box < boxesNumber; box++) {
+            index.setBox(
+                box, bounds[4 * box], bounds[4 * box + 1], bounds[4 * box + 2],
+                bounds[4 * box + 3]
+            );
+        }
+        index.build();
+        for (int i = 0; i < QUERIES_NUMBER; i++) {
+            float x = 1200F * random.nextFloat() - 100F;
+            float y = 900F * random.nextFloat() - 100F;
+            for (float radius : radii) {
+                int expected = nearest(bounds, boxesNumber, x, y, radius);
+                int actual = index.nearest(x, y, radius);
+                assertEquals(expected, actual);
+                if (actual != BoxIndex.NO_BOX) {
+                    assertEquals(distance(bounds, actual, x, y), index.distance(actual, x, y), 0F);
+                }
+            }
+        }
+    }
+
+    private static int nearest(float[] bounds, int boxesNumber, float x, float y, float radius) {
+        int nearest = BoxIndex.NO_BOX;
+        float nearestDistance = radius;
+        for (int box = 0; box < boxesNumber; box++) {
+            if (Float.isNaN(bounds[4 * box])) {
+                continue;
+            }
+            float distance = distance(bounds, box, x, y);
+            if (distance <= nearestDistance) {
+                nearest = box;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private static float distance(float[] bounds, int box, float x, float y) {
+        float dX = Math.max(0F, Math.max(bounds[4 * box] - x, x - bounds[4 * box + 2]));
+        float dY = Math.max(0F, Math.max(bounds[4 * box + 1] - y, y - bounds[4 * box + 3]));
+        return (float) Math.sqrt(dX * dX + dY * dY);
+    }
+}
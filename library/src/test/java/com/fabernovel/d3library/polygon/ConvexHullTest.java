@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConvexHullTest {
+    @Test public void matchesGiftWrapping() {
+        Random random = new Random(1L);
+        ConvexHull convexHull = new ConvexHull();
+        for (int test = 0; test < 300; test++) {
+            int length = random.nextInt(200);
+            /* A small grid gives duplicated and collinear points. */
+            int side = 1 + random.nextInt(20);
+            float[] x = new float[length];
+            float[] y = new float[length];
+            for (int i = 0; i < length; i++) {
+                x[i] = random.nextInt(side);
+                y[i] = random.nextInt(side);
+            }
+            assertHull(convexHull, x, y, length);
+        }
+    }
+
+    @Test public void matchesGiftWrappingInParallel() {
+        Random random = new Random(2L);
+        int length = 2 * ConvexHull.PARALLEL_THRESHOLD;
+        float[] x = new float[length];
+        float[] y = new float[length];
+        for (int i = 0; i < length; i++) {
+            /* Points in a disk have many vertices, on a grid to keep exact orientations. */
+            double angle = 2D * Math.PI * random.nextDouble();
+            double radius = 4096D * Math.sqrt(random.nextDouble());
+            x[i] = (float) Math.floor(radius * Math.cos(angle));
+            y[i] = (float) Math.floor(radius * Math.sin(angle));
+        }
+        assertHull(new ConvexHull(), x, y, length);
+    }
+
+    @Test public void handlesDegenerateHulls() {
+        ConvexHull convexHull = new ConvexHull();
+        assertEquals(0, convexHull.compute(new float[0], new float[0]).length);
+        assertArrayEquals(
+            new float[]{1F, 2F}, convexHull.compute(new float[]{1F, 1F}, new float[]{2F, 2F}), 0F
+        );
+        float[] segment = convexHull.compute(
+            new float[]{0F, 1F, 2F, 3F}, new float[]{0F, 1F, 2F, 3F}
+        );
+        assertEquals(PolygonReference.vertices(new float[]{0F, 0F, 3F, 3F}, 2),
+            PolygonReference.vertices(segment, segment.length / 2));
+    }
+
+    @Test public void keepsTheInput() {
+        float[] x = {3F, 0F, 2F, 1F, 0F};
+        float[] y = {1F, 0F, 4F, 1F, 3F};
+        float[] copyX = x.clone();
+        float[] copyY = y.clone();
+        new ConvexHull().compute(x, y);
+        assertArrayEquals(copyX, x, 0F);
+        assertArrayEquals(copyY, y, 0F);
+    }
+
+    private static void assertHull(ConvexHull convexHull, float[] x, float[] y, int length) {
+        float[] result = new float[2 * length];
+        int size = convexHull.compute(x, y, length, result);
+        assertEquals(PolygonReference.hull(x, y, length), PolygonReference.vertices(result, size));
+        if (size < 3) {
+            return;
+        }
+        /* The vertices are in order: the polygon is convex and turns in a single direction. */
+        double area = PolygonReference.signedArea(result, size);
+        for (int i = 0; i < size; i++) {
+            int next = (i + 1) % size;
+            int afterNext = (i + 2) % size;
+            double cross = PolygonReference.cross(
+                result[2 * i], result[2 * i + 1], result[2 * next], result[2 * next + 1],
+                result[2 * afterNext], result[2 * afterNext + 1]
+            );
+            assertTrue(cross * area > 0D);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class IncrementalHullTest {
+    @Test public void matchesGiftWrappingOfAllThePoints() {
+        Random random = new Random(1L);
+        IncrementalHull hull = new IncrementalHull();
+        int length = 5000;
+        float[] x = new float[length];
+        float[] y = new float[length];
+        for (int i = 0; i < length; i++) {
+            /* The points spread over time, so the hull keeps growing. */
+            int side = 2 + i / 10;
+            x[i] = random.nextInt(side) - side / 2;
+            y[i] = random.nextInt(side) - side / 2;
+            hull.add(x[i], y[i]);
+            if (i % 97 == 0 || i == length - 1) {
+                float[] coordinates = hull.coordinates();
+                assertEquals(hull.size(), coordinates.length / 2);
+                assertEquals(
+                    PolygonReference.hull(x, y, i + 1),
+                    PolygonReference.vertices(coordinates, hull.size())
+                );
+            }
+        }
+    }
+
+    @Test public void containsMatchesTheHull() {
+        Random random = new Random(2L);
+        IncrementalHull hull = new IncrementalHull();
+        float[] x = new float[1000];
+        float[] y = new float[1000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextInt(100);
+            y[i] = random.nextInt(100);
+        }
+        hull.add(x, y, 0, x.length);
+        float[] coordinates = hull.coordinates();
+        for (int i = 0; i < 5000; i++) {
+            float pointX = random.nextInt(120) - 10;
+            float pointY = random.nextInt(120) - 10;
+            assertEquals(
+                PolygonReference.contains(coordinates, hull.size(), pointX, pointY),
+                hull.contains(pointX, pointY)
+            );
+        }
+    }
+
+    @Test public void clearRemovesThePoints() {
+        IncrementalHull hull = new IncrementalHull()
+            .add(0F, 0F)
+            .add(10F, 0F)
+            .add(0F, 10F);
+        hull.clear();
+        assertEquals(0, hull.size());
+        assertFalse(hull.contains(1F, 1F));
+        hull.add(5F, 5F);
+        assertEquals(1, hull.size());
+        assertEquals(5F, hull.x(0), 0F);
+        assertEquals(5F, hull.y(0), 0F);
+    }
+}
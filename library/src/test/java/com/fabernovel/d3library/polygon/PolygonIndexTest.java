@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.fabernovel.d3library.polygon;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PolygonIndexTest {
+    private static final int QUERIES_NUMBER = 5000;
+
+    @Test public void findsTheLastPolygonContainingThePoint() {
+        Random random = new Random(1L);
+        float[][] polygons = new float[500][];
+        for (int p = 0; p < polygons.length; p++) {
+            /* Overlapping polygons of various sizes, some of them too small to be drawn. */
+            int n = random.nextInt(10) == 0 ? random.nextInt(3) : 3 + random.nextInt(40);
+            polygons[p] = randomPolygon(
+                random, n, 1000F * random.nextFloat(), 1000F * random.nextFloat(),
+                5F + 100F * random.nextFloat()
+            );
+        }
+        assertQueries(random, polygons, 0F, 0F);
+    }
+
+    @Test public void findsSelfIntersectingPolygons() {
+        Random random = new Random(2L);
+        float[][] polygons = new float[50][];
+        for (int p = 0; p < polygons.length; p++) {
+            /* Vertices in any order: the even-odd rule decides what is inside. */
+            float[] coordinates = new float[2 * (3 + random.nextInt(20))];
+            for (int i = 0; i < coordinates.length; i++) {
+                coordinates[i] = 1000F * random.nextFloat();
+            }
+            polygons[p] = coordinates;
+        }
+        assertQueries(random, polygons, 0F, 0F);
+    }
+
+    @Test public void translatesTheQueriesByTheOffsets() {
+        Random random = new Random(3L);
+        float[][] polygons = new float[100][];
+        for (int p = 0; p < polygons.length; p++) {
+            polygons[p] = randomPolygon(
+                random, 3 + random.nextInt(20), 1000F * random.nextFloat(),
+                1000F * random.nextFloat(), 100F * random.nextFloat()
+            );
+        }
+        assertQueries(random, polygons, 150F, -320F);
+    }
+
+    @Test public void emptyIndexFindsNothing() {
+        PolygonIndex index = new PolygonIndex();
+        assertEquals(-1, index.find(0F, 0F));
+        index.build(new float[0][]);
+        assertEquals(-1, index.find(0F, 0F));
+        index.build(new float[][]{new float[0], new float[]{1F, 1F, 2F, 2F}});
+        assertEquals(-1, index.find(1F, 1F));
+    }
+
+    /**
+     * Returns a star-shaped polygon whose vertices are at random distances around the center.
+     */
+    private static float[] randomPolygon(
+        Random random, int n, float centerX, float centerY, float radius
+    ) {
+        float[] coordinates = new float[2 * n];
+        for (int i = 0; i < n; i++) {
+            double angle = 2D * Math.PI * (i + 0.8D * random.nextDouble()) / n;
+            double distance = radius * (0.2D + 0.8D * random.nextDouble());
+            coordinates[2 * i] = (float) (centerX + distance * Math.cos(angle));
+            coordinates[2 * i + 1] = (float) (centerY + distance * Math.sin(angle));
+        }
+        return coordinates;
+    }
+
+    /**
+     * Compares the results of random queries, around and out of the polygons, with a ray cast
+     * through all the edges of all the polygons. The index is built twice, to check that it is
+     * reset.
+     */
+    private static void assertQueries(
+        Random random, float[][] polygons, float offsetX, float offsetY
+    ) {
+        PolygonIndex index = new PolygonIndex();
+        index.build(new float[][]{randomPolygon(random, 10, 500F, 500F, 1000F)});
+        index.offsetX = offsetX;
+        index.offsetY = offsetY;
+        index.build(polygons);
+        for (int i = 0; i < QUERIES_NUMBER; i++) {
+            float x = 1400F * random.nextFloat() - 200F + offsetX;
+            float y = 1400F * random.nextFloat() - 200F + offsetY;
+            assertEquals(find(polygons, x - offsetX, y - offsetY), index.find(x, y));
+        }
+    }
+
+    private static int find(float[][] polygons, float x, float y) {
+        for (int p = polygons.length - 1; p >= 0; p--) {
+            if (polygons[p].length >= 6 && contains(polygons[p], x, y)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(float[] coordinates, float x, float y) {
+        int pointsNumber = coordinates.length / 2;
+        boolean inside = false;
+        for (int i = 0, j = pointsNumber - 1; i < pointsNumber; j = i++) {
+            float x0 = coordinates[2 * j];
+            float y0 = coordinates[2 * j + 1];
+            float x1 = coordinates[2 * i];
+            float y1 = coordinates[2 * i + 1];
+            if (((y1 > y) != (y0 > y)) && (x < (x0 - x1) * (y - y1) / (y0 - y1) + x1)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Brute-force references for the polygon tests.
+ */
+final class PolygonReference {
+    private PolygonReference() {
+    }
+
+    /**
+     * Returns the vertices of the convex hull found by gift wrapping, without collinear points,
+     * as sorted "x y" strings.
+     */
+    static List<String> hull(float[] x, float[] y, int length) {
+        List<String> vertices = new ArrayList<>();
+        if (length == 0) {
+            return vertices;
+        }
+        int start = 0;
+        for (int i = 1; i < length; i++) {
+            if (x[i] < x[start] || x[i] == x[start] && y[i] > y[start]) {
+                start = i;
+            }
+        }
+        int current = start;
+        do {
+            vertices.add(x[current] + " " + y[current]);
+            int next = -1;
+            for (int i = 0; i < length; i++) {
+                if (x[i] == x[current] && y[i] == y[current]) {
+                    continue;
+                }
+                if (next == -1) {
+                    next = i;
+                    continue;
+                }
+                double cross = cross(x[current], y[current], x[next], y[next], x[i], y[i]);
+                if (cross < 0D || cross == 0D
+                    && distance(x[current], y[current], x[i], y[i])
+                    > distance(x[current], y[current], x[next], y[next])) {
+                    next = i;
+                }
+            }
+            if (next == -1) {
+                break;
+            }
+            current = next;
+        } while (x[current] != x[start] || y[current] != y[start]);
+        return sorted(vertices);
+    }
+
+    /**
+     * Returns the points of a hull in the format [x1, y1, x2, y2, ...] as sorted "x y" strings.
+     */
+    static List<String> vertices(float[] coordinates, int size) {
+        List<String> vertices = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            vertices.add(coordinates[2 * i] + " " + coordinates[2 * i + 1]);
+        }
+        return sorted(vertices);
+    }
+
+    /**
+     * Returns true if the point is inside the convex polygon or on its boundary.
+     */
+    static boolean contains(float[] coordinates, int size, float pointX, float pointY) {
+        if (size == 0) {
+            return false;
+        }
+        boolean positive = false;
+        boolean negative = false;
+        for (int i = 0; i < size; i++) {
+            int next = (i + 1) % size;
+            double cross = cross(
+                coordinates[2 * i], coordinates[2 * i + 1], coordinates[2 * next],
+                coordinates[2 * next + 1], pointX, pointY
+            );
+            positive |= cross > 0D;
+            negative |= cross < 0D;
+        }
+        if (size <= 2) {
+            /* Degenerate hull: the point must be on the segment. */
+            float minX = Math.min(coordinates[0], coordinates[2 * size - 2]);
+            float maxX = Math.max(coordinates[0], coordinates[2 * size - 2]);
+            float minY = Math.min(coordinates[1], coordinates[2 * size - 1]);
+            float maxY = Math.max(coordinates[1], coordinates[2 * size - 1]);
+            return !positive && !negative && pointX >= minX && pointX <= maxX
+                && pointY >= minY && pointY <= maxY;
+        }
+        return !(positive && negative);
+    }
+
+    /**
+     * Returns the signed area of the polygon, positive if it is counterclockwise in a frame
+     * whose y axis goes up.
+     */
+    static double signedArea(float[] coordinates, int size) {
+        double area = 0D;
+        for (int i = 0; i < size; i++) {
+            int next = (i + 1) % size;
+            area += (double) coordinates[2 * i] * coordinates[2 * next + 1]
+                - (double) coordinates[2 * next] * coordinates[2 * i + 1];
+        }
+        return area / 2D;
+    }
+
+    static double cross(float ax, float ay, float bx, float by, float cx, float cy) {
+        return ((double) bx - ax) * ((double) cy - ay) - ((double) by - ay) * ((double) cx - ax);
+    }
+
+    private static double distance(float ax, float ay, float bx, float by) {
+        return ((double) bx - ax) * ((double) bx - ax) + ((double) by - ay) * ((double) by - ay);
+    }
+
+    private static List<String> sorted(List<String> vertices) {
+        String[] array = vertices.toArray(new String[vertices.size()]);
+        Arrays.sort(array);
+        return Arrays.asList(array);
+    }
+}
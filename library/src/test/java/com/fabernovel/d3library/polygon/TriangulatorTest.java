@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.polygon;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TriangulatorTest {
+    private static final double AREA_TOLERANCE = 1E-6D;
+
+    @Test public void triangulatesConvexPolygons() {
+        Triangulator triangulator = new Triangulator();
+        for (int n = 3; n < 50; n++) {
+            float[] vertices = new float[2 * n];
+            for (int i = 0; i < n; i++) {
+                vertices[2 * i] = (float) (100D * Math.cos(2D * Math.PI * i / n));
+                vertices[2 * i + 1] = (float) (100D * Math.sin(2D * Math.PI * i / n));
+            }
+            assertTriangulation(triangulator, vertices, new int[]{n}, 1);
+        }
+    }
+
+    @Test public void triangulatesStarShapedPolygons() {
+        Random random = new Random(1L);
+        Triangulator triangulator = new Triangulator();
+        for (int test = 0; test < 200; test++) {
+            int n = 3 + random.nextInt(100);
+            float[] vertices = new float[2 * n];
+            addStar(random, vertices, 0, n, 0F, 0F, 100F, random.nextBoolean());
+            assertTriangulation(triangulator, vertices, new int[]{n}, 1);
+        }
+    }
+
+    @Test public void triangulatesPolygonsWithHoles() {
+        Random random = new Random(2L);
+        Triangulator triangulator = new Triangulator();
+        for (int test = 0; test < 200; test++) {
+            /* With 16 vertices, the outer ring contains the disk of radius 45. */
+            int n = 16 + random.nextInt(60);
+            int holesNumber = 1 + random.nextInt(4);
+            int[] ringEnds = new int[holesNumber + 1];
+            int[] holeSizes = new int[holesNumber];
+            ringEnds[0] = n;
+            for (int hole = 0; hole < holesNumber; hole++) {
+                holeSizes[hole] = 3 + random.nextInt(10);
+                ringEnds[hole + 1] = ringEnds[hole] + holeSizes[hole];
+            }
+            float[] vertices = new float[2 * ringEnds[holesNumber]];
+            addStar(random, vertices, 0, n, 0F, 0F, 100F, random.nextBoolean());
+            /* The holes are in distinct quadrants of the disk the outer ring contains. */
+            for (int hole = 0; hole < holesNumber; hole++) {
+                float centerX = hole % 2 == 0 ? -20F : 20F;
+                float centerY = hole < 2 ? -20F : 20F;
+                addStar(
+                    random, vertices, ringEnds[hole], holeSizes[hole], centerX, centerY, 15F,
+                    random.nextBoolean()
+                );
+            }
+            assertTriangulation(triangulator, vertices, ringEnds, holesNumber + 1);
+        }
+    }
+
+    @Test public void ignoresDegeneratePolygons() {
+        Triangulator triangulator = new Triangulator();
+        assertEquals(0, triangulator.triangulate(new float[0], new int[0], 0));
+        assertEquals(0, triangulator.triangulate(new float[]{0F, 0F, 1F, 1F}, new int[]{2}, 1));
+    }
+
+    /**
+     * Adds a star-shaped ring of n vertices, whose radii are between half the radius and the
+     * radius, from the vertex from.
+     */
+    private static void addStar(
+        Random random, float[] vertices, int from, int n, float centerX, float centerY,
+        float radius, boolean clockwise
+    ) {
+        double[] angles = new double[n];
+        for (int i = 0; i < n; i++) {
+            angles[i] = 2D * Math.PI * (i + 0.8D * random.nextDouble()) / n;
+        }
+        for (int i = 0; i < n; i++) {
+            double angle = clockwise ? -angles[i] : angles[i];
+            double distance = radius * (0.5D + 0.5D * random.nextDouble());
+            vertices[2 * (from + i)] = (float) (centerX + distance * Math.cos(angle));
+            vertices[2 * (from + i) + 1] = (float) (centerY + distance * Math.sin(angle));
+        }
+    }
+
+    /**
+     * Checks that the triangles cover the polygon: their number is the one of a triangulation,
+     * their areas sum to the area of the polygon and each of them is inside the polygon.
+     */
+    private static void assertTriangulation(
+        Triangulator triangulator, float[] vertices, int[] ringEnds, int ringsNumber
+    ) {
+        int length = triangulator.triangulate(vertices, ringEnds, ringsNumber);
+        int[] triangles = triangulator.triangles();
+        int verticesNumber = ringEnds[ringsNumber - 1];
+        assertEquals(3 * (verticesNumber + 2 * (ringsNumber - 1) - 2), length);
+
+        double polygonArea = 0D;
+        for (int ring = 0; ring < ringsNumber; ring++) {
+            int start = ring == 0 ? 0 : ringEnds[ring - 1];
+            double ringArea = 0D;
+            for (int i = start; i < ringEnds[ring]; i++) {
+                int next = i + 1 == ringEnds[ring] ? start : i + 1;
+                ringArea += (double) vertices[2 * i] * vertices[2 * next + 1]
+                    - (double) vertices[2 * next] * vertices[2 * i + 1];
+            }
+            polygonArea += ring == 0 ? Math.abs(ringArea / 2D) : -Math.abs(ringArea / 2D);
+        }
+
+        double trianglesArea = 0D;
+        for (int i = 0; i < length; i += 3) {
+            int a = triangles[i];
+            int b = triangles[i + 1];
+            int c = triangles[i + 2];
+            assertTrue(a >= 0 && a < verticesNumber);
+            assertTrue(b >= 0 && b < verticesNumber);
+            assertTrue(c >= 0 && c < verticesNumber);
+            trianglesArea += Math.abs(PolygonReference.cross(
+                vertices[2 * a], vertices[2 * a + 1], vertices[2 * b], vertices[2 * b + 1],
+                vertices[2 * c], vertices[2 * c + 1]
+            )) / 2D;
+            float centroidX = (vertices[2 * a] + vertices[2 * b] + vertices[2 * c]) / 3F;
+            float centroidY =
+                (vertices[2 * a + 1] + vertices[2 * b + 1] + vertices[2 * c + 1]) / 3F;
+            assertTrue(insidePolygon(vertices, ringEnds, ringsNumber, centroidX, centroidY));
+        }
+        assertEquals(polygonArea, trianglesArea, AREA_TOLERANCE * polygonArea);
+    }
+
+    /**
+     * Even-odd rule over all the edges of all the rings.
+     */
+    private static boolean insidePolygon(
+        float[] vertices, int[] ringEnds, int ringsNumber, float pointX, float pointY
+    ) {
+        boolean inside = false;
+        for (int ring = 0; ring < ringsNumber; ring++) {
+            int start = ring == 0 ? 0 : ringEnds[ring - 1];
+            for (int i = start; i < ringEnds[ring]; i++) {
+                int next = i + 1 == ringEnds[ring] ? start : i + 1;
+                float ax = vertices[2 * i];
+                float ay = vertices[2 * i + 1];
+                float bx = vertices[2 * next];
+                float by = vertices[2 * next + 1];
+                if ((ay > pointY) != (by > pointY)
+                    && pointX < ax + (bx - ax) * (pointY - ay) / (by - ay)) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+}
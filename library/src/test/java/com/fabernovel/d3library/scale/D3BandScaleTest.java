@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.fabernovel.d3library.scale;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class D3BandScaleTest {
+    private static final double TOLERANCE = 1E-3D;
+    /* Queries closer than this to the edge of a band are not compared */
+    private static final double EDGE_MARGIN = 1E-2D;
+
+    @Test public void placesTheBandsLikeD3() {
+        D3BandScale scale = new D3BandScale(3, new float[]{0F, 100F}).paddingInner(0.2F)
+            .paddingOuter(0.5F);
+        /* step = 100 / (3 - 0.2 + 2 * 0.5), bands centred in the range */
+        float step = 100F / 3.8F;
+        assertEquals(step, scale.step(), TOLERANCE);
+        assertEquals(0.8F * step, scale.bandwidth(), TOLERANCE);
+        float[] values = scale.values(null);
+        assertEquals(3, values.length);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0.5F * step + i * step, values[i], TOLERANCE);
+            assertEquals(values[i], scale.value(i), 0F);
+        }
+    }
+
+    @Test public void matchesTheReferenceValues() {
+        Random random = new Random(1L);
+        for (int test = 0; test < 500; test++) {
+            D3BandScale scale = randomScale(random);
+            double[] starts = starts(scale);
+            float[] result = new float[scale.bandsNumber() + random.nextInt(3)];
+            float[] values = scale.values(random.nextBoolean() ? result : null);
+            for (int i = 0; i < scale.bandsNumber(); i++) {
+                assertEquals(starts[i], values[i], TOLERANCE);
+                assertEquals(starts[i], scale.value(i), TOLERANCE);
+            }
+        }
+    }
+
+    @Test public void invertsLikeATestOfAllTheBands() {
+        Random random = new Random(2L);
+        for (int test = 0; test < 500; test++) {
+            D3BandScale scale = randomScale(random);
+            double[] starts = starts(scale);
+            double bandwidth = step(scale) * (1D - scale.paddingInner());
+            float[] range = scale.range();
+            float low = Math.min(range[0], range[1]);
+            float high = Math.max(range[0], range[1]);
+            for (int i = 0; i < 200; i++) {
+                float coordinate = low - 10F + (high - low + 20F) * random.nextFloat();
+                int expected = -1;
+                boolean nearEdge = false;
+                for (int band = 0; band < starts.length; band++) {
+                    double from = Math.min(starts[band], starts[band] + bandwidth);
+                    double to = Math.max(starts[band], starts[band] + bandwidth);
+                    nearEdge |= Math.abs(coordinate - from) < EDGE_MARGIN
+                        || Math.abs(coordinate - to) < EDGE_MARGIN;
+                    if (coordinate >= from && coordinate <= to) {
+                        expected = band;
+                    }
+                }
+                if (!nearEdge) {
+                    assertEquals(expected, scale.invert(coordinate));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a scale with random bands, paddings and alignment, over an increasing or a
+     * decreasing range.
+     */
+    private static D3BandScale randomScale(Random random) {
+        float start = 1000F * random.nextFloat();
+        float stop = start + (random.nextBoolean() ? 1F : -1F) * (1F + 1000F * random.nextFloat());
+        D3BandScale scale = new D3BandScale(1 + random.nextInt(50), new float[]{start, stop})
+            .paddingInner(random.nextBoolean() ? 0F : random.nextFloat())
+            .paddingOuter(2F * random.nextFloat());
+        return scale.align(random.nextFloat());
+    }
+
+    private static double step(D3BandScale scale) {
+        float[] range = scale.range();
+        int n = scale.bandsNumber();
+        return ((double) range[1] - range[0])
+            / Math.max(1D, n - scale.paddingInner() + 2D * scale.paddingOuter());
+    }
+
+    /**
+     * Returns the starts of the bands, computed in double precision as d3 does: the space left
+     * by the bands and their inner paddings is distributed around them by the alignment.
+     */
+    private static double[] starts(D3BandScale scale) {
+        float[] range = scale.range();
+        int n = scale.bandsNumber();
+        double step = step(scale);
+        double first = range[0]
+            + ((double) range[1] - range[0] - step * (n - scale.paddingInner())) * scale.align();
+        double[] starts = new double[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = first + step * i;
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import com.fabernovel.d3library.axes.D3DomainFunction;
+import com.fabernovel.d3library.axes.D3RangeFunction;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class D3ScaleTest {
+    private static final D3Converter<float[]> CONVERTER = new D3Converter<float[]>() {
+        @Override public float convert(float[] toConvert) {
+            return toConvert[0];
+        }
+
+        @Override public float[] invert(float toInvert) {
+            return new float[]{toInvert};
+        }
+    };
+
+    @Test public void projectsAffinely() {
+        D3Scale<float[]> scale = scale(new float[][]{{10F}, {20F}}, new float[]{0F, 100F});
+        assertEquals(50F, scale.value(new float[]{15F}), 1E-4F);
+        assertEquals(15F, scale.invert(50F)[0], 1E-4F);
+        float[] values = {10F, 12.5F, 20F, 30F};
+        scale.value(values, values, 1, 4);
+        assertEquals(10F, values[0], 0F);
+        assertEquals(25F, values[1], 1E-4F);
+        assertEquals(100F, values[2], 1E-4F);
+        assertEquals(200F, values[3], 1E-4F);
+    }
+
+    @Test public void keepsTheTransformUntilInvalidated() {
+        float[][] domain = {{10F}, {20F}};
+        float[] range = {0F, 100F};
+        D3Scale<float[]> scale = scale(domain, range);
+        assertEquals(50F, scale.value(new float[]{15F}), 1E-4F);
+
+        /* Values modified in place are only taken into account once the Scale is invalidated. */
+        domain[1][0] = 30F;
+        range[1] = 200F;
+        assertEquals(50F, scale.value(new float[]{15F}), 1E-4F);
+        scale.invalidate();
+        assertEquals(50F, scale.value(new float[]{15F}), 1E-4F);
+        assertEquals(100F, scale.value(new float[]{20F}), 1E-4F);
+
+        scale.domain(new float[][]{{0F}, {20F}});
+        assertEquals(150F, scale.value(new float[]{15F}), 1E-4F);
+        scale.range(new float[]{0F, 40F});
+        assertEquals(30F, scale.value(new float[]{15F}), 1E-4F);
+        scale.interpolator(new LinearInterpolator());
+        assertEquals(30F, scale.value(new float[]{15F}), 1E-4F);
+    }
+
+    @Test public void followsTheValuesOfFunctions() {
+        final float[][] domain = {{10F}, {20F}};
+        final float[] range = {0F, 100F};
+        D3Scale<float[]> scale = new D3Scale<float[]>()
+            .domain(new D3DomainFunction<float[]>() {
+                @Override public float[][] getRange() {
+                    return domain;
+                }
+            })
+            .range(new D3RangeFunction() {
+                @Override public float[] getRange() {
+                    return range;
+                }
+            })
+            .converter(CONVERTER);
+        assertEquals(50F, scale.value(new float[]{15F}), 1E-4F);
+        range[1] = 200F;
+        assertEquals(100F, scale.value(new float[]{15F}), 1E-4F);
+        domain[0][0] = 0F;
+        assertEquals(150F, scale.value(new float[]{15F}), 1E-4F);
+    }
+
+    private static D3Scale<float[]> scale(float[][] domain, float[] range) {
+        return new D3Scale<>(domain, range).converter(CONVERTER);
+    }
+}
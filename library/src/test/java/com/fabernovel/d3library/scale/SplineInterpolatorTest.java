@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.scale;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SplineInterpolatorTest {
+    private static final int POINTS_NUMBER = 50;
+    private static final int SAMPLES_NUMBER = 2000;
+    private static final float TOLERANCE = 1E-3F;
+
+    @Test public void goesThroughThePoints() {
+        float[][] points = randomPoints(new Random(1L));
+        SplineInterpolator[] interpolators = {
+            new NaturalSplineInterpolator(), new MonotoneSplineInterpolator(),
+            new CatmullRomInterpolator()
+        };
+        for (SplineInterpolator interpolator : interpolators) {
+            Spline spline = interpolator.fit(points[0], points[1], null);
+            for (int i = 0; i < POINTS_NUMBER; i++) {
+                assertEquals(points[1][i], spline.value(points[0][i]), TOLERANCE);
+            }
+        }
+    }
+
+    @Test public void naturalSplineMatchesDenseSolution() {
+        float[][] points = randomPoints(new Random(2L));
+        Spline spline = new NaturalSplineInterpolator().fit(points[0], points[1], null);
+        double[] slopes = naturalSlopes(points[0], points[1]);
+        Random random = new Random(3L);
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            float x = points[0][0]
+                + random.nextFloat() * (points[0][POINTS_NUMBER - 1] - points[0][0]);
+            assertEquals(hermite(points[0], points[1], slopes, x), spline.value(x), TOLERANCE);
+        }
+    }
+
+    @Test public void catmullRomMatchesNeighbourSlopes() {
+        float[][] points = randomPoints(new Random(4L));
+        float[] x = points[0];
+        float[] y = points[1];
+        double[] slopes = new double[POINTS_NUMBER];
+        slopes[0] = ((double) y[1] - y[0]) / ((double) x[1] - x[0]);
+        slopes[POINTS_NUMBER - 1] = ((double) y[POINTS_NUMBER - 1] - y[POINTS_NUMBER - 2])
+            / ((double) x[POINTS_NUMBER - 1] - x[POINTS_NUMBER - 2]);
+        for (int i = 1; i < POINTS_NUMBER - 1; i++) {
+            slopes[i] = ((double) y[i + 1] - y[i - 1]) / ((double) x[i + 1] - x[i - 1]);
+        }
+        Spline spline = new CatmullRomInterpolator().fit(x, y, null);
+        Random random = new Random(5L);
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            float measuredX = x[0] + random.nextFloat() * (x[POINTS_NUMBER - 1] - x[0]);
+            assertEquals(hermite(x, y, slopes, measuredX), spline.value(measuredX), TOLERANCE);
+        }
+    }
+
+    @Test public void monotoneSplineDoesNotOvershoot() {
+        Random random = new Random(6L);
+        float[] x = new float[POINTS_NUMBER];
+        float[] y = new float[POINTS_NUMBER];
+        for (int i = 1; i < POINTS_NUMBER; i++) {
+            x[i] = x[i - 1] + 0.1F + random.nextFloat();
+            /* Flat steps between jumps make other splines overshoot. */
+            y[i] = y[i - 1] + (random.nextBoolean() ? 0F : 10F * random.nextFloat());
+        }
+        Spline spline = new MonotoneSplineInterpolator().fit(x, y, null);
+        for (int segment = 0; segment < POINTS_NUMBER - 1; segment++) {
+            float previous = y[segment];
+            for (int step = 1; step <= 100; step++) {
+                float measuredX = x[segment] + (x[segment + 1] - x[segment]) * step / 100F;
+                float value = spline.value(measuredX);
+                assertTrue(value >= previous - TOLERANCE);
+                assertTrue(value <= y[segment + 1] + TOLERANCE);
+                previous = value;
+            }
+        }
+    }
+
+    @Test public void valuesMatchSingleValues() {
+        float[][] points = randomPoints(new Random(7L));
+        Spline spline = new NaturalSplineInterpolator().fit(points[0], points[1], null);
+        Random random = new Random(8L);
+        float[] sorted = new float[SAMPLES_NUMBER];
+        float[] shuffled = new float[SAMPLES_NUMBER];
+        float range = points[0][POINTS_NUMBER - 1] - points[0][0];
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            /* Some coordinates are out of the points, where the spline is extended. */
+            sorted[i] = points[0][0] - range / 10F + 1.2F * range * i / SAMPLES_NUMBER;
+            shuffled[i] = points[0][0] - range / 10F + 1.2F * range * random.nextFloat();
+        }
+        float[] values = new float[SAMPLES_NUMBER];
+        spline.values(sorted, values, 0, SAMPLES_NUMBER);
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            assertEquals(spline.value(sorted[i]), values[i], 0F);
+        }
+        spline.values(shuffled, values, 0, SAMPLES_NUMBER);
+        for (int i = 0; i < SAMPLES_NUMBER; i++) {
+            assertEquals(spline.value(shuffled[i]), values[i], 0F);
+        }
+    }
+
+    @Test public void interpolateFitsThePoints() {
+        float[][] points = randomPoints(new Random(9L));
+        SplineInterpolator interpolator = new NaturalSplineInterpolator();
+        Spline spline = interpolator.fit(points[0], points[1], null);
+        for (int i = 0; i < POINTS_NUMBER - 1; i++) {
+            float x = (points[0][i] + points[0][i + 1]) / 2F;
+            assertEquals(spline.value(x), interpolator.interpolate(x, points[0], points[1]), 0F);
+        }
+    }
+
+    @Test public void fitsFewPoints() {
+        SplineInterpolator interpolator = new NaturalSplineInterpolator();
+        assertTrue(Float.isNaN(interpolator.fit(new float[0], new float[0], null).value(1F)));
+        assertEquals(3F, interpolator.fit(new float[]{1F}, new float[]{3F}, null).value(5F), 0F);
+        Spline line = interpolator.fit(new float[]{0F, 2F}, new float[]{1F, 5F}, null);
+        assertEquals(3F, line.value(1F), TOLERANCE);
+        assertEquals(9F, line.value(4F), TOLERANCE);
+    }
+
+    private static float[][] randomPoints(Random random) {
+        float[] x = new float[POINTS_NUMBER];
+        float[] y = new float[POINTS_NUMBER];
+        for (int i = 0; i < POINTS_NUMBER; i++) {
+            x[i] = i == 0 ? 0F : x[i - 1] + 0.5F + 1.5F * random.nextFloat();
+            y[i] = 20F * random.nextFloat() - 10F;
+        }
+        return new float[][]{x, y};
+    }
+
+    /**
+     * Solves the equations of the natural spline by Gaussian elimination on the full matrix.
+     */
+    private static double[] naturalSlopes(float[] x, float[] y) {
+        int n = x.length;
+        double[][] matrix = new double[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                double inverseH = 1D / ((double) x[i] - x[i - 1]);
+                double secant = ((double) y[i] - y[i - 1]) * inverseH;
+                matrix[i][i - 1] += inverseH;
+                matrix[i][i] += 2D * inverseH;
+                matrix[i][n] += 3D * secant * inverseH;
+            }
+            if (i < n - 1) {
+                double inverseH = 1D / ((double) x[i + 1] - x[i]);
+                double secant = ((double) y[i + 1] - y[i]) * inverseH;
+                matrix[i][i + 1] += inverseH;
+                matrix[i][i] += 2D * inverseH;
+                matrix[i][n] += 3D * secant * inverseH;
+            }
+        }
+        for (int pivot = 0; pivot < n; pivot++) {
+            for (int row = pivot + 1; row < n; row++) {
+                double factor = matrix[row][pivot] / matrix[pivot][pivot];
+                for (int column = pivot; column <= n; column++) {
+                    matrix[row][column] -= factor * matrix[pivot][column];
+                }
+            }
+        }
+        double[] slopes = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = matrix[row][n];
+            for (int column = row + 1; column < n; column++) {
+                sum -= matrix[row][column] * slopes[column];
+            }
+            slopes[row] = sum / matrix[row][row];
+        }
+        return slopes;
+    }
+
+    private static double hermite(float[] x, float[] y, double[] slopes, float measuredX) {
+        int segment = 0;
+        while (segment < x.length - 2 && x[segment + 1] <= measuredX) {
+            segment++;
+        }
+        double h = (double) x[segment + 1] - x[segment];
+        double t = (measuredX - x[segment]) / h;
+        return (2 * t * t * t - 3 * t * t + 1) * y[segment]
+            + (t * t * t - 2 * t * t + t) * h * slopes[segment]
+            + (3 * t * t - 2 * t * t * t) * y[segment + 1]
+            + (t * t * t - t * t) * h * slopes[segment + 1];
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class BufferedValueStorageTest {
+    private static final long TIMEOUT = 10000L;
+
+    @Test(timeout = TIMEOUT) public void keepsTheDrawnValueUntilTheSwap() {
+        InPlaceRunnable runnable = new InPlaceRunnable();
+        BufferedValueStorage<int[]> storage = new BufferedValueStorage<>();
+        storage.setBuffered(true);
+
+        int[] first = compute(storage, runnable, 1);
+        assertSame(first, storage.getLatestValue());
+        assertEquals(1, storage.getLatestValue()[0]);
+        assertEquals(1L, storage.generation());
+
+        /* The next values are computed into the two other buffers, never into the drawn one. */
+        int[] second = compute(storage, runnable, 2);
+        int[] third = compute(storage, runnable, 3);
+        assertNotSame(first, second);
+        assertNotSame(first, third);
+        assertSame(first, storage.getLatestValue());
+        assertEquals(1, first[0]);
+        assertEquals(1L, storage.generation());
+
+        storage.swap();
+        assertSame(third, storage.getLatestValue());
+        assertEquals(3, third[0]);
+        assertEquals(3L, storage.generation());
+
+        for (int i = 4; i < 20; i++) {
+            int[] drawn = storage.getLatestValue();
+            int[] computed = compute(storage, runnable, i);
+            assertNotSame(drawn, computed);
+            assertEquals(i - 1, drawn[0]);
+            storage.swap();
+            assertSame(computed, storage.getLatestValue());
+        }
+        /* Only three buffers are ever used. */
+        assertEquals(3, runnable.allocations.get());
+    }
+
+    @Test(timeout = TIMEOUT) public void waitsForTheComputationWhenNotBuffered() {
+        InPlaceRunnable runnable = new InPlaceRunnable();
+        BufferedValueStorage<int[]> storage = new BufferedValueStorage<>();
+        for (int i = 0; i < 20; i++) {
+            runnable.input.set(i);
+            storage.setValue(runnable);
+            assertEquals(i, storage.getLatestValue()[0]);
+        }
+        assertEquals(1, runnable.allocations.get());
+    }
+
+    @Test(timeout = TIMEOUT) public void rethrowsFailuresOnlyWithoutValueToDraw()
+        throws InterruptedException {
+        InPlaceRunnable runnable = new InPlaceRunnable();
+        BufferedValueStorage<int[]> storage = new BufferedValueStorage<>();
+        TaskGraph graph = new TaskGraph().add(storage, runnable);
+        graph.setBuffered(true);
+        runnable.input.set(-1);
+        graph.execute();
+        assertFailure(runnable.exception, storage);
+        awaitExecution(graph);
+
+        runnable.input.set(1);
+        graph.execute();
+        int[] first = storage.getLatestValue();
+        assertEquals(1, first[0]);
+        awaitExecution(graph);
+
+        /* Once there is a value to draw, it is kept. */
+        runnable.input.set(-1);
+        graph.execute();
+        TaskGraphTest.assertFailure(runnable.exception, storage);
+        awaitExecution(graph);
+        assertSame(first, storage.getLatestValue());
+    }
+
+    /**
+     * Waits for the end of the execution, which only completes once its values are committed.
+     */
+    private static void awaitExecution(TaskGraph graph) throws InterruptedException {
+        long generation = graph.visibleGeneration();
+        while (graph.swapBuffers() == generation) {
+            Thread.sleep(1L);
+        }
+    }
+
+    private static void assertFailure(
+        RuntimeException exception, BufferedValueStorage<int[]> storage
+    ) {
+        try {
+            storage.getLatestValue();
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    private static int[] compute(
+        BufferedValueStorage<int[]> storage, InPlaceRunnable runnable, int input
+    ) {
+        runnable.input.set(input);
+        storage.setValue(runnable);
+        return storage.getValue();
+    }
+
+    /**
+     * Writes its input into a reused buffer, a negative input making it fail.
+     */
+    private static final class InPlaceRunnable extends ValueRunnable<int[]> {
+        private final AtomicInteger input = new AtomicInteger();
+        private final AtomicInteger allocations = new AtomicInteger();
+        private final RuntimeException exception = new IllegalArgumentException();
+
+        @Override protected void computeValue() {
+            if (input.get() < 0) {
+                throw exception;
+            }
+            if (value == null) {
+                value = new int[1];
+                allocations.incrementAndGet();
+            }
+            value[0] = input.get();
+        }
+
+        @Override protected void recycle(int[] spare) {
+            value = spare;
+        }
+    }
+}
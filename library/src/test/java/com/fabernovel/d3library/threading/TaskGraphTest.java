@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskGraphTest {
+    private static final long TIMEOUT = 10000L;
+
+    @Test(timeout = TIMEOUT) public void computesInputsBeforeTheirDependents() {
+        for (int i = 1; i <= 50; i++) {
+            final List<String> events = new ArrayList<>();
+            final int input = i;
+            final ValueStorage<Integer> source = new ValueStorage<>();
+            final ValueStorage<Integer> doubled = new ValueStorage<>();
+            final ValueStorage<Integer> sum = new ValueStorage<>();
+            new TaskGraph()
+                .add(source, new EventRunnable(events, "source") {
+                    @Override protected Integer compute() {
+                        return input;
+                    }
+                })
+                .add(doubled, new EventRunnable(events, "doubled") {
+                    @Override protected Integer compute() {
+                        return 2 * source.getValue();
+                    }
+                }, source)
+                .add(sum, new EventRunnable(events, "sum") {
+                    @Override protected Integer compute() {
+                        return source.getValue() + doubled.getValue();
+                    }
+                }, source, doubled)
+                .execute();
+            assertEquals(3 * i, (int) sum.getValue());
+            synchronized (events) {
+                /* Each node is only started once its inputs are computed. */
+                int sumStart = events.indexOf("sum started");
+                assertTrue(events.indexOf("source computed") < events.indexOf("doubled started"));
+                assertTrue(events.indexOf("source computed") < sumStart);
+                assertTrue(events.indexOf("doubled computed") < sumStart);
+            }
+        }
+    }
+
+    @Test(timeout = TIMEOUT) public void rethrowsFailuresToTheReaders() {
+        final RuntimeException exception = new IllegalArgumentException();
+        ValueStorage<Integer> source = new ValueStorage<>();
+        ValueStorage<Integer> dependent = new ValueStorage<>();
+        ValueStorage<Integer> independent = new ValueStorage<>();
+        new TaskGraph()
+            .add(source, new EventRunnable(null, null) {
+                @Override protected Integer compute() {
+                    throw exception;
+                }
+            })
+            .add(dependent, new EventRunnable(null, null) {
+                @Override protected Integer compute() {
+                    return 1;
+                }
+            }, source)
+            .add(independent, new EventRunnable(null, null) {
+                @Override protected Integer compute() {
+                    return 2;
+                }
+            })
+            .execute();
+        assertFailure(exception, source);
+        assertFailure(exception, dependent);
+        assertEquals(2, (int) independent.getValue());
+    }
+
+    @Test(timeout = TIMEOUT) public void recoversFromFailures() throws InterruptedException {
+        final RuntimeException exception = new IllegalArgumentException();
+        final AtomicInteger failing = new AtomicInteger(1);
+        final ValueStorage<Integer> source = new ValueStorage<>();
+        ValueStorage<Integer> dependent = new ValueStorage<>();
+        TaskGraph graph = new TaskGraph()
+            .add(source, new EventRunnable(null, null) {
+                @Override protected Integer compute() {
+                    if (failing.get() == 1) {
+                        throw exception;
+                    }
+                    return 1;
+                }
+            })
+            .add(dependent, new EventRunnable(null, null) {
+                @Override protected Integer compute() {
+                    return source.getValue() + 1;
+                }
+            }, source);
+        graph.execute();
+        assertFailure(exception, dependent);
+        awaitExecution(graph, 0L);
+
+        failing.set(0);
+        graph.execute();
+        assertEquals(2, (int) dependent.getValue());
+        assertEquals(1, (int) source.getValue());
+    }
+
+    @Test(timeout = TIMEOUT) public void coalescesTheExecutionsRequestedWhileRunning()
+        throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final AtomicInteger input = new AtomicInteger(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger dependentRuns = new AtomicInteger();
+        final ValueStorage<Integer> source = new ValueStorage<>();
+        ValueStorage<Integer> dependent = new ValueStorage<>();
+        TaskGraph graph = new TaskGraph()
+            .add(source, new EventRunnable(null, null) {
+                @Override protected Integer compute() {
+                    runs.incrementAndGet();
+                    int read = input.get();
+                    started.countDown();
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return read;
+                }
+            })
+            .add(dependent, new EventRunnable(null, null) {
+                @Override protected Integer compute() {
+                    dependentRuns.incrementAndGet();
+                    return source.getValue() + 1;
+                }
+            }, source);
+        graph.execute();
+        started.await();
+        for (int i = 2; i <= 10; i++) {
+            input.set(i);
+            graph.execute();
+        }
+        released.countDown();
+        /* The running execution is cancelled, and the nine requests only start one more. */
+        assertEquals(11, (int) dependent.getValue());
+        awaitExecution(graph, 0L);
+        assertEquals(10, (int) source.getValue());
+        assertEquals(2, runs.get());
+        assertEquals(1, dependentRuns.get());
+        assertEquals(1L, graph.visibleGeneration());
+    }
+
+    /**
+     * Waits for the end of an execution following the given generation.
+     */
+    private static void awaitExecution(TaskGraph graph, long generation)
+        throws InterruptedException {
+        while (graph.swapBuffers() == generation) {
+            Thread.sleep(1L);
+        }
+    }
+
+    static void assertFailure(RuntimeException exception, ValueStorage<?> storage) {
+        try {
+            storage.getValue();
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    private abstract static class EventRunnable extends ValueRunnable<Integer> {
+        private final List<String> events;
+        private final String name;
+
+        EventRunnable(List<String> events, String name) {
+            this.events = events;
+            this.name = name;
+        }
+
+        @Override protected void computeValue() {
+            event("started");
+            value = compute();
+            event("computed");
+        }
+
+        private void event(String event) {
+            if (events != null) {
+                synchronized (events) {
+                    events.add(name + " " + event);
+                }
+            }
+        }
+
+        protected abstract Integer compute();
+    }
+}
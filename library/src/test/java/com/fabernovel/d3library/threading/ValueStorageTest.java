@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017, Fabernovel Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.fabernovel.d3library.threading;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ValueStorageTest {
+    private static final long TIMEOUT = 10000L;
+
+    @Test(timeout = TIMEOUT) public void coalescesTheRequestsMadeWhileComputing()
+        throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final AtomicInteger input = new AtomicInteger(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger cancelledRuns = new AtomicInteger();
+        ValueRunnable<Integer> runnable = new ValueRunnable<Integer>() {
+            @Override protected void computeValue() {
+                runs.incrementAndGet();
+                value = input.get();
+                started.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (isCancelled()) {
+                    cancelledRuns.incrementAndGet();
+                }
+            }
+        };
+        ValueStorage<Integer> storage = new ValueStorage<>();
+        storage.setValue(runnable);
+        started.await();
+        for (int i = 2; i <= 10; i++) {
+            input.set(i);
+            storage.setValue(runnable);
+        }
+        released.countDown();
+        /* Only the latest request is computed after the running one, which is cancelled. */
+        assertEquals(10, (int) storage.getValue());
+        assertEquals(2, runs.get());
+        assertEquals(1, cancelledRuns.get());
+    }
+
+    @Test(timeout = TIMEOUT) public void publishesEveryRequestMadeOnceComputed() {
+        final AtomicInteger input = new AtomicInteger();
+        ValueRunnable<Integer> runnable = new ValueRunnable<Integer>() {
+            @Override protected void computeValue() {
+                value = input.get();
+            }
+        };
+        ValueStorage<Integer> storage = new ValueStorage<>();
+        for (int i = 0; i < 100; i++) {
+            input.set(i);
+            storage.setValue(runnable);
+            assertEquals(i, (int) storage.getValue());
+        }
+    }
+
+    @Test(timeout = TIMEOUT) public void rethrowsFailuresToTheReaders() {
+        final RuntimeException exception = new IllegalArgumentException();
+        final AtomicInteger failing = new AtomicInteger(1);
+        ValueRunnable<Integer> runnable = new ValueRunnable<Integer>() {
+            @Override protected void computeValue() {
+                if (failing.get() == 1) {
+                    throw exception;
+                }
+                value = 1;
+            }
+        };
+        ValueStorage<Integer> storage = new ValueStorage<>();
+        storage.setValue(runnable);
+        TaskGraphTest.assertFailure(exception, storage);
+
+        failing.set(0);
+        storage.setValue(runnable);
+        assertEquals(1, (int) storage.getValue());
+    }
+
+    @Test public void throwsBeforeAnyRequest() {
+        try {
+            new ValueStorage<Integer>().getValue();
+            fail();
+        } catch (IllegalStateException e) {
+            assertNull(e.getCause());
+        }
+    }
+}